@@ -49,6 +49,17 @@ public interface PscLogger {
         }
     }
 
+    /**
+     * Returns a logger for hot-path log statements, which rate limits and deduplicates messages of each call site (see
+     * {@link RateLimitedPscLogger}).
+     *
+     * @param clazz the class the logger is named after
+     * @return the rate-limited logger
+     */
+    static PscLogger getRateLimitedLogger(Class clazz) {
+        return new RateLimitedPscLogger(getLogger(clazz));
+    }
+
     void all(String message);
     void all(String message, Object... params);
     void all(String message, Throwable t);
@@ -77,6 +88,36 @@ public interface PscLogger {
     void fatal(String message, Object... params);
     void fatal(String message, Throwable t);
 
+    // loggers that cannot tell whether a level is enabled have every level enabled
+    default boolean isTraceEnabled() {
+        return true;
+    }
+
+    default boolean isDebugEnabled() {
+        return true;
+    }
+
+    default boolean isInfoEnabled() {
+        return true;
+    }
+
+    default boolean isWarnEnabled() {
+        return true;
+    }
+
+    default boolean isErrorEnabled() {
+        return true;
+    }
+
     void addContext(String key, String value);
+
+    /**
+     * @return the value of the given key in the MDC of the calling thread, or null if it is not set or the logger
+     * cannot read its MDC.
+     */
+    default String getContext(String key) {
+        return null;
+    }
+
     void clearContext();
 }
@@ -1,9 +1,31 @@
 package com.pinterest.psc.logging;
 
 public class PscLoggerManager {
+    private static final String LOGGING_PACKAGE = "com.pinterest.psc.logging.";
+
     protected static PscLoggerType pscLoggerType = PscLoggerType.SLF4J;
 
     public static void setPscLoggerType(PscLoggerType pscLoggerType) {
         PscLoggerManager.pscLoggerType = pscLoggerType;
     }
+
+    /**
+     * @return the name of the class that asked for a logger without naming one, i.e. the first class on the stack of
+     * the calling thread that is not part of the PSC logger implementations.
+     */
+    public static String getCallerClassName() {
+        for (StackTraceElement frame : new Throwable().getStackTrace()) {
+            if (!isLoggerImplementation(frame.getClassName()))
+                return frame.getClassName();
+        }
+        return PscLogger.class.getName();
+    }
+
+    private static boolean isLoggerImplementation(String className) {
+        if (!className.startsWith(LOGGING_PACKAGE))
+            return false;
+        String name = className.substring(LOGGING_PACKAGE.length());
+        return name.startsWith("PscLogger") || name.startsWith("RateLimitedPscLogger") ||
+                name.startsWith("log4j1.") || name.startsWith("log4j2.") || name.startsWith("slf4j.");
+    }
 }
@@ -1,14 +1,16 @@
 package com.pinterest.psc.logging.slf4j;
 
-import com.pinterest.psc.common.PscCommon;
 import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.logging.PscLoggerManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
-import java.text.MessageFormat;
-import java.util.regex.Pattern;
-
+/**
+ * A {@link PscLogger} backed by SLF4J (e.g. with Logback, or with the Log4j2 binding and its async appenders). Messages
+ * with parameters are handed to SLF4J as is, so they are only formatted if their level is enabled, and a trailing
+ * {@link Throwable} parameter is logged as the exception of the message.
+ */
 public class PscSlf4jLogger implements PscLogger {
     private Logger logger;
 
@@ -25,8 +27,7 @@ public class PscSlf4jLogger implements PscLogger {
     }
 
     private PscSlf4jLogger() {
-        //TODO: implement caller class lookup
-        logger = LoggerFactory.getLogger(PscSlf4jLogger.class);
+        logger = LoggerFactory.getLogger(PscLoggerManager.getCallerClassName());
     }
 
     private PscSlf4jLogger(String name) {
@@ -37,44 +38,34 @@ public class PscSlf4jLogger implements PscLogger {
         logger = LoggerFactory.getLogger(clazz);
     }
 
-    public String reformatMessage(String message) {
-        int i = 0;
-        while (message.contains("{}"))
-            message = message.replaceFirst(Pattern.quote("{}"), "{" + (i++) + "}");
-        return message;
-    }
-
+    // SLF4J has no ALL level; such messages are logged at TRACE level
     @Override
     public void all(String message) {
-        all(message, (Throwable) null);
+        trace(message);
     }
 
     @Override
     public void all(String message, Object... params) {
-        if (params[params.length - 1] instanceof Throwable)
-            all(MessageFormat.format(reformatMessage(message), params), (Throwable) params[params.length - 1]);
-        else
-            all(MessageFormat.format(reformatMessage(message), params), (Throwable) null);
+        trace(message, params);
     }
 
     @Override
     public void all(String message, Throwable t) {
-        verifyLogger();
-        logger.trace(message, t);
+        trace(message, t);
     }
 
 
     @Override
     public void trace(String message) {
-        trace(message, (Throwable) null);
+        verifyLogger();
+        logger.trace(message);
     }
 
     @Override
     public void trace(String message, Object... params) {
-        if (params[params.length - 1] instanceof Throwable)
-            trace(MessageFormat.format(reformatMessage(message), params), (Throwable) params[params.length - 1]);
-        else
-            trace(MessageFormat.format(reformatMessage(message), params), (Throwable) null);
+        verifyLogger();
+        if (logger.isTraceEnabled())
+            logger.trace(message, params);
     }
 
     @Override
@@ -86,15 +77,15 @@ public class PscSlf4jLogger implements PscLogger {
 
     @Override
     public void debug(String message) {
-        debug(message, (Throwable) null);
+        verifyLogger();
+        logger.debug(message);
     }
 
     @Override
     public void debug(String message, Object... params) {
-        if (params[params.length - 1] instanceof Throwable)
-            debug(MessageFormat.format(reformatMessage(message), params), (Throwable) params[params.length - 1]);
-        else
-            debug(MessageFormat.format(reformatMessage(message), params), (Throwable) null);
+        verifyLogger();
+        if (logger.isDebugEnabled())
+            logger.debug(message, params);
     }
 
     @Override
@@ -106,15 +97,15 @@ public class PscSlf4jLogger implements PscLogger {
 
     @Override
     public void info(String message) {
-        info(message, (Throwable) null);
+        verifyLogger();
+        logger.info(message);
     }
 
     @Override
     public void info(String message, Object... params) {
-        if (params[params.length - 1] instanceof Throwable)
-            info(MessageFormat.format(reformatMessage(message), params), (Throwable) params[params.length - 1]);
-        else
-            info(MessageFormat.format(reformatMessage(message), params), (Throwable) null);
+        verifyLogger();
+        if (logger.isInfoEnabled())
+            logger.info(message, params);
     }
 
     @Override
@@ -126,15 +117,15 @@ public class PscSlf4jLogger implements PscLogger {
 
     @Override
     public void warn(String message) {
-        warn(message, (Throwable) null);
+        verifyLogger();
+        logger.warn(message);
     }
 
     @Override
     public void warn(String message, Object... params) {
-        if (params[params.length - 1] instanceof Throwable)
-            warn(MessageFormat.format(reformatMessage(message), params), (Throwable) params[params.length - 1]);
-        else
-            warn(MessageFormat.format(reformatMessage(message), params), (Throwable) null);
+        verifyLogger();
+        if (logger.isWarnEnabled())
+            logger.warn(message, params);
     }
 
     @Override
@@ -146,15 +137,15 @@ public class PscSlf4jLogger implements PscLogger {
 
     @Override
     public void error(String message) {
-        error(message, (Throwable) null);
+        verifyLogger();
+        logger.error(message);
     }
 
     @Override
     public void error(String message, Object... params) {
-        if (params[params.length - 1] instanceof Throwable)
-            error(MessageFormat.format(reformatMessage(message), params), (Throwable) params[params.length - 1]);
-        else
-            error(MessageFormat.format(reformatMessage(message), params), (Throwable) null);
+        verifyLogger();
+        if (logger.isErrorEnabled())
+            logger.error(message, params);
     }
 
     @Override
@@ -164,52 +155,66 @@ public class PscSlf4jLogger implements PscLogger {
     }
 
 
+    // SLF4J has no FATAL level; such messages are logged at ERROR level
     @Override
     public void fatal(String message) {
-        fatal(message, (Throwable) null);
+        error(message);
     }
 
     @Override
     public void fatal(String message, Object... params) {
-        if (params[params.length - 1] instanceof Throwable)
-            fatal(MessageFormat.format(reformatMessage(message), params), (Throwable) params[params.length - 1]);
-        else
-            fatal(MessageFormat.format(reformatMessage(message), params), (Throwable) null);
+        error(message, params);
     }
 
     @Override
     public void fatal(String message, Throwable t) {
+        error(message, t);
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
         verifyLogger();
-        logger.error(message, t);
+        return logger.isTraceEnabled();
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        verifyLogger();
+        return logger.isDebugEnabled();
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        verifyLogger();
+        return logger.isInfoEnabled();
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        verifyLogger();
+        return logger.isWarnEnabled();
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        verifyLogger();
+        return logger.isErrorEnabled();
     }
 
     @Override
     public void addContext(String key, String value) {
-        // check if log4j2 thread context is loaded
-        try {
-            Class<?> threadContextClass = Class.forName("org.apache.logging.log4j.ThreadContext");
-            PscCommon.invoke(
-                    threadContextClass,
-                    "put",
-                    new Class[]{String.class, String.class},
-                    new String[]{key, value}
-            );
-        } catch (ClassNotFoundException e) {
-            // use log4j1 mdc
-            MDC.put(key, value);
-        }
+        // the SLF4J binding maps this to the MDC (or thread context) of the logging backend
+        MDC.put(key, value);
+    }
+
+    @Override
+    public String getContext(String key) {
+        return MDC.get(key);
     }
 
     @Override
     public void clearContext() {
-        // check if log4j2 thread context is loaded
-        try {
-            Class<?> threadContextClass = Class.forName("org.apache.logging.log4j.ThreadContext");
-            PscCommon.invoke(threadContextClass, "clearAll");
-        } catch (ClassNotFoundException e) {
-            // use log4j1 mdc
-            MDC.clear();
-        }
+        MDC.clear();
     }
 
     private void verifyLogger() {
@@ -15,12 +15,16 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 
 @StorageHandlerName(name = "localstorage")
 public class LocalStorageHandler implements StorageHandler {
 
     private static final AtomicInteger batchHeaderSize = new AtomicInteger();
+    // what producers wrote to this stand-in for storage
+    private static final AtomicInteger writtenBatches = new AtomicInteger();
+    private static final AtomicLong writtenBytes = new AtomicLong();
     private static int numMessages = 100;
     private static byte[] data;
 
@@ -43,8 +47,18 @@ public class LocalStorageHandler implements StorageHandler {
         return batchHeaderSize;
     }
 
+    public static int getWrittenBatches() {
+        return writtenBatches.get();
+    }
+
+    public static long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
     @Override
     public void writeOutput(int arg0, int arg1, List<Message> arg2) throws WriteFailedException {
+        writtenBatches.incrementAndGet();
+        writtenBytes.addAndGet(arg0);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.pinterest.psc.producer;
 
+import com.pinterest.psc.common.TopicUriPartition;
 import com.pinterest.psc.config.PscConfigurationInternal;
 import com.pinterest.psc.consumer.PscConsumer;
 import com.pinterest.psc.exception.producer.ProducerException;
@@ -30,4 +31,8 @@ public class PscProducerUtils {
     public static PscConfigurationInternal getPscConfigurationInternal(PscProducer pscProducer) {
         return pscProducer.getPscConfiguration();
     }
+
+    public static <K, V> PscProducerMessage<K, V> setTopicUriPartition(PscProducerMessage<K, V> pscProducerMessage, TopicUriPartition topicUriPartition) {
+        return pscProducerMessage.setTopicUriPartition(topicUriPartition);
+    }
 }
@@ -0,0 +1,237 @@
+package com.pinterest.psc.producer.memq;
+
+import com.google.common.io.Files;
+import com.pinterest.memq.commons.protocol.Broker;
+import com.pinterest.memq.commons.protocol.TopicConfig;
+import com.pinterest.memq.commons.protocol.TopicMetadata;
+import com.pinterest.memq.commons.storage.LocalStorageHandler;
+import com.pinterest.memq.core.MemqManager;
+import com.pinterest.memq.core.clustering.MemqGovernor;
+import com.pinterest.memq.core.config.MemqConfig;
+import com.pinterest.memq.core.config.NettyServerConfig;
+import com.pinterest.memq.core.rpc.MemqNettyServer;
+import com.pinterest.psc.common.BaseTopicUri;
+import com.pinterest.psc.common.MessageId;
+import com.pinterest.psc.common.ServiceDiscoveryConfig;
+import com.pinterest.psc.common.TestUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.consumer.memq.MemqTopicUri;
+import com.pinterest.psc.consumer.memq.TestPscMemqConsumer;
+import com.pinterest.psc.environment.Environment;
+import com.pinterest.psc.exception.producer.ProducerException;
+import com.pinterest.psc.interceptor.ProducerInterceptors;
+import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetricTagManager;
+import com.pinterest.psc.producer.PscProducerMessage;
+import com.pinterest.psc.producer.PscProducerUtils;
+import com.salesforce.kafka.test.junit5.SharedKafkaTestResource;
+import com.salesforce.kafka.test.listeners.PlainListener;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the MemQ backend producer against a local MemQ broker whose storage is {@link LocalStorageHandler}.
+ */
+public class TestPscMemqProducer {
+    private static final String TOPIC1 = "topic1";
+    private static final String TOPIC2 = "topic2";
+    private static final String topicUriPrefix = "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":memq:env:cloud_region::cluster:";
+    private static final short port = 22312;
+
+    @RegisterExtension
+    public static final SharedKafkaTestResource sharedKafkaTestResource = new SharedKafkaTestResource()
+            .withBrokers(1).registerListener(new PlainListener().onPorts(9092));
+
+    private final String notificationTopic = "test_producer_notification_topic";
+    private MemqNettyServer server;
+    private PscMemqProducer<byte[], byte[]> pscMemqProducer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = initializeMemqServer();
+        PscMetricRegistryManager.getInstance().setPscMetricTagManager(PscMetricTagManager.getInstance());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (pscMemqProducer != null)
+            pscMemqProducer.close(Duration.ofSeconds(5));
+        server.stop();
+    }
+
+    @Test
+    void testSendIsWrittenToStorageAndAcked() throws Exception {
+        pscMemqProducer = getPscMemqProducer(new PscConfiguration());
+        int writtenBatches = LocalStorageHandler.getWrittenBatches();
+        long writtenBytes = LocalStorageHandler.getWrittenBytes();
+
+        int messageCount = 100;
+        AtomicInteger ackedMessages = new AtomicInteger();
+        AtomicReference<Exception> callbackException = new AtomicReference<>();
+        List<Future<MessageId>> futures = new ArrayList<>();
+        for (int i = 0; i < messageCount; ++i) {
+            futures.add(pscMemqProducer.send(getMessage(TOPIC1, "value" + i), (messageId, exception) -> {
+                if (exception == null)
+                    ackedMessages.incrementAndGet();
+                else
+                    callbackException.set(exception);
+            }));
+        }
+        pscMemqProducer.flush();
+
+        for (Future<MessageId> future : futures)
+            assertEquals(TOPIC1, future.get(30, TimeUnit.SECONDS).getTopicUriPartition().getTopicUri().getTopic());
+        assertNull(callbackException.get());
+        assertEquals(messageCount, ackedMessages.get());
+        assertTrue(LocalStorageHandler.getWrittenBatches() > writtenBatches);
+        assertTrue(LocalStorageHandler.getWrittenBytes() > writtenBytes);
+    }
+
+    @Test
+    void testMemqProducerPerTopic() throws Exception {
+        pscMemqProducer = getPscMemqProducer(new PscConfiguration());
+        Future<MessageId> future1 = pscMemqProducer.send(getMessage(TOPIC1, "value1"), null);
+        Future<MessageId> future2 = pscMemqProducer.send(getMessage(TOPIC2, "value2"), null);
+        pscMemqProducer.flush();
+
+        future1.get(30, TimeUnit.SECONDS);
+        future2.get(30, TimeUnit.SECONDS);
+        assertEquals(2, pscMemqProducer.memqProducerByTopic.size());
+        assertEquals(1, pscMemqProducer.getPartitions(getTopicUri(TOPIC2)).size());
+    }
+
+    @Test
+    void testWakeupInterruptsPendingWrites() throws Exception {
+        // keep the write in the producer's batch so that it is still pending when woken up
+        PscConfiguration pscConfiguration = new PscConfiguration();
+        pscConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_BATCH_DURATION_MAX_MS, "60000");
+        pscMemqProducer = getPscMemqProducer(pscConfiguration);
+
+        AtomicReference<Exception> callbackException = new AtomicReference<>();
+        Future<MessageId> future = pscMemqProducer.send(
+                getMessage(TOPIC1, "value"), (messageId, exception) -> callbackException.set(exception)
+        );
+        pscMemqProducer.wakeup();
+
+        ExecutionException executionException = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(executionException.getCause() instanceof ProducerException);
+        assertTrue(callbackException.get() instanceof ProducerException);
+    }
+
+    @Test
+    void testTransactionsAreNotSupported() throws Exception {
+        pscMemqProducer = getPscMemqProducer(new PscConfiguration());
+        assertThrows(ProducerException.class, () -> pscMemqProducer.initTransaction());
+        assertThrows(ProducerException.class, () -> pscMemqProducer.beginTransaction());
+        assertThrows(ProducerException.class, () -> pscMemqProducer.sendOffsetsToTransaction(Collections.emptyMap(), "group"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private PscMemqProducer<byte[], byte[]> getPscMemqProducer(PscConfiguration pscConfiguration) throws Exception {
+        pscConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_CLIENT_ID, "test");
+        pscConfiguration.setProperty(PscConfiguration.PSC_CONFIG_LOGGING_ENABLED, "false");
+        pscConfiguration.setProperty(PscConfiguration.PSC_METRICS_REPORTER_CLASS, TestUtils.DEFAULT_METRICS_REPORTER);
+        PscConfigurationInternal pscConfigurationInternal =
+                new PscConfigurationInternal(pscConfiguration, PscConfiguration.PSC_CLIENT_TYPE_PRODUCER);
+        PscMetricRegistryManager.getInstance().initialize(pscConfigurationInternal);
+
+        PscMemqProducer<byte[], byte[]> producer = new PscMemqProducer<>();
+        producer.initialize(
+                pscConfigurationInternal,
+                new ServiceDiscoveryConfig().setConnect("localhost:" + port),
+                mock(Environment.class),
+                getTopicUri(TOPIC1)
+        );
+
+        ProducerInterceptors<byte[], byte[]> producerInterceptors = mock(ProducerInterceptors.class);
+        when(producerInterceptors.onSend(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        producer.setProducerInterceptors(producerInterceptors);
+        return producer;
+    }
+
+    private static TopicUri getTopicUri(String topic) throws Exception {
+        return MemqTopicUri.validate(TopicUri.validate(topicUriPrefix + topic));
+    }
+
+    private static PscProducerMessage<byte[], byte[]> getMessage(String topic, String value) throws Exception {
+        TopicUri topicUri = getTopicUri(topic);
+        PscProducerMessage<byte[], byte[]> pscProducerMessage =
+                new PscProducerMessage<>(topicUri.getTopicUriAsString(), value.getBytes());
+        TopicUriPartition topicUriPartition = new TopicUriPartition(topicUri.getTopicUriAsString());
+        BaseTopicUri.finalizeTopicUriPartition(topicUriPartition, topicUri);
+        return PscProducerUtils.setTopicUriPartition(pscProducerMessage, topicUriPartition);
+    }
+
+    private MemqNettyServer initializeMemqServer() throws Exception {
+        AdminClient adminClient = sharedKafkaTestResource.getKafkaTestUtils().getAdminClient();
+        adminClient.createTopics(Collections.singletonList(new NewTopic(notificationTopic, 1, (short) 1)));
+        adminClient.close();
+
+        String pathname = "target/" + notificationTopic;
+        Files.write("localhost:9092".getBytes(), new File(pathname));
+        Properties storageConfig = new Properties();
+        storageConfig.setProperty("notificationServerset", pathname);
+        storageConfig.setProperty("notificationTopic", notificationTopic);
+
+        MemqConfig configuration = new MemqConfig();
+        NettyServerConfig nettyServerConfig = new NettyServerConfig();
+        nettyServerConfig.setPort(port);
+        configuration.setNettyServerConfig(nettyServerConfig);
+        configuration.setTopicConfig(new TopicConfig[]{getTopicConfig(TOPIC1, storageConfig), getTopicConfig(TOPIC2, storageConfig)});
+        MemqManager memqManager = new MemqManager(null, configuration, new HashMap<>());
+        memqManager.init();
+
+        MemqGovernor governor = new MemqGovernor(memqManager, configuration, new TestPscMemqConsumer.TestEnvironmentProvider());
+        for (String topic : new String[]{TOPIC1, TOPIC2}) {
+            TopicMetadata topicMetadata = new TopicMetadata(topic, "localstorage", storageConfig);
+            topicMetadata.getReadBrokers().add(new Broker("127.0.0.1", port, "2xl", "us-east-1a", Broker.BrokerType.READ, new HashSet<>()));
+            topicMetadata.getWriteBrokers().add(new Broker("127.0.0.1", port, "2xl", "us-east-1a", Broker.BrokerType.WRITE, new HashSet<>()));
+            governor.getTopicMetadataMap().put(topic, topicMetadata);
+        }
+
+        MemqNettyServer server = new MemqNettyServer(configuration, memqManager, governor, new HashMap<>(), null);
+        server.initialize();
+        return server;
+    }
+
+    private static TopicConfig getTopicConfig(String topic, Properties storageConfig) {
+        TopicConfig topicConfig = new TopicConfig(topic, "localstorage");
+        topicConfig.setBufferSize(1024 * 1024);
+        topicConfig.setBatchSizeMB(2);
+        topicConfig.setRingBufferSize(128);
+        topicConfig.setTickFrequencyMillis(10);
+        // persist batches quickly so that writes are acked within the test
+        topicConfig.setBatchMilliSeconds(100);
+        topicConfig.setStorageHandlerConfig(storageConfig);
+        return topicConfig;
+    }
+}
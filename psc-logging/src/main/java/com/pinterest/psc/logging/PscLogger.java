@@ -1,6 +1,8 @@
 package com.pinterest.psc.logging;
 
 import com.pinterest.psc.logging.log4j1.PscLog4j1Logger;
+import com.pinterest.psc.logging.log4j2.PscLog4j2Logger;
+import com.pinterest.psc.logging.slf4j.PscSlf4jLogger;
 
 public interface PscLogger {
 
@@ -9,10 +11,10 @@ public interface PscLogger {
             case LOG4J:
                 return PscLog4j1Logger.getLogger();
             case LOG4J2:
+                return PscLog4j2Logger.getLogger();
             case LOGBACK:
-                throw new UnsupportedOperationException(
-                        String.format("Logger '%s' is not supported", PscLoggerManager.pscLoggerType)
-                );
+            case SLF4J:
+                return PscSlf4jLogger.getLogger();
             default:
                 throw new UnsupportedOperationException("Logger is not set");
         }
@@ -23,10 +25,10 @@ public interface PscLogger {
             case LOG4J:
                 return PscLog4j1Logger.getLogger(name);
             case LOG4J2:
+                return PscLog4j2Logger.getLogger(name);
             case LOGBACK:
-                throw new UnsupportedOperationException(
-                        String.format("Logger '%s' is not supported", PscLoggerManager.pscLoggerType)
-                );
+            case SLF4J:
+                return PscSlf4jLogger.getLogger(name);
             default:
                 throw new UnsupportedOperationException("Logger is not set");
         }
@@ -37,15 +39,26 @@ public interface PscLogger {
             case LOG4J:
                 return PscLog4j1Logger.getLogger(clazz);
             case LOG4J2:
+                return PscLog4j2Logger.getLogger(clazz);
             case LOGBACK:
-                throw new UnsupportedOperationException(
-                        String.format("Logger '%s' is not supported", PscLoggerManager.pscLoggerType)
-                );
+            case SLF4J:
+                return PscSlf4jLogger.getLogger(clazz);
             default:
                 throw new UnsupportedOperationException("Logger is not set");
         }
     }
 
+    /**
+     * Returns a logger for hot-path log statements, which rate limits and deduplicates messages of each call site (see
+     * {@link RateLimitedPscLogger}).
+     *
+     * @param clazz the class the logger is named after
+     * @return the rate-limited logger
+     */
+    static PscLogger getRateLimitedLogger(Class clazz) {
+        return new RateLimitedPscLogger(getLogger(clazz));
+    }
+
     void all(String message);
     void all(String message, Object... params);
     void all(String message, Throwable t);
@@ -74,6 +87,36 @@ public interface PscLogger {
     void fatal(String message, Object... params);
     void fatal(String message, Throwable t);
 
+    // loggers that cannot tell whether a level is enabled have every level enabled
+    default boolean isTraceEnabled() {
+        return true;
+    }
+
+    default boolean isDebugEnabled() {
+        return true;
+    }
+
+    default boolean isInfoEnabled() {
+        return true;
+    }
+
+    default boolean isWarnEnabled() {
+        return true;
+    }
+
+    default boolean isErrorEnabled() {
+        return true;
+    }
+
     void addContext(String key, String value);
+
+    /**
+     * @return the value of the given key in the MDC of the calling thread, or null if it is not set or the logger
+     * cannot read its MDC.
+     */
+    default String getContext(String key) {
+        return null;
+    }
+
     void clearContext();
 }
@@ -1,5 +1,5 @@
 package com.pinterest.psc.logging;
 
 public enum PscLoggerType {
-    LOG4J, LOG4J2, LOGBACK
+    LOG4J, LOG4J2, LOGBACK, SLF4J
 }
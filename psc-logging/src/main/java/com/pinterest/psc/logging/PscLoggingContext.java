@@ -0,0 +1,130 @@
+package com.pinterest.psc.logging;
+
+import com.pinterest.psc.common.PscCommon;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The MDC (thread context) values PSC log events carry, e.g. for log layouts that include <code>%X{pscPid}</code>:
+ * the process id and host name, the id of the PSC client (for client contexts) and the id of the logging thread.
+ * <p>
+ * A context is built once per client and attached to the threads that call into the client. Attaching the context
+ * that is already attached to the calling thread is a reference comparison; its values are put in the MDC when the
+ * thread switches to it, after {@link #invalidate()} (e.g. once the application cleared the MDC of the thread), and
+ * are otherwise only checked to still be in the MDC every {@value #MDC_CHECK_INTERVAL} attaches, so that call paths
+ * such as poll and send do not read or update the MDC on every call. Nothing is done while error logging is disabled.
+ */
+public class PscLoggingContext {
+    public static final String PID_KEY = "pscPid";
+    public static final String THREAD_ID_KEY = "pscTid";
+    public static final String HOST_KEY = "pscHost";
+    public static final String CLIENT_ID_KEY = "pscClientId";
+
+    static final int MDC_CHECK_INTERVAL = 256;
+
+    private static final Map<String, String> processEntries = createProcessEntries();
+    private static final PscLoggingContext processContext = new PscLoggingContext(processEntries);
+    private static final ThreadLocal<AttachedContext> attachedContext = ThreadLocal.withInitial(AttachedContext::new);
+
+    private final Map<String, String> entries;
+
+    /**
+     * @param entries the MDC values of this context; the id of the thread it is attached to is added as
+     *                {@value #THREAD_ID_KEY}
+     */
+    public PscLoggingContext(Map<String, String> entries) {
+        this.entries = Collections.unmodifiableMap(new LinkedHashMap<>(entries));
+    }
+
+    private static Map<String, String> createProcessEntries() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put(PID_KEY, ManagementFactory.getRuntimeMXBean().getName().split("@")[0]);
+        entries.put(HOST_KEY, PscCommon.getHostname());
+        return entries;
+    }
+
+    /**
+     * @return the context of PSC threads that do not belong to a client, with the process id and host name
+     */
+    public static PscLoggingContext getProcessContext() {
+        return processContext;
+    }
+
+    /**
+     * @param clientId the id of the PSC client, or null if it has none
+     * @return a new context for the given client, with the process id, host name and client id
+     */
+    public static PscLoggingContext forClient(String clientId) {
+        Map<String, String> entries = new LinkedHashMap<>(processEntries);
+        if (clientId != null)
+            entries.put(CLIENT_ID_KEY, clientId);
+        return new PscLoggingContext(entries);
+    }
+
+    public Map<String, String> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Attaches this context to the calling thread, putting its values in the MDC through the given logger unless it is
+     * already attached to the thread.
+     *
+     * @param logger the logger whose backend MDC is updated
+     */
+    public void attach(PscLogger logger) {
+        if (!logger.isErrorEnabled())
+            return;
+
+        AttachedContext attached = attachedContext.get();
+        if (attached.context == this) {
+            if (--attached.attachesUntilCheck > 0)
+                return;
+            attached.attachesUntilCheck = MDC_CHECK_INTERVAL;
+            if (attached.threadId.equals(logger.getContext(THREAD_ID_KEY)))
+                return;
+        }
+
+        attached.context = this;
+        attached.attachesUntilCheck = MDC_CHECK_INTERVAL;
+        for (Map.Entry<String, String> entry : entries.entrySet())
+            logger.addContext(entry.getKey(), entry.getValue());
+        logger.addContext(THREAD_ID_KEY, attached.threadId);
+    }
+
+    /**
+     * Makes the next attach on the calling thread put the values of its context in the MDC again, e.g. after the
+     * application cleared the MDC of the thread.
+     */
+    public static void invalidate() {
+        attachedContext.get().context = null;
+    }
+
+    /**
+     * Detaches any context from the calling thread and clears its MDC through the given logger.
+     *
+     * @param logger the logger whose backend MDC is cleared
+     */
+    public static void detach(PscLogger logger) {
+        attachedContext.remove();
+        logger.clearContext();
+    }
+
+    /**
+     * @return true if this context is attached to the calling thread
+     */
+    public boolean isAttached() {
+        return attachedContext.get().context == this;
+    }
+
+    /**
+     * The context attached to a thread, with the thread id value put in its MDC.
+     */
+    private static class AttachedContext {
+        private final String threadId = String.valueOf(Thread.currentThread().getId());
+        private PscLoggingContext context;
+        private int attachesUntilCheck;
+    }
+}
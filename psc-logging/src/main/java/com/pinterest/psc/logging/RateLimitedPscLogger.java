@@ -0,0 +1,317 @@
+package com.pinterest.psc.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link PscLogger} for log statements on hot paths (e.g. per message or per record) that would otherwise flood the
+ * logs, and slow the client down, when many messages run into the same condition.
+ * <p>
+ * Each call site, identified by the level and the message pattern, gets a token bucket that lets a burst of messages
+ * through and then a steady rate of them. Messages beyond that are dropped and counted, and the count is appended to the
+ * next message logged from the same call site. Message patterns should therefore use parameters rather than string
+ * concatenation, so that repeated messages of a call site are recognized as such.
+ */
+public class RateLimitedPscLogger implements PscLogger {
+    public static final int DEFAULT_MAX_BURST = 10;
+    public static final long DEFAULT_REFILL_INTERVAL_MS = 1000;
+    // call sites beyond this number share one bucket, in case message patterns are not constant
+    static final int MAX_CALL_SITES = 1000;
+    private static final String OVERFLOW_CALL_SITE = "";
+
+    private enum Level {
+        ALL, TRACE, DEBUG, INFO, WARN, ERROR, FATAL
+    }
+
+    private final PscLogger delegate;
+    private final int maxBurst;
+    private final long refillIntervalNanos;
+    private final List<Map<String, CallSite>> callSitesByLevel = new ArrayList<>(Level.values().length);
+    private final AtomicLong suppressedMessages = new AtomicLong();
+
+    public RateLimitedPscLogger(PscLogger delegate) {
+        this(delegate, DEFAULT_MAX_BURST, DEFAULT_REFILL_INTERVAL_MS);
+    }
+
+    /**
+     * @param delegate         the logger messages are logged with
+     * @param maxBurst         the number of messages a call site can log at once
+     * @param refillIntervalMs the interval at which a call site can log one more message, once its burst is used up
+     */
+    public RateLimitedPscLogger(PscLogger delegate, int maxBurst, long refillIntervalMs) {
+        this.delegate = delegate;
+        this.maxBurst = maxBurst;
+        this.refillIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refillIntervalMs);
+        for (int i = 0; i < Level.values().length; ++i)
+            callSitesByLevel.add(new ConcurrentHashMap<>());
+    }
+
+    private class CallSite {
+        private long tokens = maxBurst;
+        private long lastRefillNanos = System.nanoTime();
+        private long suppressed = 0;
+
+        /**
+         * @return the number of messages suppressed since the last logged one, or -1 if this message is suppressed
+         */
+        private synchronized long tryAcquire() {
+            long nowNanos = System.nanoTime();
+            long refills = refillIntervalNanos == 0 ? maxBurst : (nowNanos - lastRefillNanos) / refillIntervalNanos;
+            if (refills > 0) {
+                tokens = Math.min(maxBurst, tokens + refills);
+                lastRefillNanos = refillIntervalNanos == 0 ? nowNanos : lastRefillNanos + refills * refillIntervalNanos;
+            }
+            if (tokens == 0) {
+                ++suppressed;
+                return -1;
+            }
+            --tokens;
+            long suppressedSinceLastMessage = suppressed;
+            suppressed = 0;
+            return suppressedSinceLastMessage;
+        }
+    }
+
+    /**
+     * @return the message to log from the call site of the given message, or null if the message is suppressed or its
+     * level is not enabled
+     */
+    private String acquire(Level level, String message) {
+        // disabled messages neither take a token nor count as suppressed
+        if (!isEnabled(level))
+            return null;
+
+        String callSiteKey = message == null ? OVERFLOW_CALL_SITE : message;
+        Map<String, CallSite> callSites = callSitesByLevel.get(level.ordinal());
+        CallSite callSite = callSites.get(callSiteKey);
+        if (callSite == null) {
+            if (callSites.size() >= MAX_CALL_SITES)
+                callSiteKey = OVERFLOW_CALL_SITE;
+            callSite = callSites.computeIfAbsent(callSiteKey, key -> new CallSite());
+        }
+
+        long suppressed = callSite.tryAcquire();
+        if (suppressed < 0) {
+            suppressedMessages.incrementAndGet();
+            return null;
+        }
+        return suppressed == 0 ? message : message + " (" + suppressed + " similar messages were suppressed)";
+    }
+
+    private boolean isEnabled(Level level) {
+        switch (level) {
+            // ALL is the most verbose level, so it can only be enabled where TRACE is
+            case ALL:
+            case TRACE:
+                return delegate.isTraceEnabled();
+            case DEBUG:
+                return delegate.isDebugEnabled();
+            case INFO:
+                return delegate.isInfoEnabled();
+            case WARN:
+                return delegate.isWarnEnabled();
+            case ERROR:
+                return delegate.isErrorEnabled();
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @return the total number of messages suppressed by this logger
+     */
+    public long getSuppressedMessageCount() {
+        return suppressedMessages.get();
+    }
+
+    @Override
+    public void all(String message) {
+        String rateLimitedMessage = acquire(Level.ALL, message);
+        if (rateLimitedMessage != null)
+            delegate.all(rateLimitedMessage);
+    }
+
+    @Override
+    public void all(String message, Object... params) {
+        String rateLimitedMessage = acquire(Level.ALL, message);
+        if (rateLimitedMessage != null)
+            delegate.all(rateLimitedMessage, params);
+    }
+
+    @Override
+    public void all(String message, Throwable t) {
+        String rateLimitedMessage = acquire(Level.ALL, message);
+        if (rateLimitedMessage != null)
+            delegate.all(rateLimitedMessage, t);
+    }
+
+    @Override
+    public void trace(String message) {
+        String rateLimitedMessage = acquire(Level.TRACE, message);
+        if (rateLimitedMessage != null)
+            delegate.trace(rateLimitedMessage);
+    }
+
+    @Override
+    public void trace(String message, Object... params) {
+        String rateLimitedMessage = acquire(Level.TRACE, message);
+        if (rateLimitedMessage != null)
+            delegate.trace(rateLimitedMessage, params);
+    }
+
+    @Override
+    public void trace(String message, Throwable t) {
+        String rateLimitedMessage = acquire(Level.TRACE, message);
+        if (rateLimitedMessage != null)
+            delegate.trace(rateLimitedMessage, t);
+    }
+
+    @Override
+    public void debug(String message) {
+        String rateLimitedMessage = acquire(Level.DEBUG, message);
+        if (rateLimitedMessage != null)
+            delegate.debug(rateLimitedMessage);
+    }
+
+    @Override
+    public void debug(String message, Object... params) {
+        String rateLimitedMessage = acquire(Level.DEBUG, message);
+        if (rateLimitedMessage != null)
+            delegate.debug(rateLimitedMessage, params);
+    }
+
+    @Override
+    public void debug(String message, Throwable t) {
+        String rateLimitedMessage = acquire(Level.DEBUG, message);
+        if (rateLimitedMessage != null)
+            delegate.debug(rateLimitedMessage, t);
+    }
+
+    @Override
+    public void info(String message) {
+        String rateLimitedMessage = acquire(Level.INFO, message);
+        if (rateLimitedMessage != null)
+            delegate.info(rateLimitedMessage);
+    }
+
+    @Override
+    public void info(String message, Object... params) {
+        String rateLimitedMessage = acquire(Level.INFO, message);
+        if (rateLimitedMessage != null)
+            delegate.info(rateLimitedMessage, params);
+    }
+
+    @Override
+    public void info(String message, Throwable t) {
+        String rateLimitedMessage = acquire(Level.INFO, message);
+        if (rateLimitedMessage != null)
+            delegate.info(rateLimitedMessage, t);
+    }
+
+    @Override
+    public void warn(String message) {
+        String rateLimitedMessage = acquire(Level.WARN, message);
+        if (rateLimitedMessage != null)
+            delegate.warn(rateLimitedMessage);
+    }
+
+    @Override
+    public void warn(String message, Object... params) {
+        String rateLimitedMessage = acquire(Level.WARN, message);
+        if (rateLimitedMessage != null)
+            delegate.warn(rateLimitedMessage, params);
+    }
+
+    @Override
+    public void warn(String message, Throwable t) {
+        String rateLimitedMessage = acquire(Level.WARN, message);
+        if (rateLimitedMessage != null)
+            delegate.warn(rateLimitedMessage, t);
+    }
+
+    @Override
+    public void error(String message) {
+        String rateLimitedMessage = acquire(Level.ERROR, message);
+        if (rateLimitedMessage != null)
+            delegate.error(rateLimitedMessage);
+    }
+
+    @Override
+    public void error(String message, Object... params) {
+        String rateLimitedMessage = acquire(Level.ERROR, message);
+        if (rateLimitedMessage != null)
+            delegate.error(rateLimitedMessage, params);
+    }
+
+    @Override
+    public void error(String message, Throwable t) {
+        String rateLimitedMessage = acquire(Level.ERROR, message);
+        if (rateLimitedMessage != null)
+            delegate.error(rateLimitedMessage, t);
+    }
+
+    @Override
+    public void fatal(String message) {
+        String rateLimitedMessage = acquire(Level.FATAL, message);
+        if (rateLimitedMessage != null)
+            delegate.fatal(rateLimitedMessage);
+    }
+
+    @Override
+    public void fatal(String message, Object... params) {
+        String rateLimitedMessage = acquire(Level.FATAL, message);
+        if (rateLimitedMessage != null)
+            delegate.fatal(rateLimitedMessage, params);
+    }
+
+    @Override
+    public void fatal(String message, Throwable t) {
+        String rateLimitedMessage = acquire(Level.FATAL, message);
+        if (rateLimitedMessage != null)
+            delegate.fatal(rateLimitedMessage, t);
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return delegate.isTraceEnabled();
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return delegate.isDebugEnabled();
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return delegate.isInfoEnabled();
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return delegate.isWarnEnabled();
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return delegate.isErrorEnabled();
+    }
+
+    @Override
+    public void addContext(String key, String value) {
+        delegate.addContext(key, value);
+    }
+
+    @Override
+    public String getContext(String key) {
+        return delegate.getContext(key);
+    }
+
+    @Override
+    public void clearContext() {
+        delegate.clearContext();
+    }
+}
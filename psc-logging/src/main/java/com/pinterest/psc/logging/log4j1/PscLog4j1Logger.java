@@ -2,16 +2,21 @@ package com.pinterest.psc.logging.log4j1;
 
 import com.pinterest.psc.common.PscCommon;
 import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.logging.PscLoggerManager;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.log4j.MDC;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.text.MessageFormat;
 import java.util.regex.Pattern;
 
 public class PscLog4j1Logger implements PscLogger {
     private Logger logger;
     private static String classFqdn = PscLog4j1Logger.class.getCanonicalName();
+    private static final Class<?> threadContextClass = findThreadContextClass();
+    private static final Method threadContextGetMethod = findThreadContextGetMethod();
 
     public static PscLog4j1Logger getLogger() {
         return new PscLog4j1Logger();
@@ -26,8 +31,7 @@ public class PscLog4j1Logger implements PscLogger {
     }
 
     private PscLog4j1Logger() {
-        //TODO: implement caller class lookup
-        logger = Logger.getLogger(PscLog4j1Logger.class);
+        logger = Logger.getLogger(PscLoggerManager.getCallerClassName());
     }
 
     private PscLog4j1Logger(String name) {
@@ -184,35 +188,95 @@ public class PscLog4j1Logger implements PscLogger {
         logger.log(classFqdn, level, message, t);
     }
 
+    @Override
+    public boolean isTraceEnabled() {
+        verifyLogger();
+        return logger.isTraceEnabled();
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        verifyLogger();
+        return logger.isDebugEnabled();
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        verifyLogger();
+        return logger.isInfoEnabled();
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        verifyLogger();
+        return logger.isEnabledFor(Level.WARN);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        verifyLogger();
+        return logger.isEnabledFor(Level.ERROR);
+    }
+
     @Override
     public void addContext(String key, String value) {
-        // check if log4j2 thread context is loaded
-        try {
-            Class<?> threadContextClass = Class.forName("org.apache.logging.log4j.ThreadContext");
+        if (threadContextClass != null) {
             PscCommon.invoke(
                     threadContextClass,
                     "put",
                     new Class[]{String.class, String.class},
                     new String[]{key, value}
             );
-        } catch (ClassNotFoundException e) {
+        } else {
             // use log4j1 mdc
             MDC.put(key, value);
         }
     }
 
+    @Override
+    public String getContext(String key) {
+        if (threadContextGetMethod != null) {
+            try {
+                return (String) threadContextGetMethod.invoke(null, key);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException("Could not read the log4j2 thread context", e);
+            }
+        }
+        // use log4j1 mdc
+        Object value = MDC.get(key);
+        return value == null ? null : value.toString();
+    }
+
     @Override
     public void clearContext() {
-        // check if log4j2 thread context is loaded
-        try {
-            Class<?> threadContextClass = Class.forName("org.apache.logging.log4j.ThreadContext");
+        if (threadContextClass != null)
             PscCommon.invoke(threadContextClass, "clearAll");
-        } catch (ClassNotFoundException e) {
+        else {
             // use log4j1 mdc
             MDC.clear();
         }
     }
 
+    // check once if log4j2 thread context is loaded, rather than on every context update
+    private static Class<?> findThreadContextClass() {
+        try {
+            return Class.forName("org.apache.logging.log4j.ThreadContext");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    // context lookups are on hot paths, so the lookup method is resolved once too
+    private static Method findThreadContextGetMethod() {
+        if (threadContextClass == null)
+            return null;
+        try {
+            return threadContextClass.getDeclaredMethod("get", String.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
     private void verifyLogger() {
         if (logger == null)
             throw new IllegalStateException("PscLogger is not initialized");
@@ -0,0 +1,219 @@
+package com.pinterest.psc.logging.log4j2;
+
+import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.logging.PscLoggerManager;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.spi.ExtendedLogger;
+
+/**
+ * A {@link PscLogger} backed by the Log4j2 API, so that PSC logs can go through async and garbage-free Log4j2 appenders.
+ * Messages are handed to Log4j2 along with their parameters and are only formatted if their level is enabled; a
+ * trailing {@link Throwable} parameter is logged as the exception of the message. Log events carry the caller of the
+ * PSC logger as their location.
+ */
+public class PscLog4j2Logger implements PscLogger {
+    private ExtendedLogger logger;
+    private static String classFqdn = PscLog4j2Logger.class.getName();
+
+    public static PscLog4j2Logger getLogger() {
+        return new PscLog4j2Logger();
+    }
+
+    public static PscLog4j2Logger getLogger(String name) {
+        return new PscLog4j2Logger(name);
+    }
+
+    public static PscLog4j2Logger getLogger(Class clazz) {
+        return new PscLog4j2Logger(clazz);
+    }
+
+    private PscLog4j2Logger() {
+        logger = (ExtendedLogger) LogManager.getLogger(PscLoggerManager.getCallerClassName());
+    }
+
+    private PscLog4j2Logger(String name) {
+        logger = (ExtendedLogger) LogManager.getLogger(name);
+    }
+
+    private PscLog4j2Logger(Class clazz) {
+        logger = (ExtendedLogger) LogManager.getLogger(clazz);
+    }
+
+    @Override
+    public void all(String message) {
+        log(Level.ALL, message);
+    }
+
+    @Override
+    public void all(String message, Object... params) {
+        log(Level.ALL, message, params);
+    }
+
+    @Override
+    public void all(String message, Throwable t) {
+        log(Level.ALL, message, t);
+    }
+
+
+    @Override
+    public void trace(String message) {
+        log(Level.TRACE, message);
+    }
+
+    @Override
+    public void trace(String message, Object... params) {
+        log(Level.TRACE, message, params);
+    }
+
+    @Override
+    public void trace(String message, Throwable t) {
+        log(Level.TRACE, message, t);
+    }
+
+
+    @Override
+    public void debug(String message) {
+        log(Level.DEBUG, message);
+    }
+
+    @Override
+    public void debug(String message, Object... params) {
+        log(Level.DEBUG, message, params);
+    }
+
+    @Override
+    public void debug(String message, Throwable t) {
+        log(Level.DEBUG, message, t);
+    }
+
+
+    @Override
+    public void info(String message) {
+        log(Level.INFO, message);
+    }
+
+    @Override
+    public void info(String message, Object... params) {
+        log(Level.INFO, message, params);
+    }
+
+    @Override
+    public void info(String message, Throwable t) {
+        log(Level.INFO, message, t);
+    }
+
+
+    @Override
+    public void warn(String message) {
+        log(Level.WARN, message);
+    }
+
+    @Override
+    public void warn(String message, Object... params) {
+        log(Level.WARN, message, params);
+    }
+
+    @Override
+    public void warn(String message, Throwable t) {
+        log(Level.WARN, message, t);
+    }
+
+
+    @Override
+    public void error(String message) {
+        log(Level.ERROR, message);
+    }
+
+    @Override
+    public void error(String message, Object... params) {
+        log(Level.ERROR, message, params);
+    }
+
+    @Override
+    public void error(String message, Throwable t) {
+        log(Level.ERROR, message, t);
+    }
+
+
+    @Override
+    public void fatal(String message) {
+        log(Level.FATAL, message);
+    }
+
+    @Override
+    public void fatal(String message, Object... params) {
+        log(Level.FATAL, message, params);
+    }
+
+    @Override
+    public void fatal(String message, Throwable t) {
+        log(Level.FATAL, message, t);
+    }
+
+    private void log(Level level, String message) {
+        verifyLogger();
+        logger.logIfEnabled(classFqdn, level, null, message);
+    }
+
+    private void log(Level level, String message, Object... params) {
+        verifyLogger();
+        logger.logIfEnabled(classFqdn, level, null, message, params);
+    }
+
+    private void log(Level level, String message, Throwable t) {
+        verifyLogger();
+        logger.logIfEnabled(classFqdn, level, null, message, t);
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        verifyLogger();
+        return logger.isTraceEnabled();
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        verifyLogger();
+        return logger.isDebugEnabled();
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        verifyLogger();
+        return logger.isInfoEnabled();
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        verifyLogger();
+        return logger.isWarnEnabled();
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        verifyLogger();
+        return logger.isErrorEnabled();
+    }
+
+    @Override
+    public void addContext(String key, String value) {
+        ThreadContext.put(key, value);
+    }
+
+    @Override
+    public String getContext(String key) {
+        return ThreadContext.get(key);
+    }
+
+    @Override
+    public void clearContext() {
+        ThreadContext.clearAll();
+    }
+
+    private void verifyLogger() {
+        if (logger == null)
+            throw new IllegalStateException("PscLogger is not initialized");
+    }
+}
@@ -0,0 +1,224 @@
+package com.pinterest.psc.logging.slf4j;
+
+import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.logging.PscLoggerManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * A {@link PscLogger} backed by SLF4J (e.g. with Logback, or with the Log4j2 binding and its async appenders). Messages
+ * with parameters are handed to SLF4J as is, so they are only formatted if their level is enabled, and a trailing
+ * {@link Throwable} parameter is logged as the exception of the message.
+ */
+public class PscSlf4jLogger implements PscLogger {
+    private Logger logger;
+
+    public static PscSlf4jLogger getLogger() {
+        return new PscSlf4jLogger();
+    }
+
+    public static PscSlf4jLogger getLogger(String name) {
+        return new PscSlf4jLogger(name);
+    }
+
+    public static PscSlf4jLogger getLogger(Class clazz) {
+        return new PscSlf4jLogger(clazz);
+    }
+
+    private PscSlf4jLogger() {
+        logger = LoggerFactory.getLogger(PscLoggerManager.getCallerClassName());
+    }
+
+    private PscSlf4jLogger(String name) {
+        logger = LoggerFactory.getLogger(name);
+    }
+
+    private PscSlf4jLogger(Class clazz) {
+        logger = LoggerFactory.getLogger(clazz);
+    }
+
+    // SLF4J has no ALL level; such messages are logged at TRACE level
+    @Override
+    public void all(String message) {
+        trace(message);
+    }
+
+    @Override
+    public void all(String message, Object... params) {
+        trace(message, params);
+    }
+
+    @Override
+    public void all(String message, Throwable t) {
+        trace(message, t);
+    }
+
+
+    @Override
+    public void trace(String message) {
+        verifyLogger();
+        logger.trace(message);
+    }
+
+    @Override
+    public void trace(String message, Object... params) {
+        verifyLogger();
+        if (logger.isTraceEnabled())
+            logger.trace(message, params);
+    }
+
+    @Override
+    public void trace(String message, Throwable t) {
+        verifyLogger();
+        logger.trace(message, t);
+    }
+
+
+    @Override
+    public void debug(String message) {
+        verifyLogger();
+        logger.debug(message);
+    }
+
+    @Override
+    public void debug(String message, Object... params) {
+        verifyLogger();
+        if (logger.isDebugEnabled())
+            logger.debug(message, params);
+    }
+
+    @Override
+    public void debug(String message, Throwable t) {
+        verifyLogger();
+        logger.debug(message, t);
+    }
+
+
+    @Override
+    public void info(String message) {
+        verifyLogger();
+        logger.info(message);
+    }
+
+    @Override
+    public void info(String message, Object... params) {
+        verifyLogger();
+        if (logger.isInfoEnabled())
+            logger.info(message, params);
+    }
+
+    @Override
+    public void info(String message, Throwable t) {
+        verifyLogger();
+        logger.info(message, t);
+    }
+
+
+    @Override
+    public void warn(String message) {
+        verifyLogger();
+        logger.warn(message);
+    }
+
+    @Override
+    public void warn(String message, Object... params) {
+        verifyLogger();
+        if (logger.isWarnEnabled())
+            logger.warn(message, params);
+    }
+
+    @Override
+    public void warn(String message, Throwable t) {
+        verifyLogger();
+        logger.warn(message, t);
+    }
+
+
+    @Override
+    public void error(String message) {
+        verifyLogger();
+        logger.error(message);
+    }
+
+    @Override
+    public void error(String message, Object... params) {
+        verifyLogger();
+        if (logger.isErrorEnabled())
+            logger.error(message, params);
+    }
+
+    @Override
+    public void error(String message, Throwable t) {
+        verifyLogger();
+        logger.error(message, t);
+    }
+
+
+    // SLF4J has no FATAL level; such messages are logged at ERROR level
+    @Override
+    public void fatal(String message) {
+        error(message);
+    }
+
+    @Override
+    public void fatal(String message, Object... params) {
+        error(message, params);
+    }
+
+    @Override
+    public void fatal(String message, Throwable t) {
+        error(message, t);
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        verifyLogger();
+        return logger.isTraceEnabled();
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        verifyLogger();
+        return logger.isDebugEnabled();
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        verifyLogger();
+        return logger.isInfoEnabled();
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        verifyLogger();
+        return logger.isWarnEnabled();
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        verifyLogger();
+        return logger.isErrorEnabled();
+    }
+
+    @Override
+    public void addContext(String key, String value) {
+        // the SLF4J binding maps this to the MDC (or thread context) of the logging backend
+        MDC.put(key, value);
+    }
+
+    @Override
+    public String getContext(String key) {
+        return MDC.get(key);
+    }
+
+    @Override
+    public void clearContext() {
+        MDC.clear();
+    }
+
+    private void verifyLogger() {
+        if (logger == null)
+            throw new IllegalStateException("PscLogger is not initialized");
+    }
+}
@@ -2,26 +2,36 @@ package com.pinterest.psc.common;
 
 import com.pinterest.psc.config.PscConfiguration;
 import com.pinterest.psc.exception.ClientException;
+import com.pinterest.psc.exception.handler.PscCircuitBreaker;
 import com.pinterest.psc.logging.PscLogger;
 import com.pinterest.psc.metrics.Metric;
 import com.pinterest.psc.metrics.MetricName;
 import com.pinterest.psc.metrics.MetricValueProvider;
+import com.pinterest.psc.metrics.PscMetricsReportingScheduler;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 
 public abstract class PscBackendClient<K, V> implements AutoCloseable {
     private static final PscLogger logger = PscLogger.getLogger(PscBackendClient.class);
     protected final static Map<String, TopicUri> backendTopicToTopicUri = new ConcurrentHashMap<>();
     protected final OverwriteSet activeTopicUrisOrPartitions = new OverwriteSet();
-    protected final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    // the periodic backend metrics collection, run by the JVM-wide metrics reporting scheduler
+    protected PscMetricsReportingScheduler.ReportingTask metricsReportingTask;
     protected final MetricValueProvider metricValueProvider = new MetricValueProvider();
     protected boolean autoResolutionEnabled = true;
     protected int autoResolutionRetryCount = 5; // number of times an API call is retried when needed
     protected final static int DEFAULT_BACKOFF_FACTOR_MS = 200; // formula: 2^retry_num * backoff_ms
     protected int retries = 0;
+    // calls are not retried past this time; set by callers that have a timeout of their own
+    private volatile long retryDeadlineMs = Long.MAX_VALUE;
+    private final Object backoffLock = new Object();
+    // guarded by backoffLock; an interruption is only recorded while a backoff is in progress
+    private boolean backingOff = false;
+    private boolean backoffInterrupted = false;
+    // the circuit breaker of the backend cluster, or null if circuit breakers are disabled
+    protected PscCircuitBreaker circuitBreaker;
 
     /**
      * Implement a simple exponential wait before the next try of a backend client call.
@@ -33,21 +43,125 @@ public abstract class PscBackendClient<K, V> implements AutoCloseable {
         return retries <= autoResolutionRetryCount;
     }
 
+    /**
+     * Waits before the next try of a backend client call, for a jittered exponential period (between half and all of
+     * 2^retry_num * backoff_ms) so that clients that fail together do not retry together. The wait never goes past the
+     * retry deadline (see {@link #setRetryDeadline(long)}), and is cut short by {@link #interruptBackoff()}.
+     *
+     * @param retries the number of retries so far
+     * @return the number of retries including the next one; more than the retry count if no more retries should be made
+     */
     protected int backoff(int retries) {
+        if (circuitBreaker != null) {
+            circuitBreaker.recordFailure();
+            if (!circuitBreaker.allowRetry()) {
+                logger.warn("Circuit of {} is open; not retrying the call.", circuitBreaker.getTopicUriPrefix());
+                return autoResolutionRetryCount + 1;
+            }
+        }
+
         if (++retries > autoResolutionRetryCount)
             return retries;
 
+        long remainingMs = retryDeadlineMs - System.currentTimeMillis();
+        if (remainingMs <= 0) {
+            logger.info("Retry deadline has passed; not retrying (#{}) the call.", retries);
+            return autoResolutionRetryCount + 1;
+        }
+
+        long maxBackoffPeriodMs = (long) Math.pow(2, retries) * DEFAULT_BACKOFF_FACTOR_MS;
+        long backoffPeriodMs = Math.min(
+                maxBackoffPeriodMs / 2 + ThreadLocalRandom.current().nextLong(maxBackoffPeriodMs / 2 + 1),
+                remainingMs
+        );
         try {
-            long backoffPeriodMs = (long) Math.pow(2, retries) * DEFAULT_BACKOFF_FACTOR_MS;
-            Thread.sleep(backoffPeriodMs);
-            logger.info("Backed off for {} ms, before retrying (#{}) the call.", backoffPeriodMs, retries);
+            if (awaitBackoff(backoffPeriodMs))
+                logger.info("Backed off for {} ms, before retrying (#{}) the call.", backoffPeriodMs, retries);
+            else
+                logger.info("Backoff was interrupted by a wakeup, retrying (#{}) the call.", retries);
         } catch (InterruptedException e) {
-            // unexpected
-            logger.warn("Failed to apply backoff", e);
+            logger.warn("Backoff was interrupted; not retrying the call.", e);
+            Thread.currentThread().interrupt();
+            return autoResolutionRetryCount + 1;
         }
         return retries;
     }
 
+    /**
+     * @return true if the full period was waited, false if the wait was cut short by {@link #interruptBackoff()}
+     */
+    private boolean awaitBackoff(long backoffPeriodMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + backoffPeriodMs;
+        synchronized (backoffLock) {
+            backingOff = true;
+            backoffInterrupted = false;
+            try {
+                long remainingMs = backoffPeriodMs;
+                while (!backoffInterrupted && remainingMs > 0) {
+                    backoffLock.wait(remainingMs);
+                    remainingMs = deadline - System.currentTimeMillis();
+                }
+                return !backoffInterrupted;
+            } finally {
+                backingOff = false;
+                backoffInterrupted = false;
+            }
+        }
+    }
+
+    /**
+     * Cuts short the backoff of this client that is in progress, if any, so that a blocked call can return to its caller
+     * promptly, e.g. when the client is woken up. Backoffs that start later are not affected.
+     */
+    protected void interruptBackoff() {
+        synchronized (backoffLock) {
+            if (backingOff) {
+                backoffInterrupted = true;
+                backoffLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Limits the backoffs and retries of backend calls made from now on by the calling thread to the given deadline.
+     * Must be followed by {@link #clearRetryDeadline()} once the calls are done.
+     *
+     * @param deadlineMs the epoch time in milliseconds after which calls are no longer retried
+     */
+    protected void setRetryDeadline(long deadlineMs) {
+        retryDeadlineMs = deadlineMs;
+    }
+
+    protected void clearRetryDeadline() {
+        retryDeadlineMs = Long.MAX_VALUE;
+    }
+
+    /**
+     * Reports a successful backend call to the circuit breaker of the backend cluster, if any.
+     */
+    protected void recordBackendSuccess() {
+        if (circuitBreaker != null)
+            circuitBreaker.recordSuccess();
+    }
+
+    /**
+     * Reports a failed backend call to the circuit breaker of the backend cluster, if any.
+     */
+    protected void recordBackendFailure() {
+        if (circuitBreaker != null)
+            circuitBreaker.recordFailure();
+    }
+
+    protected void scheduleMetricsReporting(String name, Runnable task, long periodMs) {
+        cancelMetricsReporting();
+        metricsReportingTask = PscMetricsReportingScheduler.getInstance().schedule(name, task, periodMs);
+    }
+
+    protected void cancelMetricsReporting() {
+        if (metricsReportingTask != null)
+            metricsReportingTask.cancel();
+    }
+
     /**
      * @return the PSC configuration used to create the backend client (producer or consumer).
      */
@@ -4,4 +4,6 @@ public class PscMessage {
     public static final String PSC_MESSAGE_HEADER_PSC_PRODUCE_TIMESTAMP = "psc.produce.timestamp";
     public static final String PSC_MESSAGE_HEADER_KEY_SIZE_BYTES = "psc.message.key.size.bytes";
     public static final String PSC_MESSAGE_HEADER_VALUE_SIZE_BYTES = "psc.message.value.size.bytes";
+    public static final String PSC_MESSAGE_HEADER_PSC_SEQUENCE_ID = "psc.sequence.id";
+    public static final String PSC_MESSAGE_HEADER_PSC_TRACE_CONTEXT = "psc.trace.context";
 }
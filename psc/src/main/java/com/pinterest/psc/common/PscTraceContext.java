@@ -0,0 +1,73 @@
+package com.pinterest.psc.common;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The trace context PSC propagates in the {@value PscMessage#PSC_MESSAGE_HEADER_PSC_TRACE_CONTEXT} header of messages
+ * when {@link com.pinterest.psc.config.PscConfiguration#PSC_METRICS_TRACING_ENABLED} is set. It consists of a trace id,
+ * which stays the same across the hops of a pipeline as long as each stage copies the header of the consumed message
+ * to the messages it produces, and the timestamp of the latest span, i.e. when the message was last sent.
+ * <p>
+ * The context is encoded in 16 bytes: the trace id followed by the span timestamp in milliseconds.
+ */
+public class PscTraceContext {
+    private static final int ENCODED_LENGTH = 2 * Long.BYTES;
+
+    private final long traceId;
+    private final long spanTimestamp;
+
+    public PscTraceContext(long traceId, long spanTimestamp) {
+        this.traceId = traceId;
+        this.spanTimestamp = spanTimestamp;
+    }
+
+    /**
+     * @return a context with a new random trace id, whose span starts now
+     */
+    public static PscTraceContext newTrace() {
+        return new PscTraceContext(ThreadLocalRandom.current().nextLong(), System.currentTimeMillis());
+    }
+
+    /**
+     * @return a context of the same trace, whose span starts now
+     */
+    public PscTraceContext nextSpan() {
+        return new PscTraceContext(traceId, System.currentTimeMillis());
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public long getSpanTimestamp() {
+        return spanTimestamp;
+    }
+
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(ENCODED_LENGTH).putLong(traceId).putLong(spanTimestamp).array();
+    }
+
+    /**
+     * @return the decoded context; or null if the given bytes are not a valid encoded context.
+     */
+    public static PscTraceContext fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != ENCODED_LENGTH)
+            return null;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new PscTraceContext(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * @return the context in the given message headers; or null if there is no valid context.
+     */
+    public static PscTraceContext fromHeaders(Map<String, byte[]> headers) {
+        return headers == null ? null : fromBytes(headers.get(PscMessage.PSC_MESSAGE_HEADER_PSC_TRACE_CONTEXT));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x@%d", traceId, spanTimestamp);
+    }
+}
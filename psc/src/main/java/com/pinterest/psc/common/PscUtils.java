@@ -17,6 +17,7 @@ public class PscUtils {
     public static String NO_TOPIC_URI = "n/a";
     public static int NO_PARTITION = -1;
     public static final Object lock = new Object();
+    private static volatile Boolean isEc2Host;
 
     public static final String BACKEND_TYPE_KAFKA = "kafka";
     public static final String BACKEND_TYPE_MEMQ = "memq";
@@ -32,7 +33,13 @@ public class PscUtils {
     }
 
     public static boolean isEc2Host() {
-        return doesEc2MetadataExist() || isSysVendorAws() || isAwsOsDetected();
+        // the host does not change, and detection may start a process
+        Boolean isEc2Host = PscUtils.isEc2Host;
+        if (isEc2Host == null) {
+            isEc2Host = doesEc2MetadataExist() || isSysVendorAws() || isAwsOsDetected();
+            PscUtils.isEc2Host = isEc2Host;
+        }
+        return isEc2Host;
     }
 
     protected static boolean doesEc2MetadataExist() {
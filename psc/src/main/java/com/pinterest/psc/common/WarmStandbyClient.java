@@ -0,0 +1,109 @@
+package com.pinterest.psc.common;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.pinterest.psc.logging.PscLogger;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Holds the replacement of a backend client while it is created and warmed up (connected, with metadata fetched, etc.)
+ * in the background, so that the backend client it replaces keeps serving calls until the replacement can be swapped in.
+ * Replacements of all backend clients of the JVM are prepared on a shared pool of daemon threads.
+ *
+ * @param <C> the type of the backend client
+ */
+public class WarmStandbyClient<C> {
+    private static final PscLogger logger = PscLogger.getLogger(WarmStandbyClient.class);
+    private static ExecutorService executor;
+
+    private Future<C> pendingClient;
+
+    /**
+     * @return true if a replacement client is being prepared or is ready to be taken
+     */
+    public synchronized boolean isPending() {
+        return pendingClient != null;
+    }
+
+    /**
+     * Starts preparing a replacement client in the background, unless one is already pending. The given factory runs
+     * on a background thread, so it must not use the backend client being replaced.
+     *
+     * @param clientFactory creates and warms up the replacement client
+     */
+    public synchronized void prepare(Callable<C> clientFactory) {
+        if (pendingClient == null)
+            pendingClient = getExecutor().submit(clientFactory);
+    }
+
+    /**
+     * Takes the replacement client if it is ready. Once taken (or once preparing it failed) no replacement is pending.
+     *
+     * @return the replacement client, or null if none is pending or it is not ready yet
+     * @throws ExecutionException if preparing the replacement client failed
+     */
+    public synchronized C takeIfReady() throws ExecutionException {
+        if (pendingClient == null || !pendingClient.isDone())
+            return null;
+
+        Future<C> readyClient = pendingClient;
+        pendingClient = null;
+        try {
+            return readyClient.get();
+        } catch (InterruptedException | CancellationException e) {
+            throw new ExecutionException(e);
+        }
+    }
+
+    /**
+     * Discards the pending replacement client, if any, closing it with the given closer once it is prepared.
+     *
+     * @param clientCloser closes the replacement client
+     */
+    public synchronized void discard(Consumer<C> clientCloser) {
+        if (pendingClient == null)
+            return;
+
+        Future<C> discardedClient = pendingClient;
+        pendingClient = null;
+        getExecutor().execute(() -> {
+            try {
+                clientCloser.accept(discardedClient.get());
+            } catch (Exception e) {
+                logger.debug("Discarded standby client could not be closed.", e);
+            }
+        });
+    }
+
+    /**
+     * Closes a backend client that was replaced, in the background, so that it can finish (drain) its in-flight calls
+     * without holding up the caller.
+     *
+     * @param client       the replaced backend client
+     * @param clientCloser closes the backend client
+     */
+    public static <C> void closeInBackground(C client, Consumer<C> clientCloser) {
+        getExecutor().execute(() -> {
+            try {
+                clientCloser.accept(client);
+            } catch (Exception e) {
+                logger.warn("Replaced backend client could not be closed.", e);
+            }
+        });
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(
+                    new ThreadFactoryBuilder().setNameFormat("psc-standby-client-%d").setDaemon(true).build()
+            );
+        }
+        return executor;
+    }
+}
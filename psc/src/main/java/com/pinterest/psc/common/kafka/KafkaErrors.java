@@ -3,6 +3,7 @@ package com.pinterest.psc.common.kafka;
 import com.google.common.collect.ImmutableMap;
 import com.pinterest.psc.common.PscUtils;
 import com.pinterest.psc.exception.consumer.BackendConsumerException;
+import com.pinterest.psc.exception.consumer.CircuitOpenException;
 import com.pinterest.psc.exception.consumer.ConsumerException;
 import com.pinterest.psc.exception.consumer.DeserializerException;
 import com.pinterest.psc.exception.handler.PscErrorHandler;
@@ -190,7 +191,8 @@ public class KafkaErrors {
         if (!autoResolutionEnabled || !consumerExceptionsToHandle.containsKey(exception.getClass())) {
             return new PscErrorHandler.ConsumerAction(
                     PscErrorHandler.ActionType.THROW,
-                    exception instanceof WakeupException ? com.pinterest.psc.exception.consumer.WakeupException.class : ConsumerException.class
+                    exception instanceof WakeupException ? com.pinterest.psc.exception.consumer.WakeupException.class :
+                            exception instanceof CircuitOpenException ? CircuitOpenException.class : ConsumerException.class
             );
         }
 
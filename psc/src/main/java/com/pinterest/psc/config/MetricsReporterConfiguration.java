@@ -7,9 +7,58 @@ public class MetricsReporterConfiguration {
     private final String host;
     private final int port;
     private final int frequencyMs;
+    private final String histogramReservoir;
+    private final int partitionTopN;
+    private final int maxSeriesPerMetric;
+    private final int samplingInterval;
+    private final String samplingMode;
 
     public MetricsReporterConfiguration(
             boolean reportingEnabled, String reporterClass, int reporterParallelism, String host, int port, int frequencyMs
+    ) {
+        this(reportingEnabled, reporterClass, reporterParallelism, host, port, frequencyMs,
+             PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR_SLIDING_TIME_WINDOW);
+    }
+
+    public MetricsReporterConfiguration(
+            boolean reportingEnabled,
+            String reporterClass,
+            int reporterParallelism,
+            String host,
+            int port,
+            int frequencyMs,
+            String histogramReservoir
+    ) {
+        this(reportingEnabled, reporterClass, reporterParallelism, host, port, frequencyMs, histogramReservoir, -1, -1);
+    }
+
+    public MetricsReporterConfiguration(
+            boolean reportingEnabled,
+            String reporterClass,
+            int reporterParallelism,
+            String host,
+            int port,
+            int frequencyMs,
+            String histogramReservoir,
+            int partitionTopN,
+            int maxSeriesPerMetric
+    ) {
+        this(reportingEnabled, reporterClass, reporterParallelism, host, port, frequencyMs, histogramReservoir,
+             partitionTopN, maxSeriesPerMetric, 1, PscConfiguration.PSC_METRICS_SAMPLING_MODE_DETERMINISTIC);
+    }
+
+    public MetricsReporterConfiguration(
+            boolean reportingEnabled,
+            String reporterClass,
+            int reporterParallelism,
+            String host,
+            int port,
+            int frequencyMs,
+            String histogramReservoir,
+            int partitionTopN,
+            int maxSeriesPerMetric,
+            int samplingInterval,
+            String samplingMode
     ) {
         this.reportingEnabled = reportingEnabled;
         this.reporterClass = reporterClass;
@@ -17,6 +66,11 @@ public class MetricsReporterConfiguration {
         this.host = host;
         this.port = port;
         this.frequencyMs = frequencyMs;
+        this.histogramReservoir = histogramReservoir;
+        this.partitionTopN = partitionTopN;
+        this.maxSeriesPerMetric = maxSeriesPerMetric;
+        this.samplingInterval = samplingInterval;
+        this.samplingMode = samplingMode;
     }
 
     public boolean isReportingEnabled() {
@@ -43,9 +97,31 @@ public class MetricsReporterConfiguration {
         return frequencyMs;
     }
 
+    public String getHistogramReservoir() {
+        return histogramReservoir;
+    }
+
+    public int getPartitionTopN() {
+        return partitionTopN;
+    }
+
+    public int getMaxSeriesPerMetric() {
+        return maxSeriesPerMetric;
+    }
+
+    public int getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    public String getSamplingMode() {
+        return samplingMode;
+    }
+
     @Override
     public String toString() {
-        return String.format("reportingEnabled=%b, reporterClass=%s, reporterParallelism=%d, host=%s, port=%d, frequencyMs=%d",
-                             reportingEnabled, reporterClass, reporterParallelism, host, port, frequencyMs);
+        return String.format("reportingEnabled=%b, reporterClass=%s, reporterParallelism=%d, host=%s, port=%d, frequencyMs=%d, histogramReservoir=%s, " +
+                                     "partitionTopN=%d, maxSeriesPerMetric=%d, samplingInterval=%d, samplingMode=%s",
+                             reportingEnabled, reporterClass, reporterParallelism, host, port, frequencyMs, histogramReservoir,
+                             partitionTopN, maxSeriesPerMetric, samplingInterval, samplingMode);
     }
 }
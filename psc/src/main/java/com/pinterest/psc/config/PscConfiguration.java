@@ -94,6 +94,86 @@ public class PscConfiguration extends PropertiesConfiguration {
      */
     public final static String PSC_PROACTIVE_SSL_RESET_ENABLED = "psc.proactive.ssl.reset.enabled";
 
+    /**
+     * Whether the backend client that replaces one with an approaching SSL certificate expiry should be created and
+     * warmed up in the background, and swapped in once ready, instead of being created on the calling thread. Default is
+     * true.
+     */
+    public final static String PSC_PROACTIVE_SSL_RESET_WARM_STANDBY_ENABLED = "psc.proactive.ssl.reset.warm.standby.enabled";
+
+    /**
+     * Whether producers in the same JVM should share their backend producers when the resolved backend producer
+     * configurations are identical. Shared backend producers are reference counted and closed when the last producer
+     * using them is closed. Transactional producers never share their backend producers. Default is false.
+     */
+    public final static String PSC_SHARED_BACKEND_PRODUCER_ENABLED = "psc.shared.backend.producer.enabled";
+
+    /**
+     * Whether producers should stamp each message with a producer-side sequence id header. The sequence id is assigned
+     * once per message object, so re-sending the same message object (e.g. on an application level retry) carries the
+     * same sequence id. Default is false.
+     */
+    public final static String PSC_IDEMPOTENT_SEND_ENABLED = "psc.idempotent.send.enabled";
+
+    /**
+     * The number of most recent producer sequence ids a consumer remembers to drop duplicate messages. Duplicates
+     * are only detected for messages stamped by producers that have {@value PSC_IDEMPOTENT_SEND_ENABLED} set. Default
+     * is 0, which disables duplicate detection.
+     */
+    public final static String PSC_DEDUPLICATION_WINDOW_SIZE = "psc.deduplication.window.size";
+
+    /**
+     * Whether Kafka producers should adapt their batching (linger and batch size) to the observed load, aiming for
+     * the highest batching that keeps the produce latency under {@value PSC_ADAPTIVE_BATCHING_LATENCY_TARGET_MS}.
+     * Adjustments are applied whenever the backend producer is reset, or by swapping the backend producer when it has
+     * few buffered messages, at most once per {@value PSC_ADAPTIVE_BATCHING_ADJUSTMENT_INTERVAL_MIN_MS}. Only
+     * effective when auto resolution is enabled and the backend producer is neither shared nor transactional. Default
+     * is false.
+     */
+    public final static String PSC_ADAPTIVE_BATCHING_ENABLED = "psc.adaptive.batching.enabled";
+
+    /**
+     * The produce latency target (in milliseconds) of adaptive batching. The latency is estimated from the maximum
+     * queue time and request latency the backend producer reports, which bounds its 99th percentile from above.
+     */
+    public final static String PSC_ADAPTIVE_BATCHING_LATENCY_TARGET_MS = "psc.adaptive.batching.latency.target.ms";
+
+    /**
+     * The upper bound of the linger time (in milliseconds) adaptive batching may configure.
+     */
+    public final static String PSC_ADAPTIVE_BATCHING_LINGER_MAX_MS = "psc.adaptive.batching.linger.max.ms";
+
+    /**
+     * The upper bound of the batch size (in bytes) adaptive batching may configure.
+     */
+    public final static String PSC_ADAPTIVE_BATCHING_BATCH_SIZE_MAX_BYTES = "psc.adaptive.batching.batch.size.max.bytes";
+
+    /**
+     * The minimum time (in milliseconds) between two backend producer swaps made only to apply adaptive batching
+     * adjustments. Adjustments are also applied, without this limit, whenever the backend producer is reset.
+     */
+    public final static String PSC_ADAPTIVE_BATCHING_ADJUSTMENT_INTERVAL_MIN_MS = "psc.adaptive.batching.adjustment.interval.min.ms";
+
+    /**
+     * Whether backend calls to each cluster (topic URI prefix) should go through a circuit breaker that is shared by
+     * all clients of the JVM. After {@value PSC_CIRCUIT_BREAKER_FAILURE_THRESHOLD} consecutive retriable failures the
+     * circuit opens: auto resolution stops retrying and resetting clients of that cluster, and producer sends fail fast
+     * with a {@link com.pinterest.psc.exception.producer.CircuitOpenException}. After
+     * {@value PSC_CIRCUIT_BREAKER_OPEN_MS} a single probing call is let through, which closes the circuit if it
+     * succeeds. Default is false.
+     */
+    public final static String PSC_CIRCUIT_BREAKER_ENABLED = "psc.circuit.breaker.enabled";
+
+    /**
+     * The number of consecutive retriable backend failures that open the circuit of a cluster. Default is 5.
+     */
+    public final static String PSC_CIRCUIT_BREAKER_FAILURE_THRESHOLD = "psc.circuit.breaker.failure.threshold";
+
+    /**
+     * The time (in milliseconds) an open circuit waits before letting a probing call through. Default is 30000.
+     */
+    public final static String PSC_CIRCUIT_BREAKER_OPEN_MS = "psc.circuit.breaker.open.ms";
+
     private final static String PSC_CLIENT_TYPE = "psc.client.type";
     public final static String PSC_CLIENT_TYPE_CONSUMER = "consumer";
     public final static String PSC_CLIENT_TYPE_PRODUCER = "producer";
@@ -493,6 +573,12 @@ public class PscConfiguration extends PropertiesConfiguration {
     protected static final String HOST = "host";
     protected static final String PORT = "port";
     protected static final String FREQUENCY_MS = "frequency.ms";
+    protected static final String HISTOGRAM_RESERVOIR = "histogram.reservoir";
+    protected static final String CARDINALITY_PARTITION_TOP_N = "cardinality.partition.top.n";
+    protected static final String CARDINALITY_MAX_SERIES_PER_METRIC = "cardinality.max.series.per.metric";
+    protected static final String SAMPLING_INTERVAL = "sampling.interval";
+    protected static final String SAMPLING_MODE = "sampling.mode";
+    protected static final String TRACING_ENABLED = "tracing.enabled";
 
     /**
      * {@value PSC_METRIC_REPORTING_ENABLED} expects a true/false value to indicate whether PSC should emit metrics that
@@ -534,6 +620,56 @@ public class PscConfiguration extends PropertiesConfiguration {
      */
     public static final String PSC_METRICS_FREQUENCY_MS = PSC_METRICS + "." + FREQUENCY_MS;
 
+    /**
+     * {@value PSC_METRICS_HISTOGRAM_RESERVOIR} expects the type of reservoir that backs histogram metrics. Valid values
+     * are {@value PSC_METRICS_HISTOGRAM_RESERVOIR_SLIDING_TIME_WINDOW} (the default), which keeps every value recorded
+     * over the last minute, and {@value PSC_METRICS_HISTOGRAM_RESERVOIR_LOG_BUCKETED}, which counts values in fixed
+     * log-linear buckets with bounded memory and reports the values recorded since the previous report.
+     */
+    public static final String PSC_METRICS_HISTOGRAM_RESERVOIR = PSC_METRICS + "." + HISTOGRAM_RESERVOIR;
+    public static final String PSC_METRICS_HISTOGRAM_RESERVOIR_SLIDING_TIME_WINDOW = "sliding.time.window";
+    public static final String PSC_METRICS_HISTOGRAM_RESERVOIR_LOG_BUCKETED = "log.bucketed";
+
+    /**
+     * {@value PSC_METRICS_CARDINALITY_PARTITION_TOP_N} expects the number of partitions per topic URI that partition
+     * level metrics are reported for. Partitions are ranked by their metric volume, and metrics of partitions outside
+     * the top N are aggregated into one series per topic URI with the partition tag <code>rolled_up</code>. The
+     * default is -1, which reports metrics of all partitions.
+     */
+    public static final String PSC_METRICS_CARDINALITY_PARTITION_TOP_N = PSC_METRICS + "." + CARDINALITY_PARTITION_TOP_N;
+
+    /**
+     * {@value PSC_METRICS_CARDINALITY_MAX_SERIES_PER_METRIC} expects the maximum number of tag sets (series) each
+     * metric is reported under in this process. Updates for further tag sets are aggregated into rolled up series.
+     * The default is -1, which does not limit the series count.
+     */
+    public static final String PSC_METRICS_CARDINALITY_MAX_SERIES_PER_METRIC = PSC_METRICS + "." + CARDINALITY_MAX_SERIES_PER_METRIC;
+
+    /**
+     * {@value PSC_METRICS_SAMPLING_INTERVAL} expects N so that per-message histogram metrics (e.g. message sizes and
+     * time lag) are updated for one in N messages of each partition, weighted by N. Per-message counters stay exact.
+     * Defaults to <code>1</code>, which updates histograms for every message.
+     */
+    public static final String PSC_METRICS_SAMPLING_INTERVAL = PSC_METRICS + "." + SAMPLING_INTERVAL;
+
+    /**
+     * {@value PSC_METRICS_SAMPLING_MODE} expects how messages are sampled when
+     * {@value PSC_METRICS_SAMPLING_INTERVAL} is greater than 1. Valid values are
+     * {@value PSC_METRICS_SAMPLING_MODE_DETERMINISTIC} (the default), which samples every Nth message of a partition,
+     * and {@value PSC_METRICS_SAMPLING_MODE_RANDOM}, which samples each message with probability 1/N.
+     */
+    public static final String PSC_METRICS_SAMPLING_MODE = PSC_METRICS + "." + SAMPLING_MODE;
+    public static final String PSC_METRICS_SAMPLING_MODE_DETERMINISTIC = "deterministic";
+    public static final String PSC_METRICS_SAMPLING_MODE_RANDOM = "random";
+
+    /**
+     * {@value PSC_METRICS_TRACING_ENABLED} expects a true/false value to indicate whether producers should attach a
+     * trace context (a trace id and a span timestamp) to the headers of each message, so consumers can report hop by
+     * hop latency of the message. A message sent with a trace context copied from a consumed message continues its
+     * trace. Defaults to <code>false</code>.
+     */
+    public static final String PSC_METRICS_TRACING_ENABLED = PSC_METRICS + "." + TRACING_ENABLED;
+
 
     // **********************
     // Environment Configuration
@@ -565,6 +701,26 @@ public class PscConfiguration extends PropertiesConfiguration {
      */
     public static final String PSC_DISCOVERY_FALLBACK_FILE = PSC_DISCOVERY + "." + FALLBACK_FILE;
 
+    protected static final String FALLBACK_CACHE_TTL_MS = "fallback.cache.ttl.ms";
+
+    /**
+     * {@value PSC_DISCOVERY_FALLBACK_CACHE_TTL_MS} expects the number of milliseconds the parsed content of the
+     * fallback discovery file is cached for. Changes to the file are picked up sooner when the file system reports
+     * them. A non-positive value disables the cache and the file is read on every lookup. Defaults to 300000.
+     */
+    public static final String PSC_DISCOVERY_FALLBACK_CACHE_TTL_MS = PSC_DISCOVERY + "." + FALLBACK_CACHE_TTL_MS;
+
+    protected static final String CLASSPATH_SCAN_ENABLED = "classpath.scan.enabled";
+
+    /**
+     * {@value PSC_DISCOVERY_CLASSPATH_SCAN_ENABLED} expects a true/false value to indicate whether, in addition to the
+     * {@link ServiceDiscoveryProvider}s registered in <code>META-INF/services</code>, providers should be found by
+     * scanning the classpath for classes annotated with
+     * {@link com.pinterest.psc.discovery.ServiceDiscoveryPlugin}. The scan runs once per process but can be slow on
+     * large classpaths; it is meant for providers that are not registered yet. Defaults to <code>false</code>.
+     */
+    public static final String PSC_DISCOVERY_CLASSPATH_SCAN_ENABLED = PSC_DISCOVERY + "." + CLASSPATH_SCAN_ENABLED;
+
     public PscConfiguration() {
         super();
     }
@@ -54,6 +54,18 @@ public class PscConfigurationInternal {
     private int autoResolutionRetryCount;
     private MetricsReporterConfiguration metricsReporterConfiguration;
     private boolean proactiveSslResetEnabled;
+    private boolean proactiveSslResetWarmStandbyEnabled;
+    private boolean sharedBackendProducerEnabled;
+    private boolean idempotentSendEnabled;
+    private int deduplicationWindowSize;
+    private boolean adaptiveBatchingEnabled;
+    private int adaptiveBatchingLatencyTargetMs;
+    private int adaptiveBatchingLingerMaxMs;
+    private int adaptiveBatchingBatchSizeMaxBytes;
+    private long adaptiveBatchingAdjustmentIntervalMinMs;
+    private boolean circuitBreakerEnabled;
+    private int circuitBreakerFailureThreshold;
+    private long circuitBreakerOpenMs;
 
     public PscConfigurationInternal() {
     }
@@ -159,7 +171,18 @@ public class PscConfigurationInternal {
             getConfiguration().getInt(PscConfiguration.PSC_METRICS_REPORTER_PARALLELISM),
             getConfiguration().getString(PscConfiguration.PSC_METRICS_HOST),
             getConfiguration().getInt(PscConfiguration.PSC_METRICS_PORT),
-            getConfiguration().getInt(PscConfiguration.PSC_METRICS_FREQUENCY_MS)
+            getConfiguration().getInt(PscConfiguration.PSC_METRICS_FREQUENCY_MS),
+            getConfiguration().getString(
+                    PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR,
+                    PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR_SLIDING_TIME_WINDOW
+            ),
+            getConfiguration().getInt(PscConfiguration.PSC_METRICS_CARDINALITY_PARTITION_TOP_N, -1),
+            getConfiguration().getInt(PscConfiguration.PSC_METRICS_CARDINALITY_MAX_SERIES_PER_METRIC, -1),
+            Math.max(1, getConfiguration().getInt(PscConfiguration.PSC_METRICS_SAMPLING_INTERVAL, 1)),
+            getConfiguration().getString(
+                    PscConfiguration.PSC_METRICS_SAMPLING_MODE,
+                    PscConfiguration.PSC_METRICS_SAMPLING_MODE_DETERMINISTIC
+            )
         );
     }
 
@@ -198,6 +221,26 @@ public class PscConfigurationInternal {
             this.metricsReporterClass = (configuredMetricsReporterClass == null || configuredMetricsReporterClass.trim().isEmpty()) ?
                     (PscUtils.isEc2Host() ? OpenTSDBReporter.class.getName() : NullMetricsReporter.class.getName()) :
                     configuredMetricsReporterClass;
+
+            String histogramReservoir = pscConfiguration.getString(PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR);
+            if (histogramReservoir != null &&
+                    !histogramReservoir.equals(PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR_SLIDING_TIME_WINDOW) &&
+                    !histogramReservoir.equals(PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR_LOG_BUCKETED)) {
+                invalidConfigs.put(
+                        String.format("%s: Unsupported histogram reservoir '%s'",
+                                PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR, histogramReservoir), null
+                );
+            }
+
+            String samplingMode = pscConfiguration.getString(PscConfiguration.PSC_METRICS_SAMPLING_MODE);
+            if (samplingMode != null &&
+                    !samplingMode.equals(PscConfiguration.PSC_METRICS_SAMPLING_MODE_DETERMINISTIC) &&
+                    !samplingMode.equals(PscConfiguration.PSC_METRICS_SAMPLING_MODE_RANDOM)) {
+                invalidConfigs.put(
+                        String.format("%s: Unsupported sampling mode '%s'",
+                                PscConfiguration.PSC_METRICS_SAMPLING_MODE, samplingMode), null
+                );
+            }
         }
 
         // auto resolution
@@ -211,6 +254,42 @@ public class PscConfigurationInternal {
         // SSL reset
         Boolean proactiveSslResetEnabled = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_PROACTIVE_SSL_RESET_ENABLED, Boolean.class, invalidConfigs);
         this.proactiveSslResetEnabled = proactiveSslResetEnabled != null ? proactiveSslResetEnabled : false;    // false by default
+        Boolean proactiveSslResetWarmStandbyEnabled = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_PROACTIVE_SSL_RESET_WARM_STANDBY_ENABLED, Boolean.class, invalidConfigs);
+        this.proactiveSslResetWarmStandbyEnabled = proactiveSslResetWarmStandbyEnabled != null ? proactiveSslResetWarmStandbyEnabled : true;
+
+        // backend producer sharing
+        Boolean sharedBackendProducerEnabled = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_SHARED_BACKEND_PRODUCER_ENABLED, Boolean.class, invalidConfigs);
+        this.sharedBackendProducerEnabled = sharedBackendProducerEnabled != null ? sharedBackendProducerEnabled : false;    // false by default
+
+        // producer sequence ids and consumer deduplication
+        Boolean idempotentSendEnabled = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_IDEMPOTENT_SEND_ENABLED, Boolean.class, invalidConfigs);
+        this.idempotentSendEnabled = idempotentSendEnabled != null ? idempotentSendEnabled : false;    // false by default
+        Integer deduplicationWindowSize = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_DEDUPLICATION_WINDOW_SIZE, Integer.class, invalidConfigs);
+        this.deduplicationWindowSize = deduplicationWindowSize != null ? Math.max(deduplicationWindowSize, 0) : 0;    // disabled by default
+
+        // circuit breaker
+        Boolean circuitBreakerEnabled = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_CIRCUIT_BREAKER_ENABLED, Boolean.class, invalidConfigs);
+        this.circuitBreakerEnabled = circuitBreakerEnabled != null ? circuitBreakerEnabled : false;    // false by default
+        if (this.circuitBreakerEnabled) {
+            Integer circuitBreakerFailureThreshold = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_CIRCUIT_BREAKER_FAILURE_THRESHOLD, Integer.class, invalidConfigs);
+            this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold != null ? Math.max(circuitBreakerFailureThreshold, 1) : 5;
+            Long circuitBreakerOpenMs = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_CIRCUIT_BREAKER_OPEN_MS, Long.class, invalidConfigs);
+            this.circuitBreakerOpenMs = circuitBreakerOpenMs != null ? Math.max(circuitBreakerOpenMs, 0) : 30000;
+        }
+
+        // adaptive batching
+        Boolean adaptiveBatchingEnabled = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_ADAPTIVE_BATCHING_ENABLED, Boolean.class, invalidConfigs);
+        this.adaptiveBatchingEnabled = adaptiveBatchingEnabled != null ? adaptiveBatchingEnabled : false;    // false by default
+        if (this.adaptiveBatchingEnabled) {
+            Integer adaptiveBatchingLatencyTargetMs = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_ADAPTIVE_BATCHING_LATENCY_TARGET_MS, Integer.class, invalidConfigs);
+            this.adaptiveBatchingLatencyTargetMs = adaptiveBatchingLatencyTargetMs != null ? Math.max(adaptiveBatchingLatencyTargetMs, 1) : 200;
+            Integer adaptiveBatchingLingerMaxMs = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_ADAPTIVE_BATCHING_LINGER_MAX_MS, Integer.class, invalidConfigs);
+            this.adaptiveBatchingLingerMaxMs = adaptiveBatchingLingerMaxMs != null ? Math.max(adaptiveBatchingLingerMaxMs, 0) : 100;
+            Integer adaptiveBatchingBatchSizeMaxBytes = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_ADAPTIVE_BATCHING_BATCH_SIZE_MAX_BYTES, Integer.class, invalidConfigs);
+            this.adaptiveBatchingBatchSizeMaxBytes = adaptiveBatchingBatchSizeMaxBytes != null ? Math.max(adaptiveBatchingBatchSizeMaxBytes, 1) : 1048576;
+            Long adaptiveBatchingAdjustmentIntervalMinMs = verifyConfigHasValue(pscConfiguration, PscConfiguration.PSC_ADAPTIVE_BATCHING_ADJUSTMENT_INTERVAL_MIN_MS, Long.class, invalidConfigs);
+            this.adaptiveBatchingAdjustmentIntervalMinMs = adaptiveBatchingAdjustmentIntervalMinMs != null ? Math.max(adaptiveBatchingAdjustmentIntervalMinMs, 0) : 600000;
+        }
     }
 
     public void logConfiguration() {
@@ -261,11 +340,7 @@ public class PscConfigurationInternal {
         if (pscConfigTopicUri == null || pscConfigTopicUri.isEmpty())
             return;
 
-        PscConfigurationReporter pscConfigurationReporter = new PscConfigurationReporter(
-                pscConfigTopicUri,
-                confToReport
-        );
-        new Thread(pscConfigurationReporter).start();
+        PscConfigurationReporter.getInstance().report(pscConfigTopicUri, confToReport);
     }
 
     private void validateConsumerConfiguration(boolean isLenient, boolean isLogConfiguration) throws ConfigurationException {
@@ -722,6 +797,14 @@ public class PscConfigurationInternal {
         return PscConfiguration.FALLBACK_FILE;
     }
 
+    public static String getPscDiscoveryServiceProviderFallbackCacheTtlConfigName() {
+        return PscConfiguration.FALLBACK_CACHE_TTL_MS;
+    }
+
+    public static String getPscDiscoveryClasspathScanEnabledConfigName() {
+        return PscConfiguration.CLASSPATH_SCAN_ENABLED;
+    }
+
     public String getClientType() {
         return pscConfiguration.getString(PSC_CLIENT_TYPE);
     }
@@ -742,10 +825,58 @@ public class PscConfigurationInternal {
         return proactiveSslResetEnabled;
     }
 
+    public boolean isProactiveSslResetWarmStandbyEnabled() {
+        return proactiveSslResetWarmStandbyEnabled;
+    }
+
+    public boolean isSharedBackendProducerEnabled() {
+        return sharedBackendProducerEnabled;
+    }
+
+    public boolean isIdempotentSendEnabled() {
+        return idempotentSendEnabled;
+    }
+
+    public int getDeduplicationWindowSize() {
+        return deduplicationWindowSize;
+    }
+
+    public boolean isAdaptiveBatchingEnabled() {
+        return adaptiveBatchingEnabled;
+    }
+
+    public int getAdaptiveBatchingLatencyTargetMs() {
+        return adaptiveBatchingLatencyTargetMs;
+    }
+
+    public int getAdaptiveBatchingLingerMaxMs() {
+        return adaptiveBatchingLingerMaxMs;
+    }
+
+    public int getAdaptiveBatchingBatchSizeMaxBytes() {
+        return adaptiveBatchingBatchSizeMaxBytes;
+    }
+
+    public long getAdaptiveBatchingAdjustmentIntervalMinMs() {
+        return adaptiveBatchingAdjustmentIntervalMinMs;
+    }
+
     public int getAutoResolutionRetryCount() {
         return autoResolutionRetryCount;
     }
 
+    public boolean isCircuitBreakerEnabled() {
+        return circuitBreakerEnabled;
+    }
+
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    public long getCircuitBreakerOpenMs() {
+        return circuitBreakerOpenMs;
+    }
+
     public MetricsReporterConfiguration getMetricsReporterConfiguration() {
         return metricsReporterConfiguration;
     }
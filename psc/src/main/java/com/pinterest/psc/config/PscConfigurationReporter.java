@@ -1,7 +1,12 @@
 package com.pinterest.psc.config;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.stream.JsonWriter;
 import com.pinterest.psc.common.PscCommon;
+import com.pinterest.psc.exception.producer.ProducerException;
+import com.pinterest.psc.exception.startup.ConfigurationException;
 import com.pinterest.psc.logging.PscLogger;
 import com.pinterest.psc.metrics.NullMetricsReporter;
 import com.pinterest.psc.producer.PscProducer;
@@ -10,47 +15,253 @@ import com.pinterest.psc.serde.StringSerializer;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-public class PscConfigurationReporter implements Runnable {
+/**
+ * Emits the configuration of PSC clients to the configured config topic URI. The reporter is shared by all clients of
+ * the JVM: reports are queued by {@link #report(String, PscConfiguration)} and sent in batches from a single background
+ * thread, using one lazily created producer per discovery configuration. Identical configurations are only reported
+ * once they were sent successfully, and producers are closed once no reports were sent for a while. Reports still
+ * queued when the JVM shuts down are sent from a shutdown hook, as the reporter thread does not keep the JVM alive.
+ */
+public class PscConfigurationReporter {
     private static final PscLogger logger = PscLogger.getLogger(PscConfigurationReporter.class);
     private static final String PSC_CONFIGURATION_REPORTER_CLIENT_ID = "psc-config-producer-client";
+    private static final PscConfigurationReporter singletonPscConfigurationReporter = new PscConfigurationReporter(
+            1000, 60_000
+    );
 
-    private String pscConfigTopicUri;
-    private PscConfiguration pscConfiguration;
+    // the number of distinct configurations remembered for deduplication
+    static final int MAX_REPORTED_CONFIGURATIONS = 10_000;
+    private static final long SHUTDOWN_FLUSH_TIMEOUT_MS = 5_000;
 
-    public PscConfigurationReporter(String pscConfigTopicUri, PscConfiguration pscConfiguration) {
-        this.pscConfigTopicUri = pscConfigTopicUri;
-        this.pscConfiguration = pscConfiguration;
+    private final long batchDelayMs;
+    private final long producerIdleMs;
+    private final Set<String> reportedConfigurations = new HashSet<>();
+    // configurations that are queued or being sent, which are not queued again unless their emission fails
+    private final Set<String> inFlightConfigurations = new HashSet<>();
+    private final List<PendingReport> pendingReports = new ArrayList<>();
+    private ScheduledExecutorService executor;
+    // the below are only accessed by the executor thread
+    private final Map<String, PscProducer<String, String>> producers = new HashMap<>();
+    private ScheduledFuture<?> producerIdleFuture;
+
+    private static class PendingReport {
+        private final String reportKey;
+        private final String pscConfigTopicUri;
+        private final Map<String, Object> discoveryConfiguration;
+        private final String configurationJson;
+
+        private PendingReport(String reportKey,
+                              String pscConfigTopicUri,
+                              Map<String, Object> discoveryConfiguration,
+                              String configurationJson) {
+            this.reportKey = reportKey;
+            this.pscConfigTopicUri = pscConfigTopicUri;
+            this.discoveryConfiguration = discoveryConfiguration;
+            this.configurationJson = configurationJson;
+        }
     }
 
-    @Override
-    public void run() {
-        report();
+    @VisibleForTesting
+    PscConfigurationReporter(long batchDelayMs, long producerIdleMs) {
+        this.batchDelayMs = batchDelayMs;
+        this.producerIdleMs = producerIdleMs;
     }
 
-    public void report() {
+    /**
+     * @return the singleton instance of {@link PscConfigurationReporter}
+     */
+    public static PscConfigurationReporter getInstance() {
+        return singletonPscConfigurationReporter;
+    }
+
+    /**
+     * Queues the given configuration to be emitted to the given topic URI, unless the same configuration was already
+     * reported to it. This call does not block on the emission.
+     *
+     * @param pscConfigTopicUri the topic URI configurations are emitted to
+     * @param pscConfiguration  the configuration to report
+     */
+    public void report(String pscConfigTopicUri, PscConfiguration pscConfiguration) {
         // avoid infinite recursion
         if (PscConfigurationReporter.isThisYou(pscConfiguration))
             return;
 
-        PscConfiguration producerConfiguration = new PscConfiguration();
-        producerConfiguration.setProperty(PscConfiguration.PSC_PROJECT, "psc");
-        producerConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_CLIENT_ID, PSC_CONFIGURATION_REPORTER_CLIENT_ID);
-        producerConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_KEY_SERIALIZER, StringSerializer.class.getName());
-        producerConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_VALUE_SERIALIZER, StringSerializer.class.getName());
-        producerConfiguration.setProperty(PscConfiguration.PSC_METRICS_REPORTER_CLASS, NullMetricsReporter.class.getName());
-        producerConfiguration.setProperty(PscConfiguration.PSC_CONFIG_LOGGING_ENABLED, "false");
         // add any discovery config that the psc client may be using.
+        Map<String, Object> discoveryConfiguration = new TreeMap<>();
         pscConfiguration.getKeys("psc.discovery").forEachRemaining(key ->
-                producerConfiguration.setProperty(key, pscConfiguration.getProperty(key))
+                discoveryConfiguration.put(key, pscConfiguration.getProperty(key))
         );
+        String configurationJson = toJson(pscConfiguration, Collections.emptyMap());
+
+        String reportKey = pscConfigTopicUri + "\n" + configurationJson;
+        synchronized (this) {
+            if (reportedConfigurations.contains(reportKey) || !inFlightConfigurations.add(reportKey)) {
+                logger.info("Skipping emission of PSC configuration that was already emitted to {}.", pscConfigTopicUri);
+                return;
+            }
+            pendingReports.add(new PendingReport(
+                    reportKey,
+                    pscConfigTopicUri,
+                    discoveryConfiguration,
+                    toJson(pscConfiguration, ImmutableMap.of(
+                            "host", PscCommon.getHostname(),
+                            "timestamp", String.valueOf(System.currentTimeMillis())
+                    ))
+            ));
+            if (pendingReports.size() == 1)
+                getExecutor().schedule(this::flush, batchDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Emits all queued reports. This is called from the reporter thread.
+     */
+    @VisibleForTesting
+    void flush() {
+        List<PendingReport> reports;
+        synchronized (this) {
+            reports = new ArrayList<>(pendingReports);
+            pendingReports.clear();
+        }
+        if (reports.isEmpty())
+            return;
+
+        Set<PscProducer<String, String>> usedProducers = new HashSet<>();
+        for (PendingReport report : reports) {
+            try {
+                PscProducer<String, String> pscProducer = getOrCreateProducer(report.discoveryConfiguration);
+                usedProducers.add(pscProducer);
+                pscProducer.send(
+                        new PscProducerMessage<>(report.pscConfigTopicUri, report.configurationJson),
+                        (messageId, exception) -> {
+                            if (exception == null)
+                                logger.info("PSC configuration emission was completed. Reference: {}", messageId);
+                            else
+                                logger.warn("Exception thrown as a result of emitting PSC configuration.", exception);
+                            onReportCompleted(report, exception == null);
+                        }
+                );
+            } catch (Exception e) {
+                logger.error("Failed to emit PSC configs to {}: {}", report.pscConfigTopicUri, e.getMessage(), e);
+                onReportCompleted(report, false);
+            }
+        }
+        // the reporter thread does not keep the JVM alive, so do not let reports linger in producer buffers
+        for (PscProducer<String, String> pscProducer : usedProducers) {
+            try {
+                pscProducer.flush();
+            } catch (Exception e) {
+                logger.warn("Failed to flush PSC configuration emissions.", e);
+            }
+        }
+
+        if (producerIdleFuture != null)
+            producerIdleFuture.cancel(false);
+        producerIdleFuture = getExecutor().schedule(this::closeProducers, producerIdleMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Marks the configuration of the given report as reported if it was sent, or lets it be queued again if not.
+     */
+    private synchronized void onReportCompleted(PendingReport report, boolean sent) {
+        inFlightConfigurations.remove(report.reportKey);
+        if (!sent)
+            return;
+        if (reportedConfigurations.size() >= MAX_REPORTED_CONFIGURATIONS)
+            reportedConfigurations.clear();
+        reportedConfigurations.add(report.reportKey);
+    }
+
+    /**
+     * Sends the queued reports and closes the producers on the reporter thread, waiting up to the given timeout. This
+     * is called from the shutdown hook.
+     */
+    @VisibleForTesting
+    void flushAndCloseProducers(long timeoutMs) {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = this.executor;
+        }
+        if (executor == null)
+            return;
+        try {
+            executor.submit(() -> {
+                flush();
+                closeProducers();
+            }).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Failed to emit pending PSC configurations on shutdown.", e);
+        }
+    }
 
-        this.pscConfiguration.addProperty("host", PscCommon.getHostname());
-        this.pscConfiguration.addProperty("timestamp", System.currentTimeMillis());
+    @VisibleForTesting
+    void closeProducers() {
+        for (PscProducer<String, String> pscProducer : producers.values()) {
+            try {
+                pscProducer.close();
+            } catch (Exception e) {
+                logger.warn("Failed to close PSC configuration producer.", e);
+            }
+        }
+        producers.clear();
+    }
 
+    private PscProducer<String, String> getOrCreateProducer(Map<String, Object> discoveryConfiguration)
+            throws ConfigurationException, ProducerException {
+        String producerKey = discoveryConfiguration.toString();
+        PscProducer<String, String> pscProducer = producers.get(producerKey);
+        if (pscProducer == null) {
+            PscConfiguration producerConfiguration = new PscConfiguration();
+            producerConfiguration.setProperty(PscConfiguration.PSC_PROJECT, "psc");
+            producerConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_CLIENT_ID, PSC_CONFIGURATION_REPORTER_CLIENT_ID);
+            producerConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_KEY_SERIALIZER, StringSerializer.class.getName());
+            producerConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_VALUE_SERIALIZER, StringSerializer.class.getName());
+            producerConfiguration.setProperty(PscConfiguration.PSC_METRICS_REPORTER_CLASS, NullMetricsReporter.class.getName());
+            producerConfiguration.setProperty(PscConfiguration.PSC_CONFIG_LOGGING_ENABLED, "false");
+            discoveryConfiguration.forEach(producerConfiguration::setProperty);
+            pscProducer = createProducer(producerConfiguration);
+            producers.put(producerKey, pscProducer);
+        }
+        return pscProducer;
+    }
+
+    @VisibleForTesting
+    protected PscProducer<String, String> createProducer(PscConfiguration producerConfiguration)
+            throws ConfigurationException, ProducerException {
+        return new PscProducer<>(producerConfiguration);
+    }
+
+    private synchronized ScheduledExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("psc-config-reporter-%d").setDaemon(true).build()
+            );
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                    () -> flushAndCloseProducers(SHUTDOWN_FLUSH_TIMEOUT_MS), "psc-config-reporter-shutdown"
+            ));
+        }
+        return executor;
+    }
+
+    private static String toJson(PscConfiguration pscConfiguration, Map<String, String> additionalFields) {
         StringWriter stringWriter = new StringWriter();
         JsonWriter jsonWriter = new JsonWriter(stringWriter);
-        try (PscProducer<String, String> pscProducer = new PscProducer<>(producerConfiguration)) {
+        try {
             jsonWriter.beginObject();
             pscConfiguration.getKeys().forEachRemaining(key ->
             {
@@ -60,24 +271,13 @@ public class PscConfigurationReporter implements Runnable {
                     logger.warn("Failed to convert key/value to json: {}/{}", key, pscConfiguration.getString(key));
                 }
             });
+            for (Map.Entry<String, String> field : additionalFields.entrySet())
+                jsonWriter.name(field.getKey()).value(field.getValue());
             jsonWriter.endObject();
-
-            PscProducerMessage<String, String> pscProducerMessage = new PscProducerMessage<>(
-                    pscConfigTopicUri,
-                    stringWriter.toString()
-            );
-            pscProducer.send(
-                    pscProducerMessage,
-                    (messageId, exception) -> {
-                        if (exception == null)
-                            logger.info("PSC configuration emission was completed. Reference: {}", messageId);
-                        else
-                            logger.warn("Exception thrown as a result of emitting PSC configuration.", exception);
-                    }
-            );
-        } catch (Exception e) {
-            logger.error("Failed to emit PSC configs to {}: {}", pscConfigTopicUri, e.getMessage(), e);
+        } catch (IOException e) {
+            logger.warn("Failed to convert PSC configuration to json.", e);
         }
+        return stringWriter.toString();
     }
 
     public static boolean isThisYou(PscConfiguration pscConfiguration) {
@@ -0,0 +1,23 @@
+package com.pinterest.psc.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PscProducerToMemqProducerConfigConverter extends PscProducerToBackendProducerConfigConverter {
+    public static final String MEMQ_PRODUCER_LINGER_MS = "linger.ms";
+    public static final String MEMQ_PRODUCER_MAX_PAYLOAD_BYTES = "max.payload.bytes";
+    public static final String MEMQ_PRODUCER_MAX_INFLIGHT_REQUESTS = "max.inflight.requests";
+
+    @Override
+    protected Map<String, String> getConfigConverterMap() {
+        return new HashMap<String, String>() {
+            private static final long serialVersionUID = 1L;
+
+            {
+                put(PscConfiguration.BATCH_DURATION_MAX_MS, MEMQ_PRODUCER_LINGER_MS);
+                put(PscConfiguration.REQUEST_SIZE_MAX_BYTES, MEMQ_PRODUCER_MAX_PAYLOAD_BYTES);
+                put(PscConfiguration.INFLIGHT_REQUESTS_PER_CONNECTION_MAX, MEMQ_PRODUCER_MAX_INFLIGHT_REQUESTS);
+            }
+        };
+    }
+}
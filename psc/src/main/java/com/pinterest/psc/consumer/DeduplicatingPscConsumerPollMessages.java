@@ -0,0 +1,65 @@
+package com.pinterest.psc.consumer;
+
+import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.exception.ExceptionMessage;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A message iterator that skips the messages of the underlying iterator that are detected as duplicates by the given
+ * {@link PscMessageDeduplicator}.
+ */
+class DeduplicatingPscConsumerPollMessages<K, V> extends PscConsumerPollMessageIterator<K, V> {
+    private final PscConsumerPollMessageIterator<K, V> pscConsumerPollMessageIterator;
+    private final PscMessageDeduplicator pscMessageDeduplicator;
+    private PscConsumerMessage<K, V> nextMessage;
+
+    DeduplicatingPscConsumerPollMessages(
+            PscConsumerPollMessageIterator<K, V> pscConsumerPollMessageIterator,
+            PscMessageDeduplicator pscMessageDeduplicator
+    ) {
+        super();
+        this.pscConsumerPollMessageIterator = pscConsumerPollMessageIterator;
+        this.pscMessageDeduplicator = pscMessageDeduplicator;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (nextMessage == null && pscConsumerPollMessageIterator.hasNext()) {
+            PscConsumerMessage<K, V> pscConsumerMessage = pscConsumerPollMessageIterator.next();
+            if (!pscMessageDeduplicator.isDuplicate(pscConsumerMessage))
+                nextMessage = pscConsumerMessage;
+        }
+        return nextMessage != null;
+    }
+
+    @Override
+    public PscConsumerMessage<K, V> next() {
+        if (!hasNext())
+            throw new NoSuchElementException(ExceptionMessage.ITERATOR_OUT_OF_ELEMENTS);
+
+        PscConsumerMessage<K, V> pscConsumerMessage = nextMessage;
+        nextMessage = null;
+        return pscConsumerMessage;
+    }
+
+    @Override
+    public Set<TopicUriPartition> getTopicUriPartitions() {
+        return pscConsumerPollMessageIterator.getTopicUriPartitions();
+    }
+
+    @Override
+    public PscConsumerPollMessageIterator<K, V> iteratorFor(TopicUriPartition topicUriPartition) {
+        PscConsumerPollMessageIterator<K, V> perPartitionIterator = pscConsumerPollMessageIterator.iteratorFor(topicUriPartition);
+        return perPartitionIterator == null ?
+                null :
+                new DeduplicatingPscConsumerPollMessages<>(perPartitionIterator, pscMessageDeduplicator);
+    }
+
+    @Override
+    public void close() throws IOException {
+        pscConsumerPollMessageIterator.close();
+    }
+}
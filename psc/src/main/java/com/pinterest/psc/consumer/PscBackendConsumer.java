@@ -10,21 +10,25 @@ import com.pinterest.psc.common.kafka.KafkaErrors;
 import com.pinterest.psc.config.PscConfiguration;
 import com.pinterest.psc.config.PscConfigurationInternal;
 import com.pinterest.psc.exception.consumer.BackendConsumerException;
+import com.pinterest.psc.exception.consumer.CircuitOpenException;
 import com.pinterest.psc.exception.consumer.ConsumerException;
 import com.pinterest.psc.exception.consumer.WakeupException;
+import com.pinterest.psc.exception.handler.PscCircuitBreaker;
 import com.pinterest.psc.exception.handler.PscErrorHandler;
 import com.pinterest.psc.interceptor.ConsumerInterceptors;
 import com.pinterest.psc.logging.PscLogger;
 import com.pinterest.psc.metrics.PscMetricRegistryManager;
 import com.pinterest.psc.metrics.PscMetrics;
+import com.pinterest.psc.metrics.PscSummedGaugeMetric;
 
 import java.lang.reflect.InvocationTargetException;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * Objects of this class type are intended to act as mediators between {@link PscConsumer} and backend client library
@@ -37,9 +41,15 @@ import java.util.concurrent.TimeUnit;
  */
 public abstract class PscBackendConsumer<K, V> extends PscBackendClient<K, V> {
     private static final PscLogger logger = PscLogger.getLogger(PscBackendConsumer.class);
+    private static final PscLogger rateLimitedLogger = PscLogger.getRateLimitedLogger(PscBackendConsumer.class);
     protected PscConfigurationInternal pscConfigurationInternal;
     protected ConsumerInterceptors<K, V> consumerInterceptors;
     protected Class lastExceptionClass = null;
+    // topic URI partitions whose lag was reported last; guarded by this
+    private final PscSummedGaugeMetric partitionLagGauge =
+            new PscSummedGaugeMetric(PscMetrics.PSC_CONSUMER_LAG_MESSAGES_METRIC);
+    private final PscSummedGaugeMetric topicLagGauge =
+            new PscSummedGaugeMetric(PscMetrics.PSC_CONSUMER_TOPIC_LAG_MESSAGES_METRIC);
 
     /**
      * Performs common initializes across all backend consumer types, and delegates backend-specific initializations
@@ -62,12 +72,13 @@ public abstract class PscBackendConsumer<K, V> extends PscBackendClient<K, V> {
         this.pscConfigurationInternal = pscConfigurationInternal;
         this.autoResolutionEnabled = pscConfigurationInternal.isAutoResolutionEnabled();
         this.autoResolutionRetryCount = pscConfigurationInternal.getAutoResolutionRetryCount();
+        this.circuitBreaker = PscCircuitBreaker.get(topicUri, pscConfigurationInternal);
         initializeBackend(discoveryConfig, topicUri);
-        scheduler.scheduleAtFixedRate(
+        scheduleMetricsReporting(
+                getClass().getSimpleName() + "@" + topicUri,
                 this::reportConsumerMetrics,
-                new Random().nextInt(pscConfigurationInternal.getConfiguration().getInt(PscConfiguration.PSC_METRICS_FREQUENCY_MS)),
-                pscConfigurationInternal.getConfiguration().getInt(PscConfiguration.PSC_METRICS_FREQUENCY_MS),
-                TimeUnit.MILLISECONDS);
+                pscConfigurationInternal.getConfiguration().getInt(PscConfiguration.PSC_METRICS_FREQUENCY_MS)
+        );
     }
 
     /**
@@ -318,6 +329,44 @@ public abstract class PscBackendConsumer<K, V> extends PscBackendClient<K, V> {
      */
     public abstract long position(TopicUriPartition topicUriPartition) throws ConsumerException, WakeupException;
 
+    /**
+     * Returns the offset lag of the topic URI partitions assigned to this backend consumer, i.e. the number of messages
+     * between the consumption position and the end of each partition. The lag should be derived from state the backend
+     * client already tracks (e.g. fetch positions and high watermarks) without remote calls, so it can be called
+     * frequently. Partitions whose lag is not known yet are left out; backends that cannot track lag locally return an
+     * empty map.
+     *
+     * @return a map of topic URI partition to offset lag.
+     * @throws ConsumerException if there are validation issues or backend failures.
+     */
+    public Map<TopicUriPartition, Long> lag() throws ConsumerException {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Reports the given offset lag of each topic URI partition as a gauge, along with the total lag of each topic URI.
+     * The lag of partitions whose metrics are rolled up is summed, and gauges that no partition with a known lag
+     * contributes to anymore are removed.
+     *
+     * @param lag a map of topic URI partition to offset lag, as returned by {@link #lag()}.
+     */
+    protected synchronized void reportLag(Map<TopicUriPartition, Long> lag) {
+        Map<TopicUri, Long> topicLag = new HashMap<>();
+        for (Map.Entry<TopicUriPartition, Long> entry : lag.entrySet()) {
+            TopicUriPartition topicUriPartition = entry.getKey();
+            partitionLagGauge.add(
+                    topicUriPartition.getTopicUri(), topicUriPartition.getPartition(), entry.getValue(),
+                    pscConfigurationInternal
+            );
+            topicLag.merge(topicUriPartition.getTopicUri(), entry.getValue(), Long::sum);
+        }
+        topicLag.forEach((topicUri, totalLag) ->
+                topicLagGauge.add(topicUri, PscUtils.NO_PARTITION, totalLag, pscConfigurationInternal)
+        );
+        partitionLagGauge.report();
+        topicLagGauge.report();
+    }
+
     /**
      * Finds the corresponding message id of a timestamp for each of the given topic URI partitions.
      *
@@ -334,7 +383,7 @@ public abstract class PscBackendConsumer<K, V> extends PscBackendClient<K, V> {
      * @throws ConsumerException if there are validation issues or backend failures.
      */
     public void close(Duration timeout) throws ConsumerException {
-        scheduler.shutdown();
+        cancelMetricsReporting();
     }
 
     /**
@@ -460,9 +509,9 @@ public abstract class PscBackendConsumer<K, V> extends PscBackendClient<K, V> {
             logger.debug("Auto resolution status: {} (remaining retries: {})", autoResolutionEnabled, autoResolutionRetryCount - retries);
             logger.debug("Follow up action to this exception: {}", followupAction.actionType);
         } else {
-            logger.warn("Exception {} caught from the backend consumer:", exception.getClass().getName(), exception);
-            logger.warn("Auto resolution status: {} (remaining retries: {})", autoResolutionEnabled, autoResolutionRetryCount - retries);
-            logger.warn("Follow up action to this exception: {}", followupAction.actionType);
+            rateLimitedLogger.warn("Exception {} caught from the backend consumer:", exception.getClass().getName(), exception);
+            rateLimitedLogger.warn("Auto resolution status: {} (remaining retries: {})", autoResolutionEnabled, autoResolutionRetryCount - retries);
+            rateLimitedLogger.warn("Follow up action to this exception: {}", followupAction.actionType);
         }
     }
 
@@ -488,6 +537,50 @@ public abstract class PscBackendConsumer<K, V> extends PscBackendClient<K, V> {
         );
     }
 
+    /**
+     * Fails fast if the circuit of the backend cluster is open (see {@link PscCircuitBreaker}).
+     *
+     * @throws CircuitOpenException if the circuit of the backend cluster is open
+     */
+    protected void ensureCircuitAllowsRequest() throws CircuitOpenException {
+        if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+            throw new CircuitOpenException(String.format(
+                    "Circuit of %s is open; not calling the backend consumer.", circuitBreaker.getTopicUriPrefix()
+            ));
+        }
+    }
+
+    /**
+     * Executes a backend call that goes to the backend cluster (as opposed to one that is served locally by the backend
+     * consumer, such as an assignment lookup), retrying it as needed. The call fails fast if the circuit of the cluster
+     * is open, and its success is reported to the circuit breaker of the cluster.
+     *
+     * @param backendCaller               the backend call
+     * @param activeTopicUrisOrPartitions involved topic URIs or topic URI partitions
+     * @throws ConsumerException if the backend call fails and cannot be retried; a {@link CircuitOpenException} if the
+     *                           circuit of the backend cluster is open
+     */
+    protected void executeRemoteBackendCallWithRetries(Runnable backendCaller, Set activeTopicUrisOrPartitions) throws ConsumerException {
+        ensureCircuitAllowsRequest();
+        executeBackendCallWithRetries(() -> {
+            backendCaller.run();
+            recordBackendSuccess();
+        }, activeTopicUrisOrPartitions);
+    }
+
+    /**
+     * Executes a backend call that goes to the backend cluster and returns its result; see
+     * {@link #executeRemoteBackendCallWithRetries(Runnable, Set)}.
+     */
+    protected <T> T executeRemoteBackendCallWithRetriesAndReturn(Callable<T> backendCaller, Set activeTopicUrisOrPartitions) throws ConsumerException {
+        ensureCircuitAllowsRequest();
+        return executeBackendCallWithRetriesAndReturn(() -> {
+            T result = backendCaller.call();
+            recordBackendSuccess();
+            return result;
+        }, activeTopicUrisOrPartitions);
+    }
+
     protected void executeBackendCallWithRetries(Runnable backendCaller) throws ConsumerException {
         executeBackendCallWithRetries(backendCaller, null);
     }
@@ -513,6 +606,42 @@ public abstract class PscBackendConsumer<K, V> extends PscBackendClient<K, V> {
         }
     }
 
+    /**
+     * Executes a backend call that takes a timeout, retrying it as needed for no longer than the given timeout in total.
+     * Each try is given the time that remains of the timeout, and backoffs between tries do not go past it.
+     *
+     * @param backendCaller               the backend call, given the remaining timeout
+     * @param timeout                     the total time the call and its retries may take
+     * @param activeTopicUrisOrPartitions involved topic URIs or topic URI partitions
+     * @return the result of the backend call
+     * @throws ConsumerException if the backend call fails and cannot be retried within the timeout; a
+     *                           {@link CircuitOpenException} if the circuit of the backend cluster is open
+     */
+    protected <T> T executeBackendCallWithinTimeout(
+            Function<Duration, T> backendCaller, Duration timeout, Set activeTopicUrisOrPartitions
+    ) throws ConsumerException {
+        long deadlineMs = getDeadlineMs(timeout);
+        setRetryDeadline(deadlineMs);
+        try {
+            return executeRemoteBackendCallWithRetriesAndReturn(
+                    () -> backendCaller.apply(Duration.ofMillis(Math.max(0, deadlineMs - System.currentTimeMillis()))),
+                    activeTopicUrisOrPartitions
+            );
+        } finally {
+            clearRetryDeadline();
+        }
+    }
+
+    private static long getDeadlineMs(Duration timeout) {
+        long nowMs = System.currentTimeMillis();
+        try {
+            long timeoutMs = timeout.toMillis();
+            return timeoutMs >= Long.MAX_VALUE - nowMs ? Long.MAX_VALUE : nowMs + timeoutMs;
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
     protected <T> T executeBackendCallWithRetriesAndReturn(Callable<T> backendCaller) throws ConsumerException {
         return executeBackendCallWithRetriesAndReturn(backendCaller, null);
     }
@@ -5,7 +5,6 @@ import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.pinterest.psc.common.BaseTopicUri;
 import com.pinterest.psc.common.MessageId;
-import com.pinterest.psc.common.PscCommon;
 import com.pinterest.psc.common.TopicUri;
 import com.pinterest.psc.common.TopicUriPartition;
 import com.pinterest.psc.config.PscConfiguration;
@@ -25,14 +24,16 @@ import com.pinterest.psc.interceptor.Interceptors;
 import com.pinterest.psc.interceptor.TypePreservingInterceptor;
 import com.pinterest.psc.interceptor.ConsumerInterceptors;
 import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.logging.PscLoggingContext;
 import com.pinterest.psc.metrics.Metric;
 import com.pinterest.psc.metrics.MetricName;
+import com.pinterest.psc.metrics.PscEvent;
+import com.pinterest.psc.metrics.PscFlightRecorder;
 import com.pinterest.psc.metrics.PscMetricRegistryManager;
 import com.pinterest.psc.metrics.PscMetrics;
 import com.pinterest.psc.serde.Deserializer;
 import org.apache.commons.configuration2.Configuration;
 
-import java.lang.management.ManagementFactory;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -47,6 +48,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -55,12 +57,7 @@ import java.util.stream.Collectors;
 
 public class PscConsumer<K, V> implements AutoCloseable {
     private static final PscLogger logger = PscLogger.getLogger(PscConsumer.class);
-
-    static {
-        logger.addContext("pscPid", ManagementFactory.getRuntimeMXBean().getName().split("@")[0]);
-        logger.addContext("pscTid", String.valueOf(Thread.currentThread().getId()));
-        logger.addContext("pscHost", PscCommon.getHostname());
-    }
+    private static final PscLogger rateLimitedLogger = PscLogger.getRateLimitedLogger(PscConsumer.class);
 
     private static final long NO_CURRENT_THREAD = -1L;
     private ExecutorService listenerExecutor;
@@ -70,6 +67,8 @@ public class PscConsumer<K, V> implements AutoCloseable {
     private MessageListener<K, V> messageListener;
     private Interceptors<K, V> interceptors;
     private ConsumerInterceptors<K, V> consumerInterceptors;
+    // drops duplicate messages based on producer sequence ids; null if deduplication is disabled
+    private PscMessageDeduplicator pscMessageDeduplicator;
 
     // flags
     private final AtomicBoolean closed = new AtomicBoolean(false);
@@ -90,6 +89,7 @@ public class PscConsumer<K, V> implements AutoCloseable {
     private PscMetricRegistryManager pscMetricRegistryManager;
 
     private final PscConfigurationInternal pscConfigurationInternal;
+    private PscLoggingContext loggingContext;
 
     // currentThread holds the threadId of the current thread accessing PscConsumer and is used to prevent
     // multi-threaded access
@@ -182,6 +182,8 @@ public class PscConsumer<K, V> implements AutoCloseable {
 
     @SuppressWarnings("unchecked")
     private void initialize() {
+        loggingContext = PscLoggingContext.forClient(pscConfigurationInternal.getPscConsumerClientId());
+        loggingContext.attach(logger);
         Deserializer<K> keyDeserializer = pscConfigurationInternal.getPscConsumerKeyDeserializer();
         Deserializer<V> valueDeserializer = pscConfigurationInternal.getPscConsumerValueDeserializer();
 
@@ -192,6 +194,8 @@ public class PscConsumer<K, V> implements AutoCloseable {
         interceptors = new Interceptors<>(rawInterceptors, typedInterceptors, pscConfigurationInternal);
         consumerInterceptors = new ConsumerInterceptors<>(interceptors, pscConfigurationInternal, keyDeserializer, valueDeserializer);
         messageListener = pscConfigurationInternal.getPscConsumerMessageListener();
+        if (pscConfigurationInternal.getDeduplicationWindowSize() > 0)
+            pscMessageDeduplicator = new PscMessageDeduplicator(pscConfigurationInternal.getDeduplicationWindowSize(), pscConfigurationInternal);
 
         creatorManager = new PscConsumerCreatorManager();
         environment = pscConfigurationInternal.getEnvironment();
@@ -537,7 +541,7 @@ public class PscConsumer<K, V> implements AutoCloseable {
                 try {
                     messageListener.handle(this, message);
                 } catch (Throwable t) {
-                    logger.error("Message listener failed to process message: {}", message, t);
+                    rateLimitedLogger.error("Message listener failed to process message: {}", message, t);
                 }
             }
         }
@@ -664,7 +668,7 @@ public class PscConsumer<K, V> implements AutoCloseable {
         if (threadId != this.currentThread.get() && !this.currentThread.compareAndSet(NO_CURRENT_THREAD, threadId))
             throw new ConcurrentModificationException(ExceptionMessage.MULTITHREADED_EXCEPTION);
         refcount.incrementAndGet();
-        logger.addContext("pscTid", String.valueOf(this.currentThread.get()));
+        loggingContext.attach(logger);
     }
 
     /**
@@ -716,10 +720,12 @@ public class PscConsumer<K, V> implements AutoCloseable {
         List<PscConsumerPollMessageIterator<K, V>> consumersMessages = new ArrayList<>();
         for (PscBackendConsumer<K, V> backendConsumer : backendConsumers) {
             long startTs = System.currentTimeMillis();
+            PscEvent pollEvent = PscFlightRecorder.begin(PscFlightRecorder.Type.CONSUMER_POLL);
             PscConsumerPollMessageIterator<K, V> messages;
             try {
                 messages = backendConsumer.poll(pollTimeout);
             } catch (WakeupException we) {
+                describe(pollEvent, backendConsumer).detail("wakeup").commit();
                 if (this.wakeups.incrementAndGet() == backendConsumers.size()) {
                     // when all backend consumers are interrupted, reset wakeups and throw exception
                     this.wakeups.set(-1);
@@ -729,6 +735,9 @@ public class PscConsumer<K, V> implements AutoCloseable {
                     continue;
             }
             long stopTs = System.currentTimeMillis();
+            describe(pollEvent, backendConsumer)
+                    .count(messages == null ? 0 : messages.getTopicUriPartitions().size())
+                    .commit();
 
             if (messages != null)
                 consumersMessages.add(messages);
@@ -747,7 +756,27 @@ public class PscConsumer<K, V> implements AutoCloseable {
             }
         }
 
-        return new InterleavingPscConsumerPollMessages<>(consumersMessages);
+        PscConsumerPollMessageIterator<K, V> messages = new InterleavingPscConsumerPollMessages<>(consumersMessages);
+        return pscMessageDeduplicator == null ? messages : new DeduplicatingPscConsumerPollMessages<>(messages, pscMessageDeduplicator);
+    }
+
+    /**
+     * Adds the backend and topic URIs of the given backend consumer to the given event, if the event is enabled.
+     */
+    private PscEvent describe(PscEvent event, PscBackendConsumer<K, V> backendConsumer) throws ConsumerException {
+        if (!event.isEnabled())
+            return event;
+        Set<TopicUri> topicUris = new HashSet<>();
+        if (subscribed.get())
+            topicUris.addAll(backendConsumer.subscription());
+        else
+            backendConsumer.assignment().forEach(topicUriPartition -> topicUris.add(topicUriPartition.getTopicUri()));
+        if (topicUris.isEmpty())
+            return event;
+        TopicUri topicUri = topicUris.iterator().next();
+        return event.backend(topicUri.getBackend()).topicUri(topicUris.size() == 1 ?
+                topicUri.getTopicUriAsString() :
+                topicUri.getTopicUriAsString() + " (+" + (topicUris.size() - 1) + ")");
     }
 
     /**
@@ -777,6 +806,7 @@ public class PscConsumer<K, V> implements AutoCloseable {
         acquireAndEnsureOpen();
         try {
             for (PscBackendConsumer<K, V> backendConsumer : backendConsumers) {
+                PscEvent commitEvent = PscFlightRecorder.begin(PscFlightRecorder.Type.CONSUMER_COMMIT);
                 backendConsumer.commitAsync(new OffsetCommitCallback() {
                     @Override
                     public void onCompletion(Map<TopicUriPartition, MessageId> offsets, Exception exception) {
@@ -784,6 +814,7 @@ public class PscConsumer<K, V> implements AutoCloseable {
                         offsetCommitCallback.onCompletion(offsets, exception);
                     }
                 });
+                describe(commitEvent, backendConsumer).detail("async").commit();
             }
         } finally {
             release();
@@ -831,6 +862,7 @@ public class PscConsumer<K, V> implements AutoCloseable {
             Map<PscBackendConsumer<K, V>, Set<MessageId>> backendConsumers =
                     getNoAssignmentBackendConsumers(messageIds, false);
             for (Map.Entry<PscBackendConsumer<K, V>, Set<MessageId>> entry : backendConsumers.entrySet()) {
+                PscEvent commitEvent = PscFlightRecorder.begin(PscFlightRecorder.Type.CONSUMER_COMMIT);
                 entry.getKey().commitAsync(entry.getValue(), new OffsetCommitCallback() {
                     @Override
                     public void onCompletion(Map<TopicUriPartition, MessageId> offsets, Exception exception) {
@@ -838,6 +870,7 @@ public class PscConsumer<K, V> implements AutoCloseable {
                         offsetCommitCallback.onCompletion(offsets, exception);
                     }
                 });
+                describe(commitEvent, entry.getKey()).detail("async").count(entry.getValue().size()).commit();
             }
         } finally {
             release();
@@ -854,8 +887,10 @@ public class PscConsumer<K, V> implements AutoCloseable {
         acquireAndEnsureOpen();
         try {
             Set<MessageId> messageIds;
-            for (PscBackendConsumer backendConsumer : backendConsumers) {
+            for (PscBackendConsumer<K, V> backendConsumer : backendConsumers) {
+                PscEvent commitEvent = PscFlightRecorder.begin(PscFlightRecorder.Type.CONSUMER_COMMIT);
                 messageIds = backendConsumer.commitSync();
+                describe(commitEvent, backendConsumer).detail("sync").count(messageIds.size()).commit();
                 consumerInterceptors.onCommit(messageIds);
             }
         } finally {
@@ -881,8 +916,10 @@ public class PscConsumer<K, V> implements AutoCloseable {
             Map<PscBackendConsumer<K, V>, Set<MessageId>> backendConsumers =
                     getNoAssignmentBackendConsumers(messageIds, true);
             for (Map.Entry<PscBackendConsumer<K, V>, Set<MessageId>> entry : backendConsumers.entrySet()) {
+                PscEvent commitEvent = PscFlightRecorder.begin(PscFlightRecorder.Type.CONSUMER_COMMIT);
                 try {
                     entry.getKey().commitSync(entry.getValue());
+                    describe(commitEvent, entry.getKey()).detail("sync").count(entry.getValue().size()).commit();
                 } catch (WakeupException we) {
                     if (this.wakeups.incrementAndGet() == backendConsumers.size()) {
                         // when all backend consumers are interrupted, reset wakeups and throw exception
@@ -1408,6 +1445,97 @@ public class PscConsumer<K, V> implements AutoCloseable {
         }
     }
 
+    /**
+     * Prepares this consumer for the given URIs ahead of subscription or assignment, so the cost of backend consumer
+     * creation, service discovery, and the initial metadata fetch (with its connection setup) is not paid on the
+     * first poll. Backend consumers are created on the calling thread, and partition metadata is then fetched in
+     * parallel across backend consumers. This API is not thread-safe.
+     *
+     * @param topicUrisAsString the URIs to warm up.
+     * @param timeout           the maximum time to wait for all URIs to become ready; metadata fetches that are still
+     *                          in progress when the timeout expires are interrupted.
+     * @return the readiness of each given URI; a URI is ready if its backend consumer is created and its partition
+     * metadata is fetched within the timeout.
+     * @throws ConsumerException if the consumer is already closed, or any of the given URIs can not be parsed.
+     */
+    public Map<String, Boolean> warmUp(Collection<String> topicUrisAsString, Duration timeout) throws ConsumerException {
+        acquireAndEnsureOpen();
+        try {
+            long deadline = System.currentTimeMillis() + timeout.toMillis();
+            Map<String, Boolean> readiness = new ConcurrentHashMap<>();
+            Map<PscBackendConsumer<K, V>, Map<String, TopicUri>> topicUrisByBackendConsumer = new HashMap<>();
+            @SuppressWarnings("rawtypes")
+            Map<String, PscBackendConsumerCreator> creator = creatorManager.getBackendCreators();
+            for (String topicUriAsString : topicUrisAsString) {
+                TopicUri topicUri = validateTopicUri(topicUriAsString);
+                readiness.put(topicUriAsString, false);
+                if (System.currentTimeMillis() >= deadline)
+                    continue;
+                if (!creator.containsKey(topicUri.getBackend())) {
+                    logger.warn("Cannot warm up topic URI {} with unsupported backend", topicUriAsString);
+                    continue;
+                }
+                try {
+                    PscBackendConsumer<K, V> backendConsumer = creator.get(topicUri.getBackend()).getConsumer(
+                            environment,
+                            pscConfigurationInternal,
+                            consumerInterceptors,
+                            topicUri,
+                            wakeups.get() >= 0,
+                            false
+                    );
+                    topicUrisByBackendConsumer.computeIfAbsent(backendConsumer, c -> new HashMap<>())
+                            .put(topicUriAsString, topicUri);
+                } catch (ConsumerException | ConfigurationException exception) {
+                    logger.warn("Failed to create backend consumer while warming up topic URI {}", topicUriAsString, exception);
+                }
+            }
+
+            if (topicUrisByBackendConsumer.isEmpty())
+                return readiness;
+
+            // backend consumers are not thread-safe, so the URIs of each backend consumer are warmed up sequentially
+            ExecutorService executorService = Executors.newFixedThreadPool(
+                    topicUrisByBackendConsumer.size(),
+                    new ThreadFactoryBuilder().setNameFormat("psc-consumer-warmup-thread-%d").setDaemon(true).build()
+            );
+            List<WarmUpTask<K, V>> warmUpTasks = new ArrayList<>(topicUrisByBackendConsumer.size());
+            topicUrisByBackendConsumer.forEach((backendConsumer, topicUris) -> {
+                WarmUpTask<K, V> warmUpTask = new WarmUpTask<>(backendConsumer, topicUris, readiness, deadline);
+                warmUpTasks.add(warmUpTask);
+                executorService.submit(warmUpTask);
+            });
+            executorService.shutdown();
+            boolean completed = false;
+            boolean interrupted = false;
+            try {
+                completed = executorService.awaitTermination(
+                        Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS
+                );
+            } catch (InterruptedException exception) {
+                interrupted = true;
+            }
+            if (!completed) {
+                warmUpTasks.forEach(WarmUpTask::cancel);
+                // the cancelled tasks must hand control of their backend consumers back before this thread can use them
+                while (!executorService.isTerminated()) {
+                    try {
+                        executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException exception) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+
+            logger.info("Warmed up {} of {} topic URIs", readiness.values().stream().filter(ready -> ready).count(), readiness.size());
+            return new HashMap<>(readiness);
+        } finally {
+            release();
+        }
+    }
+
     /**
      * Returns the topic RNs available in the cluster that match the given regex pattern. Instead of returning
      * a list of TopicURIs as usual, we return RNs. The main difference between URIs and RNs in PSC is that we
@@ -1483,12 +1611,14 @@ public class PscConsumer<K, V> implements AutoCloseable {
         if (listenerExecutor != null)
             listenerExecutor.shutdown();
         creatorManager.reset();
+        if (consumerInterceptors != null)
+            consumerInterceptors.close();
 
         // Testing metrics
         //PscMetricRegistryManager.getInstance().reportToConsole();
         PscMetricRegistryManager.getInstance().shutdown(pscConfigurationInternal);
         logger.info("PSC consumer was closed.");
-        logger.clearContext();
+        PscLoggingContext.detach(logger);
     }
 
     /**
@@ -1814,6 +1944,27 @@ public class PscConsumer<K, V> implements AutoCloseable {
         return metrics;
     }
 
+    /**
+     * Returns the offset lag of the topic URI partitions assigned to this consumer, i.e. the number of messages between
+     * the consumption position and the end of each partition, as last observed by the backend consumers. The lag is
+     * derived from state the backend consumers already track (for Kafka, the <code>records-lag</code> of each partition
+     * as of the latest fetch), so no remote calls are made. Partitions whose lag is not known yet (e.g. before their
+     * first fetch), and partitions of backends that do not track lag locally, are not included.
+     * <p>
+     * The same values are reported as the {@value PscMetrics#PSC_CONSUMER_LAG_MESSAGES_METRIC} gauge of each partition,
+     * along with the {@value PscMetrics#PSC_CONSUMER_TOPIC_LAG_MESSAGES_METRIC} gauge of each topic URI.
+     *
+     * @return a map of topic URI partition to offset lag
+     * @throws ConsumerException if the consumer is closed or collecting the lag from backend consumers fails.
+     */
+    public Map<TopicUriPartition, Long> lag() throws ConsumerException {
+        ensureOpen();
+        Map<TopicUriPartition, Long> lag = new HashMap<>();
+        for (PscBackendConsumer<K, V> backendConsumer : backendConsumers)
+            lag.putAll(backendConsumer.lag());
+        return lag;
+    }
+
     private TopicUri validateTopicUri(String topicUriAsString) throws ConsumerException {
         if (topicUriAsString == null)
             throw new ConsumerException("Null topic URI was passed to the consumer API.");
@@ -1930,4 +2081,64 @@ public class PscConsumer<K, V> implements AutoCloseable {
     protected PscConfigurationInternal getPscConfiguration() {
         return pscConfigurationInternal;
     }
-}
\ No newline at end of file
+
+    /**
+     * Fetches the partition metadata of the URIs of one backend consumer for {@link #warmUp(Collection, Duration)}.
+     * The fetch in progress is interrupted when the task is cancelled. This happens under the lock of the task, which
+     * the task also holds while it records each result. An interrupt therefore never outlives the fetch it was meant
+     * for, and no result is recorded after the deadline. Interrupting the fetching thread, unlike waking up the backend
+     * consumer, leaves no pending state in the backend consumer that could surface in a later call.
+     */
+    private static class WarmUpTask<K, V> implements Runnable {
+        private final PscBackendConsumer<K, V> backendConsumer;
+        private final Map<String, TopicUri> topicUris;
+        private final Map<String, Boolean> readiness;
+        private final long deadline;
+        private Thread fetchingThread = null;
+        private boolean cancelled = false;
+
+        private WarmUpTask(
+                PscBackendConsumer<K, V> backendConsumer,
+                Map<String, TopicUri> topicUris,
+                Map<String, Boolean> readiness,
+                long deadline
+        ) {
+            this.backendConsumer = backendConsumer;
+            this.topicUris = topicUris;
+            this.readiness = readiness;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            for (Map.Entry<String, TopicUri> entry : topicUris.entrySet()) {
+                synchronized (this) {
+                    if (cancelled)
+                        return;
+                    fetchingThread = Thread.currentThread();
+                }
+                boolean ready = false;
+                try {
+                    Set<TopicUriPartition> partitions = backendConsumer.getPartitions(entry.getValue());
+                    ready = partitions != null && !partitions.isEmpty();
+                } catch (Exception exception) {
+                    logger.warn("Failed to fetch metadata while warming up topic URI {}", entry.getKey(), exception);
+                } finally {
+                    synchronized (this) {
+                        fetchingThread = null;
+                        // an interrupt that arrived after the fetch completed is not meant for the next one
+                        Thread.interrupted();
+                        if (!cancelled && System.currentTimeMillis() <= deadline)
+                            readiness.put(entry.getKey(), ready);
+                    }
+                }
+            }
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            if (fetchingThread != null)
+                fetchingThread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.pinterest.psc.consumer;
+
+import com.pinterest.psc.common.MessageId;
+import com.pinterest.psc.common.PscMessage;
+import com.pinterest.psc.common.PscUtils;
+import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetrics;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Detects duplicate messages based on the producer sequence id header of consumed messages. The most recent sequence
+ * ids (up to the configured window size) are remembered along with the location of the message that carried them, so
+ * the memory footprint is bounded by the window size. A message is a duplicate if its sequence id was already seen on
+ * a message at a different location; re-reading the same message (e.g. after a seek) is not a duplicate.
+ */
+class PscMessageDeduplicator {
+    private final PscConfigurationInternal pscConfigurationInternal;
+    private final Map<SequenceId, MessageLocation> seenSequenceIds;
+
+    PscMessageDeduplicator(int windowSize, PscConfigurationInternal pscConfigurationInternal) {
+        this.pscConfigurationInternal = pscConfigurationInternal;
+        this.seenSequenceIds = new LinkedHashMap<SequenceId, MessageLocation>(16, 0.75f, false) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SequenceId, MessageLocation> eldest) {
+                return size() > windowSize;
+            }
+        };
+    }
+
+    /**
+     * @param message the consumed message
+     * @return true if the message carries a sequence id that was seen on another message in the window; false if the
+     * message has no (valid) sequence id, or its sequence id is new.
+     */
+    synchronized boolean isDuplicate(PscConsumerMessage<?, ?> message) {
+        Map<String, byte[]> headers = message.getHeaders();
+        MessageId messageId = message.getMessageId();
+        if (headers == null || messageId == null)
+            return false;
+        byte[] sequenceIdBytes = headers.get(PscMessage.PSC_MESSAGE_HEADER_PSC_SEQUENCE_ID);
+        if (sequenceIdBytes == null || sequenceIdBytes.length != 2 * Long.BYTES)
+            return false;
+
+        ByteBuffer byteBuffer = ByteBuffer.wrap(sequenceIdBytes);
+        SequenceId sequenceId = new SequenceId(byteBuffer.getLong(), byteBuffer.getLong());
+        MessageLocation location = new MessageLocation(messageId.getTopicUriPartition(), messageId.getOffset());
+        MessageLocation firstLocation = seenSequenceIds.putIfAbsent(sequenceId, location);
+        if (firstLocation == null || firstLocation.equals(location))
+            return false;
+
+        TopicUriPartition topicUriPartition = messageId.getTopicUriPartition();
+        PscMetricRegistryManager.getInstance().incrementCounterMetric(
+                topicUriPartition == null ? null : topicUriPartition.getTopicUri(),
+                topicUriPartition == null ? PscUtils.NO_PARTITION : topicUriPartition.getPartition(),
+                PscMetrics.PSC_CONSUMER_DUPLICATE_MESSAGES_METRIC, pscConfigurationInternal
+        );
+        return true;
+    }
+
+    private static class SequenceId {
+        private final long producerId;
+        private final long sequence;
+
+        SequenceId(long producerId, long sequence) {
+            this.producerId = producerId;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof SequenceId))
+                return false;
+            SequenceId otherSequenceId = (SequenceId) other;
+            return producerId == otherSequenceId.producerId && sequence == otherSequenceId.sequence;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(producerId) + Long.hashCode(sequence);
+        }
+    }
+
+    private static class MessageLocation {
+        private final TopicUriPartition topicUriPartition;
+        private final long offset;
+
+        MessageLocation(TopicUriPartition topicUriPartition, long offset) {
+            this.topicUriPartition = topicUriPartition;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof MessageLocation))
+                return false;
+            MessageLocation otherLocation = (MessageLocation) other;
+            return offset == otherLocation.offset &&
+                    (topicUriPartition == null ?
+                            otherLocation.topicUriPartition == null :
+                            topicUriPartition.equals(otherLocation.topicUriPartition));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (topicUriPartition == null ? 0 : topicUriPartition.hashCode()) + Long.hashCode(offset);
+        }
+    }
+}
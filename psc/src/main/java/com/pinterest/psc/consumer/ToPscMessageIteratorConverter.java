@@ -4,13 +4,15 @@ import com.pinterest.psc.interceptor.ConsumerInterceptors;
 
 public abstract class ToPscMessageIteratorConverter<K, V> extends PscConsumerPollMessageIterator<K, V> {
     protected final ConsumerInterceptors<K, V> consumerInterceptors;
+    // converters are created when the backend poll returns, or when a view of its result is taken
+    private final long fetchTimestamp = System.currentTimeMillis();
 
     public ToPscMessageIteratorConverter(ConsumerInterceptors<K, V> consumerInterceptors) {
         this.consumerInterceptors = consumerInterceptors;
     }
 
     public final PscConsumerMessage<K, V> next() {
-        return consumerInterceptors.onConsume(getNextBackendMessage());
+        return consumerInterceptors.onConsume(getNextBackendMessage(), fetchTimestamp);
     }
 
     protected abstract PscConsumerMessage<byte[], byte[]> getNextBackendMessage();
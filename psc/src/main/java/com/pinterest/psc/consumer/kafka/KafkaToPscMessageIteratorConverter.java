@@ -23,6 +23,7 @@ import java.util.stream.Collectors;
 
 public class KafkaToPscMessageIteratorConverter<K, V> extends ToPscMessageIteratorConverter<K, V> {
     private static final PscLogger logger = PscLogger.getLogger(KafkaToPscMessageIteratorConverter.class);
+    private static final PscLogger rateLimitedLogger = PscLogger.getRateLimitedLogger(KafkaToPscMessageIteratorConverter.class);
     private final Iterator<ConsumerRecord<byte[], byte[]>> kafkaConsumerRecordIterator;
     private final Map<TopicPartition, Iterator<ConsumerRecord<byte[], byte[]>>> perTopicPartitionKafkaConsumerRecordIterator;
     private final Set<TopicUriPartition> topicUriPartitions;
@@ -113,13 +114,13 @@ public class KafkaToPscMessageIteratorConverter<K, V> extends ToPscMessageIterat
         if (pscConsumerMessage.getHeaders() != null) {
             if (pscConsumerMessage.getHeaders().containsKey(PscMessage.PSC_MESSAGE_HEADER_KEY_SIZE_BYTES) &&
                     PscCommon.byteArrayToInt(pscConsumerMessage.getHeader(PscMessage.PSC_MESSAGE_HEADER_KEY_SIZE_BYTES)) != keySize) {
-                logger.warn("[Kafka] Size of consumed message key does not match size of key from header!");
+                rateLimitedLogger.warn("[Kafka] Size of consumed message key does not match size of key from header!");
                 pscConsumerMessage.addTag(PscConsumerMessage.DefaultPscConsumerMessageTags.KEY_SIZE_MISMATCH_WITH_KEY_SIZE_HEADER);
                 pscConsumerMessage.setHeader(PscMessage.PSC_MESSAGE_HEADER_KEY_SIZE_BYTES, PscCommon.intToByteArray(keySize));
             }
             if (pscConsumerMessage.getHeaders().containsKey(PscMessage.PSC_MESSAGE_HEADER_VALUE_SIZE_BYTES) &&
                     PscCommon.byteArrayToInt(pscConsumerMessage.getHeader(PscMessage.PSC_MESSAGE_HEADER_VALUE_SIZE_BYTES)) != valueSize) {
-                logger.warn("[Kafka] Size of consumed message value does not match size of value from header!");
+                rateLimitedLogger.warn("[Kafka] Size of consumed message value does not match size of value from header!");
                 pscConsumerMessage.addTag(PscConsumerMessage.DefaultPscConsumerMessageTags.VALUE_SIZE_MISMATCH_WITH_VALUE_SIZE_HEADER);
                 pscConsumerMessage.setHeader(PscMessage.PSC_MESSAGE_HEADER_VALUE_SIZE_BYTES, PscCommon.intToByteArray(valueSize));
             }
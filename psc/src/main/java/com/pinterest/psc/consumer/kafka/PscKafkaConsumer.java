@@ -8,6 +8,7 @@ import com.pinterest.psc.common.PscUtils;
 import com.pinterest.psc.common.ServiceDiscoveryConfig;
 import com.pinterest.psc.common.TopicUri;
 import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.common.WarmStandbyClient;
 import com.pinterest.psc.common.kafka.KafkaErrors;
 import com.pinterest.psc.common.kafka.KafkaMessageId;
 import com.pinterest.psc.common.kafka.KafkaSslUtils;
@@ -25,6 +26,8 @@ import com.pinterest.psc.exception.handler.PscErrorHandler;
 import com.pinterest.psc.logging.PscLogger;
 import com.pinterest.psc.metrics.Metric;
 import com.pinterest.psc.metrics.MetricName;
+import com.pinterest.psc.metrics.PscEvent;
+import com.pinterest.psc.metrics.PscFlightRecorder;
 import com.pinterest.psc.metrics.PscMetricRegistryManager;
 import com.pinterest.psc.metrics.PscMetrics;
 import com.pinterest.psc.metrics.kafka.KafkaMetricsHandler;
@@ -51,11 +54,16 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
     private static final PscLogger logger = PscLogger.getLogger(PscKafkaConsumer.class);
+    private static final PscLogger rateLimitedLogger = PscLogger.getRateLimitedLogger(PscKafkaConsumer.class);
+    private static final long STANDBY_WARM_UP_TIMEOUT_MS = 30_000;
+    // the replaced Kafka consumer is closed on the polling thread, so it is not given the default 30s to leave cleanly
+    private static final long REPLACED_CONSUMER_CLOSE_TIMEOUT_MS = 1_000;
     private KafkaConsumer<byte[], byte[]> kafkaConsumer;
     private final Set<TopicUri> currentSubscription = new HashSet<>();
     private final Set<TopicUriPartition> currentAssignment = new HashSet<>();
@@ -64,6 +72,12 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
     private final AtomicReference<Boolean> resetOnNextInvocation = new AtomicReference(false);
     private long sslCertificateExpiryTimeInMillis;
     private boolean isSslEnabledInAnyActiveSusbcriptionOrAssignment = false;
+    // the replacement of the Kafka consumer, prepared ahead of a proactive SSL reset
+    private final WarmStandbyClient<KafkaConsumer<byte[], byte[]>> standbyKafkaConsumer = new WarmStandbyClient<>();
+    // guards the swap of the Kafka consumer against concurrent wakeups, so that none is lost with the replaced consumer
+    private final Object swapLock = new Object();
+    private boolean swapInProgress = false;
+    private boolean wokenUpDuringSwap = false;
 
     @Override
     public void initializeBackend(ServiceDiscoveryConfig discoveryConfig, TopicUri topicUri) {
@@ -106,6 +120,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
         Map<org.apache.kafka.common.MetricName, ? extends org.apache.kafka.common.Metric> kafkaMetrics = kafkaConsumer.metrics();
         KafkaMetricsHandler.handleKafkaClientMetrics(kafkaMetrics, backendTopicToTopicUri, false, pscConfigurationInternal);
         KafkaUtils.convertKafkaMetricsToPscMetrics(kafkaMetrics, metricValueProvider);
+        reportLag(KafkaMetricsHandler.getKafkaConsumerLag(kafkaMetrics, backendTopicToTopicUri));
     }
 
     public PscKafkaConsumer() {
@@ -294,8 +309,8 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
         // Reset Kafka consumer instance if SSL cert expiry time is approaching
         maybeResetBackendClient();
 
-        ConsumerRecords<byte[], byte[]> records = executeBackendCallWithRetriesAndReturn(
-                () -> kafkaConsumer.poll(pollTimeout), getActiveTopicUrisOrPartitions()
+        ConsumerRecords<byte[], byte[]> records = executeBackendCallWithinTimeout(
+                remainingTimeout -> kafkaConsumer.poll(remainingTimeout), pollTimeout, getActiveTopicUrisOrPartitions()
         );
         long stopTs = System.currentTimeMillis();
 
@@ -364,12 +379,12 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
             handleUninitializedKafkaConsumer("commitAsync()");
 
         if (offsetCommitCallback == null)
-            executeBackendCallWithRetries(
+            executeRemoteBackendCallWithRetries(
                     () -> kafkaConsumer.commitAsync(),
                     getActiveTopicUrisOrPartitions()
             );
         else {
-            executeBackendCallWithRetries(
+            executeRemoteBackendCallWithRetries(
                     () -> kafkaConsumer.commitAsync(new org.apache.kafka.clients.consumer.OffsetCommitCallback() {
                         @Override
                         public void onComplete(Map<TopicPartition, OffsetAndMetadata> offsets, Exception e) {
@@ -400,12 +415,12 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
 
         Map<TopicPartition, OffsetAndMetadata> maxOffsetByTopicPartition = getMaxOffsetByTopicPartition(messageIds);
         if (offsetCommitCallback == null) {
-            executeBackendCallWithRetries(
+            executeRemoteBackendCallWithRetries(
                     () -> kafkaConsumer.commitAsync(maxOffsetByTopicPartition, null),
                     getActiveTopicUrisOrPartitions()
             );
         } else {
-            executeBackendCallWithRetries(
+            executeRemoteBackendCallWithRetries(
                     () -> kafkaConsumer.commitAsync(maxOffsetByTopicPartition, new org.apache.kafka.clients.consumer.OffsetCommitCallback() {
                         @Override
                         public void onComplete(Map<TopicPartition, OffsetAndMetadata> offsets, Exception e) {
@@ -447,12 +462,12 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
         final Map<TopicPartition, OffsetAndMetadata> finalMaxOffsetByTopicPartition = maxOffsetByTopicPartition;
         if (offsetCommitCallback == null) {
             if (finalMaxOffsetByTopicPartition == null) {
-                executeBackendCallWithRetries(
+                executeRemoteBackendCallWithRetries(
                         () -> kafkaConsumer.commitAsync(),
                         getActiveTopicUrisOrPartitions()
                 );
             } else {
-                executeBackendCallWithRetries(
+                executeRemoteBackendCallWithRetries(
                         () -> kafkaConsumer.commitAsync(finalMaxOffsetByTopicPartition, null),
                         getActiveTopicUrisOrPartitions()
                 );
@@ -484,7 +499,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
                         }
                         offsetCommitCallback.onCompletion(pscOffsets, null);
                     } else {
-                        logger.warn("commitAsync failed, entering auto-resolution logic attempting to resolve " + e);
+                        rateLimitedLogger.warn("commitAsync failed, entering auto-resolution logic attempting to resolve {}", e.toString());
                         if (wasPreviouslyReset) {
                             logger.warn("Client was reset but commitAsync still failed", e);
                             incrementCounterMetricForSubscriptionsOrAssignments(PscMetrics.PSC_CONSUMER_AUTO_RESOLUTION_RETRY_FAILURE + "." + e.getClass().getName());
@@ -581,7 +596,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
         if (kafkaConsumer == null)
             handleUninitializedKafkaConsumer("commitSync()");
 
-        executeBackendCallWithRetries(
+        executeRemoteBackendCallWithRetries(
                 () -> kafkaConsumer.commitSync(),
                 getActiveTopicUrisOrPartitions()
         );
@@ -609,7 +624,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
             offsets.forEach(((topicPartition, offsetAndMetadata) -> {
                 TopicUri topicUri = backendTopicToTopicUri.get(topicPartition.topic());
                 if (topicUri == null)
-                    logger.warn("Could not find a registered topic URI for backend topic {}", topicPartition.topic());
+                    rateLimitedLogger.warn("Could not find a registered topic URI for backend topic {}", topicPartition.topic());
                 else
                     kafkaMessageIds.add(new KafkaMessageId(
                             new TopicUriPartition(topicUri.getTopicUriAsString(), topicPartition.partition()),
@@ -627,7 +642,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
             handleUninitializedKafkaConsumer("commitSync()");
 
         Map<TopicPartition, OffsetAndMetadata> maxOffsetByTopicPartition = getMaxOffsetByTopicPartition(messageIds);
-        executeBackendCallWithRetries(
+        executeRemoteBackendCallWithRetries(
                 () -> kafkaConsumer.commitSync(maxOffsetByTopicPartition),
                 activeTopicUrisOrPartitions.put(maxOffsetByTopicPartition.keySet())
         );
@@ -678,7 +693,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
         for (int assignedPartition : assignedPartitionsOfTopicUri)
             timestampByTopicPartition.put(new TopicPartition(kafkaUri.getTopic(), assignedPartition), timestamp);
         Map<TopicPartition, OffsetAndTimestamp> offsetsForTimestamp =
-                executeBackendCallWithRetriesAndReturn(
+                executeRemoteBackendCallWithRetriesAndReturn(
                         () -> kafkaConsumer.offsetsForTimes(timestampByTopicPartition),
                         activeTopicUrisOrPartitions.put(topicUri)
                 );
@@ -713,7 +728,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
         }
 
         Map<TopicPartition, OffsetAndTimestamp> offsetsForTimestamp =
-                executeBackendCallWithRetriesAndReturn(
+                executeRemoteBackendCallWithRetriesAndReturn(
                         () -> kafkaConsumer.offsetsForTimes(timestampByTopicPartition),
                         activeTopicUrisOrPartitions.put(seekPositions.keySet())
                 );
@@ -821,7 +836,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
 
         KafkaTopicUri kafkaTopicUri = (KafkaTopicUri) topicUri;
 
-        List<PartitionInfo> partitions = executeBackendCallWithRetriesAndReturn(
+        List<PartitionInfo> partitions = executeRemoteBackendCallWithRetriesAndReturn(
                 () -> kafkaConsumer.partitionsFor(kafkaTopicUri.getTopic()),
                 activeTopicUrisOrPartitions.put(topicUri)
         );
@@ -838,21 +853,28 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
             handleUninitializedKafkaConsumer("getTopicNamesInCluster");
 
         Set<String> topics = new HashSet<>();
-        executeBackendCallWithRetriesAndReturn(() -> kafkaConsumer.listTopics()).forEach(
+        executeRemoteBackendCallWithRetriesAndReturn(() -> kafkaConsumer.listTopics(), null).forEach(
             (topic, partitionInfo) -> topics.add(topic));
         return topics;
     }
 
     @Override
     public void wakeup() {
-        if (kafkaConsumer != null)
-            kafkaConsumer.wakeup();
+        synchronized (swapLock) {
+            if (kafkaConsumer != null)
+                kafkaConsumer.wakeup();
+            if (swapInProgress)
+                wokenUpDuringSwap = true;
+        }
+        // the retried call after the backoff surfaces the wakeup
+        interruptBackoff();
     }
 
     public void close() throws ConsumerException {
         if (kafkaConsumer == null)
             handleUninitializedKafkaConsumer("close()");
 
+        standbyKafkaConsumer.discard(KafkaConsumer::close);
         executeBackendCallWithRetries(() -> kafkaConsumer.close());
         currentSubscription.clear();
         currentAssignment.clear();
@@ -866,6 +888,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
         if (kafkaConsumer == null)
             handleUninitializedKafkaConsumer("close()");
 
+        standbyKafkaConsumer.discard(KafkaConsumer::close);
         executeBackendCallWithRetries(() -> kafkaConsumer.close(timeout));
         currentSubscription.clear();
         currentAssignment.clear();
@@ -882,7 +905,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
 
         OffsetAndMetadata offsetAndMetadata;
         try {
-            offsetAndMetadata = executeBackendCallWithRetriesAndReturn(() ->
+            offsetAndMetadata = executeRemoteBackendCallWithRetriesAndReturn(() ->
                     kafkaConsumer.committed(
                             new TopicPartition(kafkaTopicUri.getTopic(), topicUriPartition.getPartition())
                     ),
@@ -911,7 +934,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
             );
         }
 
-        return executeBackendCallWithRetriesAndReturn(
+        return executeRemoteBackendCallWithRetriesAndReturn(
                 () -> kafkaConsumer.beginningOffsets(topicPartitionToTopicUriPartition.keySet()).entrySet().stream().
                         collect(Collectors.toMap(
                                 e -> topicPartitionToTopicUriPartition.get(e.getKey()),
@@ -937,7 +960,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
             );
         }
 
-        return executeBackendCallWithRetriesAndReturn(
+        return executeRemoteBackendCallWithRetriesAndReturn(
                 () -> kafkaConsumer.endOffsets(topicPartitionToTopicUriPartition.keySet()).entrySet().stream().
                         collect(Collectors.toMap(
                                 e -> topicPartitionToTopicUriPartition.get(e.getKey()),
@@ -954,7 +977,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
 
         KafkaTopicUri kafkaTopicUri = (KafkaTopicUri) topicUriPartition.getTopicUri();
 
-        return executeBackendCallWithRetriesAndReturn(
+        return executeRemoteBackendCallWithRetriesAndReturn(
                 () -> kafkaConsumer.position(
                         new TopicPartition(kafkaTopicUri.getTopic(), topicUriPartition.getPartition())
                 ),
@@ -979,7 +1002,7 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
         }
 
         Map<TopicPartition, OffsetAndTimestamp> offsetByTopicPartition =
-                executeBackendCallWithRetriesAndReturn(
+                executeRemoteBackendCallWithRetriesAndReturn(
                         () -> kafkaConsumer.offsetsForTimes(
                                 timestampByTopicUriPartition.entrySet().stream().collect(Collectors.toMap(
                                         entry -> (new TopicPartition(
@@ -1015,10 +1038,22 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
         return metricValueProvider.getMetrics();
     }
 
+    /**
+     * Returns the lag of assigned partitions as tracked by the <code>records-lag</code> metrics of the Kafka consumer,
+     * which are updated on each fetch response; no broker calls are made.
+     */
+    @Override
+    public Map<TopicUriPartition, Long> lag() throws ConsumerException {
+        if (kafkaConsumer == null)
+            handleUninitializedKafkaConsumer("lag()");
+
+        return KafkaMetricsHandler.getKafkaConsumerLag(kafkaConsumer.metrics(), backendTopicToTopicUri);
+    }
+
     private Set<TopicPartition> waitForAssignment() throws ConsumerException {
         Set<TopicPartition> assignment = executeBackendCallWithRetriesAndReturn(() -> kafkaConsumer.assignment());
         while (assignment.isEmpty()) {
-            executeBackendCallWithRetries(() -> kafkaConsumer.poll(Duration.ofMillis(kafkaPollTimeoutMs)));
+            executeRemoteBackendCallWithRetries(() -> kafkaConsumer.poll(Duration.ofMillis(kafkaPollTimeoutMs)), null);
             try {
                 Thread.sleep(100);
             } catch (InterruptedException e) {
@@ -1049,9 +1084,15 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
                 return;
             }
             if (KafkaSslUtils.keyStoresExist(properties)) {
-                logger.info("Resetting backend Kafka client due to cert expiry at " +
-                        sslCertificateExpiryTimeInMillis);
-                resetBackendClient();
+                if (pscConfigurationInternal.isProactiveSslResetWarmStandbyEnabled()) {
+                    // keep using the current Kafka consumer until its replacement is ready
+                    if (!swapInStandbyKafkaConsumerIfReady())
+                        return;
+                } else {
+                    logger.info("Resetting backend Kafka client due to cert expiry at " +
+                            sslCertificateExpiryTimeInMillis);
+                    resetBackendClient();
+                }
 
                 // update with new SSL expiry timestamp
                 sslCertificateExpiryTimeInMillis = KafkaSslUtils.calculateSslCertExpiryTime(
@@ -1064,6 +1105,134 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
         }
     }
 
+    /**
+     * Swaps in the standby Kafka consumer if it is ready, or else starts preparing it if it is not being prepared yet.
+     *
+     * @return true if the Kafka consumer was replaced
+     * @throws ConsumerException if replacing the Kafka consumer fails
+     */
+    private boolean swapInStandbyKafkaConsumerIfReady() throws ConsumerException {
+        KafkaConsumer<byte[], byte[]> readyKafkaConsumer;
+        try {
+            readyKafkaConsumer = standbyKafkaConsumer.takeIfReady();
+        } catch (ExecutionException e) {
+            logger.warn("Failed to prepare a standby Kafka consumer; resetting the backend Kafka client instead.", e.getCause());
+            resetBackendClient();
+            return true;
+        }
+
+        if (readyKafkaConsumer == null) {
+            if (!standbyKafkaConsumer.isPending()) {
+                logger.info("Preparing a standby Kafka consumer due to cert expiry at {}", sslCertificateExpiryTimeInMillis);
+                // the standby consumer runs alongside the current one for a while, so it needs a client id of its own
+                properties.setProperty(
+                        ConsumerConfig.CLIENT_ID_CONFIG,
+                        pscConfigurationInternal.getPscConsumerClientId() + "-" + UUID.randomUUID()
+                );
+                Properties standbyProperties = new Properties();
+                standbyProperties.putAll(properties);
+                Set<TopicPartition> topicPartitions = currentAssignment.stream().map(topicUriPartition ->
+                        new TopicPartition(topicUriPartition.getTopicUri().getTopic(), topicUriPartition.getPartition())
+                ).collect(Collectors.toSet());
+                Set<String> topics = currentSubscription.stream().map(TopicUri::getTopic).collect(Collectors.toSet());
+                topicPartitions.forEach(topicPartition -> topics.add(topicPartition.topic()));
+                standbyKafkaConsumer.prepare(() -> createWarmKafkaConsumer(standbyProperties, topics, topicPartitions));
+            }
+            return false;
+        }
+
+        swapInKafkaConsumer(readyKafkaConsumer);
+        return true;
+    }
+
+    /**
+     * Creates a Kafka consumer and warms it up for the given topics: it connects to the cluster (including the SSL
+     * handshake), fetches topic metadata and, for assigned partitions, finds the group coordinator and committed
+     * positions. The consumer is not subscribed to topics, as that would trigger a rebalance of the consumer group.
+     * This runs on a background thread and does not touch the current Kafka consumer.
+     */
+    private static KafkaConsumer<byte[], byte[]> createWarmKafkaConsumer(
+            Properties standbyProperties, Set<String> topics, Set<TopicPartition> topicPartitions
+    ) {
+        KafkaConsumer<byte[], byte[]> warmKafkaConsumer = new KafkaConsumer<>(standbyProperties);
+        Duration timeout = Duration.ofMillis(STANDBY_WARM_UP_TIMEOUT_MS);
+        try {
+            for (String topic : topics)
+                warmKafkaConsumer.partitionsFor(topic, timeout);
+            if (!topicPartitions.isEmpty()) {
+                warmKafkaConsumer.assign(topicPartitions);
+                for (TopicPartition topicPartition : topicPartitions)
+                    warmKafkaConsumer.position(topicPartition, timeout);
+            }
+        } catch (Exception e) {
+            logger.warn("Standby Kafka consumer could not be fully warmed up; it will be swapped in as is.", e);
+        }
+        return warmKafkaConsumer;
+    }
+
+    /**
+     * Replaces the Kafka consumer with the given one, carrying over the subscription or assignment and, for assigned
+     * partitions, the positions of the current Kafka consumer. A wakeup that reaches the current Kafka consumer during
+     * the swap is passed on to the new one, so that it still interrupts the next poll.
+     */
+    @VisibleForTesting
+    void swapInKafkaConsumer(KafkaConsumer<byte[], byte[]> readyKafkaConsumer) throws ConsumerException {
+        super.resetBackendClient();
+        PscEvent resetEvent = PscFlightRecorder.begin(PscFlightRecorder.Type.BACKEND_RESET);
+        synchronized (swapLock) {
+            swapInProgress = true;
+            wokenUpDuringSwap = false;
+        }
+        try {
+            KafkaConsumer<byte[], byte[]> previousKafkaConsumer = kafkaConsumer;
+            Map<TopicPartition, Long> positions = new HashMap<>();
+            if (!currentAssignment.isEmpty()) {
+                for (TopicPartition topicPartition : previousKafkaConsumer.assignment()) {
+                    try {
+                        positions.put(topicPartition, getPositionForSwap(previousKafkaConsumer, topicPartition));
+                    } catch (Exception e) {
+                        logger.warn("Position of {} could not be carried over to the standby Kafka consumer.", topicPartition, e);
+                    }
+                }
+            }
+
+            try {
+                previousKafkaConsumer.close(Duration.ofMillis(REPLACED_CONSUMER_CLOSE_TIMEOUT_MS));
+            } catch (Exception e) {
+                logger.warn("The replaced Kafka consumer was not closed cleanly.", e);
+            }
+            synchronized (swapLock) {
+                kafkaConsumer = readyKafkaConsumer;
+            }
+            if (!currentAssignment.isEmpty()) {
+                assign(currentAssignment);
+                positions.forEach(kafkaConsumer::seek);
+            } else if (!currentSubscription.isEmpty())
+                subscribe(currentSubscription);
+        } finally {
+            synchronized (swapLock) {
+                swapInProgress = false;
+                if (wokenUpDuringSwap)
+                    kafkaConsumer.wakeup();
+            }
+        }
+        logger.info("Swapped in the standby Kafka consumer.");
+        resetEvent.backend(PscUtils.BACKEND_TYPE_KAFKA).detail("consumer standby").commit();
+    }
+
+    private long getPositionForSwap(KafkaConsumer<byte[], byte[]> previousKafkaConsumer, TopicPartition topicPartition) {
+        Duration timeout = Duration.ofMillis(kafkaPollTimeoutMs);
+        try {
+            return previousKafkaConsumer.position(topicPartition, timeout);
+        } catch (org.apache.kafka.common.errors.WakeupException e) {
+            // the wakeup is meant for the next poll, so it is passed on to the new Kafka consumer
+            synchronized (swapLock) {
+                wokenUpDuringSwap = true;
+            }
+            return previousKafkaConsumer.position(topicPartition, timeout);
+        }
+    }
+
     @VisibleForTesting
     protected boolean isSslEnabledInAnyActiveSusbcriptionOrAssignment() {
         return isSslEnabledInAnyActiveSusbcriptionOrAssignment;
@@ -1088,12 +1257,14 @@ public class PscKafkaConsumer<K, V> extends PscBackendConsumer<K, V> {
     protected void resetBackendClient() throws ConsumerException {
         super.resetBackendClient();
         logger.warn("Resetting the backend Kafka consumer (potentially to retry an API if an earlier call failed).");
+        PscEvent resetEvent = PscFlightRecorder.begin(PscFlightRecorder.Type.BACKEND_RESET);
         executeBackendCallWithRetries(() -> kafkaConsumer.close());
         kafkaConsumer = new KafkaConsumer<>(properties);
         if (!currentAssignment.isEmpty())
             assign(currentAssignment);
         else if (!currentSubscription.isEmpty())
             subscribe(currentSubscription);
+        resetEvent.backend(PscUtils.BACKEND_TYPE_KAFKA).detail("consumer").commit();
     }
 
     private KafkaMessageId getKafkaMessageId(MessageId messageId) {
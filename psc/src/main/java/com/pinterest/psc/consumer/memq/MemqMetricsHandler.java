@@ -20,6 +20,8 @@ public class MemqMetricsHandler {
     private static final String MEMQ_DIRECT_MEMORY_USED_METRIC = "netty.direct.memory.used";
     private static final String MEMQ_HEAP_MEMORY_USED_METRIC = "netty.heap.memory.used";
 
+    private static final String MEMQ_PRODUCER_METRIC_PREFIX = "producer.";
+
     private static final PscLogger logger = PscLogger.getLogger(MemqMetricsHandler.class);
     private final static Map<String, String> memqConsumerMetricsMap = new HashMap<>();
 
@@ -57,6 +59,30 @@ public class MemqMetricsHandler {
         }
     }
 
+    /**
+     * Reports the metrics of a MemQ producer. A MemQ producer writes to a single topic and has its own metric registry,
+     * so all of its metrics are reported under the producer prefix.
+     */
+    public static void handleMemqProducerMetrics(MetricRegistry memqProducerMetrics,
+                                                 String topicName,
+                                                 Map<String, TopicUri> memqTopicToTopicUri,
+                                                 PscConfigurationInternal pscConfigurationInternal) {
+        if (memqProducerMetrics == null || memqProducerMetrics.getMetrics() == null)
+            return;
+
+        for (Map.Entry<String, Metric> entry : memqProducerMetrics.getMetrics().entrySet()) {
+            Metric metric = entry.getValue();
+            if (metric != null) {
+                long value = getMetricValue(metric);
+                if (value < 0)
+                    continue;
+                PscMetricRegistryManager.getInstance().updateBackendHistogramMetric(
+                        memqTopicToTopicUri.get(topicName), MEMQ_PRODUCER_METRIC_PREFIX + entry.getKey(),
+                        value, pscConfigurationInternal);
+            }
+        }
+    }
+
     private static long getMetricValue(Metric metric) {
         if (metric instanceof Counter)
             return ((Counter) metric).getCount();
@@ -68,8 +94,7 @@ public class MemqMetricsHandler {
             return ((Timer) metric).getSnapshot().getMax();
         if (metric instanceof Gauge) {
             Object val = ((Gauge<?>) metric).getValue();
-            if (val instanceof Long) return (Long) val;
-            if (val instanceof Double) return ((Double) val).longValue();
+            if (val instanceof Number) return ((Number) val).longValue();
         }
 
         logger.warn("[Memq] Could not process metric of type {}", metric.getClass().getName());
@@ -0,0 +1,162 @@
+package com.pinterest.psc.discovery;
+
+import com.pinterest.psc.common.ServiceDiscoveryConfig;
+import com.pinterest.psc.logging.PscLogger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A process-wide cache of parsed fallback discovery files, keyed by file. Each entry maps topic URI prefixes to their
+ * {@link ServiceDiscoveryConfig} and expires after the TTL requested on lookup. Files on the default file system are
+ * also watched, and are reloaded in the background as soon as they change; a file that fails to reload is evicted so
+ * that the next lookup reads it again.
+ *
+ * Cached configs are shared and must not be modified by callers.
+ */
+class FallbackDiscoveryConfigCache {
+    private static final PscLogger logger = PscLogger.getLogger(FallbackDiscoveryConfigCache.class);
+    private static final FallbackDiscoveryConfigCache instance = new FallbackDiscoveryConfigCache();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Path> watchedDirectories = ConcurrentHashMap.newKeySet();
+    private WatchService watchService;
+    private boolean watchUnavailable = false;
+
+    interface Loader {
+        Map<String, ServiceDiscoveryConfig> load() throws IOException;
+    }
+
+    private static class Entry {
+        private final Path file;
+        private final Loader loader;
+        private final Map<String, ServiceDiscoveryConfig> discoveryConfigs;
+        private final long loadedAtMs;
+
+        private Entry(Path file, Loader loader, Map<String, ServiceDiscoveryConfig> discoveryConfigs) {
+            this.file = file;
+            this.loader = loader;
+            this.discoveryConfigs = discoveryConfigs;
+            this.loadedAtMs = System.currentTimeMillis();
+        }
+    }
+
+    static FallbackDiscoveryConfigCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param key    the key of the discovery file in the cache
+     * @param file   the discovery file to watch for changes, or null if it cannot change (e.g. a classpath resource)
+     * @param ttlMs  the maximum age of a cached entry; a non-positive value bypasses the cache
+     * @param loader loads and parses the discovery file
+     * @return the discovery configs of the file, indexed by topic URI prefix
+     * @throws IOException if the discovery file could not be loaded
+     */
+    Map<String, ServiceDiscoveryConfig> get(String key, Path file, long ttlMs, Loader loader) throws IOException {
+        if (ttlMs <= 0)
+            return index(loader.load());
+
+        Entry entry = entries.get(key);
+        if (isFresh(entry, ttlMs))
+            return entry.discoveryConfigs;
+
+        synchronized (this) {
+            entry = entries.get(key);
+            if (isFresh(entry, ttlMs))
+                return entry.discoveryConfigs;
+            entry = new Entry(file, loader, index(loader.load()));
+            entries.put(key, entry);
+            if (file != null)
+                watch(file);
+            return entry.discoveryConfigs;
+        }
+    }
+
+    private static boolean isFresh(Entry entry, long ttlMs) {
+        return entry != null && System.currentTimeMillis() - entry.loadedAtMs < ttlMs;
+    }
+
+    private static Map<String, ServiceDiscoveryConfig> index(Map<String, ServiceDiscoveryConfig> discoveryConfigs) {
+        return Collections.unmodifiableMap(new HashMap<>(discoveryConfigs));
+    }
+
+    private void watch(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        if (watchUnavailable || directory == null || watchedDirectories.contains(directory))
+            return;
+        try {
+            if (watchService == null) {
+                watchService = FileSystems.getDefault().newWatchService();
+                Thread watcher = new Thread(this::processWatchEvents, "psc-discovery-file-watcher");
+                watcher.setDaemon(true);
+                watcher.start();
+            }
+            directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE
+            );
+            watchedDirectories.add(directory);
+        } catch (IOException | UnsupportedOperationException | ClosedWatchServiceException e) {
+            // entries still expire with their TTL
+            logger.warn("Could not watch {} for changes; relying on the cache TTL only.", file, e);
+            watchUnavailable = watchService == null;
+        }
+    }
+
+    private void processWatchEvents() {
+        while (true) {
+            WatchKey watchKey;
+            try {
+                watchKey = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path directory = (Path) watchKey.watchable();
+            for (WatchEvent<?> event : watchKey.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                    reloadAll(directory);
+                else
+                    reload(directory.resolve((Path) event.context()));
+            }
+            if (!watchKey.reset())
+                watchedDirectories.remove(directory);
+        }
+    }
+
+    private void reloadAll(Path directory) {
+        for (Entry entry : entries.values()) {
+            if (entry.file != null && directory.equals(entry.file.toAbsolutePath().getParent()))
+                reload(entry.file.toAbsolutePath());
+        }
+    }
+
+    private synchronized void reload(Path changedFile) {
+        for (Map.Entry<String, Entry> cached : entries.entrySet()) {
+            Entry entry = cached.getValue();
+            if (entry.file == null || !changedFile.equals(entry.file.toAbsolutePath()))
+                continue;
+            try {
+                entries.put(cached.getKey(), new Entry(entry.file, entry.loader, index(entry.loader.load())));
+                logger.info("Reloaded discovery info from changed fallback discovery file: {}", entry.file);
+            } catch (Exception e) {
+                // the file may be partially written; load it again on next lookup
+                entries.remove(cached.getKey());
+                logger.warn("Failed to reload changed fallback discovery file {}; evicting it from the cache.",
+                        entry.file, e);
+            }
+        }
+    }
+}
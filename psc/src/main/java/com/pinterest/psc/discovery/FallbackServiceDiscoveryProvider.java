@@ -17,6 +17,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -40,12 +41,17 @@ import java.util.Map;
  * ---
  * <p>
  * The location of the file defaults to the working directory, but can be set with the system property "dev.discovery.config.file"
+ * <p>
+ * The parsed file is cached process-wide for the duration set by
+ * {@value PscConfiguration#PSC_DISCOVERY_FALLBACK_CACHE_TTL_MS} and reloaded in the background when it changes on disk, so frequent client creations and resets do not re-read it.
  */
 @ServiceDiscoveryPlugin(priority = 0)
 public class FallbackServiceDiscoveryProvider implements ServiceDiscoveryProvider {
     private static final PscLogger logger = PscLogger.getLogger(FallbackServiceDiscoveryProvider.class);
     private static final String DEFAULT_DISCOVERY_FILE = "discovery.json";
+    private static final long DEFAULT_CACHE_TTL_MS = 300_000;
     private String fallbackDiscoveryConfigFile;
+    private long cacheTtlMs = DEFAULT_CACHE_TTL_MS;
 
     public FallbackServiceDiscoveryProvider() {
     }
@@ -58,50 +64,82 @@ public class FallbackServiceDiscoveryProvider implements ServiceDiscoveryProvide
     @Override
     public void configure(PscConfiguration pscConfiguration) {
         fallbackDiscoveryConfigFile = pscConfiguration.getString(PscConfigurationInternal.getPscDiscoveryServiceProviderFallbackConfigName());
+        cacheTtlMs = pscConfiguration.getLong(
+                PscConfigurationInternal.getPscDiscoveryServiceProviderFallbackCacheTtlConfigName(), DEFAULT_CACHE_TTL_MS
+        );
     }
 
-    private InputStreamReader getFallbackDiscoveryFileAsReader() throws FileNotFoundException {
-        if (fallbackDiscoveryConfigFile == null || fallbackDiscoveryConfigFile.trim().isEmpty()) {
+    private Map<String, ServiceDiscoveryConfig> getDiscoveryConfigMap() throws IOException {
+        String filePath = fallbackDiscoveryConfigFile;
+        if (filePath == null || filePath.trim().isEmpty()) {
             logger.info("No fallback service discovery file was provided in PSC configuration; " +
                     "checking for default file.");
-            return getFallbackDiscoveryFileAsReader(null);
-        } else if (Files.notExists(Paths.get(fallbackDiscoveryConfigFile))) {
+            filePath = null;
+        } else if (Files.notExists(Paths.get(filePath))) {
             logger.warn("The configured service discovery file ({}) was not found; checking for default file.",
-                    fallbackDiscoveryConfigFile
+                    filePath
+            );
+            filePath = null;
+        }
+
+        if (filePath == null) {
+            ClassLoader classLoader = getClass().getClassLoader();
+            return FallbackDiscoveryConfigCache.getInstance().get(
+                    DEFAULT_DISCOVERY_FILE, null, cacheTtlMs, () -> readDiscoveryConfigMap(classLoader, null)
             );
-            return getFallbackDiscoveryFileAsReader(null);
         }
-        return getFallbackDiscoveryFileAsReader(fallbackDiscoveryConfigFile);
+        String configuredFilePath = filePath;
+        return FallbackDiscoveryConfigCache.getInstance().get(
+                configuredFilePath, Paths.get(configuredFilePath), cacheTtlMs,
+                () -> readDiscoveryConfigMap(null, configuredFilePath)
+        );
+    }
+
+    private static Map<String, ServiceDiscoveryConfig> readDiscoveryConfigMap(ClassLoader classLoader, String filePath)
+            throws IOException {
+        try (InputStreamReader reader = getFallbackDiscoveryFileAsReader(classLoader, filePath)) {
+            Map<String, ServiceDiscoveryConfig> discoveryConfigMap =
+                    new Gson().fromJson(reader, new TypeToken<Map<String, ServiceDiscoveryConfig>>() {
+                    }.getType());
+            // an empty file is most likely being rewritten, and should not be cached
+            if (discoveryConfigMap == null)
+                throw new IOException("Discovery file is empty: " + (filePath == null ? DEFAULT_DISCOVERY_FILE : filePath));
+            return discoveryConfigMap;
+        }
     }
 
-    private InputStreamReader getFallbackDiscoveryFileAsReader(String filePath) throws FileNotFoundException {
+    private static InputStreamReader getFallbackDiscoveryFileAsReader(ClassLoader classLoader, String filePath)
+            throws FileNotFoundException {
         if (filePath == null) {
             // default case: use built-in discovery file
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream(DEFAULT_DISCOVERY_FILE);
+            InputStream inputStream = classLoader.getResourceAsStream(DEFAULT_DISCOVERY_FILE);
             if (inputStream == null)
                 throw new FileNotFoundException("Default discovery file could not be found: " + DEFAULT_DISCOVERY_FILE);
             logger.info("Loading discovery info from default fallback discovery file: {}", DEFAULT_DISCOVERY_FILE);
             return new InputStreamReader(inputStream);
         } else {
-            logger.info("Loading discovery info from fallback discovery file: {}", fallbackDiscoveryConfigFile);
-            return new FileReader(fallbackDiscoveryConfigFile);
+            logger.info("Loading discovery info from fallback discovery file: {}", filePath);
+            return new FileReader(filePath);
         }
     }
 
     @Override
     public ServiceDiscoveryConfig getConfig(Environment env, TopicUri topicUri) {
-        try (InputStreamReader reader = getFallbackDiscoveryFileAsReader()) {
-            Gson gson = new Gson();
-            Map<String, ServiceDiscoveryConfig> discoveryConfigMap =
-                    gson.fromJson(reader, new TypeToken<Map<String, ServiceDiscoveryConfig>>() {
-                    }.getType());
-            ServiceDiscoveryConfig discoveryConfig = discoveryConfigMap.get(topicUri.getTopicUriPrefix());
+        try {
+            ServiceDiscoveryConfig discoveryConfig = getDiscoveryConfigMap().get(topicUri.getTopicUriPrefix());
             if (discoveryConfig == null) {
                 logger.error("Failed to find service discovery config of uri {} in the discovery config file {}",
                         topicUri, fallbackDiscoveryConfigFile
                 );
+                return null;
             }
-            return discoveryConfig.setServiceDiscoveryProvider(this);
+            // cached configs are shared, so callers get their own copy
+            return new ServiceDiscoveryConfig()
+                    .setConnect(discoveryConfig.getConnect())
+                    .setSecurityProtocol(discoveryConfig.getSecurityProtocol())
+                    .setSecureConfigs(discoveryConfig.getSecureConfigs() == null ?
+                            null : new HashMap<>(discoveryConfig.getSecureConfigs()))
+                    .setServiceDiscoveryProvider(this);
         } catch (FileNotFoundException fnfe) {
             logger.error("Failed to find {}", fallbackDiscoveryConfigFile);
             return null;
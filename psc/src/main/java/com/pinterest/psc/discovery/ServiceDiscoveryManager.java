@@ -4,53 +4,131 @@ import com.google.common.annotations.VisibleForTesting;
 import com.pinterest.psc.common.ServiceDiscoveryConfig;
 import com.pinterest.psc.common.TopicUri;
 import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
 import com.pinterest.psc.environment.Environment;
 import com.pinterest.psc.exception.startup.ConfigurationException;
 import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.metrics.PscEvent;
+import com.pinterest.psc.metrics.PscFlightRecorder;
 import org.reflections.Reflections;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
+/**
+ * Resolves the {@link ServiceDiscoveryConfig} of a topic URI by querying the available {@link ServiceDiscoveryProvider}s
+ * in descending order of priority.
+ *
+ * Providers are registered for {@link java.util.ServiceLoader} in
+ * <code>META-INF/services/com.pinterest.psc.discovery.ServiceDiscoveryProvider</code> and annotated with their
+ * {@link ServiceDiscoveryPlugin} priority. This index is read once per class loader; each thread then gets its own
+ * provider instances since providers are configured per lookup. Scanning the classpath for annotated providers with
+ * {@link Reflections} is only done when {@link PscConfiguration#PSC_DISCOVERY_CLASSPATH_SCAN_ENABLED} is set.
+ */
 public class ServiceDiscoveryManager {
     private static final PscLogger logger = PscLogger.getLogger(ServiceDiscoveryManager.class);
+    private static final List<Class<? extends ServiceDiscoveryProvider>> indexedProviderClasses =
+            loadServiceDiscoveryProviderIndex(ServiceDiscoveryManager.class.getClassLoader());
+    private static volatile List<Class<? extends ServiceDiscoveryProvider>> scannedProviderClasses;
     private static final ThreadLocal<SortedMap<Integer, ServiceDiscoveryProvider>> providerMap =
-            ThreadLocal.withInitial(() ->
-                    findAndRegisterServiceDiscoveryProviders(ServiceDiscoveryManager.class.getPackage().getName())
-            );
+            ThreadLocal.withInitial(() -> registerServiceDiscoveryProviders(indexedProviderClasses));
+    private static final ThreadLocal<SortedMap<Integer, ServiceDiscoveryProvider>> providerMapWithClasspathScan =
+            ThreadLocal.withInitial(() -> registerServiceDiscoveryProviders(getIndexedAndScannedProviderClasses()));
 
     /**
      * Returns a {@link SortedMap} of {@link ServiceDiscoveryProvider}s sorted by priority in descending order.
      *
      * The parameter packageName is used in {@link Reflections} to find all the available ServiceDiscoveryProviders,
      * which should each be annotated with their respective priorities. See example in {@link FallbackServiceDiscoveryProvider}
-     * on how this is done.
+     * on how this is done. Unlike the provider index, the scan is not cached.
      *
      * @param packageName the packageName to find all available {@link ServiceDiscoveryProvider}s
      * @return {@link SortedMap} of {@link ServiceDiscoveryProvider}s in descending order of priority
      */
     public static SortedMap<Integer, ServiceDiscoveryProvider> findAndRegisterServiceDiscoveryProviders(String packageName) {
-        SortedMap<Integer, ServiceDiscoveryProvider> providerRegistry = new TreeMap<>(Collections.reverseOrder());
+        return registerServiceDiscoveryProviders(scanServiceDiscoveryProviders(packageName));
+    }
+
+    /**
+     * Returns the {@link ServiceDiscoveryProvider} classes registered in the <code>META-INF/services</code> index
+     * visible to the given class loader. Entries that cannot be loaded are logged and skipped.
+     *
+     * @param classLoader the class loader to read the provider index from
+     * @return an immutable list of the registered {@link ServiceDiscoveryProvider} classes
+     */
+    @VisibleForTesting
+    protected static List<Class<? extends ServiceDiscoveryProvider>> loadServiceDiscoveryProviderIndex(ClassLoader classLoader) {
+        List<Class<? extends ServiceDiscoveryProvider>> providerClasses = new ArrayList<>();
+        Iterator<ServiceDiscoveryProvider> iterator =
+                ServiceLoader.load(ServiceDiscoveryProvider.class, classLoader).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext())
+                    break;
+                providerClasses.add(iterator.next().getClass());
+            } catch (ServiceConfigurationError e) {
+                logger.error("Failed to load service discovery provider from the provider index", e);
+            }
+        }
+        return Collections.unmodifiableList(providerClasses);
+    }
+
+    private static List<Class<? extends ServiceDiscoveryProvider>> scanServiceDiscoveryProviders(String packageName) {
+        List<Class<? extends ServiceDiscoveryProvider>> providerClasses = new ArrayList<>();
         Reflections reflections = new Reflections(packageName.trim());
         Set<Class<?>> annotatedClasses = reflections.getTypesAnnotatedWith(ServiceDiscoveryPlugin.class);
         for (Class<?> annotatedClass : annotatedClasses) {
-            ServiceDiscoveryPlugin plugin = annotatedClass.getAnnotation(ServiceDiscoveryPlugin.class);
+            if (!ServiceDiscoveryProvider.class.isAssignableFrom(annotatedClass)) {
+                logger.error("Plugin is not a service discovery provider: {}", annotatedClass.getName());
+                continue;
+            }
+            providerClasses.add(annotatedClass.asSubclass(ServiceDiscoveryProvider.class));
+        }
+        return providerClasses;
+    }
+
+    private static List<Class<? extends ServiceDiscoveryProvider>> getIndexedAndScannedProviderClasses() {
+        if (scannedProviderClasses == null) {
+            synchronized (ServiceDiscoveryManager.class) {
+                if (scannedProviderClasses == null) {
+                    Set<Class<? extends ServiceDiscoveryProvider>> providerClasses = new LinkedHashSet<>(indexedProviderClasses);
+                    providerClasses.addAll(scanServiceDiscoveryProviders(ServiceDiscoveryManager.class.getPackage().getName()));
+                    scannedProviderClasses = Collections.unmodifiableList(new ArrayList<>(providerClasses));
+                }
+            }
+        }
+        return scannedProviderClasses;
+    }
+
+    private static SortedMap<Integer, ServiceDiscoveryProvider> registerServiceDiscoveryProviders(
+            Collection<Class<? extends ServiceDiscoveryProvider>> providerClasses
+    ) {
+        SortedMap<Integer, ServiceDiscoveryProvider> providerRegistry = new TreeMap<>(Collections.reverseOrder());
+        for (Class<? extends ServiceDiscoveryProvider> providerClass : providerClasses) {
+            ServiceDiscoveryPlugin plugin = providerClass.getAnnotation(ServiceDiscoveryPlugin.class);
             if (plugin == null) {
-                logger.error("Plugin info null: {}", annotatedClass.getName());
+                logger.error("Plugin info null: {}", providerClass.getName());
                 continue;
             }
             int priority = plugin.priority();
             if (providerRegistry.containsKey(priority)) {
-                logger.error("Output plugin priority {} already exists: {}", priority, annotatedClass.getName());
+                logger.error("Output plugin priority {} already exists: {}", priority, providerClass.getName());
                 System.exit(-1);
             }
             try {
-                providerRegistry.put(priority, annotatedClass.asSubclass(ServiceDiscoveryProvider.class).newInstance());
-                logger.info("Registered output handler({}) with priority={}", annotatedClass.getName(), priority);
+                providerRegistry.put(priority, providerClass.newInstance());
+                logger.info("Registered output handler({}) with priority={}", providerClass.getName(), priority);
             } catch (InstantiationException | IllegalAccessException e) {
-                logger.error("Failed to instantiate service provider class " + annotatedClass.getName(), e);
+                logger.error("Failed to instantiate service provider class " + providerClass.getName(), e);
             }
         }
 
@@ -60,13 +138,22 @@ public class ServiceDiscoveryManager {
     public static ServiceDiscoveryConfig getServiceDiscoveryConfig(
             Environment env, PscConfiguration discoveryConfiguration, TopicUri topicUri
     ) throws ConfigurationException {
-        for (ServiceDiscoveryProvider provider : providerMap.get().values()) {
+        PscEvent discoveryEvent = PscFlightRecorder.begin(PscFlightRecorder.Type.SERVICE_DISCOVERY)
+                .topicUri(topicUri)
+                .backend(topicUri.getBackend());
+        boolean classpathScanEnabled = discoveryConfiguration.getBoolean(
+                PscConfigurationInternal.getPscDiscoveryClasspathScanEnabledConfigName(), false
+        );
+        SortedMap<Integer, ServiceDiscoveryProvider> providers =
+                classpathScanEnabled ? providerMapWithClasspathScan.get() : providerMap.get();
+        for (ServiceDiscoveryProvider provider : providers.values()) {
             provider.configure(discoveryConfiguration);
             ServiceDiscoveryConfig config = provider.getConfig(env, topicUri);
             if (config != null) {
                 logger.info("Using {} as the active discovery provider with config {}.",
                         provider.getClass().getName(), config
                 );
+                discoveryEvent.detail(provider.getClass().getName()).commit();
                 return config;
             }
         }
@@ -78,9 +165,14 @@ public class ServiceDiscoveryManager {
         return providerMap.get();
     }
 
+    @VisibleForTesting
+    protected static SortedMap<Integer, ServiceDiscoveryProvider> getProviderMapWithClasspathScan() {
+        return providerMapWithClasspathScan.get();
+    }
+
     @VisibleForTesting
     protected static SortedMap<Integer, ServiceDiscoveryProvider> resetAndGetProviderMap() {
-        providerMap.set(findAndRegisterServiceDiscoveryProviders(ServiceDiscoveryManager.class.getPackage().getName()));
+        providerMap.set(registerServiceDiscoveryProviders(indexedProviderClasses));
         return providerMap.get();
     }
 }
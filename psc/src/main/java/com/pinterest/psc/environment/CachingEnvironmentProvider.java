@@ -0,0 +1,203 @@
+package com.pinterest.psc.environment;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.pinterest.psc.logging.PscLogger;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * An {@link EnvironmentProvider} that resolves the environment from a delegate provider once per process and caches
+ * it, for delegates that are expensive to query (e.g. {@link Ec2EnvironmentProvider}, which makes an HTTP call to the
+ * instance metadata endpoint for each value).
+ * <p>
+ * All values are resolved in parallel in the background, each within {@link #RESOLVE_TIMEOUT_MS}, and are refreshed
+ * every {@link #REFRESH_INTERVAL_MS}. Only the first lookups of a process wait for the initial resolution, and for no
+ * longer than the timeout; values that cannot be resolved keep their previously resolved value, or else fall back to
+ * the values of {@link LocalEnvironmentProvider}.
+ * <p>
+ * Since providers are created by PSC through their no-arg constructors, the cache is shared by all instances of the same
+ * provider class, and the delegate is only created once per class.
+ */
+public abstract class CachingEnvironmentProvider extends EnvironmentProvider {
+    private static final PscLogger logger = PscLogger.getLogger(CachingEnvironmentProvider.class);
+    static final long RESOLVE_TIMEOUT_MS = 2_000;
+    static final long REFRESH_INTERVAL_MS = 600_000;
+    // lookups wait slightly longer than the resolution so that they do not give up right before it completes
+    private static final long RESOLVE_GRACE_MS = 100;
+
+    private static final Map<Class<?>, CachedEnvironment> cachedEnvironments = new ConcurrentHashMap<>();
+    private static ExecutorService resolverExecutor;
+    private static ScheduledExecutorService refreshExecutor;
+
+    enum Field {
+        HOSTNAME(EnvironmentProvider::getHostname),
+        IP_ADDRESS(EnvironmentProvider::getIpAddress),
+        INSTANCE_ID(EnvironmentProvider::getInstanceId),
+        INSTANCE_TYPE(EnvironmentProvider::getInstanceType),
+        LOCALITY(EnvironmentProvider::getLocality),
+        REGION(EnvironmentProvider::getRegion),
+        DEPLOYMENT_STAGE(EnvironmentProvider::getDeploymentStage),
+        PROJECT_URI(EnvironmentProvider::getProjectUri),
+        PROJECT(EnvironmentProvider::getProject);
+
+        private final Function<EnvironmentProvider, String> getter;
+
+        Field(Function<EnvironmentProvider, String> getter) {
+            this.getter = getter;
+        }
+    }
+
+    /**
+     * Creates the provider the environment is resolved from. This is called once per provider class, possibly before
+     * the fields of this instance are initialized.
+     *
+     * @return the delegate {@link EnvironmentProvider}
+     */
+    protected abstract EnvironmentProvider createDelegate();
+
+    private CachedEnvironment getCachedEnvironment() {
+        return cachedEnvironments.computeIfAbsent(getClass(), key -> new CachedEnvironment(createDelegate(), RESOLVE_TIMEOUT_MS));
+    }
+
+    @Override
+    public String getHostname() {
+        return getCachedEnvironment().get(Field.HOSTNAME);
+    }
+
+    @Override
+    public String getIpAddress() {
+        return getCachedEnvironment().get(Field.IP_ADDRESS);
+    }
+
+    @Override
+    public String getInstanceId() {
+        return getCachedEnvironment().get(Field.INSTANCE_ID);
+    }
+
+    @Override
+    public String getInstanceType() {
+        return getCachedEnvironment().get(Field.INSTANCE_TYPE);
+    }
+
+    @Override
+    public String getLocality() {
+        return getCachedEnvironment().get(Field.LOCALITY);
+    }
+
+    @Override
+    public String getRegion() {
+        return getCachedEnvironment().get(Field.REGION);
+    }
+
+    @Override
+    public String getDeploymentStage() {
+        return getCachedEnvironment().get(Field.DEPLOYMENT_STAGE);
+    }
+
+    @Override
+    public String getProjectUri() {
+        return getCachedEnvironment().get(Field.PROJECT_URI);
+    }
+
+    @Override
+    public String getProject() {
+        return getCachedEnvironment().get(Field.PROJECT);
+    }
+
+    @VisibleForTesting
+    static void resetCache() {
+        cachedEnvironments.clear();
+    }
+
+    private static synchronized ExecutorService getResolverExecutor() {
+        if (resolverExecutor == null) {
+            resolverExecutor = Executors.newCachedThreadPool(
+                    new ThreadFactoryBuilder().setNameFormat("psc-environment-resolver-%d").setDaemon(true).build()
+            );
+        }
+        return resolverExecutor;
+    }
+
+    private static synchronized ScheduledExecutorService getRefreshExecutor() {
+        if (refreshExecutor == null) {
+            refreshExecutor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("psc-environment-refresh-%d").setDaemon(true).build()
+            );
+        }
+        return refreshExecutor;
+    }
+
+    @VisibleForTesting
+    static class CachedEnvironment {
+        private final EnvironmentProvider delegate;
+        private final long resolveTimeoutMs;
+        private final Map<Field, String> fallbackValues = new EnumMap<>(Field.class);
+        private final CountDownLatch initialResolution = new CountDownLatch(1);
+        private volatile Map<Field, String> values;
+
+        CachedEnvironment(EnvironmentProvider delegate, long resolveTimeoutMs) {
+            this.delegate = delegate;
+            this.resolveTimeoutMs = resolveTimeoutMs;
+            EnvironmentProvider fallback = new LocalEnvironmentProvider();
+            for (Field field : Field.values())
+                fallbackValues.put(field, field.getter.apply(fallback));
+            values = fallbackValues;
+            getRefreshExecutor().execute(this::resolve);
+        }
+
+        String get(Field field) {
+            if (initialResolution.getCount() > 0) {
+                try {
+                    if (!initialResolution.await(resolveTimeoutMs + RESOLVE_GRACE_MS, TimeUnit.MILLISECONDS))
+                        logger.warn("Environment was not resolved within {}ms; using the values resolved so far.",
+                                resolveTimeoutMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return values.get(field);
+        }
+
+        @VisibleForTesting
+        synchronized void resolve() {
+            Map<Field, Future<String>> futures = new EnumMap<>(Field.class);
+            for (Field field : Field.values())
+                futures.put(field, getResolverExecutor().submit(() -> field.getter.apply(delegate)));
+
+            long deadline = System.currentTimeMillis() + resolveTimeoutMs;
+            Map<Field, String> resolvedValues = new EnumMap<>(values);
+            for (Map.Entry<Field, Future<String>> entry : futures.entrySet()) {
+                Field field = entry.getKey();
+                try {
+                    String value = entry.getValue().get(
+                            Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS
+                    );
+                    if (value != null && !value.equals(Environment.INFO_NOT_AVAILABLE))
+                        resolvedValues.put(field, value);
+                } catch (Exception e) {
+                    entry.getValue().cancel(true);
+                    logger.warn("Failed to resolve {} of the environment from {}; keeping {}.",
+                            field, delegate.getClass().getName(), resolvedValues.get(field), e);
+                }
+            }
+            values = resolvedValues;
+            if (initialResolution.getCount() > 0) {
+                initialResolution.countDown();
+                logger.info("Resolved environment from {}: {}", delegate.getClass().getName(), resolvedValues);
+                getRefreshExecutor().scheduleWithFixedDelay(
+                        this::resolve, REFRESH_INTERVAL_MS, REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS
+                );
+            }
+        }
+    }
+}
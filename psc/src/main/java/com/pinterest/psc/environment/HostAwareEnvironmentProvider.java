@@ -3,7 +3,12 @@ package com.pinterest.psc.environment;
 import com.pinterest.psc.common.PscUtils;
 import com.pinterest.psc.logging.PscLogger;
 
-public class HostAwareEnvironmentProvider extends EnvironmentProvider {
+/**
+ * Resolves the environment from {@link Ec2EnvironmentProvider} on EC2 hosts and from {@link LocalEnvironmentProvider}
+ * otherwise. Values are resolved once per process and refreshed in the background; see
+ * {@link CachingEnvironmentProvider}.
+ */
+public class HostAwareEnvironmentProvider extends CachingEnvironmentProvider {
     private static final PscLogger logger = PscLogger.getLogger(HostAwareEnvironmentProvider.class);
 
     private static class LazyHolder {
@@ -20,47 +25,8 @@ public class HostAwareEnvironmentProvider extends EnvironmentProvider {
         }
     }
 
-    private EnvironmentProvider getDelegate() {
-        return LazyHolder.delegate;
-    }
-
     @Override
-    public String getIpAddress() {
-        return getDelegate().getIpAddress();
-    }
-
-    @Override
-    public String getInstanceId() {
-        return getDelegate().getInstanceId();
-    }
-
-    @Override
-    public String getInstanceType() {
-        return getDelegate().getInstanceType();
-    }
-
-    @Override
-    public String getLocality() {
-        return getDelegate().getLocality();
-    }
-
-    @Override
-    public String getRegion() {
-        return getDelegate().getRegion();
-    }
-
-    @Override
-    public String getDeploymentStage() {
-        return getDelegate().getDeploymentStage();
-    }
-
-    @Override
-    public String getProjectUri() {
-        return getDelegate().getProjectUri();
-    }
-
-    @Override
-    public String getProject() {
-        return getDelegate().getProject();
+    protected EnvironmentProvider createDelegate() {
+        return LazyHolder.delegate;
     }
 }
@@ -0,0 +1,24 @@
+package com.pinterest.psc.exception.consumer;
+
+import com.pinterest.psc.exception.handler.PscCircuitBreaker;
+
+/**
+ * This exception is thrown by {@link com.pinterest.psc.consumer.PscConsumer} APIs that go to the backend cluster when
+ * the circuit of the cluster is open (see {@link PscCircuitBreaker}), so the call fails fast instead of going to the
+ * backend. Callers can retry the call later.
+ */
+public class CircuitOpenException extends ConsumerException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+
+    public CircuitOpenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public CircuitOpenException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,205 @@
+package com.pinterest.psc.exception.handler;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.pinterest.psc.common.PscUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A circuit breaker of a backend cluster (topic URI prefix), shared by all PSC clients of the JVM that talk to that
+ * cluster.
+ * <p>
+ * Backend clients report the retriable failures that {@link PscErrorHandler} actions ask them to back off from, and
+ * their successful calls. After a number of consecutive failures the circuit opens: clients stop backing off, retrying
+ * and resetting, and producer sends and consumer calls that go to the backend fail fast. Once the open period passes
+ * the circuit becomes half-open and lets a single probing call through at a time, which closes the circuit if it
+ * succeeds and opens it again if it fails.
+ * <p>
+ * The state of each circuit is reported as the {@value PscMetrics#PSC_CIRCUIT_BREAKER_STATE_METRIC} gauge (0: closed,
+ * 1: open, 2: half-open), and is available through {@link #getState(String)} and {@link #getStates()}.
+ */
+public class PscCircuitBreaker {
+    private static final PscLogger logger = PscLogger.getLogger(PscCircuitBreaker.class);
+    private static final Map<String, PscCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String topicUriPrefix;
+    private final TopicUri topicUri;
+    private final int failureThreshold;
+    private final long openMs;
+    private final PscConfigurationInternal pscConfigurationInternal;
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures = 0;
+    private long openedAtMs;
+    private long probeStartedAtMs;
+
+    @VisibleForTesting
+    PscCircuitBreaker(TopicUri topicUri, int failureThreshold, long openMs, PscConfigurationInternal pscConfigurationInternal) {
+        this.topicUriPrefix = topicUri.getTopicUriPrefix();
+        this.topicUri = topicUri;
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.pscConfigurationInternal = pscConfigurationInternal;
+    }
+
+    /**
+     * Returns the circuit breaker of the cluster of the given topic URI, creating it with the thresholds of the given
+     * configuration if it does not exist yet.
+     *
+     * @param topicUri                 a topic URI of the cluster
+     * @param pscConfigurationInternal the configuration of the client
+     * @return the circuit breaker of the cluster, or null if circuit breakers are disabled in the configuration
+     */
+    public static PscCircuitBreaker get(TopicUri topicUri, PscConfigurationInternal pscConfigurationInternal) {
+        if (topicUri == null || !pscConfigurationInternal.isCircuitBreakerEnabled())
+            return null;
+        return circuitBreakers.computeIfAbsent(topicUri.getTopicUriPrefix(), key -> new PscCircuitBreaker(
+                topicUri,
+                pscConfigurationInternal.getCircuitBreakerFailureThreshold(),
+                pscConfigurationInternal.getCircuitBreakerOpenMs(),
+                pscConfigurationInternal
+        ));
+    }
+
+    /**
+     * @param topicUriPrefix the topic URI prefix of the cluster
+     * @return the state of the circuit of the cluster; {@link State#CLOSED} if there is no circuit breaker for it
+     */
+    public static State getState(String topicUriPrefix) {
+        PscCircuitBreaker circuitBreaker = circuitBreakers.get(topicUriPrefix);
+        return circuitBreaker == null ? State.CLOSED : circuitBreaker.getState();
+    }
+
+    /**
+     * @return the state of the circuit of each cluster with a circuit breaker, keyed by topic URI prefix
+     */
+    public static Map<String, State> getStates() {
+        return Collections.unmodifiableMap(circuitBreakers.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getState())));
+    }
+
+    @VisibleForTesting
+    static void reset() {
+        circuitBreakers.clear();
+    }
+
+    public String getTopicUriPrefix() {
+        return topicUriPrefix;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Decides whether a call to the backend cluster should be made. When the circuit is open this fails fast until the
+     * open period passes, after which one probing call is let through.
+     *
+     * @return true if the call can go ahead, false if it should fail fast
+     */
+    public boolean allowRequest() {
+        if (state == State.CLOSED)
+            return true;
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (now - openedAtMs >= openMs) {
+                        transitionTo(State.HALF_OPEN);
+                        probeStartedAtMs = now;
+                        return true;
+                    }
+                    break;
+                case HALF_OPEN:
+                    // let another probe through if the outcome of the last one was never reported
+                    if (now - probeStartedAtMs >= openMs) {
+                        probeStartedAtMs = now;
+                        return true;
+                    }
+                    break;
+            }
+        }
+        PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
+                topicUri, PscMetrics.PSC_CIRCUIT_BREAKER_REJECTED_METRIC, pscConfigurationInternal
+        );
+        return false;
+    }
+
+    /**
+     * @return true unless the circuit is open, in which case backend calls should not be retried
+     */
+    public boolean allowRetry() {
+        return state != State.OPEN;
+    }
+
+    /**
+     * Reports a successful backend call. This resets the consecutive failures of a closed circuit, and closes a
+     * half-open circuit (i.e. the probing call succeeded). Successes reported while the circuit is open are ignored,
+     * since they come from calls made before it opened (e.g. late acks of earlier sends).
+     */
+    public void recordSuccess() {
+        if (state == State.CLOSED && consecutiveFailures == 0)
+            return;
+
+        synchronized (this) {
+            switch (state) {
+                case CLOSED:
+                    consecutiveFailures = 0;
+                    break;
+                case HALF_OPEN:
+                    transitionTo(State.CLOSED);
+                    break;
+                case OPEN:
+                    break;
+            }
+        }
+    }
+
+    public synchronized void recordFailure() {
+        switch (state) {
+            case CLOSED:
+                if (++consecutiveFailures >= failureThreshold) {
+                    openedAtMs = System.currentTimeMillis();
+                    transitionTo(State.OPEN);
+                }
+                break;
+            case HALF_OPEN:
+                openedAtMs = System.currentTimeMillis();
+                transitionTo(State.OPEN);
+                break;
+            case OPEN:
+                break;
+        }
+    }
+
+    private void transitionTo(State newState) {
+        logger.warn("Circuit of {} changed from {} to {}.", topicUriPrefix, state, newState);
+        state = newState;
+        if (newState == State.CLOSED)
+            consecutiveFailures = 0;
+        PscMetricRegistryManager pscMetricRegistryManager = PscMetricRegistryManager.getInstance();
+        pscMetricRegistryManager.updateGaugeMetric(
+                topicUri, PscUtils.NO_PARTITION, PscMetrics.PSC_CIRCUIT_BREAKER_STATE_METRIC, newState.ordinal(),
+                pscConfigurationInternal
+        );
+        if (newState == State.OPEN) {
+            pscMetricRegistryManager.incrementBackendCounterMetric(
+                    topicUri, PscMetrics.PSC_CIRCUIT_BREAKER_OPENED_METRIC, pscConfigurationInternal
+            );
+        }
+    }
+}
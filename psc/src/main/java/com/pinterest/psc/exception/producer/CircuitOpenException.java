@@ -0,0 +1,24 @@
+package com.pinterest.psc.exception.producer;
+
+import com.pinterest.psc.exception.handler.PscCircuitBreaker;
+
+/**
+ * This exception is thrown by {@link com.pinterest.psc.producer.PscProducer} APIs when the circuit of the backend
+ * cluster is open (see {@link PscCircuitBreaker}), so the call fails fast instead of going to the backend. Callers
+ * can route the message elsewhere or retry it later.
+ */
+public class CircuitOpenException extends ProducerException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+
+    public CircuitOpenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public CircuitOpenException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -33,6 +33,7 @@ public class ConsumerInterceptors<K, V> {
     private final DeserializerInterceptor<K, V> deserializerInterceptor;
     private final List<TypePreservingInterceptor<K, V>> configuredTypedDataInterceptors;
     private final List<TypePreservingInterceptor<K, V>> coreTypedDataInterceptors;
+    private final TraceContextInterceptor<K, V> traceContextInterceptor;
 
     public ConsumerInterceptors(
             Interceptors<K, V> config,
@@ -67,9 +68,21 @@ public class ConsumerInterceptors<K, V> {
                 // metrics reporting interceptor for typed data
                 new TypedDataMetricsInterceptor<>().setPscConfigurationInternal(pscConfigurationInternal)
         );
+
+        // needs the fetch time of messages, so it is not part of the typed data interceptors
+        this.traceContextInterceptor = new TraceContextInterceptor<>();
+        this.traceContextInterceptor.setPscConfigurationInternal(pscConfigurationInternal);
     }
 
     public final PscConsumerMessage<K, V> onConsume(PscConsumerMessage<byte[], byte[]> message) {
+        return onConsume(message, System.currentTimeMillis());
+    }
+
+    /**
+     * @param message        the consumed message.
+     * @param fetchTimestamp the time the poll that returned the message completed, in milliseconds.
+     */
+    public final PscConsumerMessage<K, V> onConsume(PscConsumerMessage<byte[], byte[]> message, long fetchTimestamp) {
         PscConsumerMessage<byte[], byte[]> rawMessage = message;
 
         // <custom_serialized_data_interceptors>
@@ -96,6 +109,7 @@ public class ConsumerInterceptors<K, V> {
         for (TypePreservingInterceptor<K, V> interceptor : coreTypedDataInterceptors) {
             typedMessage = interceptor.onConsume(typedMessage);
         }
+        typedMessage = traceContextInterceptor.onConsume(typedMessage, fetchTimestamp);
         // </core_interceptors>
 
         // <custom_deserialized_data_interceptors>
@@ -154,4 +168,23 @@ public class ConsumerInterceptors<K, V> {
         }
     }
 
+    /**
+     * Closes the core interceptors that hold resources, e.g. flushing the metrics they have not reported yet.
+     */
+    public void close() {
+        coreRawDataInterceptors.forEach(ConsumerInterceptors::close);
+        coreTypedDataInterceptors.forEach(ConsumerInterceptors::close);
+    }
+
+    private static void close(TypePreservingInterceptor<?, ?> interceptor) {
+        if (!(interceptor instanceof AutoCloseable))
+            return;
+        try {
+            ((AutoCloseable) interceptor).close();
+        } catch (Exception e) {
+            // do not propagate interceptor exception, just log
+            logger.warn("Error closing interceptor {}", interceptor.getClass().getName(), e);
+        }
+    }
+
 }
@@ -39,9 +39,15 @@ public class ProducerInterceptors<K, V> {
         this.configuredRawDataInterceptors = config == null ? null : config.getRawDataInterceptors();
 
         this.coreTypedDataInterceptors = Arrays.asList(
+                // producer sequence id interceptor
+                new SequenceIdInterceptor<>().setPscConfigurationInternal(config.getPscConfigurationInternal()),
+
                 // time lag interceptor
                 new TimeLagInterceptor<>().setPscConfigurationInternal(config.getPscConfigurationInternal()),
 
+                // trace context interceptor
+                new TraceContextInterceptor<>().setPscConfigurationInternal(config.getPscConfigurationInternal()),
+
                 // ...
 
                 // metrics reporting interceptor for typed data
@@ -107,4 +113,23 @@ public class ProducerInterceptors<K, V> {
 
         return rawMessage;
     }
+
+    /**
+     * Closes the core interceptors that hold resources, e.g. flushing the metrics they have not reported yet.
+     */
+    public void close() {
+        coreRawDataInterceptors.forEach(ProducerInterceptors::close);
+        coreTypedDataInterceptors.forEach(ProducerInterceptors::close);
+    }
+
+    private static void close(TypePreservingInterceptor<?, ?> interceptor) {
+        if (!(interceptor instanceof AutoCloseable))
+            return;
+        try {
+            ((AutoCloseable) interceptor).close();
+        } catch (Exception e) {
+            // do not propagate interceptor exception, just log
+            logger.warn("Error closing interceptor {}", interceptor.getClass().getName(), e);
+        }
+    }
 }
@@ -3,55 +3,58 @@ package com.pinterest.psc.interceptor;
 import com.pinterest.psc.common.PscCommon;
 import com.pinterest.psc.common.PscMessage;
 import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.config.MetricsReporterConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
 import com.pinterest.psc.consumer.PscConsumerMessage;
 import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.metrics.PscCounterHandle;
+import com.pinterest.psc.metrics.PscHistogramHandle;
+import com.pinterest.psc.metrics.PscMetricHandleCache;
 import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetricSampler;
 import com.pinterest.psc.metrics.PscMetrics;
+import com.pinterest.psc.metrics.PscMetricsReportingScheduler;
+import com.pinterest.psc.metrics.PscSampledCounter;
 import com.pinterest.psc.producer.PscProducerMessage;
 
-public class RawDataMetricsInterceptor extends TypePreservingInterceptor<byte[], byte[]> {
+public class RawDataMetricsInterceptor extends TypePreservingInterceptor<byte[], byte[]> implements AutoCloseable {
     private static final PscLogger logger = PscLogger.getLogger(RawDataMetricsInterceptor.class);
+    // flushes the message counts of sampled metric groups at the reporting frequency, so that reports include the
+    // messages since the last sampled one; null if metrics are not sampled
+    private PscMetricsReportingScheduler.ReportingTask flushTask;
+    private final PscMetricHandleCache<MetricHandles> sendMetricHandles = new PscMetricHandleCache<>(
+            (topicUri, partition) -> new MetricHandles(
+                    topicUri,
+                    partition,
+                    PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGES_METRIC,
+                    PscMetrics.PSC_PRODUCER_PRODUCE_KEYED_MESSAGES_METRIC,
+                    PscMetrics.PSC_PRODUCER_PRODUCE_NULL_VALUE_MESSAGES_METRIC,
+                    PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGE_KEY_SIZE_BYTES_METRIC,
+                    PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGE_VALUE_SIZE_BYTES_METRIC
+            )
+    );
+    private final PscMetricHandleCache<MetricHandles> consumeMetricHandles = new PscMetricHandleCache<>(
+            (topicUri, partition) -> new MetricHandles(
+                    topicUri,
+                    partition,
+                    PscMetrics.PSC_CONSUMER_POLL_MESSAGES_METRIC,
+                    PscMetrics.PSC_CONSUMER_POLL_KEYED_MESSAGES_METRIC,
+                    PscMetrics.PSC_CONSUMER_POLL_NULL_MESSAGE_VALUES_METRIC,
+                    PscMetrics.PSC_CONSUMER_POLL_MESSAGE_KEY_SIZE_BYTES_METRIC,
+                    PscMetrics.PSC_CONSUMER_POLL_MESSAGE_VALUE_SIZE_BYTES_METRIC
+            )
+    );
 
     @Override
     public PscProducerMessage<byte[], byte[]> onSend(PscProducerMessage<byte[], byte[]> message) {
-        TopicUri topicUri = message.getTopicUriPartition().getTopicUri();
-        int partition = message.getTopicUriPartition().getPartition();
         byte[] key = message.getKey();
         byte[] value = message.getValue();
 
-        PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
-                topicUri, partition, PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGES_METRIC, pscConfigurationInternal
-        );
-
-        if (key != null) {
-            PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
-                    topicUri, partition, PscMetrics.PSC_PRODUCER_PRODUCE_KEYED_MESSAGES_METRIC, pscConfigurationInternal
-            );
-        }
-
-        if (value == null) {
-            PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
-                    topicUri, partition, PscMetrics.PSC_PRODUCER_PRODUCE_NULL_VALUE_MESSAGES_METRIC, pscConfigurationInternal
-            );
-        }
-
-        PscMetricRegistryManager.getInstance().updateBackendHistogramMetric(
-                topicUri,
-                partition,
-                PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGE_KEY_SIZE_BYTES_METRIC,
-                key == null ? -1 : key.length, pscConfigurationInternal
-        );
+        sendMetricHandles.get(message.getTopicUriPartition()).update(key, value);
         message.setHeader(
                 PscMessage.PSC_MESSAGE_HEADER_KEY_SIZE_BYTES,
                 PscCommon.intToByteArray(key == null ? -1 : key.length)
         );
-
-        PscMetricRegistryManager.getInstance().updateBackendHistogramMetric(
-                topicUri,
-                partition,
-                PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGE_VALUE_SIZE_BYTES_METRIC,
-                value == null ? -1 : value.length, pscConfigurationInternal
-        );
         message.setHeader(
                 PscMessage.PSC_MESSAGE_HEADER_VALUE_SIZE_BYTES,
                 PscCommon.intToByteArray(value == null ? -1 : value.length)
@@ -62,41 +65,100 @@ public class RawDataMetricsInterceptor extends TypePreservingInterceptor<byte[],
 
     @Override
     public PscConsumerMessage<byte[], byte[]> onConsume(PscConsumerMessage<byte[], byte[]> message) {
-        TopicUri topicUri = message.getMessageId().getTopicUriPartition().getTopicUri();
-        int partition = message.getMessageId().getTopicUriPartition().getPartition();
-        byte[] key = message.getKey();
-        byte[] value = message.getValue();
+        consumeMetricHandles.get(message.getMessageId().getTopicUriPartition()).update(message.getKey(), message.getValue());
+        return super.onConsume(message);
+    }
 
-        PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
-                topicUri, partition, PscMetrics.PSC_CONSUMER_POLL_MESSAGES_METRIC, pscConfigurationInternal
-        );
+    @Override
+    protected synchronized TypePreservingInterceptor setPscConfigurationInternal(PscConfigurationInternal pscConfigurationInternal) {
+        // handles are bound to the configuration they were created with
+        flush();
+        super.setPscConfigurationInternal(pscConfigurationInternal);
+        sendMetricHandles.clear();
+        consumeMetricHandles.clear();
+        scheduleFlush();
+        return this;
+    }
 
-        if (key != null) {
-            PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
-                    topicUri, partition, PscMetrics.PSC_CONSUMER_POLL_KEYED_MESSAGES_METRIC, pscConfigurationInternal
-            );
+    /**
+     * Flushes the pending message counts and stops the periodic flush.
+     */
+    @Override
+    public synchronized void close() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
         }
+        flush();
+    }
 
-        if (value == null) {
-            PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
-                    topicUri, partition, PscMetrics.PSC_CONSUMER_POLL_NULL_MESSAGE_VALUES_METRIC, pscConfigurationInternal
-            );
-        }
+    void flush() {
+        sendMetricHandles.forEach(MetricHandles::flush);
+        consumeMetricHandles.forEach(MetricHandles::flush);
+    }
 
-        PscMetricRegistryManager.getInstance().updateBackendHistogramMetric(
-                topicUri,
-                partition,
-                PscMetrics.PSC_CONSUMER_POLL_MESSAGE_KEY_SIZE_BYTES_METRIC,
-                key == null ? -1 : key.length, pscConfigurationInternal
+    private void scheduleFlush() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        MetricsReporterConfiguration metricsReporterConfiguration =
+                pscConfigurationInternal == null ? null : pscConfigurationInternal.getMetricsReporterConfiguration();
+        if (metricsReporterConfiguration == null || !PscMetricSampler.create(pscConfigurationInternal).isSampling())
+            return;
+        flushTask = PscMetricsReportingScheduler.getInstance().schedule(
+                "psc-raw-data-metrics-flush", this::flush, metricsReporterConfiguration.getFrequencyMs()
         );
+    }
 
-        PscMetricRegistryManager.getInstance().updateBackendHistogramMetric(
-                topicUri,
-                partition,
-                PscMetrics.PSC_CONSUMER_POLL_MESSAGE_VALUE_SIZE_BYTES_METRIC,
-                value == null ? -1 : value.length, pscConfigurationInternal
-        );
+    private class MetricHandles {
+        private final PscMetricSampler sampler;
+        private final PscSampledCounter messages;
+        private final PscSampledCounter keyedMessages;
+        private final PscSampledCounter nullValueMessages;
+        private final PscHistogramHandle keySizeBytes;
+        private final PscHistogramHandle valueSizeBytes;
+
+        MetricHandles(TopicUri topicUri,
+                      int partition,
+                      String messagesMetric,
+                      String keyedMessagesMetric,
+                      String nullValueMessagesMetric,
+                      String keySizeBytesMetric,
+                      String valueSizeBytesMetric) {
+            PscMetricRegistryManager pscMetricRegistryManager = PscMetricRegistryManager.getInstance();
+            sampler = PscMetricSampler.create(pscConfigurationInternal);
+            messages = sampler.counter(pscMetricRegistryManager.getBackendCounterHandle(
+                    topicUri, partition, messagesMetric, pscConfigurationInternal));
+            keyedMessages = sampler.counter(pscMetricRegistryManager.getBackendCounterHandle(
+                    topicUri, partition, keyedMessagesMetric, pscConfigurationInternal));
+            nullValueMessages = sampler.counter(pscMetricRegistryManager.getBackendCounterHandle(
+                    topicUri, partition, nullValueMessagesMetric, pscConfigurationInternal));
+            keySizeBytes = pscMetricRegistryManager.getBackendHistogramHandle(
+                    topicUri, partition, keySizeBytesMetric, pscConfigurationInternal);
+            valueSizeBytes = pscMetricRegistryManager.getBackendHistogramHandle(
+                    topicUri, partition, valueSizeBytesMetric, pscConfigurationInternal);
+        }
 
-        return super.onConsume(message);
+        void update(byte[] key, byte[] value) {
+            messages.increment();
+            if (key != null)
+                keyedMessages.increment();
+            if (value == null)
+                nullValueMessages.increment();
+
+            long weight = sampler.sample();
+            if (weight == 0)
+                return;
+            flush();
+            keySizeBytes.update(key == null ? -1 : key.length, weight);
+            valueSizeBytes.update(value == null ? -1 : value.length, weight);
+        }
+
+        void flush() {
+            messages.flush();
+            keyedMessages.flush();
+            nullValueMessages.flush();
+        }
     }
 }
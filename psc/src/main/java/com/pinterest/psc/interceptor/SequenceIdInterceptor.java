@@ -0,0 +1,36 @@
+package com.pinterest.psc.interceptor;
+
+import com.pinterest.psc.common.PscMessage;
+import com.pinterest.psc.producer.PscProducerMessage;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stamps produced messages with a compact producer-side sequence id header when idempotent send is enabled. The
+ * header consists of a random id of this producer followed by a per-producer sequence number (8 bytes each). The
+ * header is assigned to the message object sent by the application, so an application that re-sends the same
+ * message object (e.g. after a failed send) produces a message with the same sequence id, which lets consumers drop
+ * the duplicate.
+ */
+public class SequenceIdInterceptor<K, V> extends TypePreservingInterceptor<K, V> {
+    static final int SEQUENCE_ID_BYTES = 2 * Long.BYTES;
+
+    private final long producerId = UUID.randomUUID().getMostSignificantBits();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public PscProducerMessage<K, V> onSend(PscProducerMessage<K, V> message) {
+        if (pscConfigurationInternal == null || !pscConfigurationInternal.isIdempotentSendEnabled())
+            return super.onSend(message);
+
+        if (message.getHeaders() == null || !message.getHeaders().containsKey(PscMessage.PSC_MESSAGE_HEADER_PSC_SEQUENCE_ID)) {
+            message.setHeader(
+                    PscMessage.PSC_MESSAGE_HEADER_PSC_SEQUENCE_ID,
+                    ByteBuffer.allocate(SEQUENCE_ID_BYTES).putLong(producerId).putLong(sequence.getAndIncrement()).array()
+            );
+        }
+        return super.onSend(message);
+    }
+}
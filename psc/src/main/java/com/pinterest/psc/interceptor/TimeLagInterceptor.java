@@ -3,9 +3,14 @@ package com.pinterest.psc.interceptor;
 import com.pinterest.psc.common.PscCommon;
 import com.pinterest.psc.common.PscMessage;
 import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.config.PscConfigurationInternal;
 import com.pinterest.psc.consumer.PscConsumerMessage;
 import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.metrics.PscHistogramHandle;
+import com.pinterest.psc.metrics.PscMetricHandleCache;
 import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetricSampler;
 import com.pinterest.psc.metrics.PscMetrics;
 import com.pinterest.psc.producer.PscProducerMessage;
 
@@ -13,18 +18,19 @@ import java.util.Map;
 
 public class TimeLagInterceptor<K, V> extends TypePreservingInterceptor<K, V> {
     private static final PscLogger logger = PscLogger.getLogger(TimeLagInterceptor.class);
+    private final PscMetricHandleCache<TimeLagMetricHandles> timeLagMetricHandles =
+            new PscMetricHandleCache<>(TimeLagMetricHandles::new);
 
     @Override
     public PscConsumerMessage<K, V> onConsume(PscConsumerMessage<K, V> message) {
         Map<String, byte[]> headers = message.getHeaders();
-        TopicUri topicUri = message.getMessageId().getTopicUriPartition().getTopicUri();
-        int partition = message.getMessageId().getTopicUriPartition().getPartition();
+        TopicUriPartition topicUriPartition = message.getMessageId().getTopicUriPartition();
+        TimeLagMetricHandles handles = timeLagMetricHandles.get(topicUriPartition);
+        long weight = handles.sampler.sample();
         if (headers == null || !headers.containsKey(PscMessage.PSC_MESSAGE_HEADER_PSC_PRODUCE_TIMESTAMP)) {
             // header does not have relevant information, use message publish timestamp instead
-            long lag = getLagInMilliseconds(message.getPublishTimestamp());
-            PscMetricRegistryManager.getInstance().updateHistogramMetric(
-                    topicUri, partition, PscMetrics.PSC_CONSUMER_TIME_LAG_MS_METRIC, lag, pscConfigurationInternal
-            );
+            if (weight > 0)
+                handles.timeLag.update(getLagInMilliseconds(message.getPublishTimestamp()), weight);
             message.addTag(PscConsumerMessage.DefaultPscConsumerMessageTags.HEADER_TIMESTAMP_NOT_FOUND);
             return message;
         }
@@ -38,10 +44,8 @@ public class TimeLagInterceptor<K, V> extends TypePreservingInterceptor<K, V> {
             return message;
         }
 
-        long lag = getLagInMilliseconds(PscCommon.byteArrayToLong(timestampBytes));
-        PscMetricRegistryManager.getInstance().updateHistogramMetric(
-                topicUri, partition, PscMetrics.PSC_CONSUMER_TIME_LAG_MS_METRIC, lag, pscConfigurationInternal
-        );
+        if (weight > 0)
+            handles.timeLag.update(getLagInMilliseconds(PscCommon.byteArrayToLong(timestampBytes)), weight);
 
         return super.onConsume(message);
     }
@@ -55,6 +59,26 @@ public class TimeLagInterceptor<K, V> extends TypePreservingInterceptor<K, V> {
         return super.onSend(message);
     }
 
+    @Override
+    protected TypePreservingInterceptor setPscConfigurationInternal(PscConfigurationInternal pscConfigurationInternal) {
+        super.setPscConfigurationInternal(pscConfigurationInternal);
+        // handles are bound to the configuration they were created with
+        timeLagMetricHandles.clear();
+        return this;
+    }
+
+    private class TimeLagMetricHandles {
+        private final PscMetricSampler sampler;
+        private final PscHistogramHandle timeLag;
+
+        TimeLagMetricHandles(TopicUri topicUri, int partition) {
+            sampler = PscMetricSampler.create(pscConfigurationInternal);
+            timeLag = PscMetricRegistryManager.getInstance().getHistogramHandle(
+                    topicUri, partition, PscMetrics.PSC_CONSUMER_TIME_LAG_MS_METRIC, pscConfigurationInternal
+            );
+        }
+    }
+
     private long getLagInMilliseconds(long timestamp) {
         long currentTsMs = System.currentTimeMillis();
         long lag = currentTsMs - timestamp;
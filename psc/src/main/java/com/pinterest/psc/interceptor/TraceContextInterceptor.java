@@ -0,0 +1,98 @@
+package com.pinterest.psc.interceptor;
+
+import com.pinterest.psc.common.PscMessage;
+import com.pinterest.psc.common.PscTraceContext;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.consumer.PscConsumerMessage;
+import com.pinterest.psc.metrics.PscHistogramHandle;
+import com.pinterest.psc.metrics.PscMetricHandleCache;
+import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetricSampler;
+import com.pinterest.psc.metrics.PscMetrics;
+import com.pinterest.psc.producer.PscProducerMessage;
+
+/**
+ * Propagates a {@link PscTraceContext} from producers to consumers and reports the latency of each hop of traced
+ * messages on the consumer side:
+ * <ul>
+ *     <li>{@value PscMetrics#PSC_CONSUMER_TRACE_PRODUCE_TO_FETCH_MS_METRIC}: from the send of the message until a poll
+ *     returned it</li>
+ *     <li>{@value PscMetrics#PSC_CONSUMER_TRACE_FETCH_TO_PROCESS_MS_METRIC}: from the poll that returned the message
+ *     until the message is handed to the application</li>
+ * </ul>
+ * The produce to ack latency is reported by producers as {@value PscMetrics#PSC_PRODUCER_PRODUCE_TIME_MS_METRIC}.
+ * Producers attach the context only if {@link PscConfiguration#PSC_METRICS_TRACING_ENABLED} is set; consumers report
+ * the hops of any message that carries a context, sampled as configured by
+ * {@link PscConfiguration#PSC_METRICS_SAMPLING_INTERVAL}.
+ */
+public class TraceContextInterceptor<K, V> extends TypePreservingInterceptor<K, V> {
+    private final PscMetricHandleCache<TraceMetricHandles> traceMetricHandles =
+            new PscMetricHandleCache<>(TraceMetricHandles::new);
+    private boolean tracingEnabled = false;
+
+    @Override
+    public PscProducerMessage<K, V> onSend(PscProducerMessage<K, V> message) {
+        if (tracingEnabled) {
+            // a context copied from a consumed message continues its trace
+            PscTraceContext traceContext = PscTraceContext.fromHeaders(message.getHeaders());
+            message.setHeader(
+                    PscMessage.PSC_MESSAGE_HEADER_PSC_TRACE_CONTEXT,
+                    (traceContext == null ? PscTraceContext.newTrace() : traceContext.nextSpan()).toBytes()
+            );
+        }
+        return super.onSend(message);
+    }
+
+    /**
+     * Reports the hop latencies of the given message if it carries a trace context.
+     *
+     * @param message        the consumed message.
+     * @param fetchTimestamp the time the poll that returned the message completed, in milliseconds.
+     * @return the given message.
+     */
+    public PscConsumerMessage<K, V> onConsume(PscConsumerMessage<K, V> message, long fetchTimestamp) {
+        PscTraceContext traceContext = PscTraceContext.fromHeaders(message.getHeaders());
+        if (traceContext == null)
+            return message;
+
+        TraceMetricHandles handles = traceMetricHandles.get(message.getMessageId().getTopicUriPartition());
+        long weight = handles.sampler.sample();
+        if (weight > 0) {
+            handles.produceToFetch.update(Math.max(0, fetchTimestamp - traceContext.getSpanTimestamp()), weight);
+            handles.fetchToProcess.update(Math.max(0, System.currentTimeMillis() - fetchTimestamp), weight);
+        }
+        return message;
+    }
+
+    @Override
+    protected TypePreservingInterceptor setPscConfigurationInternal(PscConfigurationInternal pscConfigurationInternal) {
+        super.setPscConfigurationInternal(pscConfigurationInternal);
+        if (pscConfigurationInternal != null && pscConfigurationInternal.getConfiguration() != null) {
+            tracingEnabled = pscConfigurationInternal.getConfiguration().getBoolean(
+                    PscConfiguration.PSC_METRICS_TRACING_ENABLED, false
+            );
+        }
+        // handles are bound to the configuration they were created with
+        traceMetricHandles.clear();
+        return this;
+    }
+
+    private class TraceMetricHandles {
+        private final PscMetricSampler sampler;
+        private final PscHistogramHandle produceToFetch;
+        private final PscHistogramHandle fetchToProcess;
+
+        TraceMetricHandles(TopicUri topicUri, int partition) {
+            PscMetricRegistryManager pscMetricRegistryManager = PscMetricRegistryManager.getInstance();
+            sampler = PscMetricSampler.create(pscConfigurationInternal);
+            produceToFetch = pscMetricRegistryManager.getHistogramHandle(
+                    topicUri, partition, PscMetrics.PSC_CONSUMER_TRACE_PRODUCE_TO_FETCH_MS_METRIC, pscConfigurationInternal
+            );
+            fetchToProcess = pscMetricRegistryManager.getHistogramHandle(
+                    topicUri, partition, PscMetrics.PSC_CONSUMER_TRACE_FETCH_TO_PROCESS_MS_METRIC, pscConfigurationInternal
+            );
+        }
+    }
+}
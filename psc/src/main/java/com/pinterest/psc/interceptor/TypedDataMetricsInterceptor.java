@@ -1,38 +1,40 @@
 package com.pinterest.psc.interceptor;
 
 import com.pinterest.psc.common.MessageId;
+import com.pinterest.psc.common.PscUtils;
 import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.config.MetricsReporterConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
 import com.pinterest.psc.consumer.PscConsumerMessage;
 import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.metrics.PscCounterHandle;
+import com.pinterest.psc.metrics.PscHistogramHandle;
+import com.pinterest.psc.metrics.PscMetricHandleCache;
 import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetricSampler;
 import com.pinterest.psc.metrics.PscMetrics;
+import com.pinterest.psc.metrics.PscMetricsReportingScheduler;
+import com.pinterest.psc.metrics.PscSampledCounter;
 import com.pinterest.psc.producer.PscProducerMessage;
 
-public class TypedDataMetricsInterceptor<K, V> extends TypePreservingInterceptor<K, V> {
+public class TypedDataMetricsInterceptor<K, V> extends TypePreservingInterceptor<K, V> implements AutoCloseable {
     private static final PscLogger logger = PscLogger.getLogger(TypedDataMetricsInterceptor.class);
+    // flushes the message counts of sampled consume metrics at the reporting frequency; null if metrics are not sampled
+    private PscMetricsReportingScheduler.ReportingTask flushTask;
+    private final PscMetricHandleCache<SendMetricHandles> sendMetricHandles =
+            new PscMetricHandleCache<>(SendMetricHandles::new);
+    private final PscMetricHandleCache<ConsumeMetricHandles> consumeMetricHandles =
+            new PscMetricHandleCache<>(ConsumeMetricHandles::new);
 
     @Override
     public PscProducerMessage<K, V> onSend(PscProducerMessage<K, V> message) {
-        TopicUri topicUri = message.getTopicUriPartition().getTopicUri();
-        int partition = message.getTopicUriPartition().getPartition();
-        K key = message.getKey();
-        V value = message.getValue();
+        SendMetricHandles handles = sendMetricHandles.get(message.getTopicUriPartition());
 
-        PscMetricRegistryManager.getInstance().incrementCounterMetric(
-                topicUri, partition, PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGES_METRIC, pscConfigurationInternal
-        );
-
-        if (key != null) {
-            PscMetricRegistryManager.getInstance().incrementCounterMetric(
-                    topicUri, partition, PscMetrics.PSC_PRODUCER_PRODUCE_KEYED_MESSAGES_METRIC, pscConfigurationInternal
-            );
-        }
-
-        if (value == null) {
-            PscMetricRegistryManager.getInstance().incrementCounterMetric(
-                    topicUri, partition, PscMetrics.PSC_PRODUCER_PRODUCE_NULL_VALUE_MESSAGES_METRIC, pscConfigurationInternal
-            );
-        }
+        handles.messages.increment();
+        if (message.getKey() != null)
+            handles.keyedMessages.increment();
+        if (message.getValue() == null)
+            handles.nullValueMessages.increment();
 
         return super.onSend(message);
     }
@@ -40,47 +42,113 @@ public class TypedDataMetricsInterceptor<K, V> extends TypePreservingInterceptor
     @Override
     public PscConsumerMessage<K, V> onConsume(PscConsumerMessage<K, V> message) {
         MessageId messageId = message.getMessageId();
-        TopicUri topicUri = messageId.getTopicUriPartition().getTopicUri();
-        K key = message.getKey();
-        V value = message.getValue();
+        ConsumeMetricHandles handles = consumeMetricHandles.get(messageId.getTopicUriPartition());
 
-        PscMetricRegistryManager.getInstance().incrementCounterMetric(
-                topicUri, PscMetrics.PSC_CONSUMER_POLL_MESSAGES_METRIC, pscConfigurationInternal
-        );
+        handles.messages.increment();
+        if (message.getKey() != null)
+            handles.keyedMessages.increment();
+        if (message.getValue() == null)
+            handles.nullValueMessages.increment();
 
-        if (key != null) {
-            PscMetricRegistryManager.getInstance().incrementCounterMetric(
-                    topicUri, PscMetrics.PSC_CONSUMER_POLL_KEYED_MESSAGES_METRIC, pscConfigurationInternal
-            );
+        long weight = handles.sampler.sample();
+        if (weight > 0) {
+            handles.flush();
+            handles.offset.update(messageId.getOffset(), weight);
+            handles.keySizeBytes.update(messageId.getSerializedKeySizeBytes(), weight);
+            handles.valueSizeBytes.update(messageId.getSerializedValueSizeBytes(), weight);
         }
 
-        if (value == null) {
-            PscMetricRegistryManager.getInstance().incrementCounterMetric(
-                    topicUri, PscMetrics.PSC_CONSUMER_POLL_NULL_MESSAGE_VALUES_METRIC, pscConfigurationInternal
-            );
+        return message;
+    }
+
+    @Override
+    protected synchronized TypePreservingInterceptor setPscConfigurationInternal(PscConfigurationInternal pscConfigurationInternal) {
+        // handles are bound to the configuration they were created with
+        flush();
+        super.setPscConfigurationInternal(pscConfigurationInternal);
+        sendMetricHandles.clear();
+        consumeMetricHandles.clear();
+        scheduleFlush();
+        return this;
+    }
+
+    /**
+     * Flushes the pending message counts and stops the periodic flush.
+     */
+    @Override
+    public synchronized void close() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
         }
+        flush();
+    }
 
-        PscMetricRegistryManager.getInstance().updateHistogramMetric(
-                topicUri,
-                messageId.getTopicUriPartition().getPartition(),
-                PscMetrics.PSC_CONSUMER_OFFSET_MESSAGES_METRIC,
-                messageId.getOffset(), pscConfigurationInternal
-        );
+    void flush() {
+        consumeMetricHandles.forEach(ConsumeMetricHandles::flush);
+    }
 
-        PscMetricRegistryManager.getInstance().updateHistogramMetric(
-                topicUri,
-                PscMetrics.PSC_CONSUMER_POLL_MESSAGE_KEY_SIZE_BYTES_METRIC,
-                messageId.getSerializedKeySizeBytes(),
-                pscConfigurationInternal
+    private void scheduleFlush() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        MetricsReporterConfiguration metricsReporterConfiguration =
+                pscConfigurationInternal == null ? null : pscConfigurationInternal.getMetricsReporterConfiguration();
+        if (metricsReporterConfiguration == null || !PscMetricSampler.create(pscConfigurationInternal).isSampling())
+            return;
+        flushTask = PscMetricsReportingScheduler.getInstance().schedule(
+                "psc-typed-data-metrics-flush", this::flush, metricsReporterConfiguration.getFrequencyMs()
         );
+    }
 
-        PscMetricRegistryManager.getInstance().updateHistogramMetric(
-                topicUri,
-                PscMetrics.PSC_CONSUMER_POLL_MESSAGE_VALUE_SIZE_BYTES_METRIC,
-                messageId.getSerializedValueSizeBytes(),
-                pscConfigurationInternal
-        );
+    private class SendMetricHandles {
+        private final PscCounterHandle messages;
+        private final PscCounterHandle keyedMessages;
+        private final PscCounterHandle nullValueMessages;
 
-        return message;
+        SendMetricHandles(TopicUri topicUri, int partition) {
+            PscMetricRegistryManager pscMetricRegistryManager = PscMetricRegistryManager.getInstance();
+            messages = pscMetricRegistryManager.getCounterHandle(
+                    topicUri, partition, PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGES_METRIC, pscConfigurationInternal);
+            keyedMessages = pscMetricRegistryManager.getCounterHandle(
+                    topicUri, partition, PscMetrics.PSC_PRODUCER_PRODUCE_KEYED_MESSAGES_METRIC, pscConfigurationInternal);
+            nullValueMessages = pscMetricRegistryManager.getCounterHandle(
+                    topicUri, partition, PscMetrics.PSC_PRODUCER_PRODUCE_NULL_VALUE_MESSAGES_METRIC, pscConfigurationInternal);
+        }
+    }
+
+    private class ConsumeMetricHandles {
+        // message counts and sizes are reported per topic, offsets per partition
+        private final PscMetricSampler sampler;
+        private final PscSampledCounter messages;
+        private final PscSampledCounter keyedMessages;
+        private final PscSampledCounter nullValueMessages;
+        private final PscHistogramHandle offset;
+        private final PscHistogramHandle keySizeBytes;
+        private final PscHistogramHandle valueSizeBytes;
+
+        ConsumeMetricHandles(TopicUri topicUri, int partition) {
+            PscMetricRegistryManager pscMetricRegistryManager = PscMetricRegistryManager.getInstance();
+            sampler = PscMetricSampler.create(pscConfigurationInternal);
+            messages = sampler.counter(pscMetricRegistryManager.getCounterHandle(
+                    topicUri, PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_POLL_MESSAGES_METRIC, pscConfigurationInternal));
+            keyedMessages = sampler.counter(pscMetricRegistryManager.getCounterHandle(
+                    topicUri, PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_POLL_KEYED_MESSAGES_METRIC, pscConfigurationInternal));
+            nullValueMessages = sampler.counter(pscMetricRegistryManager.getCounterHandle(
+                    topicUri, PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_POLL_NULL_MESSAGE_VALUES_METRIC, pscConfigurationInternal));
+            offset = pscMetricRegistryManager.getHistogramHandle(
+                    topicUri, partition, PscMetrics.PSC_CONSUMER_OFFSET_MESSAGES_METRIC, pscConfigurationInternal);
+            keySizeBytes = pscMetricRegistryManager.getHistogramHandle(
+                    topicUri, PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_POLL_MESSAGE_KEY_SIZE_BYTES_METRIC, pscConfigurationInternal);
+            valueSizeBytes = pscMetricRegistryManager.getHistogramHandle(
+                    topicUri, PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_POLL_MESSAGE_VALUE_SIZE_BYTES_METRIC, pscConfigurationInternal);
+        }
+
+        void flush() {
+            messages.flush();
+            keyedMessages.flush();
+            nullValueMessages.flush();
+        }
     }
 }
@@ -0,0 +1,370 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link Reservoir} that counts values in fixed log-linear buckets instead of storing them. Values below 128 are
+ * counted exactly; larger values are counted in 64 buckets per power of two, which bounds the relative error of
+ * reported percentiles by 1/64. Buckets are allocated one power of two at a time as values of that magnitude are
+ * recorded, so memory is bounded (and small for values of similar magnitude) regardless of the recording rate.
+ * Recording is lock-free. Minimum, maximum and mean are exact.
+ * <p>
+ * Each call to {@link #getSnapshot()} swaps in an empty interval and returns a snapshot of the values recorded since
+ * the previous call, so the reservoir is meant to be read by a single periodic reporter. Other readers, such as
+ * Prometheus scrapes, use {@link #getCurrentSnapshot()}, which does not affect what the periodic reporter sees.
+ */
+public class LogBucketedReservoir implements Reservoir {
+    private static final int PRECISION_BITS = 7;
+    // values below this are counted exactly in the first chunk
+    private static final int LINEAR_VALUES = 1 << PRECISION_BITS;
+    // number of buckets per power of two above the linear values
+    private static final int BUCKETS_PER_CHUNK = LINEAR_VALUES / 2;
+    private static final int CHUNK_COUNT = Long.SIZE - PRECISION_BITS + 1;
+
+    private final IntervalPhaser phaser = new IntervalPhaser();
+    private volatile Interval active = new Interval();
+    private Interval inactive = new Interval();
+
+    @Override
+    public int size() {
+        return (int) Math.min(active.count.get(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+        update(value, 1);
+    }
+
+    /**
+     * Records the given value as if it was updated <code>weight</code> times, e.g. for a value that stands for a
+     * sample of messages.
+     */
+    public void update(long value, long weight) {
+        long phase = phaser.enter();
+        try {
+            active.record(value, weight);
+        } finally {
+            phaser.exit(phase);
+        }
+    }
+
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        Interval completed = active;
+        inactive.reset();
+        active = inactive;
+        // wait for writers that may still be recording into the completed interval
+        phaser.flip();
+        inactive = completed;
+        return completed.getSnapshot();
+    }
+
+    /**
+     * Returns a snapshot of the values recorded in the last completed interval and in the current one, without
+     * completing the current interval, so that any number of readers can call it without taking values away from the
+     * periodic reporter (or from each other). The snapshot covers between one and two reporting intervals.
+     */
+    public synchronized Snapshot getCurrentSnapshot() {
+        Interval merged = new Interval();
+        merged.add(inactive);
+        merged.add(active);
+        return merged.getSnapshot();
+    }
+
+    static int getChunk(long magnitude) {
+        if (magnitude < LINEAR_VALUES)
+            return 0;
+        return (Long.SIZE - 1 - Long.numberOfLeadingZeros(magnitude)) - (PRECISION_BITS - 1);
+    }
+
+    static int getOffset(long magnitude, int chunk) {
+        return chunk == 0 ? (int) magnitude : (int) (magnitude >>> chunk) - BUCKETS_PER_CHUNK;
+    }
+
+    /**
+     * @return the value that represents the given bucket: the value itself for exact buckets, or the middle of the
+     * range of values the bucket counts.
+     */
+    static long getBucketValue(int chunk, int offset) {
+        if (chunk == 0)
+            return offset;
+        long low = ((long) BUCKETS_PER_CHUNK + offset) << chunk;
+        return low + ((1L << chunk) - 1) / 2;
+    }
+
+    /**
+     * The values recorded in one reporting interval.
+     */
+    private static class Interval {
+        private final Buckets positiveBuckets = new Buckets();
+        // negative values are uncommon (e.g. -1 placeholders) and counted by magnitude in separate buckets
+        private final Buckets negativeBuckets = new Buckets();
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+        void record(long value, long weight) {
+            if (value >= 0)
+                positiveBuckets.add(value, weight);
+            else
+                negativeBuckets.add(value == Long.MIN_VALUE ? Long.MAX_VALUE : -value, weight);
+            sum.addAndGet(value * weight);
+            long current;
+            while (value < (current = min.get()) && !min.compareAndSet(current, value)) ;
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) ;
+            count.addAndGet(weight);
+        }
+
+        /**
+         * Adds the values of the given interval to this one; the given interval may still be recorded into.
+         */
+        void add(Interval other) {
+            positiveBuckets.add(other.positiveBuckets);
+            negativeBuckets.add(other.negativeBuckets);
+            count.addAndGet(other.count.get());
+            sum.addAndGet(other.sum.get());
+            long otherMin = other.min.get();
+            if (otherMin < min.get())
+                min.set(otherMin);
+            long otherMax = other.max.get();
+            if (otherMax > max.get())
+                max.set(otherMax);
+        }
+
+        void reset() {
+            positiveBuckets.reset();
+            negativeBuckets.reset();
+            count.set(0);
+            sum.set(0);
+            min.set(Long.MAX_VALUE);
+            max.set(Long.MIN_VALUE);
+        }
+
+        Snapshot getSnapshot() {
+            long[] negativeValues = negativeBuckets.getValues(true);
+            long[] negativeCounts = negativeBuckets.getCounts(true);
+            long[] positiveValues = positiveBuckets.getValues(false);
+            long[] positiveCounts = positiveBuckets.getCounts(false);
+
+            long[] values = new long[negativeValues.length + positiveValues.length];
+            long[] counts = new long[values.length];
+            for (int i = 0; i < negativeValues.length; ++i) {
+                values[i] = -negativeValues[i];
+                counts[i] = negativeCounts[i];
+            }
+            System.arraycopy(positiveValues, 0, values, negativeValues.length, positiveValues.length);
+            System.arraycopy(positiveCounts, 0, counts, negativeValues.length, positiveCounts.length);
+
+            long totalCount = 0;
+            for (long bucketCount : counts)
+                totalCount += bucketCount;
+            return totalCount == 0 ?
+                    new BucketedSnapshot(new long[0], new long[0], 0, 0, 0, 0) :
+                    new BucketedSnapshot(values, counts, totalCount, sum.get(), min.get(), max.get());
+        }
+    }
+
+    /**
+     * Bucket counts of non-negative values (or magnitudes), allocated one chunk (power of two) at a time.
+     */
+    private static class Buckets {
+        private final AtomicReferenceArray<AtomicLongArray> chunks = new AtomicReferenceArray<>(CHUNK_COUNT);
+
+        void add(long magnitude, long weight) {
+            int chunk = getChunk(magnitude);
+            AtomicLongArray counts = chunks.get(chunk);
+            if (counts == null) {
+                chunks.compareAndSet(chunk, null, new AtomicLongArray(chunk == 0 ? LINEAR_VALUES : BUCKETS_PER_CHUNK));
+                counts = chunks.get(chunk);
+            }
+            counts.addAndGet(getOffset(magnitude, chunk), weight);
+        }
+
+        void add(Buckets other) {
+            for (int chunk = 0; chunk < CHUNK_COUNT; ++chunk) {
+                AtomicLongArray otherCounts = other.chunks.get(chunk);
+                if (otherCounts == null)
+                    continue;
+                AtomicLongArray counts = chunks.get(chunk);
+                if (counts == null) {
+                    counts = new AtomicLongArray(otherCounts.length());
+                    chunks.set(chunk, counts);
+                }
+                for (int offset = 0; offset < otherCounts.length(); ++offset)
+                    counts.addAndGet(offset, otherCounts.get(offset));
+            }
+        }
+
+        void reset() {
+            for (int chunk = 0; chunk < CHUNK_COUNT; ++chunk) {
+                AtomicLongArray counts = chunks.get(chunk);
+                if (counts != null) {
+                    for (int offset = 0; offset < counts.length(); ++offset)
+                        counts.set(offset, 0);
+                }
+            }
+        }
+
+        /**
+         * @return the representative values of non-empty buckets in ascending (or descending) order
+         */
+        long[] getValues(boolean descending) {
+            return collect(descending, true);
+        }
+
+        /**
+         * @return the counts of non-empty buckets, in the same order as {@link #getValues(boolean)}
+         */
+        long[] getCounts(boolean descending) {
+            return collect(descending, false);
+        }
+
+        private long[] collect(boolean descending, boolean values) {
+            long[] result = new long[16];
+            int size = 0;
+            for (int i = 0; i < CHUNK_COUNT; ++i) {
+                int chunk = descending ? CHUNK_COUNT - 1 - i : i;
+                AtomicLongArray counts = chunks.get(chunk);
+                if (counts == null)
+                    continue;
+                for (int j = 0; j < counts.length(); ++j) {
+                    int offset = descending ? counts.length() - 1 - j : j;
+                    long bucketCount = counts.get(offset);
+                    if (bucketCount == 0)
+                        continue;
+                    if (size == result.length)
+                        result = Arrays.copyOf(result, size * 2);
+                    result[size++] = values ? getBucketValue(chunk, offset) : bucketCount;
+                }
+            }
+            return Arrays.copyOf(result, size);
+        }
+    }
+
+    /**
+     * Lets the reader wait for writers that entered before an interval swap, without writers ever blocking. Writers
+     * count their entries and exits per phase; the reader flips the phase and waits until the exits of the previous
+     * phase catch up with its entries.
+     */
+    private static class IntervalPhaser {
+        private final AtomicLong startEpoch = new AtomicLong(0);
+        private final AtomicLong evenEndEpoch = new AtomicLong(0);
+        private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+
+        long enter() {
+            return startEpoch.getAndIncrement();
+        }
+
+        void exit(long phase) {
+            (phase < 0 ? oddEndEpoch : evenEndEpoch).getAndIncrement();
+        }
+
+        void flip() {
+            boolean nextPhaseIsEven = startEpoch.get() < 0;
+            if (nextPhaseIsEven)
+                evenEndEpoch.set(0);
+            else
+                oddEndEpoch.set(Long.MIN_VALUE);
+            long startValueAtFlip = startEpoch.getAndSet(nextPhaseIsEven ? 0 : Long.MIN_VALUE);
+            AtomicLong previousPhaseEndEpoch = nextPhaseIsEven ? oddEndEpoch : evenEndEpoch;
+            while (previousPhaseEndEpoch.get() != startValueAtFlip)
+                Thread.yield();
+        }
+    }
+
+    /**
+     * A snapshot over bucket counts. {@link #getValues()} returns the representative value of each non-empty bucket.
+     */
+    static class BucketedSnapshot extends Snapshot {
+        private final long[] values;
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+
+        BucketedSnapshot(long[] values, long[] counts, long count, long sum, long min, long max) {
+            this.values = values;
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile))
+                throw new IllegalArgumentException(quantile + " is not in [0..1]");
+            if (count == 0)
+                return 0.0;
+
+            // the smallest value such that at least the given fraction of values are at or below it
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < values.length; ++i) {
+                seen += counts[i];
+                if (seen >= rank)
+                    return Math.max(min, Math.min(max, values[i]));
+            }
+            return max;
+        }
+
+        @Override
+        public long[] getValues() {
+            return Arrays.copyOf(values, values.length);
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(count, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        @Override
+        public long getMin() {
+            return min;
+        }
+
+        @Override
+        public double getStdDev() {
+            if (count <= 1)
+                return 0;
+            double mean = getMean();
+            double variance = 0;
+            for (int i = 0; i < values.length; ++i) {
+                double difference = values[i] - mean;
+                variance += counts[i] * difference * difference;
+            }
+            return Math.sqrt(variance / (count - 1));
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (int i = 0; i < values.length; ++i)
+                    out.printf("%d %d%n", values[i], counts[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.Gauge;
+
+/**
+ * A {@link Gauge} that reports the last value set on it, for values that are observed periodically rather than
+ * accumulated (e.g. consumer lag).
+ */
+class LongGauge implements Gauge<Long> {
+    private volatile long value;
+
+    void setValue(long value) {
+        this.value = value;
+    }
+
+    @Override
+    public Long getValue() {
+        return value;
+    }
+}
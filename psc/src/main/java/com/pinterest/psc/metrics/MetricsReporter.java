@@ -9,11 +9,10 @@ import com.codahale.metrics.MetricFilter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.ScheduledReporter;
 import com.codahale.metrics.Timer;
-import com.pinterest.psc.common.PscCommon;
 import com.pinterest.psc.config.MetricsReporterConfiguration;
 import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.logging.PscLoggingContext;
 
-import java.lang.management.ManagementFactory;
 import java.net.UnknownHostException;
 import java.util.Set;
 import java.util.SortedMap;
@@ -22,10 +21,6 @@ import java.util.concurrent.TimeUnit;
 
 public abstract class MetricsReporter extends ScheduledReporter {
     private static final PscLogger logger = PscLogger.getLogger(MetricsReporter.class);
-    private static final String PID = ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
-    private static final ThreadLocal<String> TID =
-            ThreadLocal.withInitial(() -> String.valueOf(Thread.currentThread().getId()));
-    private static final String HOSTNAME = PscCommon.getHostname();
     public static MetricsReporter createReporter(MetricsReporterConfiguration metricsReporterConfiguration,
                                                  String baseName,
                                                  PscMetricTag pscMetricTag,
@@ -53,9 +48,7 @@ public abstract class MetricsReporter extends ScheduledReporter {
     }
 
     public final void report() {
-        logger.addContext("pscPid", PID);
-        logger.addContext("pscTid", TID.get());
-        logger.addContext("pscHost", HOSTNAME);
+        PscLoggingContext.getProcessContext().attach(logger);
         super.report();
     }
 
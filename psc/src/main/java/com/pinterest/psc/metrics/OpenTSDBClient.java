@@ -1,15 +1,19 @@
 package com.pinterest.psc.metrics;
 
-import com.google.common.base.Joiner;
+import com.google.common.annotations.VisibleForTesting;
 import com.pinterest.psc.logging.PscLogger;
 
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.Socket;
-import java.net.SocketAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A client library for sending metrics to an OpenTSDB server.
@@ -19,19 +23,45 @@ import java.nio.charset.StandardCharsets;
  * http://opentsdb.net/docs/build/html/user_guide/writing.html
  * <p>
  * put {@code <metric> <timestamp> <value> <tagk1=tagv1[ tagk2=tagv2 ...tagkN=tagvN]>}
+ * <p>
+ * One client, obtained through {@link #getInstance(String, int)}, is kept per endpoint and shared by all reporters of
+ * that endpoint. It keeps a persistent connection and never blocks on the network: encoded metrics are copied into a
+ * fixed size send buffer and written with non-blocking writes, and whatever the connection does not accept right away
+ * is written on later sends. Metrics that do not fit in the send buffer (e.g. while the server is slow or unreachable)
+ * are dropped and counted. A broken connection is re-established with exponential backoff; the connection attempt is
+ * made by one sender outside the client lock, so other senders keep queueing metrics while it is in progress.
  */
 public class OpenTSDBClient {
     private static final PscLogger logger = PscLogger.getLogger(OpenTSDBClient.class);
+    private static final Map<InetSocketAddress, OpenTSDBClient> clientByEndpoint = new ConcurrentHashMap<>();
     private static final int CONNECT_TIMEOUT_MS = 100;
-    private final SocketAddress address;
+    static final int DEFAULT_SEND_BUFFER_BYTES = 4 * 1024 * 1024;
+    static final long INITIAL_RECONNECT_BACKOFF_MS = 100;
+    static final long MAX_RECONNECT_BACKOFF_MS = 30000;
+
+    private final InetSocketAddress address;
+    // holds encoded metrics not yet accepted by the connection; kept in write mode between sends
+    private final ByteBuffer sendBuffer;
+    private final long initialReconnectBackoffMs;
+    private final AtomicLong droppedMetricCount = new AtomicLong(0);
+    private SocketChannel channel;
+    private long reconnectBackoffMs;
+    private long nextConnectAttemptMs = 0;
+    private boolean connecting = false;
+    // bumped on close, so that a connection attempt in progress when the client is closed is discarded
+    private long closeCount = 0;
+    private boolean dropping = false;
 
     public static final class MetricsBuffer {
+        private static final byte[] PUT = "put ".getBytes(StandardCharsets.ISO_8859_1);
 
-        private final String prefix;
+        private final byte[] prefix;
+        private byte[] buffer = new byte[4096];
+        private int length = 0;
+        private int metricCount = 0;
 
         public MetricsBuffer(String prefix) {
-            this.prefix = prefix;
-            this.buffer = new StringBuilder();
+            this.prefix = prefix.getBytes(StandardCharsets.ISO_8859_1);
         }
 
         /**
@@ -44,7 +74,14 @@ public class OpenTSDBClient {
          *                  as "name=value".
          */
         public void addMetric(String name, int epochSecs, float value, String... tags) {
-            addMetric(name, epochSecs, value, SPACE_JOINER.join(tags));
+            appendHeader(name, epochSecs, value);
+            for (int i = 0; i < tags.length; ++i) {
+                if (i > 0)
+                    append((byte) ' ');
+                append(tags[i]);
+            }
+            append((byte) '\n');
+            ++metricCount;
         }
 
         public void addMetric(String name, int epochSecs, Double value, String... tags) {
@@ -52,24 +89,62 @@ public class OpenTSDBClient {
         }
 
         public void addMetric(String name, int epochSecs, float value, String tags) {
-            buffer.append("put ").append(prefix).append(name).append(" ").append(epochSecs).append(" ")
-                    .append(value).append(" ").append(tags).append("\n");
+            appendHeader(name, epochSecs, value);
+            append(tags);
+            append((byte) '\n');
+            ++metricCount;
         }
 
         /**
          * Reset the metrics buffer for reuse, this discards all previous data.
          */
         public void reset() {
-            buffer.setLength(0);
+            length = 0;
+            metricCount = 0;
+        }
+
+        public int getMetricCount() {
+            return metricCount;
         }
 
         @Override
         public String toString() {
-            return buffer.toString();
+            return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+        }
+
+        private void appendHeader(String name, int epochSecs, float value) {
+            append(PUT);
+            append(prefix);
+            append(name);
+            append((byte) ' ');
+            append(Integer.toString(epochSecs));
+            append((byte) ' ');
+            append(Float.toString(value));
+            append((byte) ' ');
         }
 
-        private final StringBuilder buffer;
-        private static final Joiner SPACE_JOINER = Joiner.on(" ");
+        // metric names and tags are alphanumerics+symbols, so characters are encoded as ISO-8859-1 bytes directly
+        private void append(String string) {
+            ensureCapacity(string.length());
+            for (int i = 0; i < string.length(); ++i)
+                buffer[length++] = (byte) string.charAt(i);
+        }
+
+        private void append(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        private void append(byte b) {
+            ensureCapacity(1);
+            buffer[length++] = b;
+        }
+
+        private void ensureCapacity(int additionalBytes) {
+            if (length + additionalBytes > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additionalBytes));
+        }
     }
 
     public static class OpenTsdbClientException extends Exception {
@@ -100,37 +175,177 @@ public class OpenTSDBClient {
     }
 
     public OpenTSDBClient(String host, int port) throws UnknownHostException {
-        InetAddress address = InetAddress.getByName(host);
-        this.address = new InetSocketAddress(address, port);
+        this(host, port, DEFAULT_SEND_BUFFER_BYTES, INITIAL_RECONNECT_BACKOFF_MS);
     }
 
-    public void sendMetrics(MetricsBuffer buffer) throws ConnectionFailedException,
-            SendFailedException {
-        Socket socket = null;
-        try {
-            try {
-                socket = new Socket();
-                socket.connect(address, CONNECT_TIMEOUT_MS);
-            } catch (IOException ioex) {
-                throw new ConnectionFailedException(ioex);
-            }
+    @VisibleForTesting
+    OpenTSDBClient(String host, int port, int sendBufferBytes, long initialReconnectBackoffMs) throws UnknownHostException {
+        this(new InetSocketAddress(InetAddress.getByName(host), port), sendBufferBytes, initialReconnectBackoffMs);
+    }
 
-            try {
-                // There is no way to set a time out for blocking send calls. Thanks Java!
-                // Metric tags are alphanumerics+symbols, no need to use UTF charset
-                socket.getOutputStream().write(buffer.toString().getBytes(StandardCharsets.ISO_8859_1));
-            } catch (IOException ioex) {
-                throw new SendFailedException(ioex);
-            }
-        } finally {
-            if (socket != null) {
-                try {
-                    socket.close();
-                } catch (IOException e) {
-                    logger.warn("Failed to close socket to OpenTSDB", e);
+    private OpenTSDBClient(InetSocketAddress address, int sendBufferBytes, long initialReconnectBackoffMs) {
+        this.address = address;
+        this.sendBuffer = ByteBuffer.allocateDirect(sendBufferBytes);
+        this.initialReconnectBackoffMs = initialReconnectBackoffMs;
+        this.reconnectBackoffMs = initialReconnectBackoffMs;
+    }
+
+    /**
+     * @return the shared client of the given endpoint.
+     */
+    public static OpenTSDBClient getInstance(String host, int port) throws UnknownHostException {
+        return clientByEndpoint.computeIfAbsent(
+                new InetSocketAddress(InetAddress.getByName(host), port),
+                endpoint -> new OpenTSDBClient(endpoint, DEFAULT_SEND_BUFFER_BYTES, INITIAL_RECONNECT_BACKOFF_MS)
+        );
+    }
+
+    /**
+     * Queues the metrics of the given buffer for sending and writes as much of the queued data as the connection
+     * accepts without blocking. The buffer can be reset and reused as soon as this call returns.
+     *
+     * @return false if the metrics were dropped because the send buffer is full.
+     */
+    public boolean sendMetrics(MetricsBuffer buffer) {
+        if (buffer.length == 0)
+            return true;
+
+        maybeConnect();
+        synchronized (this) {
+            // make room for the new metrics first
+            flush();
+            if (buffer.length > sendBuffer.remaining()) {
+                droppedMetricCount.addAndGet(buffer.getMetricCount());
+                if (!dropping) {
+                    dropping = true;
+                    logger.warn("Dropping metrics to {}: send buffer is full ({} metrics dropped so far).",
+                            address, droppedMetricCount.get());
                 }
+                return false;
+            }
+            dropping = false;
+            sendBuffer.put(buffer.buffer, 0, buffer.length);
+            flush();
+            return true;
+        }
+    }
+
+    /**
+     * @return the number of metrics dropped so far because they could not be sent.
+     */
+    public long getDroppedMetricCount() {
+        return droppedMetricCount.get();
+    }
+
+    /**
+     * Writes queued metrics, connecting first if the connection is down and the reconnect backoff has passed.
+     */
+    @VisibleForTesting
+    void flushQueued() {
+        maybeConnect();
+        synchronized (this) {
+            flush();
+        }
+    }
+
+    @VisibleForTesting
+    synchronized boolean isConnected() {
+        return channel != null;
+    }
+
+    public synchronized void close() {
+        ++closeCount;
+        disconnect(null);
+        clientByEndpoint.remove(address, this);
+    }
+
+    /**
+     * Connects if the connection is down and the reconnect backoff has passed, unless another sender is already
+     * connecting. The connection attempt itself, bounded by the connect timeout, is made without holding the client
+     * lock.
+     */
+    private void maybeConnect() {
+        long connectCloseCount;
+        synchronized (this) {
+            if (channel != null || connecting || System.currentTimeMillis() < nextConnectAttemptMs)
+                return;
+            connecting = true;
+            connectCloseCount = closeCount;
+        }
+
+        SocketChannel newChannel = null;
+        IOException connectException = null;
+        try {
+            newChannel = SocketChannel.open();
+            newChannel.socket().connect(address, CONNECT_TIMEOUT_MS);
+            // writes are non-blocking
+            newChannel.configureBlocking(false);
+        } catch (IOException e) {
+            closeQuietly(newChannel);
+            connectException = e;
+        }
+
+        synchronized (this) {
+            connecting = false;
+            if (connectException != null) {
+                scheduleReconnect(new ConnectionFailedException(connectException));
+            } else if (closeCount != connectCloseCount) {
+                closeQuietly(newChannel);
+            } else {
+                channel = newChannel;
+                reconnectBackoffMs = initialReconnectBackoffMs;
+                logger.info("Connected to OpenTSDB at {}.", address);
             }
         }
     }
 
-}
\ No newline at end of file
+    private void flush() {
+        if (channel == null || sendBuffer.position() == 0)
+            return;
+
+        sendBuffer.flip();
+        try {
+            while (sendBuffer.hasRemaining() && channel.write(sendBuffer) > 0) ;
+            sendBuffer.compact();
+        } catch (IOException e) {
+            sendBuffer.compact();
+            disconnect(new SendFailedException(e));
+        }
+    }
+
+    private void disconnect(OpenTsdbClientException cause) {
+        closeQuietly(channel);
+        channel = null;
+        // the unsent data may start in the middle of a line, so it is discarded rather than sent on a new connection
+        sendBuffer.flip();
+        droppedMetricCount.addAndGet(countLines(sendBuffer));
+        sendBuffer.clear();
+        if (cause != null)
+            scheduleReconnect(cause);
+    }
+
+    private void scheduleReconnect(OpenTsdbClientException cause) {
+        nextConnectAttemptMs = System.currentTimeMillis() + reconnectBackoffMs;
+        logger.warn("Connection to OpenTSDB at {} failed; retrying in {} ms.", address, reconnectBackoffMs, cause);
+        reconnectBackoffMs = Math.min(MAX_RECONNECT_BACKOFF_MS, reconnectBackoffMs * 2);
+    }
+
+    private static long countLines(ByteBuffer byteBuffer) {
+        long lines = 0;
+        for (int i = byteBuffer.position(); i < byteBuffer.limit(); ++i) {
+            if (byteBuffer.get(i) == '\n')
+                ++lines;
+        }
+        return lines;
+    }
+
+    private static void closeQuietly(SocketChannel socketChannel) {
+        if (socketChannel == null)
+            return;
+        try {
+            socketChannel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close socket to OpenTSDB", e);
+        }
+    }
+}
@@ -16,11 +16,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
 
 public class OpenTSDBReporter extends MetricsReporter {
     private static final PscLogger logger = PscLogger.getLogger(OpenTSDBReporter.class);
-    private static AtomicReference<OpenTSDBClient> openTSDBClient = new AtomicReference<>();
 
     private final String hostnameTag;
     private final String hostIpTag;
@@ -33,11 +31,15 @@ public class OpenTSDBReporter extends MetricsReporter {
     private final String versionTag;
     private final String otherTags;
     private final String baseName;
+    private final OpenTSDBClient openTSDBClient;
+    // reused across reports; reports of a reporter do not overlap
+    private final OpenTSDBClient.MetricsBuffer buffer;
 
     // Debug
     private final PscMetricTag pscMetricTag;
 
-    protected OpenTSDBReporter(String baseName,
+    protected OpenTSDBReporter(OpenTSDBClient openTSDBClient,
+                               String baseName,
                                PscMetricTag pscMetricTag,
                                MetricRegistry registry,
                                MetricFilter filter,
@@ -52,6 +54,8 @@ public class OpenTSDBReporter extends MetricsReporter {
         } else {
             this.baseName = baseName + ".";
         }
+        this.openTSDBClient = openTSDBClient;
+        this.buffer = new OpenTSDBClient.MetricsBuffer(this.baseName);
 
         this.uriTag = "uri=" + sanitize(pscMetricTag.getId());
         this.hostnameTag = "hostname=" + sanitize(pscMetricTag.getHostname());
@@ -84,16 +88,11 @@ public class OpenTSDBReporter extends MetricsReporter {
                                                   MetricFilter filter,
                                                   TimeUnit rateUnit,
                                                   TimeUnit durationUnit) throws UnknownHostException {
-        if (openTSDBClient.get() == null) {
-            openTSDBClient.compareAndSet(
-                    null,
-                    new OpenTSDBClient(
-                            metricsReporterConfiguration.getHost(),
-                            metricsReporterConfiguration.getPort()
-                    )
-            );
-        }
-        return new OpenTSDBReporter(baseName, pscMetricTag, registry, filter, rateUnit, durationUnit);
+        OpenTSDBClient openTSDBClient = OpenTSDBClient.getInstance(
+                metricsReporterConfiguration.getHost(),
+                metricsReporterConfiguration.getPort()
+        );
+        return new OpenTSDBReporter(openTSDBClient, baseName, pscMetricTag, registry, filter, rateUnit, durationUnit);
     }
 
     @Override
@@ -104,7 +103,7 @@ public class OpenTSDBReporter extends MetricsReporter {
                        SortedMap<String, Timer> timers) {
         try {
             int epochSecs = (int) (System.currentTimeMillis() / 1000);
-            OpenTSDBClient.MetricsBuffer buffer = new OpenTSDBClient.MetricsBuffer("" + baseName);
+            buffer.reset();
             for (Entry<String, Counter> entry : counters.entrySet()) {
                 buffer.addMetric(entry.getKey(), epochSecs, entry.getValue().getCount(), uriTag,
                         hostnameTag, hostIpTag, localityTag, instanceTypeTag, processIdTag, threadIdTag, projectTag,
@@ -145,7 +144,12 @@ public class OpenTSDBReporter extends MetricsReporter {
                 }
             }
 
-            openTSDBClient.get().sendMetrics(buffer);
+            // the datapoints the shared client of the endpoint has dropped so far, across all reporters of the process
+            buffer.addMetric(PscMetrics.PSC_METRICS_REPORTER_DROPPED_DATAPOINTS, epochSecs,
+                    (float) openTSDBClient.getDroppedMetricCount(), uriTag, hostnameTag, hostIpTag, localityTag,
+                    instanceTypeTag, processIdTag, threadIdTag, projectTag, versionTag, otherTags);
+
+            openTSDBClient.sendMetrics(buffer);
         } catch (Exception e) {
             logger.debug("Failed to write metrics to opentsdb, this is likely a transient issue", e);
         }
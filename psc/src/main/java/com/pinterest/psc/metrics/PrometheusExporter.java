@@ -0,0 +1,382 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.pinterest.psc.logging.PscLogger;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves the registries of all {@link PrometheusMetricsReporter}s of an endpoint over HTTP in the Prometheus text
+ * exposition format (version 0.0.4). One exporter, obtained through {@link #getInstance(String, int)}, is kept per
+ * endpoint; its server starts with the first registered reporter and stops once the last one is unregistered.
+ * <p>
+ * Scrapes are written straight to the response stream through a fixed size buffer: metric names are sanitized once
+ * per metric key and labels once per reporter, and values are encoded in place, so the cost of a scrape does not
+ * include building the exposition as strings. Series are grouped by metric name, as the format requires.
+ */
+class PrometheusExporter {
+    private static final PscLogger logger = PscLogger.getLogger(PrometheusExporter.class);
+    private static final Map<InetSocketAddress, PrometheusExporter> exporterByEndpoint = new HashMap<>();
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] QUANTILES = {0.5, 0.75, 0.95, 0.98, 0.99, 0.999};
+    private static final byte[][] QUANTILE_LABELS = new byte[QUANTILES.length][];
+    private static final byte[] TYPE = "# TYPE ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] COUNTER = " counter\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] GAUGE = " gauge\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUMMARY = " summary\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] COUNT_SUFFIX = "_count".getBytes(StandardCharsets.UTF_8);
+    private static final double SECONDS_PER_NANOSECOND = 1.0 / TimeUnit.SECONDS.toNanos(1);
+
+    static {
+        for (int i = 0; i < QUANTILES.length; ++i)
+            QUANTILE_LABELS[i] = ("quantile=\"" + QUANTILES[i] + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private final InetSocketAddress address;
+    private final Set<PrometheusMetricsReporter> reporters = ConcurrentHashMap.newKeySet();
+    // sanitized metric names by base name and metric key; bounded by the number of metric keys
+    private final Map<String, Map<String, byte[]>> metricNames = new ConcurrentHashMap<>();
+    private HttpServer httpServer;
+
+    private PrometheusExporter(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    /**
+     * @return the shared exporter of the given endpoint.
+     */
+    static PrometheusExporter getInstance(String host, int port) throws UnknownHostException {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getByName(host), port);
+        synchronized (exporterByEndpoint) {
+            return exporterByEndpoint.computeIfAbsent(address, PrometheusExporter::new);
+        }
+    }
+
+    void register(PrometheusMetricsReporter reporter) {
+        synchronized (exporterByEndpoint) {
+            reporters.add(reporter);
+            if (httpServer == null) {
+                try {
+                    httpServer = startHttpServer();
+                    exporterByEndpoint.put(address, this);
+                } catch (IOException e) {
+                    reporters.remove(reporter);
+                    throw new IllegalStateException("Failed to start Prometheus endpoint at " + address, e);
+                }
+            }
+        }
+    }
+
+    void unregister(PrometheusMetricsReporter reporter) {
+        synchronized (exporterByEndpoint) {
+            if (!reporters.remove(reporter) || !reporters.isEmpty() || httpServer == null)
+                return;
+            httpServer.stop(0);
+            httpServer = null;
+            exporterByEndpoint.remove(address, this);
+            logger.info("Stopped Prometheus endpoint at {}.", address);
+        }
+    }
+
+    /**
+     * @return the port the endpoint listens on, or -1 if it is not running.
+     */
+    @VisibleForTesting
+    int getPort() {
+        synchronized (exporterByEndpoint) {
+            return httpServer == null ? -1 : httpServer.getAddress().getPort();
+        }
+    }
+
+    private HttpServer startHttpServer() throws IOException {
+        HttpServer server = HttpServer.create(address, 3);
+        server.createContext("/", this::handle);
+        // the server thread inherits the daemon status of the thread that starts it, so start it from a daemon thread
+        // to not keep the JVM alive
+        AtomicReference<RuntimeException> startFailure = new AtomicReference<>();
+        Thread starter = new Thread(() -> {
+            try {
+                server.start();
+            } catch (RuntimeException e) {
+                startFailure.set(e);
+            }
+        }, "psc-prometheus-exporter-starter");
+        starter.setDaemon(true);
+        starter.start();
+        try {
+            starter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (startFailure.get() != null)
+            throw new IOException(startFailure.get());
+        logger.info("Started Prometheus endpoint at {}.", server.getAddress());
+        return server;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            // a response length of 0 streams the response in chunks
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                writeMetrics(outputStream);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to serve Prometheus scrape from {}.", exchange.getRemoteAddress(), e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @VisibleForTesting
+    void writeMetrics(OutputStream outputStream) throws IOException {
+        // group series of all registries by metric name
+        Map<String, Map<String, Family>> familiesByBaseName = new TreeMap<>();
+        for (PrometheusMetricsReporter reporter : reporters) {
+            Map<String, Family> families = familiesByBaseName.computeIfAbsent(reporter.getBaseName(), key -> new TreeMap<>());
+            for (Map.Entry<String, Metric> entry : reporter.getRegistry().getMetrics().entrySet()) {
+                if (!reporter.getFilter().matches(entry.getKey(), entry.getValue()))
+                    continue;
+                Family family = families.get(entry.getKey());
+                if (family == null) {
+                    family = new Family(getMetricName(reporter.getBaseName(), entry.getKey()));
+                    families.put(entry.getKey(), family);
+                }
+                family.add(reporter, entry.getValue());
+            }
+        }
+
+        TextWriter writer = new TextWriter(outputStream);
+        for (Map<String, Family> families : familiesByBaseName.values()) {
+            for (Family family : families.values())
+                family.write(writer);
+        }
+        writer.flush();
+    }
+
+    private byte[] getMetricName(String baseName, String metricKey) {
+        return metricNames.computeIfAbsent(baseName, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(metricKey, key -> sanitizeName(baseName + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the given name with characters that are not valid in Prometheus metric and label names replaced by
+     * underscores.
+     */
+    static String sanitizeName(String name) {
+        StringBuilder sanitized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); ++i) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':' ||
+                    (i > 0 && c >= '0' && c <= '9');
+            sanitized.append(valid ? c : '_');
+        }
+        return sanitized.toString();
+    }
+
+    /**
+     * @return the given label value quoted, with backslashes, double quotes and line feeds escaped.
+     */
+    static String escapeLabelValue(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"')
+                escaped.append('\\').append(c);
+            else if (c == '\n')
+                escaped.append("\\n");
+            else
+                escaped.append(c);
+        }
+        return escaped.append('"').toString();
+    }
+
+    /**
+     * The series of one metric name across registries.
+     */
+    private static class Family {
+        private final byte[] name;
+        private final List<PrometheusMetricsReporter> reporters = new ArrayList<>();
+        private final List<Metric> metrics = new ArrayList<>();
+
+        Family(byte[] name) {
+            this.name = name;
+        }
+
+        void add(PrometheusMetricsReporter reporter, Metric metric) {
+            reporters.add(reporter);
+            metrics.add(metric);
+        }
+
+        void write(TextWriter writer) throws IOException {
+            // the first metric decides the type; metrics of other types under the same key are skipped
+            Metric first = metrics.get(0);
+            writer.write(TYPE);
+            writer.write(name);
+            if (first instanceof Counter || first instanceof Meter)
+                writer.write(COUNTER);
+            else if (first instanceof Gauge)
+                writer.write(GAUGE);
+            else
+                writer.write(SUMMARY);
+
+            for (int i = 0; i < metrics.size(); ++i) {
+                Metric metric = metrics.get(i);
+                PrometheusMetricsReporter reporter = reporters.get(i);
+                if (metric instanceof Counter && first instanceof Counter)
+                    writeSample(writer, reporter.getLabels(), ((Counter) metric).getCount());
+                else if (metric instanceof Meter && first instanceof Meter)
+                    writeSample(writer, reporter.getLabels(), ((Meter) metric).getCount());
+                else if (metric instanceof Gauge && first instanceof Gauge)
+                    writeGauge(writer, reporter, (Gauge<?>) metric);
+                else if (metric instanceof Histogram && first instanceof Histogram)
+                    writeSummary(writer, reporter, WeightedHistogram.getNonConsumingSnapshot((Histogram) metric), 1, ((Histogram) metric).getCount());
+                else if (metric instanceof Timer && first instanceof Timer)
+                    writeSummary(writer, reporter, ((Timer) metric).getSnapshot(), SECONDS_PER_NANOSECOND, ((Timer) metric).getCount());
+            }
+        }
+
+        private void writeSample(TextWriter writer, byte[] labels, long value) throws IOException {
+            writer.write(name);
+            writer.write(labels);
+            writer.write((byte) ' ');
+            writer.write(value);
+            writer.write((byte) '\n');
+        }
+
+        private void writeGauge(TextWriter writer, PrometheusMetricsReporter reporter, Gauge<?> gauge) throws IOException {
+            Object value = gauge.getValue();
+            if (!(value instanceof Number))
+                return;
+            writer.write(name);
+            writer.write(reporter.getLabels());
+            writer.write((byte) ' ');
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+                writer.write(((Number) value).longValue());
+            else
+                writer.write(((Number) value).doubleValue());
+            writer.write((byte) '\n');
+        }
+
+        private void writeSummary(TextWriter writer,
+                                  PrometheusMetricsReporter reporter,
+                                  Snapshot snapshot,
+                                  double factor,
+                                  long count) throws IOException {
+            for (int i = 0; i < QUANTILES.length; ++i) {
+                writer.write(name);
+                writer.write(reporter.getLabelsPrefix());
+                writer.write(QUANTILE_LABELS[i]);
+                writer.write((byte) ' ');
+                writer.write(snapshot.getValue(QUANTILES[i]) * factor);
+                writer.write((byte) '\n');
+            }
+            writer.write(name);
+            writer.write(COUNT_SUFFIX);
+            writer.write(reporter.getLabels());
+            writer.write((byte) ' ');
+            writer.write(count);
+            writer.write((byte) '\n');
+        }
+    }
+
+    /**
+     * Encodes exposition text into a fixed size buffer that is written to the response stream whenever it fills up.
+     */
+    private static class TextWriter {
+        private final OutputStream outputStream;
+        private final byte[] buffer = new byte[16 * 1024];
+        // digits of a long, most significant last
+        private final byte[] digits = new byte[20];
+        private int length = 0;
+
+        TextWriter(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        void write(byte b) throws IOException {
+            if (length == buffer.length)
+                flush();
+            buffer[length++] = b;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.length - length) {
+                flush();
+                if (bytes.length > buffer.length) {
+                    outputStream.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        void write(long value) throws IOException {
+            if (value == Long.MIN_VALUE) {
+                writeAscii(Long.toString(value));
+                return;
+            }
+            if (value < 0) {
+                write((byte) '-');
+                value = -value;
+            }
+            int digitCount = 0;
+            do {
+                digits[digitCount++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            while (digitCount > 0)
+                write(digits[--digitCount]);
+        }
+
+        void write(double value) throws IOException {
+            if (Double.isNaN(value))
+                writeAscii("NaN");
+            else if (Double.isInfinite(value))
+                writeAscii(value > 0 ? "+Inf" : "-Inf");
+            else if (value == Math.rint(value) && Math.abs(value) < 1e15)
+                write((long) value);
+            else
+                writeAscii(Double.toString(value));
+        }
+
+        void flush() throws IOException {
+            outputStream.write(buffer, 0, length);
+            length = 0;
+        }
+
+        private void writeAscii(String string) throws IOException {
+            for (int i = 0; i < string.length(); ++i)
+                write((byte) string.charAt(i));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.pinterest.psc.config.MetricsReporterConfiguration;
+
+import java.io.ByteArrayOutputStream;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes PSC metrics to Prometheus. Unlike push based reporters, this reporter does not send anything when it
+ * reports: it registers its registry with a {@link PrometheusExporter} that serves all registered registries on an
+ * embedded HTTP endpoint, at <code>http://&lt;psc.metrics.host&gt;:&lt;psc.metrics.port&gt;/metrics</code>, in the
+ * Prometheus text format. With this reporter <code>psc.metrics.host</code> is the address the endpoint binds to
+ * (e.g. <code>0.0.0.0</code> to accept scrapes from other hosts).
+ * <p>
+ * The tags of the registry become labels of each of its series; they are encoded once, when the reporter is created.
+ */
+public class PrometheusMetricsReporter extends MetricsReporter {
+    private final MetricRegistry registry;
+    private final MetricFilter filter;
+    private final String baseName;
+    private final PrometheusExporter prometheusExporter;
+    // the encoded labels of the registry, e.g. {uri="...",hostname="..."}, or empty if there are none
+    private final byte[] labels;
+    // the encoded labels followed by a separator for an additional label, e.g. {uri="...",hostname="...",
+    private final byte[] labelsPrefix;
+
+    protected PrometheusMetricsReporter(PrometheusExporter prometheusExporter,
+                                        String baseName,
+                                        PscMetricTag pscMetricTag,
+                                        MetricRegistry registry,
+                                        MetricFilter filter,
+                                        TimeUnit rateUnit,
+                                        TimeUnit durationUnit) {
+        super(registry, pscMetricTag.getId(), filter, rateUnit, durationUnit);
+        this.registry = registry;
+        this.filter = filter;
+        this.baseName = baseName == null || baseName.isEmpty() ? "" : baseName + ".";
+        this.prometheusExporter = prometheusExporter;
+
+        Map<String, String> tags = new TreeMap<>();
+        tags.put("uri", pscMetricTag.getId());
+        tags.put("hostname", pscMetricTag.getHostname());
+        tags.put("ip", pscMetricTag.getHostIp());
+        tags.put("locality", pscMetricTag.getLocality());
+        tags.put("instance_type", pscMetricTag.getInstanceType());
+        tags.put("process", pscMetricTag.getProcessId());
+        tags.put("thread", pscMetricTag.getThreadId() == -1 ? null : String.valueOf(pscMetricTag.getThreadId()));
+        tags.put("project", pscMetricTag.getProject());
+        tags.put("version", pscMetricTag.getVersion());
+        if (pscMetricTag.getAdditionalTags() != null)
+            tags.putAll(pscMetricTag.getAdditionalTags());
+        ByteArrayOutputStream encodedLabels = new ByteArrayOutputStream();
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (tag.getValue() == null)
+                continue;
+            encodedLabels.write(encodedLabels.size() == 0 ? '{' : ',');
+            byte[] name = PrometheusExporter.sanitizeName(tag.getKey()).getBytes(StandardCharsets.UTF_8);
+            encodedLabels.write(name, 0, name.length);
+            encodedLabels.write('=');
+            byte[] value = PrometheusExporter.escapeLabelValue(tag.getValue()).getBytes(StandardCharsets.UTF_8);
+            encodedLabels.write(value, 0, value.length);
+        }
+        if (encodedLabels.size() == 0) {
+            this.labels = new byte[0];
+            this.labelsPrefix = new byte[]{'{'};
+        } else {
+            this.labelsPrefix = concat(encodedLabels.toByteArray(), (byte) ',');
+            encodedLabels.write('}');
+            this.labels = encodedLabels.toByteArray();
+        }
+
+        prometheusExporter.register(this);
+    }
+
+    public static PrometheusMetricsReporter createReporter(MetricsReporterConfiguration metricsReporterConfiguration,
+                                                           String baseName,
+                                                           PscMetricTag pscMetricTag,
+                                                           MetricRegistry registry,
+                                                           MetricFilter filter,
+                                                           TimeUnit rateUnit,
+                                                           TimeUnit durationUnit) throws UnknownHostException {
+        PrometheusExporter prometheusExporter = PrometheusExporter.getInstance(
+                metricsReporterConfiguration.getHost(),
+                metricsReporterConfiguration.getPort()
+        );
+        return new PrometheusMetricsReporter(prometheusExporter, baseName, pscMetricTag, registry, filter, rateUnit, durationUnit);
+    }
+
+    @Override
+    public void report(@SuppressWarnings("rawtypes") SortedMap<String, Gauge> gauges,
+                       SortedMap<String, Counter> counters,
+                       SortedMap<String, Histogram> histograms,
+                       SortedMap<String, Meter> meters,
+                       SortedMap<String, Timer> timers) {
+        // metrics are pulled by scrapes of the exporter
+    }
+
+    @Override
+    public void stop() {
+        prometheusExporter.unregister(this);
+        super.stop();
+    }
+
+    MetricRegistry getRegistry() {
+        return registry;
+    }
+
+    MetricFilter getFilter() {
+        return filter;
+    }
+
+    String getBaseName() {
+        return baseName;
+    }
+
+    byte[] getLabels() {
+        return labels;
+    }
+
+    byte[] getLabelsPrefix() {
+        return labelsPrefix;
+    }
+
+    @VisibleForTesting
+    PrometheusExporter getPrometheusExporter() {
+        return prometheusExporter;
+    }
+
+    private static byte[] concat(byte[] bytes, byte b) {
+        byte[] result = new byte[bytes.length + 1];
+        System.arraycopy(bytes, 0, result, 0, bytes.length);
+        result[bytes.length] = b;
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.config.PscConfigurationInternal;
+
+/**
+ * A pre-resolved counter metric; see {@link PscMetricRegistryManager#getCounterHandle}.
+ */
+public class PscCounterHandle extends PscMetricHandle<Counter> {
+
+    PscCounterHandle(TopicUri topicUri, int partition, String metricKey, PscConfigurationInternal pscConfigurationInternal) {
+        super(topicUri, partition, metricKey, pscConfigurationInternal);
+    }
+
+    @Override
+    protected Counter getOrCreateMetric(MetricRegistry metricRegistry, String metricKey) {
+        return metricRegistry.counter(metricKey);
+    }
+
+    public void increment() {
+        increment(1);
+    }
+
+    public void increment(long metricIncrease) {
+        Counter counter = getMetric();
+        if (counter != null)
+            counter.inc(metricIncrease);
+    }
+}
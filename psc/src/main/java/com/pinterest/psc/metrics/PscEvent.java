@@ -0,0 +1,62 @@
+package com.pinterest.psc.metrics;
+
+import com.pinterest.psc.common.TopicUri;
+
+/**
+ * A timed JDK Flight Recorder event of a PSC operation; see {@link PscFlightRecorder#begin(PscFlightRecorder.Type)}.
+ * Events are not thread-safe and are meant to be committed by the thread that began them.
+ */
+public class PscEvent {
+    static final PscEvent DISABLED = new PscEvent(null, null);
+
+    private final PscFlightRecorder.JfrSupport jfrSupport;
+    // the underlying jdk.jfr.Event; null if the event is disabled
+    private final Object event;
+
+    PscEvent(PscFlightRecorder.JfrSupport jfrSupport, Object event) {
+        this.jfrSupport = jfrSupport;
+        this.event = event;
+    }
+
+    public boolean isEnabled() {
+        return event != null;
+    }
+
+    public PscEvent topicUri(TopicUri topicUri) {
+        if (event != null && topicUri != null)
+            jfrSupport.set(event, PscFlightRecorder.TOPIC_URI_FIELD, topicUri.getTopicUriAsString());
+        return this;
+    }
+
+    public PscEvent topicUri(String topicUri) {
+        if (event != null)
+            jfrSupport.set(event, PscFlightRecorder.TOPIC_URI_FIELD, topicUri);
+        return this;
+    }
+
+    public PscEvent backend(String backend) {
+        if (event != null)
+            jfrSupport.set(event, PscFlightRecorder.BACKEND_FIELD, backend);
+        return this;
+    }
+
+    public PscEvent count(long count) {
+        if (event != null)
+            jfrSupport.set(event, PscFlightRecorder.COUNT_FIELD, count);
+        return this;
+    }
+
+    public PscEvent detail(String detail) {
+        if (event != null)
+            jfrSupport.set(event, PscFlightRecorder.DETAIL_FIELD, detail);
+        return this;
+    }
+
+    /**
+     * Ends the event and records it, if its duration passes the threshold of the recording.
+     */
+    public void commit() {
+        if (event != null)
+            jfrSupport.commit(event);
+    }
+}
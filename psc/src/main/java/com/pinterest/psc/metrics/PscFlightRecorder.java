@@ -0,0 +1,229 @@
+package com.pinterest.psc.metrics;
+
+import com.pinterest.psc.logging.PscLogger;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Emits JDK Flight Recorder events for PSC client operations, so that polls, commits, sends, flushes, backend resets
+ * and service discovery show up in recordings next to GC and lock events.
+ * <p>
+ * PSC targets Java 8, where the <code>jdk.jfr</code> API may not exist, so event types are defined at runtime through
+ * <code>jdk.jfr.EventFactory</code> and accessed reflectively. If the API is not available, all events are disabled.
+ * When an event type is not enabled in any recording, {@link #begin(Type)} costs a single check and returns a shared
+ * no-op event.
+ * <p>
+ * Events are disabled by default and are enabled through the settings of a recording, by their names (e.g.
+ * <code>com.pinterest.psc.ConsumerPoll</code>); see {@link Type}.
+ * <pre>
+ *     PscEvent event = PscFlightRecorder.begin(PscFlightRecorder.Type.PRODUCER_FLUSH);
+ *     ...
+ *     event.backend(backend).commit();
+ * </pre>
+ */
+public class PscFlightRecorder {
+    private static final PscLogger logger = PscLogger.getLogger(PscFlightRecorder.class);
+    // field indexes of all PSC event types
+    static final int TOPIC_URI_FIELD = 0;
+    static final int BACKEND_FIELD = 1;
+    static final int COUNT_FIELD = 2;
+    static final int DETAIL_FIELD = 3;
+
+    private static final JfrSupport jfrSupport = JfrSupport.create();
+
+    public enum Type {
+        CONSUMER_POLL("ConsumerPoll", "PSC Consumer Poll", "Consumer",
+                "A poll of a backend consumer; count is the number of partitions messages were polled from"),
+        CONSUMER_COMMIT("ConsumerCommit", "PSC Consumer Commit", "Consumer",
+                "An offset commit of a backend consumer; detail is sync or async, count the number of committed message ids if given"),
+        PRODUCER_SEND("ProducerSend", "PSC Producer Send", "Producer",
+                "A send call, until the message is handed to the backend producer"),
+        PRODUCER_FLUSH("ProducerFlush", "PSC Producer Flush", "Producer",
+                "A flush of a backend producer"),
+        BACKEND_RESET("BackendReset", "PSC Backend Client Reset", "Client",
+                "A reset of a backend client (e.g. to recover from an error); detail is the client type"),
+        SERVICE_DISCOVERY("ServiceDiscovery", "PSC Service Discovery", "Client",
+                "Resolution of the service discovery configuration of a topic URI; detail is the provider that resolved it");
+
+        private final String name;
+        private final String label;
+        private final String category;
+        private final String description;
+        // the jdk.jfr.EventFactory of the type, or null if events are not available
+        private final Object eventFactory;
+        // the jdk.jfr.EventType of the type, or null if events are not available
+        private final Object eventType;
+
+        Type(String name, String label, String category, String description) {
+            this.name = name;
+            this.label = label;
+            this.category = category;
+            this.description = description;
+            this.eventFactory = jfrSupport == null ? null : jfrSupport.createEventFactory(this);
+            this.eventType = eventFactory == null ? null : jfrSupport.getEventType(eventFactory);
+        }
+
+        public boolean isEnabled() {
+            return eventType != null && jfrSupport.isEnabled(eventType);
+        }
+    }
+
+    /**
+     * Starts timing an event of the given type.
+     *
+     * @return the event to be committed once the operation completes; a no-op event if the type is not enabled.
+     */
+    public static PscEvent begin(Type type) {
+        if (!type.isEnabled())
+            return PscEvent.DISABLED;
+        Object event = jfrSupport.newEvent(type.eventFactory);
+        return event == null ? PscEvent.DISABLED : new PscEvent(jfrSupport, event);
+    }
+
+    public static boolean isAvailable() {
+        return jfrSupport != null;
+    }
+
+    /**
+     * The reflective access to the <code>jdk.jfr</code> API.
+     */
+    static class JfrSupport {
+        private final Class<? extends Annotation> nameAnnotation;
+        private final Class<? extends Annotation> labelAnnotation;
+        private final Class<? extends Annotation> descriptionAnnotation;
+        private final Class<? extends Annotation> categoryAnnotation;
+        private final Class<? extends Annotation> enabledAnnotation;
+        private final Constructor<?> annotationElementConstructor;
+        private final Constructor<?> valueDescriptorConstructor;
+        private final MethodHandle createEventFactory;
+        private final MethodHandle getEventType;
+        private final MethodHandle newEvent;
+        private final MethodHandle isEnabled;
+        private final MethodHandle begin;
+        private final MethodHandle set;
+        private final MethodHandle commit;
+
+        @SuppressWarnings("unchecked")
+        private JfrSupport() throws ReflectiveOperationException {
+            Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+            Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType");
+            Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+            Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+            nameAnnotation = (Class<? extends Annotation>) Class.forName("jdk.jfr.Name");
+            labelAnnotation = (Class<? extends Annotation>) Class.forName("jdk.jfr.Label");
+            descriptionAnnotation = (Class<? extends Annotation>) Class.forName("jdk.jfr.Description");
+            categoryAnnotation = (Class<? extends Annotation>) Class.forName("jdk.jfr.Category");
+            enabledAnnotation = (Class<? extends Annotation>) Class.forName("jdk.jfr.Enabled");
+            annotationElementConstructor = annotationElementClass.getConstructor(Class.class, Object.class);
+            valueDescriptorConstructor = valueDescriptorClass.getConstructor(Class.class, String.class, List.class);
+
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodType objectToVoid = MethodType.methodType(void.class, Object.class);
+            createEventFactory = lookup.findStatic(eventFactoryClass, "create",
+                    MethodType.methodType(eventFactoryClass, List.class, List.class));
+            getEventType = lookup.findVirtual(eventFactoryClass, "getEventType", MethodType.methodType(eventTypeClass))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            newEvent = lookup.findVirtual(eventFactoryClass, "newEvent", MethodType.methodType(eventClass))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            isEnabled = lookup.findVirtual(eventTypeClass, "isEnabled", MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+            begin = lookup.findVirtual(eventClass, "begin", MethodType.methodType(void.class)).asType(objectToVoid);
+            set = lookup.findVirtual(eventClass, "set", MethodType.methodType(void.class, int.class, Object.class))
+                    .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+            commit = lookup.findVirtual(eventClass, "commit", MethodType.methodType(void.class)).asType(objectToVoid);
+        }
+
+        static JfrSupport create() {
+            try {
+                return new JfrSupport();
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                logger.info("JDK Flight Recorder API is not available; PSC events are disabled.");
+                return null;
+            }
+        }
+
+        Object createEventFactory(Type type) {
+            try {
+                List<Object> annotations = Arrays.asList(
+                        annotation(nameAnnotation, "com.pinterest.psc." + type.name),
+                        annotation(labelAnnotation, type.label),
+                        annotation(descriptionAnnotation, type.description),
+                        annotation(categoryAnnotation, new String[]{"PSC", type.category}),
+                        // opt-in, so that recordings with default settings do not collect an event per message
+                        annotation(enabledAnnotation, false)
+                );
+                List<Object> fields = new ArrayList<>(4);
+                // in the order of the field indexes
+                fields.add(field(String.class, "topicUri", "Topic URI"));
+                fields.add(field(String.class, "backend", "Backend"));
+                fields.add(field(long.class, "count", "Count"));
+                fields.add(field(String.class, "detail", "Detail"));
+                return createEventFactory.invoke(annotations, fields);
+            } catch (Throwable throwable) {
+                logger.warn("Failed to define PSC event type {}; its events are disabled.", type.name, throwable);
+                return null;
+            }
+        }
+
+        Object getEventType(Object eventFactory) {
+            try {
+                return (Object) getEventType.invokeExact(eventFactory);
+            } catch (Throwable throwable) {
+                return null;
+            }
+        }
+
+        boolean isEnabled(Object eventType) {
+            try {
+                return (boolean) isEnabled.invokeExact(eventType);
+            } catch (Throwable throwable) {
+                return false;
+            }
+        }
+
+        Object newEvent(Object eventFactory) {
+            try {
+                Object event = (Object) newEvent.invokeExact(eventFactory);
+                begin.invokeExact(event);
+                return event;
+            } catch (Throwable throwable) {
+                return null;
+            }
+        }
+
+        void set(Object event, int index, Object value) {
+            try {
+                set.invokeExact(event, index, value);
+            } catch (Throwable throwable) {
+                // an invalid value; the field is left unset
+            }
+        }
+
+        void commit(Object event) {
+            try {
+                commit.invokeExact(event);
+            } catch (Throwable throwable) {
+                // the event is dropped
+            }
+        }
+
+        private Object annotation(Class<? extends Annotation> annotationClass, Object value) throws ReflectiveOperationException {
+            return annotationElementConstructor.newInstance(annotationClass, value);
+        }
+
+        private Object field(Class<?> fieldClass, String name, String label) throws ReflectiveOperationException {
+            return valueDescriptorConstructor.newInstance(
+                    fieldClass, name, Collections.singletonList(annotation(labelAnnotation, label))
+            );
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.config.PscConfigurationInternal;
+
+/**
+ * A pre-resolved histogram metric; see {@link PscMetricRegistryManager#getHistogramHandle}.
+ */
+public class PscHistogramHandle extends PscMetricHandle<Histogram> {
+
+    PscHistogramHandle(TopicUri topicUri, int partition, String metricKey, PscConfigurationInternal pscConfigurationInternal) {
+        super(topicUri, partition, metricKey, pscConfigurationInternal);
+    }
+
+    @Override
+    protected Histogram getOrCreateMetric(MetricRegistry metricRegistry, String metricKey) {
+        return PscMetricRegistryManager.getOrCreateHistogram(
+                metricRegistry, metricKey, getPscConfigurationInternal().getMetricsReporterConfiguration()
+        );
+    }
+
+    public void update(long metricValue) {
+        Histogram histogram = getMetric();
+        if (histogram != null)
+            histogram.update(metricValue);
+    }
+
+    /**
+     * Updates the histogram with a value that stands for <code>weight</code> updates, e.g. for sampled messages; see
+     * {@link PscMetricSampler#sample()}.
+     */
+    public void update(long metricValue, long weight) {
+        Histogram histogram = getMetric();
+        if (histogram instanceof WeightedHistogram)
+            ((WeightedHistogram) histogram).update(metricValue, weight);
+        else if (histogram != null)
+            histogram.update(metricValue);
+    }
+}
@@ -0,0 +1,232 @@
+package com.pinterest.psc.metrics;
+
+import com.pinterest.psc.common.TopicUri;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the number of time series PSC reports. Two limits are supported, both disabled by default:
+ * <ul>
+ *     <li>Partition top N: partition level metrics of a topic URI are kept only for the N partitions with the most
+ *     metric updates; metrics of all other partitions of the topic URI are aggregated into one series tagged with the
+ *     partition {@value PscMetricTag#PSC_TAG_VALUE_ROLLED_UP}. Partitions are ranked periodically by their recent
+ *     volume; until the first ranking the first N partitions seen are kept.</li>
+ *     <li>Series per metric: a metric is reported under at most the given number of tag sets. Updates for further
+ *     tag sets are aggregated into the rolled up series of the topic URI, or, if that is not admitted either, into
+ *     one rolled up series for all topic URIs.</li>
+ * </ul>
+ * Aggregation happens in process when metrics are updated, so rolled up partitions need neither a registry of their
+ * own nor any reporting work.
+ * The policy is shared by all clients of the JVM, and the strictest configured limits apply.
+ */
+class PscMetricCardinalityPolicy {
+    static final int UNLIMITED = -1;
+    // weight of the previous score when partitions are ranked, so rankings follow volume without flapping
+    private static final double SCORE_DECAY = 0.5;
+
+    private volatile int partitionTopN = UNLIMITED;
+    private volatile int maxSeriesPerMetric = UNLIMITED;
+    private final Map<TopicUri, TopicPartitions> partitionsByTopicUri = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> seriesByMetric = new ConcurrentHashMap<>();
+
+    /**
+     * Applies the given limits where they are stricter than the current ones.
+     */
+    synchronized void configure(int partitionTopN, int maxSeriesPerMetric) {
+        this.partitionTopN = getStricterLimit(this.partitionTopN, partitionTopN);
+        this.maxSeriesPerMetric = getStricterLimit(this.maxSeriesPerMetric, maxSeriesPerMetric);
+    }
+
+    synchronized void reset() {
+        partitionTopN = UNLIMITED;
+        maxSeriesPerMetric = UNLIMITED;
+        clear();
+    }
+
+    /**
+     * Forgets partition volumes and admitted series, e.g. after all registries are dropped.
+     */
+    void clear() {
+        partitionsByTopicUri.clear();
+        seriesByMetric.clear();
+    }
+
+    boolean isPartitionTopNEnabled() {
+        return partitionTopN != UNLIMITED;
+    }
+
+    /**
+     * Records a metric update for the given partition.
+     *
+     * @return true if metrics of the given partition are reported under their own partition tag.
+     */
+    boolean keepsPartition(TopicUri topicUri, int partition) {
+        if (partitionTopN == UNLIMITED || topicUri == null || partition < 0)
+            return true;
+        TopicPartitions topicPartitions = getTopicPartitions(topicUri);
+        topicPartitions.getVolume(partition).record();
+        return topicPartitions.keeps(partition, partitionTopN);
+    }
+
+    /**
+     * @return the volume of the given partition to be recorded on each metric update, or null if partition volumes are
+     * not tracked.
+     */
+    PartitionVolume getPartitionVolume(TopicUri topicUri, int partition) {
+        if (partitionTopN == UNLIMITED || topicUri == null || partition < 0)
+            return null;
+        return getTopicPartitions(topicUri).getVolume(partition);
+    }
+
+    /**
+     * Ranks the partitions of each topic URI by their recent volume and keeps the top N.
+     *
+     * @return the partitions that are no longer kept, by topic URI.
+     */
+    Map<TopicUri, Set<Integer>> rankPartitions() {
+        int topN = partitionTopN;
+        if (topN == UNLIMITED)
+            return Collections.emptyMap();
+        Map<TopicUri, Set<Integer>> demoted = new HashMap<>();
+        for (Map.Entry<TopicUri, TopicPartitions> entry : partitionsByTopicUri.entrySet()) {
+            Set<Integer> demotedPartitions = entry.getValue().rank(topN);
+            if (!demotedPartitions.isEmpty())
+                demoted.put(entry.getKey(), demotedPartitions);
+        }
+        return demoted;
+    }
+
+    /**
+     * @param metricKey the key of the metric to be updated
+     * @param seriesKey the serialized tags of the series the metric would be updated in
+     * @return true if the metric can be reported under the given tags.
+     */
+    boolean admitsSeries(String metricKey, String seriesKey) {
+        int maxSeries = maxSeriesPerMetric;
+        if (maxSeries == UNLIMITED)
+            return true;
+        Set<String> series = seriesByMetric.get(metricKey);
+        if (series == null)
+            series = seriesByMetric.computeIfAbsent(metricKey, key -> new HashSet<>());
+        // the limit is checked and the series added in one step, so concurrent updates cannot exceed it
+        synchronized (series) {
+            return series.contains(seriesKey) || (series.size() < maxSeries && series.add(seriesKey));
+        }
+    }
+
+    /**
+     * Releases the series of the given tags, so that their slots can be admitted to other tags.
+     */
+    void removeSeries(String seriesKey) {
+        for (Set<String> series : seriesByMetric.values()) {
+            synchronized (series) {
+                series.remove(seriesKey);
+            }
+        }
+    }
+
+    private TopicPartitions getTopicPartitions(TopicUri topicUri) {
+        TopicPartitions topicPartitions = partitionsByTopicUri.get(topicUri);
+        return topicPartitions != null ?
+                topicPartitions : partitionsByTopicUri.computeIfAbsent(topicUri, key -> new TopicPartitions());
+    }
+
+    private static int getStricterLimit(int current, int configured) {
+        if (configured < 0)
+            return current;
+        return current < 0 ? configured : Math.min(current, configured);
+    }
+
+    private static class TopicPartitions {
+        private final Map<Integer, PartitionVolume> volumes = new ConcurrentHashMap<>();
+        private volatile Set<Integer> keptPartitions = Collections.emptySet();
+
+        PartitionVolume getVolume(int partition) {
+            PartitionVolume volume = volumes.get(partition);
+            if (volume == null)
+                volume = volumes.computeIfAbsent(partition, key -> new PartitionVolume());
+            return volume;
+        }
+
+        boolean keeps(int partition, int topN) {
+            Set<Integer> kept = keptPartitions;
+            if (kept.contains(partition))
+                return true;
+            if (kept.size() >= topN)
+                return false;
+            // until partitions are ranked the first ones seen are kept
+            synchronized (this) {
+                if (keptPartitions.size() >= topN)
+                    return keptPartitions.contains(partition);
+                Set<Integer> updated = new HashSet<>(keptPartitions);
+                updated.add(partition);
+                keptPartitions = updated;
+                return true;
+            }
+        }
+
+        /**
+         * @return the previously kept partitions that are not kept anymore.
+         */
+        synchronized Set<Integer> rank(int topN) {
+            List<Map.Entry<Integer, PartitionVolume>> ranked = new ArrayList<>(volumes.entrySet());
+            for (Map.Entry<Integer, PartitionVolume> entry : ranked)
+                entry.getValue().updateScore();
+            Set<Integer> previouslyKept = keptPartitions;
+            // higher scores first; on equal scores currently kept partitions stay
+            ranked.sort((entry1, entry2) -> {
+                int byScore = Double.compare(entry2.getValue().score, entry1.getValue().score);
+                if (byScore != 0)
+                    return byScore;
+                return Boolean.compare(previouslyKept.contains(entry2.getKey()), previouslyKept.contains(entry1.getKey()));
+            });
+
+            Set<Integer> kept = new HashSet<>();
+            for (int i = 0; i < Math.min(topN, ranked.size()); ++i)
+                kept.add(ranked.get(i).getKey());
+            keptPartitions = kept;
+
+            Set<Integer> demoted = new HashSet<>(previouslyKept);
+            demoted.removeAll(kept);
+            Set<Integer> promoted = new HashSet<>(kept);
+            promoted.removeAll(previouslyKept);
+            demoted.forEach(partition -> volumes.get(partition).invalidate());
+            promoted.forEach(partition -> volumes.get(partition).invalidate());
+            return demoted;
+        }
+    }
+
+    /**
+     * The metric update volume of a partition, and the generation of its kept status. The generation changes whenever
+     * the partition starts or stops being kept, so that metrics resolved for the partition are resolved again.
+     */
+    static class PartitionVolume {
+        private final LongAdder recent = new LongAdder();
+        private double score = 0;
+        private volatile int generation = 0;
+
+        void record() {
+            recent.increment();
+        }
+
+        int getGeneration() {
+            return generation;
+        }
+
+        private void invalidate() {
+            ++generation;
+        }
+
+        private void updateScore() {
+            score = score * SCORE_DECAY + recent.sumThenReset();
+        }
+    }
+}
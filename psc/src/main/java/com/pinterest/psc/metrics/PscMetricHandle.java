@@ -0,0 +1,106 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.logging.PscLogger;
+
+/**
+ * A metric of a given key and tags, resolved once through {@link PscMetricRegistryManager} and then updated directly.
+ * The metric is resolved again if the registries of {@link PscMetricRegistryManager} are dropped in the meantime, or
+ * if its partition starts or stops being rolled up by the cardinality policy.
+ * Handles are thread-safe.
+ *
+ * @param <M> the type of the underlying metric
+ */
+public abstract class PscMetricHandle<M> {
+    private static final PscLogger logger = PscLogger.getLogger(PscMetricHandle.class);
+    private final TopicUri topicUri;
+    private final int partition;
+    private final String metricKey;
+    private final PscConfigurationInternal pscConfigurationInternal;
+    private final boolean reportingEnabled;
+    private volatile ResolvedMetric<M> resolvedMetric;
+
+    PscMetricHandle(TopicUri topicUri, int partition, String metricKey, PscConfigurationInternal pscConfigurationInternal) {
+        this.topicUri = topicUri;
+        this.partition = partition;
+        this.metricKey = metricKey;
+        this.pscConfigurationInternal = pscConfigurationInternal;
+        this.reportingEnabled = pscConfigurationInternal != null &&
+                pscConfigurationInternal.getMetricsReporterConfiguration() != null &&
+                pscConfigurationInternal.getMetricsReporterConfiguration().isReportingEnabled();
+    }
+
+    public String getMetricKey() {
+        return metricKey;
+    }
+
+    protected PscConfigurationInternal getPscConfigurationInternal() {
+        return pscConfigurationInternal;
+    }
+
+    protected abstract M getOrCreateMetric(MetricRegistry metricRegistry, String metricKey);
+
+    /**
+     * @return the underlying metric; or null if the metric is not reported.
+     */
+    protected M getMetric() {
+        if (!reportingEnabled)
+            return null;
+
+        ResolvedMetric<M> resolved = resolvedMetric;
+        int generation = PscMetricRegistryManager.getInstance().getGeneration();
+        if (resolved != null && resolved.isCurrent(generation)) {
+            if (resolved.partitionVolume != null)
+                resolved.partitionVolume.record();
+            return resolved.metric;
+        }
+
+        try {
+            PscMetricRegistryManager pscMetricRegistryManager = PscMetricRegistryManager.getInstance();
+            // the partition generation is read before the metric is resolved, so a concurrent change is not missed
+            PscMetricCardinalityPolicy.PartitionVolume partitionVolume =
+                    pscMetricRegistryManager.getPartitionVolume(topicUri, partition);
+            int partitionGeneration = partitionVolume == null ? 0 : partitionVolume.getGeneration();
+            MetricRegistry metricRegistry = pscMetricRegistryManager.getMetricRegistry(
+                    topicUri, partition, metricKey, pscConfigurationInternal
+            );
+            if (metricRegistry == null)
+                return null;
+            M metric = getOrCreateMetric(metricRegistry, metricKey);
+            resolvedMetric = new ResolvedMetric<>(metric, generation, partitionVolume, partitionGeneration);
+            return metric;
+        } catch (Exception exception) {
+            logger.warn("Failed to resolve metric {}: ", metricKey, exception);
+            return null;
+        }
+    }
+
+    private static class ResolvedMetric<M> {
+        private final M metric;
+        private final int generation;
+        // counts updates of the partition for the cardinality policy, if partitions are ranked
+        private final PscMetricCardinalityPolicy.PartitionVolume partitionVolume;
+        private final int partitionGeneration;
+
+        ResolvedMetric(M metric,
+                       int generation,
+                       PscMetricCardinalityPolicy.PartitionVolume partitionVolume,
+                       int partitionGeneration) {
+            this.metric = metric;
+            this.generation = generation;
+            this.partitionVolume = partitionVolume;
+            this.partitionGeneration = partitionGeneration;
+        }
+
+        /**
+         * @return true if neither the registries nor the kept status of the partition changed since the metric was
+         * resolved.
+         */
+        boolean isCurrent(int generation) {
+            return this.generation == generation &&
+                    (partitionVolume == null || partitionVolume.getGeneration() == partitionGeneration);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.pinterest.psc.metrics;
+
+import com.pinterest.psc.common.PscUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a group of metric handles per topic URI and partition, so hot paths that report several metrics per message
+ * find all of them with a single topic URI lookup and an array read.
+ *
+ * @param <H> the type holding the metric handles of one topic URI partition
+ */
+public class PscMetricHandleCache<H> {
+    private final Map<TopicUri, PartitionHandles> handlesByTopicUri = new ConcurrentHashMap<>();
+    // handles of metrics that are not associated with a topic URI
+    private volatile PartitionHandles noTopicUriHandles;
+    private final BiFunction<TopicUri, Integer, H> handlesCreator;
+
+    /**
+     * @param handlesCreator creates the handles of a given topic URI (possibly null) and partition (possibly
+     *                       {@link PscUtils#NO_PARTITION}).
+     */
+    public PscMetricHandleCache(BiFunction<TopicUri, Integer, H> handlesCreator) {
+        this.handlesCreator = handlesCreator;
+    }
+
+    public H get(TopicUriPartition topicUriPartition) {
+        return get(topicUriPartition.getTopicUri(), topicUriPartition.getPartition());
+    }
+
+    public H get(TopicUri topicUri, int partition) {
+        PartitionHandles partitionHandles;
+        if (topicUri == null) {
+            partitionHandles = noTopicUriHandles;
+            if (partitionHandles == null) {
+                synchronized (this) {
+                    if (noTopicUriHandles == null)
+                        noTopicUriHandles = new PartitionHandles(null);
+                    partitionHandles = noTopicUriHandles;
+                }
+            }
+        } else {
+            partitionHandles = handlesByTopicUri.get(topicUri);
+            if (partitionHandles == null)
+                partitionHandles = handlesByTopicUri.computeIfAbsent(topicUri, PartitionHandles::new);
+        }
+        return partitionHandles.get(Math.max(partition, PscUtils.NO_PARTITION));
+    }
+
+    /**
+     * Applies the given action to all handles created so far.
+     */
+    public void forEach(Consumer<H> action) {
+        PartitionHandles partitionHandles = noTopicUriHandles;
+        if (partitionHandles != null)
+            partitionHandles.forEach(action);
+        handlesByTopicUri.values().forEach(topicUriHandles -> topicUriHandles.forEach(action));
+    }
+
+    public void clear() {
+        handlesByTopicUri.clear();
+        noTopicUriHandles = null;
+    }
+
+    private class PartitionHandles {
+        private final TopicUri topicUri;
+        // indexed by partition + 1, so that index 0 holds the handles for no specific partition
+        private volatile Object[] handles = new Object[0];
+
+        PartitionHandles(TopicUri topicUri) {
+            this.topicUri = topicUri;
+        }
+
+        @SuppressWarnings("unchecked")
+        void forEach(Consumer<H> action) {
+            for (Object partitionHandles : handles) {
+                if (partitionHandles != null)
+                    action.accept((H) partitionHandles);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        H get(int partition) {
+            int index = partition + 1;
+            Object[] current = handles;
+            if (index < current.length && current[index] != null)
+                return (H) current[index];
+
+            synchronized (this) {
+                current = handles;
+                if (index < current.length && current[index] != null)
+                    return (H) current[index];
+                Object[] updated = Arrays.copyOf(current, Math.max(current.length, index + 1));
+                updated[index] = handlesCreator.apply(topicUri, partition);
+                handles = updated;
+                return (H) updated[index];
+            }
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.pinterest.psc.metrics;
 
 import com.codahale.metrics.ConsoleReporter;
+import com.codahale.metrics.Counter;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricFilter;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Reservoir;
 import com.codahale.metrics.ScheduledReporter;
 import com.codahale.metrics.SlidingTimeWindowArrayReservoir;
 import com.codahale.metrics.Snapshot;
@@ -15,6 +17,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.pinterest.psc.common.PscUtils;
 import com.pinterest.psc.common.TopicUri;
 import com.pinterest.psc.config.MetricsReporterConfiguration;
+import com.pinterest.psc.config.PscConfiguration;
 import com.pinterest.psc.config.PscConfigurationInternal;
 import com.pinterest.psc.config.PscConfigurationReporter;
 import com.pinterest.psc.logging.PscLogger;
@@ -23,11 +26,11 @@ import java.io.Closeable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -35,8 +38,9 @@ import java.util.stream.Collectors;
 
 /**
  * API's related to metric operations are defined here and used throughout PSC codebase. The {@link PscMetricRegistryManager}
- * is initialized as a singleton object and runs in a separate threadpool
- * until the client is closed via {@link PscMetricRegistryManager#shutdown(PscConfigurationInternal)}.
+ * is initialized as a singleton object and reports each registry through the JVM-wide
+ * {@link PscMetricsReportingScheduler} until the client is closed via
+ * {@link PscMetricRegistryManager#shutdown(PscConfigurationInternal)}.
  */
 public class PscMetricRegistryManager {
     private static final PscLogger logger = PscLogger.getLogger(PscMetricRegistryManager.class);
@@ -44,8 +48,13 @@ public class PscMetricRegistryManager {
     private static PscMetricTagManager pscMetricTagManager;
     private final ThreadLocal<Map<String, PscMetricRegistryAndReporter>> pscMetricRegistryAndReporterMap = ThreadLocal.withInitial(HashMap::new);
     private boolean initializationError = false;
-    private ScheduledExecutorService executorService;
     private final AtomicInteger refCount = new AtomicInteger(0);
+    // bumped whenever registries or tags are dropped, so metric handles know to resolve their metric again
+    private final AtomicInteger generation = new AtomicInteger(0);
+    private final PscMetricCardinalityPolicy cardinalityPolicy = new PscMetricCardinalityPolicy();
+    // the configuration partition level metrics of each topic URI were last updated with, to roll up demoted partitions
+    private final Map<TopicUri, PscConfigurationInternal> configurationByRankedTopicUri = new ConcurrentHashMap<>();
+    private PscMetricsReportingScheduler.ReportingTask partitionRankingTask;
 
     private PscMetricRegistryManager() {
     }
@@ -55,6 +64,9 @@ public class PscMetricRegistryManager {
         PscMetricRegistryAndReporter.cleanup();
         if (pscMetricTagManager != null)
             pscMetricTagManager.cleanup();
+        cardinalityPolicy.clear();
+        configurationByRankedTopicUri.clear();
+        generation.incrementAndGet();
     }
 
 
@@ -78,7 +90,7 @@ public class PscMetricRegistryManager {
 
     /**
      * If reporting is disabled, this is a no-op. Otherwise, initialize the {@link PscMetricTagManager} and
-     * thread pool used for metrics.
+     * request the configured reporter parallelism from the {@link PscMetricsReportingScheduler}.
      * @param pscConfigurationInternal
      */
     public void initialize(PscConfigurationInternal pscConfigurationInternal) {
@@ -90,13 +102,74 @@ public class PscMetricRegistryManager {
         if (!PscConfigurationReporter.isThisYou(pscConfigurationInternal.getConfiguration()))
             pscMetricTagManager.initializePscMetricTagManager(pscConfigurationInternal);
 
-        // initialize the thread pool only once
-        if (refCount.getAndIncrement() == 0)
-            executorService = Executors.newScheduledThreadPool(pscConfigurationInternal.getMetricsReporterConfiguration().getReporterParallelism());
+        refCount.incrementAndGet();
+        PscMetricsReportingScheduler.getInstance().requestParallelism(
+                pscConfigurationInternal.getMetricsReporterConfiguration().getReporterParallelism()
+        );
+        configureCardinalityPolicy(pscConfigurationInternal.getMetricsReporterConfiguration());
 
         logger.debug("PscMetricRegistryManager refcount incremented to {}.", refCount.get());
     }
 
+    private synchronized void configureCardinalityPolicy(MetricsReporterConfiguration metricsReporterConfiguration) {
+        cardinalityPolicy.configure(
+                metricsReporterConfiguration.getPartitionTopN(), metricsReporterConfiguration.getMaxSeriesPerMetric()
+        );
+        if (cardinalityPolicy.isPartitionTopNEnabled() && partitionRankingTask == null) {
+            partitionRankingTask = PscMetricsReportingScheduler.getInstance().schedule(
+                    "psc-partition-ranking", this::rankPartitions, metricsReporterConfiguration.getFrequencyMs()
+            );
+        }
+    }
+
+    /**
+     * Ranks partitions by metric volume for the cardinality policy, and drops the registries of partitions whose
+     * metrics are rolled up from now on. The counters of a dropped registry are added to the rolled up series of its
+     * topic URI, so that rolled up counters stay cumulative. Handles of partitions whose kept status changed resolve
+     * their metrics again; other handles are not affected.
+     */
+    @VisibleForTesting
+    protected void rankPartitions() {
+        Map<TopicUri, Set<Integer>> demotedPartitions = cardinalityPolicy.rankPartitions();
+        if (demotedPartitions.isEmpty())
+            return;
+
+        for (Map.Entry<TopicUri, Set<Integer>> entry : demotedPartitions.entrySet()) {
+            TopicUri topicUri = entry.getKey();
+            for (int partition : entry.getValue()) {
+                PscMetricTag pscMetricTag = pscMetricTagManager.getPscMetricTag(topicUri, partition);
+                if (pscMetricTag == null)
+                    continue;
+                String key = serializeTag(pscMetricTag);
+                PscMetricRegistryAndReporter metricRegistryAndReporter =
+                        PscMetricRegistryAndReporter.getGlobalRegistryAndReporterMap().get(key);
+                Map<String, Counter> counters = Collections.emptyMap();
+                if (metricRegistryAndReporter != null) {
+                    counters = metricRegistryAndReporter.getRegistry().getCounters();
+                    metricRegistryAndReporter.close();
+                }
+                cardinalityPolicy.removeSeries(key);
+                rollUpCounters(topicUri, counters);
+            }
+        }
+        logger.debug("Partition level metrics are rolled up from now on for {}.", demotedPartitions);
+    }
+
+    private void rollUpCounters(TopicUri topicUri, Map<String, Counter> counters) {
+        PscConfigurationInternal pscConfigurationInternal = configurationByRankedTopicUri.get(topicUri);
+        if (pscConfigurationInternal == null)
+            return;
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            if (entry.getValue().getCount() == 0)
+                continue;
+            MetricRegistry metricRegistry = resolveMetricRegistry(
+                    topicUri, PscMetricTag.ROLLED_UP_PARTITION, entry.getKey(), pscConfigurationInternal
+            );
+            if (metricRegistry != null)
+                metricRegistry.counter(entry.getKey()).inc(entry.getValue().getCount());
+        }
+    }
+
     /**
      * Given a {@link PscMetricTag}, get the existing {@link MetricRegistry} for that metric tag or create a new one.
      * @param pscMetricTag
@@ -116,24 +189,30 @@ public class PscMetricRegistryManager {
         final AtomicBoolean initializedNewConfiguredReporter = new AtomicBoolean();
 
         final PscMetricRegistryAndReporter metricRegistryAndReporter = pscMetricRegistryAndReporterMap.get()
-            .computeIfAbsent(key, k -> {
+            .compute(key, (k, existing) -> {
+                // a registry dropped by the cardinality policy is replaced if its tags are used again
+                if (existing != null && !existing.isClosed())
+                    return existing;
                 MetricRegistry registry = new MetricRegistry();
+                MetricsReporter reporter = getMetricsReporter(
+                    pscMetricTag,
+                    registry,
+                    initializedNewConfiguredReporter,
+                    metricsReporterConfiguration
+                );
                 return new PscMetricRegistryAndReporter(
                     key,
                     registry,
-                    getMetricsReporter(
-                        key,
-                        pscMetricTag,
-                        registry,
-                        initializedNewConfiguredReporter,
-                        metricsReporterConfiguration
+                    reporter,
+                    reporter == null ? null : PscMetricsReportingScheduler.getInstance().schedule(
+                        key, reporter::report, metricsReporterConfiguration.getFrequencyMs()
                     )
                 );
             });
         return metricRegistryAndReporter.getRegistry();
     }
 
-    private MetricsReporter getMetricsReporter(String key, PscMetricTag pscMetricTag, MetricRegistry metricRegistry, AtomicBoolean initializedNewConfiguredReporter, MetricsReporterConfiguration metricsReporterConfiguration) {
+    private MetricsReporter getMetricsReporter(PscMetricTag pscMetricTag, MetricRegistry metricRegistry, AtomicBoolean initializedNewConfiguredReporter, MetricsReporterConfiguration metricsReporterConfiguration) {
         if (metricsReporterConfiguration == null)
             return null;
 
@@ -179,15 +258,7 @@ public class PscMetricRegistryManager {
                     metricRegistry, (String name, Metric metric) -> true, TimeUnit.SECONDS, TimeUnit.SECONDS);
         }
 
-        MetricsReporter reporter = tmpReporter;
-        int frequencyMs = metricsReporterConfiguration.getFrequencyMs();
-        executorService.scheduleAtFixedRate(
-                reporter::report,
-                Math.abs(key.hashCode()) % frequencyMs,
-                frequencyMs,
-                TimeUnit.MILLISECONDS
-        );
-        return reporter;
+        return tmpReporter;
     }
 
     private String serializeTag(PscMetricTag tag) {
@@ -204,6 +275,120 @@ public class PscMetricRegistryManager {
                 .collect(Collectors.toMap(tag -> tag[0], tag -> tag[1]));
     }
 
+    /**
+     * @return the current generation of registries; metrics resolved in an earlier generation may no longer be reported
+     */
+    int getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Resolves the {@link MetricRegistry} for the given {@link TopicUri} and partition.
+     * @return the registry, or null if metrics should not be reported for the given configuration.
+     */
+    MetricRegistry getMetricRegistry(TopicUri topicUri,
+                                     int partition,
+                                     String metricKey,
+                                     PscConfigurationInternal pscConfigurationInternal) {
+        if (pscConfigurationInternal == null || pscConfigurationInternal.getMetricsReporterConfiguration() == null)
+            return null;
+        if (!pscConfigurationInternal.getMetricsReporterConfiguration().isReportingEnabled())
+            return null;
+        return resolveMetricRegistry(topicUri, partition, metricKey, pscConfigurationInternal);
+    }
+
+    /**
+     * @return the volume of metric updates of the given partition that the cardinality policy ranks partitions by, or
+     * null if partitions are not ranked.
+     */
+    PscMetricCardinalityPolicy.PartitionVolume getPartitionVolume(TopicUri topicUri, int partition) {
+        return cardinalityPolicy.getPartitionVolume(topicUri, partition);
+    }
+
+    /**
+     * Resolves the registry the given metric should be updated in, applying the cardinality policy: partitions that
+     * are not kept are rolled up, and series over the per metric limit fall back to the rolled up series of the topic
+     * URI and then of all topic URIs.
+     */
+    private MetricRegistry resolveMetricRegistry(TopicUri topicUri,
+                                                 int partition,
+                                                 String metricKey,
+                                                 PscConfigurationInternal pscConfigurationInternal) {
+        if (!cardinalityPolicy.keepsPartition(topicUri, partition))
+            partition = PscMetricTag.ROLLED_UP_PARTITION;
+        else if (topicUri != null && partition >= 0 && cardinalityPolicy.isPartitionTopNEnabled() &&
+                configurationByRankedTopicUri.get(topicUri) != pscConfigurationInternal)
+            configurationByRankedTopicUri.put(topicUri, pscConfigurationInternal);
+
+        PscMetricTag pscMetricTag = pscMetricTagManager.getOrCreatePscMetricTag(topicUri, partition, pscConfigurationInternal);
+        while (pscMetricTag != null && !cardinalityPolicy.admitsSeries(metricKey, serializeTag(pscMetricTag))) {
+            if (partition >= 0) {
+                partition = PscMetricTag.ROLLED_UP_PARTITION;
+            } else if (topicUri != null || partition != PscMetricTag.ROLLED_UP_PARTITION) {
+                topicUri = null;
+                partition = PscMetricTag.ROLLED_UP_PARTITION;
+            } else {
+                // the rolled up series of all topic URIs is always used
+                break;
+            }
+            pscMetricTag = pscMetricTagManager.getOrCreatePscMetricTag(topicUri, partition, pscConfigurationInternal);
+        }
+        return getOrCreateMetricRegistry(pscMetricTag, pscConfigurationInternal.getMetricsReporterConfiguration());
+    }
+
+    static Histogram getOrCreateHistogram(MetricRegistry metricRegistry,
+                                          String metricKey,
+                                          MetricsReporterConfiguration metricsReporterConfiguration) {
+        return metricRegistry.histogram(metricKey,
+                () -> new WeightedHistogram(createReservoir(metricsReporterConfiguration))
+        );
+    }
+
+    private static Reservoir createReservoir(MetricsReporterConfiguration metricsReporterConfiguration) {
+        if (PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR_LOG_BUCKETED.equals(
+                metricsReporterConfiguration.getHistogramReservoir()))
+            return new LogBucketedReservoir();
+        return new SlidingTimeWindowArrayReservoir(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Returns a handle to the histogram metric with the given key and tags. The handle resolves the metric once and
+     * can be kept and updated on hot paths instead of calling
+     * {@link #updateHistogramMetric(TopicUri, int, String, long, PscConfigurationInternal)} each time.
+     */
+    public PscHistogramHandle getHistogramHandle(TopicUri topicUri,
+                                                 int partition,
+                                                 String metricKey,
+                                                 PscConfigurationInternal pscConfigurationInternal) {
+        return new PscHistogramHandle(topicUri, partition, metricKey, pscConfigurationInternal);
+    }
+
+    public PscHistogramHandle getBackendHistogramHandle(TopicUri topicUri,
+                                                        int partition,
+                                                        String metricKey,
+                                                        PscConfigurationInternal pscConfigurationInternal) {
+        return getHistogramHandle(topicUri, partition, PscMetrics.PSC_BACKEND_METRICS_PREFIX + metricKey, pscConfigurationInternal);
+    }
+
+    /**
+     * Returns a handle to the counter metric with the given key and tags. The handle resolves the metric once and
+     * can be kept and updated on hot paths instead of calling
+     * {@link #incrementCounterMetric(TopicUri, int, String, long, PscConfigurationInternal)} each time.
+     */
+    public PscCounterHandle getCounterHandle(TopicUri topicUri,
+                                             int partition,
+                                             String metricKey,
+                                             PscConfigurationInternal pscConfigurationInternal) {
+        return new PscCounterHandle(topicUri, partition, metricKey, pscConfigurationInternal);
+    }
+
+    public PscCounterHandle getBackendCounterHandle(TopicUri topicUri,
+                                                    int partition,
+                                                    String metricKey,
+                                                    PscConfigurationInternal pscConfigurationInternal) {
+        return getCounterHandle(topicUri, partition, PscMetrics.PSC_BACKEND_METRICS_PREFIX + metricKey, pscConfigurationInternal);
+    }
+
     public void updateHistogramMetric(TopicUri topicUri, String metricKey, long metricValue, PscConfigurationInternal pscConfigurationInternal) {
         updateHistogramMetric(topicUri, PscUtils.NO_PARTITION, metricKey, metricValue, pscConfigurationInternal);
     }
@@ -219,15 +404,10 @@ public class PscMetricRegistryManager {
         if (!pscConfigurationInternal.getMetricsReporterConfiguration().isReportingEnabled())
             return;
         try {
-            PscMetricTag pscMetricTag = pscMetricTagManager.getOrCreatePscMetricTag(topicUri, partition, pscConfigurationInternal);
-            MetricRegistry metricRegistry = getOrCreateMetricRegistry(pscMetricTag, pscConfigurationInternal.getMetricsReporterConfiguration());
-            if (metricRegistry != null) {
-                metricRegistry.histogram(metricKey,
-                        () -> new Histogram(
-                                new SlidingTimeWindowArrayReservoir(1, TimeUnit.MINUTES)
-                        )
-                ).update(metricValue);
-            }
+            MetricRegistry metricRegistry = resolveMetricRegistry(topicUri, partition, metricKey, pscConfigurationInternal);
+            if (metricRegistry != null)
+                getOrCreateHistogram(metricRegistry, metricKey, pscConfigurationInternal.getMetricsReporterConfiguration())
+                        .update(metricValue);
         } catch (Exception exception) {
             logger.warn("Failed to update histogram metric {}: ", metricKey, exception);
         }
@@ -273,8 +453,7 @@ public class PscMetricRegistryManager {
         if (!pscConfigurationInternal.getMetricsReporterConfiguration().isReportingEnabled())
             return;
         try {
-            PscMetricTag pscMetricTag = pscMetricTagManager.getOrCreatePscMetricTag(topicUri, partition, pscConfigurationInternal);
-            MetricRegistry metricRegistry = getOrCreateMetricRegistry(pscMetricTag, pscConfigurationInternal.getMetricsReporterConfiguration());
+            MetricRegistry metricRegistry = resolveMetricRegistry(topicUri, partition, metricKey, pscConfigurationInternal);
             if (metricRegistry != null)
                 metricRegistry.counter(metricKey).inc(metricIncrease);
         } catch (Exception exception) {
@@ -307,6 +486,50 @@ public class PscMetricRegistryManager {
         );
     }
 
+    /**
+     * Sets the gauge metric with the given key and tags to the given value. Unlike histograms, a gauge reports only the
+     * last value set, which suits values that are observed periodically, such as consumer lag.
+     */
+    public void updateGaugeMetric(TopicUri topicUri,
+                                  int partition,
+                                  String metricKey,
+                                  long metricValue,
+                                  PscConfigurationInternal pscConfigurationInternal) {
+        if (pscConfigurationInternal == null || pscConfigurationInternal.getMetricsReporterConfiguration() == null) {
+            return;
+        }
+        if (!pscConfigurationInternal.getMetricsReporterConfiguration().isReportingEnabled())
+            return;
+        try {
+            MetricRegistry metricRegistry = resolveMetricRegistry(topicUri, partition, metricKey, pscConfigurationInternal);
+            if (metricRegistry != null)
+                ((LongGauge) metricRegistry.gauge(metricKey, LongGauge::new)).setValue(metricValue);
+        } catch (Exception exception) {
+            logger.warn("Failed to update gauge metric {}: ", metricKey, exception);
+        }
+    }
+
+    /**
+     * Removes the gauge metric with the given key and tags, e.g. once the value it reports is no longer observed.
+     */
+    public void removeGaugeMetric(TopicUri topicUri,
+                                  int partition,
+                                  String metricKey,
+                                  PscConfigurationInternal pscConfigurationInternal) {
+        if (pscConfigurationInternal == null || pscConfigurationInternal.getMetricsReporterConfiguration() == null) {
+            return;
+        }
+        if (!pscConfigurationInternal.getMetricsReporterConfiguration().isReportingEnabled())
+            return;
+        try {
+            MetricRegistry metricRegistry = resolveMetricRegistry(topicUri, partition, metricKey, pscConfigurationInternal);
+            if (metricRegistry != null)
+                metricRegistry.remove(metricKey);
+        } catch (Exception exception) {
+            logger.warn("Failed to remove gauge metric {}: ", metricKey, exception);
+        }
+    }
+
     /**
      * Gracefully shuts down the metrics threadpool. Must be called whenever client is closed in order to ensure
      * graceful termination.
@@ -318,11 +541,21 @@ public class PscMetricRegistryManager {
 
         if (refCount.decrementAndGet() == 0) {
             cleanup();
-            executorService.shutdown();
+            resetCardinalityPolicy();
         }
         logger.debug("PscMetricRegistryManager refcount decremented to {}.", refCount.get());
     }
 
+    @VisibleForTesting
+    protected synchronized void resetCardinalityPolicy() {
+        if (partitionRankingTask != null) {
+            partitionRankingTask.cancel();
+            partitionRankingTask = null;
+        }
+        cardinalityPolicy.reset();
+        configurationByRankedTopicUri.clear();
+    }
+
     public void enableJvmMetrics(String registryId, PscConfigurationInternal pscConfigurationInternal) {
         if (pscConfigurationInternal == null) {
             logger.error("PscConfigurationInternal supplied is null");
@@ -369,6 +602,7 @@ public class PscMetricRegistryManager {
     @VisibleForTesting
     public void setPscMetricTagManager(PscMetricTagManager pscMetricTagManager) {
         PscMetricRegistryManager.pscMetricTagManager = pscMetricTagManager;
+        generation.incrementAndGet();
     }
 
     public long getCounterMetric(TopicUri topicUri, String metricKey, PscConfigurationInternal pscConfigurationInternal) {
@@ -392,6 +626,18 @@ public class PscMetricRegistryManager {
         return getCounterMetric(topicUri, partition, PscMetrics.PSC_BACKEND_METRICS_PREFIX + metricKey, pscConfigurationInternal);
     }
 
+    /**
+     * @return the value of the given gauge metric; or null if the gauge does not exist.
+     */
+    public Long getGaugeMetric(TopicUri topicUri, int partition, String metricKey, PscConfigurationInternal pscConfigurationInternal) {
+        PscMetricTag pscMetricTag = pscMetricTagManager.getOrCreatePscMetricTag(topicUri, partition, pscConfigurationInternal);
+        MetricRegistry metricRegistry = getOrCreateMetricRegistry(pscMetricTag, null);
+        if (metricRegistry == null)
+            return null;
+        Metric gauge = metricRegistry.getMetrics().get(metricKey);
+        return gauge instanceof LongGauge ? ((LongGauge) gauge).getValue() : null;
+    }
+
     public Snapshot getHistogramMetric(TopicUri topicUri, String metricKey, PscConfigurationInternal pscConfigurationInternal) {
         return getHistogramMetric(topicUri, PscUtils.NO_PARTITION, metricKey, pscConfigurationInternal);
     }
@@ -402,7 +648,7 @@ public class PscMetricRegistryManager {
                                        PscConfigurationInternal pscConfigurationInternal) {
         PscMetricTag pscMetricTag = pscMetricTagManager.getOrCreatePscMetricTag(topicUri, partition, pscConfigurationInternal);
         MetricRegistry metricRegistry = getOrCreateMetricRegistry(pscMetricTag, null);
-        return metricRegistry == null ? null : metricRegistry.histogram(metricKey).getSnapshot();
+        return metricRegistry == null ? null : WeightedHistogram.getNonConsumingSnapshot(metricRegistry.histogram(metricKey));
     }
 
     public Snapshot getBackendHistogramMetric(TopicUri topicUri, String metricKey, PscConfigurationInternal pscConfigurationInternal) {
@@ -426,23 +672,34 @@ public class PscMetricRegistryManager {
         private final String key;
         private final MetricRegistry registry;
         private final ScheduledReporter reporter;
+        private final PscMetricsReportingScheduler.ReportingTask reportingTask;
+        private volatile boolean closed = false;
 
         PscMetricRegistryAndReporter(String key,
                                             MetricRegistry registry,
-                                            ScheduledReporter reporter) {
+                                            ScheduledReporter reporter,
+                                            PscMetricsReportingScheduler.ReportingTask reportingTask) {
             this.key = key;
             this.registry = registry;
             this.reporter = reporter;
+            this.reportingTask = reportingTask;
             globalRegistryAndReporterMap.put(key, this);
 
         }
 
         @Override
         public void close() {
+            closed = true;
+            if (reportingTask != null)
+                reportingTask.cancel();
             registry.removeMatching(MetricFilter.ALL);
             if (reporter != null)
                 reporter.close();
-            globalRegistryAndReporterMap.remove(key);
+            globalRegistryAndReporterMap.remove(key, this);
+        }
+
+        boolean isClosed() {
+            return closed;
         }
 
         protected MetricRegistry getRegistry() {
@@ -0,0 +1,66 @@
+package com.pinterest.psc.metrics;
+
+import com.pinterest.psc.config.MetricsReporterConfiguration;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which messages per-message histogram metrics are updated for, as configured by
+ * {@link PscConfiguration#PSC_METRICS_SAMPLING_INTERVAL} and {@link PscConfiguration#PSC_METRICS_SAMPLING_MODE}.
+ * A sampler is meant to be kept per topic URI partition, next to the metric handles it samples for.
+ * <p>
+ * Counters of sampled metric groups are kept exact through {@link PscSampledCounter}s created by the sampler, which
+ * count locally and are added to the underlying counter in bulk whenever a message is sampled.
+ */
+public class PscMetricSampler {
+    private static final PscMetricSampler UNSAMPLED = new PscMetricSampler(1, false);
+
+    private final int interval;
+    private final boolean random;
+    private final AtomicLong messageCount = new AtomicLong(0);
+
+    PscMetricSampler(int interval, boolean random) {
+        this.interval = interval;
+        this.random = random;
+    }
+
+    public static PscMetricSampler create(PscConfigurationInternal pscConfigurationInternal) {
+        MetricsReporterConfiguration metricsReporterConfiguration =
+                pscConfigurationInternal == null ? null : pscConfigurationInternal.getMetricsReporterConfiguration();
+        if (metricsReporterConfiguration == null || metricsReporterConfiguration.getSamplingInterval() <= 1)
+            return UNSAMPLED;
+        return new PscMetricSampler(
+                metricsReporterConfiguration.getSamplingInterval(),
+                PscConfiguration.PSC_METRICS_SAMPLING_MODE_RANDOM.equals(metricsReporterConfiguration.getSamplingMode())
+        );
+    }
+
+    public boolean isSampling() {
+        return interval > 1;
+    }
+
+    /**
+     * Decides whether the current message is sampled.
+     *
+     * @return 0 if the message is not sampled; otherwise the number of messages the sampled message stands for, to be
+     * used as the weight of histogram updates.
+     */
+    public long sample() {
+        if (interval == 1)
+            return 1;
+        if (random)
+            return ThreadLocalRandom.current().nextInt(interval) == 0 ? interval : 0;
+        // the first message of a partition is sampled, and every interval-th message after it
+        return messageCount.getAndIncrement() % interval == 0 ? interval : 0;
+    }
+
+    /**
+     * @return a counter that updates the given handle directly if this sampler does not sample, or in bulk otherwise.
+     */
+    public PscSampledCounter counter(PscCounterHandle pscCounterHandle) {
+        return new PscSampledCounter(pscCounterHandle, isSampling());
+    }
+}
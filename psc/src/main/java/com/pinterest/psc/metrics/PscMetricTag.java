@@ -9,6 +9,10 @@ public class PscMetricTag {
     public final static String PSC_TAG_CLIENT_ID = "client_id";
     public final static String PSC_TAG_PARTITION = "partition";
     public final static String PSC_CLIENT_TYPE = "client_type";
+    // the partition tag value of metrics aggregated over partitions by the cardinality policy
+    public final static String PSC_TAG_VALUE_ROLLED_UP = "rolled_up";
+    // the partition under which metrics aggregated by the cardinality policy are tracked
+    public final static int ROLLED_UP_PARTITION = -2;
     public final static Map<String, PscMetricTag> pscMetricTagsMap = new HashMap<>();
 
     private String serializedTag;
@@ -89,12 +89,22 @@ public class PscMetricTagManager {
 
         if (partition >= 0)
             builder.tag(PscMetricTag.PSC_TAG_PARTITION, "" + partition);
+        else if (partition == PscMetricTag.ROLLED_UP_PARTITION)
+            builder.tag(PscMetricTag.PSC_TAG_PARTITION, PscMetricTag.PSC_TAG_VALUE_ROLLED_UP);
 
         PscMetricTag pscMetricTag = builder.build();
         pscMetricTagsMap.put(pscMetricTagKey, pscMetricTag);
         return pscMetricTag;
     }
 
+    /**
+     * @return the {@link PscMetricTag} of the given {@link TopicUri} and partition if it was created before, or null.
+     */
+    public PscMetricTag getPscMetricTag(TopicUri topicUri, int partition) {
+        String topicUriStr = topicUri == null ? PscUtils.NO_TOPIC_URI : topicUri.getTopicUriAsString();
+        return pscMetricTagsMap.get(new MetricTagKey(topicUriStr, partition));
+    }
+
     public PscMetricTag getOrCreateBaseMetricTag(String id, long threadId, PscConfigurationInternal pscConfigurationInternal) {
         if (pscConfigurationInternal == null || pscConfigurationInternal.getConfiguration() == null) {
             logger.error("PscMetricRegistryManager is not initialized yet.");
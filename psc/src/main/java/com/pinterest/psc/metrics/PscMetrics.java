@@ -6,12 +6,18 @@ public class PscMetrics {
     public static final String PSC_BACKEND_METRICS_PREFIX = "backend.";
 
     public static final String PSC_METRICS_REPORTER_COUNT = "metrics.reporter.count";
+    public static final String PSC_METRICS_REPORTER_DROPPED_DATAPOINTS = "metrics.reporter.dropped.datapoints";
 
     public static final String PSC_CONSUMER_AUTO_RESOLUTION_RETRY_SUCCESS = "consumer.auto.resolution.retry.success";
     public static final String PSC_CONSUMER_AUTO_RESOLUTION_RETRY_FAILURE = "consumer.auto.resolution.retry.failure";
     public static final String PSC_PRODUCER_AUTO_RESOLUTION_RETRY_SUCCESS = "producer.auto.resolution.retry.success";
     public static final String PSC_PRODUCER_AUTO_RESOLUTION_RETRY_FAILURE = "producer.auto.resolution.retry.failure";
 
+    // circuit breaker
+    public static final String PSC_CIRCUIT_BREAKER_STATE_METRIC = "circuit.breaker.state";
+    public static final String PSC_CIRCUIT_BREAKER_OPENED_METRIC = "circuit.breaker.opened.count";
+    public static final String PSC_CIRCUIT_BREAKER_REJECTED_METRIC = "circuit.breaker.rejected.count";
+
     // consumer
     public static final String PSC_CONSUMER_COUNT = "consumer.count";
     public static final String PSC_CONSUMER_POLL_TIME_MS_METRIC = "consumer.poll.time.ms";
@@ -22,6 +28,11 @@ public class PscMetrics {
     public static final String PSC_CONSUMER_POLL_MESSAGE_KEY_SIZE_BYTES_METRIC = "consumer.poll.message.key.size.bytes";
     public static final String PSC_CONSUMER_POLL_MESSAGE_VALUE_SIZE_BYTES_METRIC = "consumer.poll.message.value.size.bytes";
     public static final String PSC_CONSUMER_TIME_LAG_MS_METRIC = "consumer.time.lag.ms";
+    public static final String PSC_CONSUMER_LAG_MESSAGES_METRIC = "consumer.lag.messages";
+    public static final String PSC_CONSUMER_TOPIC_LAG_MESSAGES_METRIC = "consumer.topic.lag.messages";
+    public static final String PSC_CONSUMER_TRACE_PRODUCE_TO_FETCH_MS_METRIC = "consumer.trace.produce.to.fetch.ms";
+    public static final String PSC_CONSUMER_TRACE_FETCH_TO_PROCESS_MS_METRIC = "consumer.trace.fetch.to.process.ms";
+    public static final String PSC_CONSUMER_DUPLICATE_MESSAGES_METRIC = "consumer.duplicate.messages";
     public static final String PSC_CONSUMER_OFFSET_MESSAGES_METRIC = "consumer.offset.messages";
     public static final String PSC_CONSUMER_RESETS_METRIC = "consumer.resets.count";
     public static final String PSC_CONSUMER_RETRIES_METRIC = "consumer.retries.count";
@@ -44,6 +55,9 @@ public class PscMetrics {
     public static final String PSC_PRODUCER_BACKEND_COUNT = "producer.backend.count";
     public static final String PSC_PRODUCER_BACKEND_SEND_ATTEMPT_COUNT = "producer.send.attempt.count";
     public static final String PSC_PRODUCER_BACKEND_DECOMMISSIONED_COUNT = "producer.decommissioned.count";
+    public static final String PSC_PRODUCER_ADAPTIVE_BATCHING_ADJUSTMENT_COUNT = "producer.adaptive.batching.adjustment.count";
+    public static final String PSC_PRODUCER_ADAPTIVE_BATCHING_LINGER_MS = "producer.adaptive.batching.linger.ms";
+    public static final String PSC_PRODUCER_ADAPTIVE_BATCHING_BATCH_SIZE_BYTES = "producer.adaptive.batching.batch.size.bytes";
 
     // warnings
     public static final String PSC_BACKEND_PRODUCER_CONFIG_OVERWRITE = "producer.config.overwrite.count";
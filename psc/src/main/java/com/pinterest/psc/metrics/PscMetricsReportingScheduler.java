@@ -0,0 +1,203 @@
+package com.pinterest.psc.metrics;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.pinterest.psc.logging.PscLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The single JVM-wide scheduler of periodic metric reporting work: registry reporters and backend client metric
+ * collection. Instead of a scheduled task (and often a thread pool) per registry or backend client, all tasks are kept
+ * in one queue ordered by their next due time, and a single thread hands due tasks to a small pool of workers on each
+ * tick. The number of tasks started per tick is bounded, so that thousands of registries spread their reporting over
+ * the interval instead of reporting at once. Each task starts at a random offset within its period, and each next run
+ * is jittered by a small fraction of the period so tasks do not synchronize over time.
+ * <p>
+ * Threads are started when the first task is registered and stopped once the last task is cancelled.
+ */
+public class PscMetricsReportingScheduler {
+    private static final PscLogger logger = PscLogger.getLogger(PscMetricsReportingScheduler.class);
+    private static final PscMetricsReportingScheduler singletonPscMetricsReportingScheduler = new PscMetricsReportingScheduler();
+
+    static final long TICK_MS = 100;
+    // the least number of tasks started per tick; more are allowed when the registered tasks require it
+    static final int MIN_TASKS_PER_TICK = 16;
+    // each run is moved by up to this fraction of the period in either direction
+    static final double JITTER_RATIO = 0.05;
+    static final int DEFAULT_PARALLELISM = 2;
+
+    private final PriorityQueue<ReportingTask> dueTasks = new PriorityQueue<>(
+            (task1, task2) -> Long.compare(task1.nextRunMs, task2.nextRunMs)
+    );
+    private int taskCount = 0;
+    // the expected number of tasks that become due per tick given the periods of registered tasks
+    private double expectedTasksPerTick = 0;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private ScheduledExecutorService ticker;
+    private ThreadPoolExecutor workers;
+
+    @VisibleForTesting
+    PscMetricsReportingScheduler() {
+    }
+
+    /**
+     * @return the singleton instance of {@link PscMetricsReportingScheduler}
+     */
+    public static PscMetricsReportingScheduler getInstance() {
+        return singletonPscMetricsReportingScheduler;
+    }
+
+    /**
+     * Raises the number of worker threads that run reporting tasks to the given number. Since the scheduler is shared
+     * by all clients of the JVM the largest requested parallelism is used.
+     */
+    public synchronized void requestParallelism(int parallelism) {
+        if (parallelism <= this.parallelism)
+            return;
+        this.parallelism = parallelism;
+        if (workers != null) {
+            workers.setMaximumPoolSize(parallelism);
+            workers.setCorePoolSize(parallelism);
+        }
+    }
+
+    /**
+     * Schedules the given task to run once every period, starting at a random offset within the first period.
+     *
+     * @param name     the name of the task, for logging
+     * @param task     the reporting work
+     * @param periodMs the reporting period in milliseconds
+     * @return the scheduled task, to be cancelled when the reporting is no longer needed
+     */
+    public synchronized ReportingTask schedule(String name, Runnable task, long periodMs) {
+        if (periodMs <= 0)
+            throw new IllegalArgumentException("Reporting period must be positive: " + periodMs);
+        ReportingTask reportingTask = new ReportingTask(name, task, periodMs);
+        reportingTask.nextRunMs = System.currentTimeMillis() + ThreadLocalRandom.current().nextLong(periodMs);
+        dueTasks.add(reportingTask);
+        ++taskCount;
+        expectedTasksPerTick += (double) TICK_MS / periodMs;
+        if (ticker == null)
+            start();
+        return reportingTask;
+    }
+
+    private synchronized void cancel(ReportingTask reportingTask) {
+        dueTasks.remove(reportingTask);
+        --taskCount;
+        expectedTasksPerTick = taskCount == 0 ? 0 : expectedTasksPerTick - (double) TICK_MS / reportingTask.periodMs;
+        if (taskCount == 0)
+            stop();
+    }
+
+    private void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("psc-metrics-scheduler-%d").setDaemon(true).build()
+        );
+        workers = new ThreadPoolExecutor(
+                parallelism, parallelism, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("psc-metrics-reporter-%d").setDaemon(true).build()
+        );
+        workers.allowCoreThreadTimeOut(true);
+        ticker.scheduleWithFixedDelay(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        logger.debug("Started metrics reporting scheduler with {} workers.", parallelism);
+    }
+
+    private void stop() {
+        ticker.shutdown();
+        workers.shutdown();
+        ticker = null;
+        workers = null;
+        logger.debug("Stopped metrics reporting scheduler.");
+    }
+
+    @VisibleForTesting
+    void tick() {
+        List<ReportingTask> tasksToRun = new ArrayList<>();
+        ThreadPoolExecutor currentWorkers;
+        synchronized (this) {
+            currentWorkers = workers;
+            if (currentWorkers == null)
+                return;
+            long nowMs = System.currentTimeMillis();
+            int budget = getTasksPerTickBudget();
+            while (tasksToRun.size() < budget && !dueTasks.isEmpty() && dueTasks.peek().nextRunMs <= nowMs) {
+                ReportingTask reportingTask = dueTasks.poll();
+                reportingTask.nextRunMs = getNextRunMs(reportingTask, nowMs);
+                dueTasks.add(reportingTask);
+                tasksToRun.add(reportingTask);
+            }
+        }
+
+        for (ReportingTask reportingTask : tasksToRun) {
+            // a task that is still running from its previous turn skips this one
+            if (reportingTask.running.compareAndSet(false, true))
+                currentWorkers.execute(reportingTask::run);
+        }
+    }
+
+    @VisibleForTesting
+    synchronized int getTasksPerTickBudget() {
+        return Math.max(MIN_TASKS_PER_TICK, (int) Math.round(2 * expectedTasksPerTick) + 1);
+    }
+
+    @VisibleForTesting
+    synchronized int getTaskCount() {
+        return taskCount;
+    }
+
+    private static long getNextRunMs(ReportingTask reportingTask, long nowMs) {
+        long jitterMs = (long) (reportingTask.periodMs * JITTER_RATIO);
+        long nextRunMs = reportingTask.nextRunMs + reportingTask.periodMs +
+                (jitterMs == 0 ? 0 : ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1));
+        // a task that fell behind (e.g. because of the per tick budget) is not run repeatedly to catch up
+        return Math.max(nextRunMs, nowMs + reportingTask.periodMs - jitterMs);
+    }
+
+    /**
+     * A periodic reporting task registered with the {@link PscMetricsReportingScheduler}.
+     */
+    public class ReportingTask {
+        private final String name;
+        private final Runnable task;
+        private final long periodMs;
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private long nextRunMs;
+
+        private ReportingTask(String name, Runnable task, long periodMs) {
+            this.name = name;
+            this.task = task;
+            this.periodMs = periodMs;
+        }
+
+        private void run() {
+            try {
+                if (!cancelled.get())
+                    task.run();
+            } catch (Throwable throwable) {
+                logger.warn("Metrics reporting task {} failed: ", name, throwable);
+            } finally {
+                running.set(false);
+            }
+        }
+
+        /**
+         * Stops further runs of this task. A run that is in progress is not interrupted.
+         */
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true))
+                PscMetricsReportingScheduler.this.cancel(this);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.pinterest.psc.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An exact counter of a sampled metric group; see {@link PscMetricSampler#counter(PscCounterHandle)}. Increments are
+ * accumulated locally and added to the underlying counter on {@link #flush()}, which is expected to be called when a
+ * message is sampled and when the owner of the counter is closed.
+ */
+public class PscSampledCounter {
+    private final PscCounterHandle pscCounterHandle;
+    private final AtomicLong pending;
+
+    PscSampledCounter(PscCounterHandle pscCounterHandle, boolean batched) {
+        this.pscCounterHandle = pscCounterHandle;
+        this.pending = batched ? new AtomicLong(0) : null;
+    }
+
+    public void increment() {
+        if (pending == null)
+            pscCounterHandle.increment();
+        else
+            pending.incrementAndGet();
+    }
+
+    public void flush() {
+        if (pending == null)
+            return;
+        long count = pending.getAndSet(0);
+        if (count > 0)
+            pscCounterHandle.increment(count);
+    }
+}
@@ -0,0 +1,58 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.logging.PscLogger;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A gauge metric that is reported per topic URI partition in rounds. Values of partitions that the cardinality policy
+ * reports under the same series (e.g. partitions outside the top N) are summed instead of overwriting each other, and
+ * at the end of each round the gauges of series that no partition contributed to are removed.
+ */
+public class PscSummedGaugeMetric {
+    private static final PscLogger logger = PscLogger.getLogger(PscSummedGaugeMetric.class);
+    private final String metricKey;
+    private Map<MetricRegistry, Long> valueByMetricRegistry = new HashMap<>();
+    private Set<MetricRegistry> reportedMetricRegistries = Collections.emptySet();
+
+    public PscSummedGaugeMetric(String metricKey) {
+        this.metricKey = metricKey;
+    }
+
+    /**
+     * Adds the given value to the series the given topic URI and partition are reported under in the current round.
+     */
+    public void add(TopicUri topicUri, int partition, long value, PscConfigurationInternal pscConfigurationInternal) {
+        MetricRegistry metricRegistry = PscMetricRegistryManager.getInstance().getMetricRegistry(
+                topicUri, partition, metricKey, pscConfigurationInternal
+        );
+        if (metricRegistry != null)
+            valueByMetricRegistry.merge(metricRegistry, value, Long::sum);
+    }
+
+    /**
+     * Sets the gauges of the series values were added to in the current round, removes the gauges of series that were
+     * reported in the previous round only, and starts a new round.
+     */
+    public void report() {
+        try {
+            valueByMetricRegistry.forEach((metricRegistry, value) ->
+                    ((LongGauge) metricRegistry.gauge(metricKey, LongGauge::new)).setValue(value)
+            );
+            for (MetricRegistry metricRegistry : reportedMetricRegistries) {
+                if (!valueByMetricRegistry.containsKey(metricRegistry))
+                    metricRegistry.remove(metricKey);
+            }
+        } catch (Exception exception) {
+            logger.warn("Failed to report gauge metric {}: ", metricKey, exception);
+        }
+        reportedMetricRegistries = valueByMetricRegistry.keySet();
+        valueByMetricRegistry = new HashMap<>();
+    }
+}
@@ -0,0 +1,51 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link Histogram} that can record a value on behalf of several updates, so histograms of sampled values report
+ * the count of all sampled-from updates. Reservoirs that support weights ({@link LogBucketedReservoir}) also count
+ * the value with its weight; other reservoirs record it once, which keeps their percentiles unbiased for uniform
+ * samples.
+ */
+class WeightedHistogram extends Histogram {
+    private final Reservoir reservoir;
+    private final LongAdder count = new LongAdder();
+
+    WeightedHistogram(Reservoir reservoir) {
+        super(reservoir);
+        this.reservoir = reservoir;
+    }
+
+    @Override
+    public void update(long value) {
+        update(value, 1);
+    }
+
+    void update(long value, long weight) {
+        count.add(weight);
+        if (reservoir instanceof LogBucketedReservoir)
+            ((LogBucketedReservoir) reservoir).update(value, weight);
+        else
+            reservoir.update(value);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns a snapshot of the given histogram for readers other than its periodic reporter, e.g. scrapes or lookups,
+     * without completing the reporting interval of a {@link LogBucketedReservoir}.
+     */
+    static Snapshot getNonConsumingSnapshot(Histogram histogram) {
+        if (histogram instanceof WeightedHistogram && ((WeightedHistogram) histogram).reservoir instanceof LogBucketedReservoir)
+            return ((LogBucketedReservoir) ((WeightedHistogram) histogram).reservoir).getCurrentSnapshot();
+        return histogram.getSnapshot();
+    }
+}
@@ -1,7 +1,9 @@
 package com.pinterest.psc.metrics.kafka;
 
+import com.pinterest.psc.common.BaseTopicUri;
 import com.pinterest.psc.common.PscUtils;
 import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
 import com.pinterest.psc.common.kafka.KafkaTopicUri;
 import com.pinterest.psc.config.PscConfigurationInternal;
 import com.pinterest.psc.metrics.PscMetricRegistryManager;
@@ -249,6 +251,61 @@ public class KafkaMetricsHandler {
         }
     }
 
+    /**
+     * @param metricsFromKafkaClient metrics of a Kafka client
+     * @param group the Kafka metric group
+     * @param name the Kafka metric name
+     * @return the value of the first client-level (i.e. not topic, partition or node specific) metric with the given
+     * group and name; or NaN if there is no such metric or the metric does not have a numeric value (yet).
+     */
+    public static double getKafkaClientMetricValue(
+            Map<MetricName, ? extends Metric> metricsFromKafkaClient,
+            String group,
+            String name
+    ) {
+        for (Map.Entry<MetricName, ? extends Metric> entry : metricsFromKafkaClient.entrySet()) {
+            MetricName metricName = entry.getKey();
+            if (!metricName.group().equals(group) || !metricName.name().equals(name))
+                continue;
+            if (metricName.tags().containsKey("topic") || metricName.tags().containsKey("node-id"))
+                continue;
+            Object value = entry.getValue().metricValue();
+            return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * @param metricsFromKafkaClient metrics of a Kafka consumer
+     * @param kafkaTopicToTopicUri   a map of Kafka topic to the topic URI it is consumed through
+     * @return the latest <code>records-lag</code> of each partition, i.e. the difference between the high watermark
+     * and the fetch position of the consumer; partitions whose lag is not known yet, or whose topic URI is not known,
+     * are left out.
+     */
+    public static Map<TopicUriPartition, Long> getKafkaConsumerLag(
+            Map<MetricName, ? extends Metric> metricsFromKafkaClient,
+            Map<String, TopicUri> kafkaTopicToTopicUri
+    ) {
+        Map<TopicUriPartition, Long> lag = new HashMap<>();
+        for (Map.Entry<MetricName, ? extends Metric> entry : metricsFromKafkaClient.entrySet()) {
+            MetricName metricName = entry.getKey();
+            if (!metricName.name().equals("records-lag") || !metricName.group().equals("consumer-fetch-manager-metrics"))
+                continue;
+            String topic = getTopicTagValueFromKafkaClientMetricTags(metricName.tags());
+            int partition = getPartitionTagValueFromKafkaClientMetricTags(metricName.tags());
+            TopicUri topicUri = topic == null ? null : kafkaTopicToTopicUri.get(topic);
+            if (topicUri == null || partition == PscUtils.NO_PARTITION)
+                continue;
+            Object value = entry.getValue().metricValue();
+            if (!(value instanceof Number) || Double.isNaN(((Number) value).doubleValue()))
+                continue;
+            TopicUriPartition topicUriPartition = new TopicUriPartition(topicUri.getTopicUriAsString(), partition);
+            BaseTopicUri.finalizeTopicUriPartition(topicUriPartition, topicUri);
+            lag.put(topicUriPartition, ((Number) value).longValue());
+        }
+        return lag;
+    }
+
     private static String getTopicTagValueFromKafkaClientMetricTags(Map<String, String> tags) {
         return tags.getOrDefault("topic", null);
     }
@@ -10,11 +10,15 @@ import com.pinterest.psc.common.kafka.KafkaErrors;
 import com.pinterest.psc.config.PscConfiguration;
 import com.pinterest.psc.config.PscConfigurationInternal;
 import com.pinterest.psc.environment.Environment;
+import com.pinterest.psc.exception.handler.PscCircuitBreaker;
 import com.pinterest.psc.exception.handler.PscErrorHandler;
 import com.pinterest.psc.exception.producer.BackendProducerException;
 import com.pinterest.psc.exception.producer.ProducerException;
 import com.pinterest.psc.interceptor.ProducerInterceptors;
 import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.metrics.PscCounterHandle;
+import com.pinterest.psc.metrics.PscHistogramHandle;
+import com.pinterest.psc.metrics.PscMetricHandleCache;
 import com.pinterest.psc.metrics.PscMetricRegistryManager;
 import com.pinterest.psc.metrics.PscMetrics;
 import org.apache.kafka.common.annotation.InterfaceStability;
@@ -22,11 +26,9 @@ import org.apache.kafka.common.annotation.InterfaceStability;
 import java.lang.reflect.InvocationTargetException;
 import java.time.Duration;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Objects of this class type are intended to act as mediators between {@link PscProducer} and backend client library
@@ -39,10 +41,13 @@ import java.util.concurrent.TimeUnit;
  */
 public abstract class PscBackendProducer<K, V> extends PscBackendClient<K, V> {
     private static final PscLogger logger = PscLogger.getLogger(PscBackendProducer.class);
+    private static final PscLogger rateLimitedLogger = PscLogger.getRateLimitedLogger(PscBackendProducer.class);
     protected ProducerInterceptors<K, V> producerInterceptors;
     protected PscConfigurationInternal pscConfigurationInternal;
     protected Environment environment;
     protected Class lastExceptionClass = null;
+    protected final PscMetricHandleCache<SendMetricHandles> sendMetricHandles =
+            new PscMetricHandleCache<>(SendMetricHandles::new);
 
     /**
      * Performs common initializes across all backend consumer types, and delegates backend-specific initializations.
@@ -63,15 +68,34 @@ public abstract class PscBackendProducer<K, V> extends PscBackendClient<K, V> {
         this.autoResolutionEnabled = pscConfigurationInternal.isAutoResolutionEnabled();
         this.autoResolutionRetryCount = pscConfigurationInternal.getAutoResolutionRetryCount();
         this.pscConfigurationInternal = pscConfigurationInternal;
-        scheduler.scheduleAtFixedRate(
+        this.circuitBreaker = PscCircuitBreaker.get(topicUri, pscConfigurationInternal);
+        scheduleMetricsReporting(
+                getClass().getSimpleName() + "@" + topicUri,
                 this::reportProducerMetrics,
-                new Random().nextInt(pscConfigurationInternal.getConfiguration().getInt(PscConfiguration.PSC_METRICS_FREQUENCY_MS)),
-                pscConfigurationInternal.getConfiguration().getInt(PscConfiguration.PSC_METRICS_FREQUENCY_MS),
-                TimeUnit.MILLISECONDS
+                pscConfigurationInternal.getConfiguration().getInt(PscConfiguration.PSC_METRICS_FREQUENCY_MS)
         );
         this.environment = environment;
     }
 
+    /**
+     * The per topic URI partition metrics reported for each message sent by backend producers.
+     */
+    protected class SendMetricHandles {
+        public final PscCounterHandle sendAttempts;
+        public final PscCounterHandle ackedMessages;
+        public final PscHistogramHandle produceTimeMs;
+
+        SendMetricHandles(TopicUri topicUri, int partition) {
+            PscMetricRegistryManager pscMetricRegistryManager = PscMetricRegistryManager.getInstance();
+            sendAttempts = pscMetricRegistryManager.getBackendCounterHandle(
+                    topicUri, partition, PscMetrics.PSC_PRODUCER_BACKEND_SEND_ATTEMPT_COUNT, pscConfigurationInternal);
+            ackedMessages = pscMetricRegistryManager.getBackendCounterHandle(
+                    topicUri, partition, PscMetrics.PSC_PRODUCER_ACKED_MESSAGES_METRIC, pscConfigurationInternal);
+            produceTimeMs = pscMetricRegistryManager.getBackendHistogramHandle(
+                    topicUri, partition, PscMetrics.PSC_PRODUCER_PRODUCE_TIME_MS_METRIC, pscConfigurationInternal);
+        }
+    }
+
     /**
      * Handles reporting metrics from the backend consumer. This method should be overloaded by specific backend clients
      * to implement proper metrics reporting.
@@ -120,7 +144,7 @@ public abstract class PscBackendProducer<K, V> extends PscBackendClient<K, V> {
      * @throws ProducerException if there are validation issues or exceptions thrown from the backend call.
      */
     public void close(Duration duration) throws ProducerException {
-        scheduler.shutdown();
+        cancelMetricsReporting();
     }
 
     /**
@@ -241,7 +265,7 @@ public abstract class PscBackendProducer<K, V> extends PscBackendClient<K, V> {
      * @throws ProducerException the superclass of the to-be-thrown exception
      */
     protected void handleException(Exception exception, Set topicUrisOrPartitions, boolean emitMetrics) throws ProducerException {
-        logger.warn("Exception {} caught from the backend producer:", exception.getClass().getName(), exception);
+        rateLimitedLogger.warn("Exception {} caught from the backend producer:", exception.getClass().getName(), exception);
         PscErrorHandler.ProducerAction followupAction = KafkaErrors.shouldHandleProducerException(exception, autoResolutionEnabled);
         logger.info("Auto resolution status: {} (remaining retries: {})", autoResolutionEnabled, autoResolutionRetryCount - retries);
         logger.info("Follow up action to this exception: {}", followupAction.actionType);
@@ -308,6 +332,27 @@ public abstract class PscBackendProducer<K, V> extends PscBackendClient<K, V> {
         );
     }
 
+    /**
+     * Reports the outcome of an acknowledged send to the circuit breaker of the backend cluster, if any. Producers report
+     * send outcomes from their callbacks, as a send call returning does not mean the cluster accepted the message.
+     *
+     * @param exception the exception the send completed with, or null if it succeeded
+     */
+    protected void recordSendCompletion(Exception exception) {
+        if (exception == null)
+            recordBackendSuccess();
+        else if (isRetriableSendException(exception))
+            recordBackendFailure();
+    }
+
+    /**
+     * @param exception an exception a send completed with
+     * @return whether the exception signals a transient failure of the backend cluster
+     */
+    protected boolean isRetriableSendException(Exception exception) {
+        return false;
+    }
+
     protected void executeBackendCallWithRetries(Runnable backendCaller) throws ProducerException {
         executeBackendCallWithRetries(backendCaller, null);
     }
@@ -1,9 +1,9 @@
 package com.pinterest.psc.producer;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.pinterest.psc.common.BaseTopicUri;
 import com.pinterest.psc.common.MessageId;
-import com.pinterest.psc.common.PscCommon;
 import com.pinterest.psc.common.PscUtils;
 import com.pinterest.psc.common.TopicUri;
 import com.pinterest.psc.common.TopicUriPartition;
@@ -14,6 +14,8 @@ import com.pinterest.psc.config.PscConfigurationReporter;
 import com.pinterest.psc.environment.Environment;
 import com.pinterest.psc.exception.ClientException;
 import com.pinterest.psc.exception.ExceptionMessage;
+import com.pinterest.psc.exception.handler.PscCircuitBreaker;
+import com.pinterest.psc.exception.producer.CircuitOpenException;
 import com.pinterest.psc.exception.producer.ProducerException;
 import com.pinterest.psc.exception.producer.TransactionalProducerException;
 import com.pinterest.psc.exception.startup.ConfigurationException;
@@ -22,8 +24,13 @@ import com.pinterest.psc.interceptor.Interceptors;
 import com.pinterest.psc.interceptor.TypePreservingInterceptor;
 import com.pinterest.psc.interceptor.ProducerInterceptors;
 import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.logging.PscLoggingContext;
 import com.pinterest.psc.metrics.Metric;
 import com.pinterest.psc.metrics.MetricName;
+import com.pinterest.psc.metrics.PscCounterHandle;
+import com.pinterest.psc.metrics.PscEvent;
+import com.pinterest.psc.metrics.PscFlightRecorder;
+import com.pinterest.psc.metrics.PscMetricHandleCache;
 import com.pinterest.psc.metrics.PscMetricRegistryManager;
 import com.pinterest.psc.metrics.PscMetrics;
 import com.pinterest.psc.producer.creation.PscBackendProducerCreator;
@@ -32,7 +39,6 @@ import com.pinterest.psc.serde.Serializer;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.kafka.common.annotation.InterfaceStability;
 
-import java.lang.management.ManagementFactory;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -42,20 +48,22 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 public class PscProducer<K, V> implements AutoCloseable {
     private static final PscLogger logger = PscLogger.getLogger(PscProducer.class);
-
-    static {
-        logger.addContext("pscPid", ManagementFactory.getRuntimeMXBean().getName().split("@")[0]);
-        logger.addContext("pscTid", String.valueOf(Thread.currentThread().getId()));
-        logger.addContext("pscHost", PscCommon.getHostname());
-    }
+    // metadata fetches are I/O bound, so warm-up parallelism is not tied to the number of processors
+    private static final int WARM_UP_PARALLELISM_MAX = 16;
 
     private Environment environment;
     private PscProducerCreatorManager creatorManager;
@@ -72,12 +80,15 @@ public class PscProducer<K, V> implements AutoCloseable {
     // This keeps the transactional state of the PSC producer itself, valid states: NON_TRANSACTIONAL, INIT_AND_BEGUN
     private final AtomicReference<TransactionalState> transactionalState = new AtomicReference<>(TransactionalState.NON_TRANSACTIONAL);
     // This is a translation map from a topic URI (string format) to parsed uris
-    private final Map<String, TopicUri> topicUriStrToTopicUri = new HashMap<>();
+    private final Map<String, TopicUri> topicUriStrToTopicUri = new ConcurrentHashMap<>();
     // This is the source of truth of the currently registered consumers
     private final Set<PscBackendProducer<K, V>> backendProducers = new HashSet<>();
 
     private PscMetricRegistryManager pscMetricRegistryManager;
     private final PscConfigurationInternal pscConfigurationInternal;
+    private PscLoggingContext loggingContext;
+    private final PscMetricHandleCache<PscCounterHandle> sendAttemptMetricHandles =
+            new PscMetricHandleCache<>(this::getSendAttemptMetricHandle);
 
     /**
      * Creates a PscProducer object using the configuration in the provided config file to override the default
@@ -141,6 +152,8 @@ public class PscProducer<K, V> implements AutoCloseable {
 
     @SuppressWarnings("unchecked")
     private void initialize() throws ConfigurationException {
+        loggingContext = PscLoggingContext.forClient(pscConfigurationInternal.getPscProducerClientId());
+        loggingContext.attach(logger);
         Serializer<K> keySerializer = pscConfigurationInternal.getPscProducerKeySerializer();
         Serializer<V> valueSerializer = pscConfigurationInternal.getPscProducerValueSerializer();
 
@@ -267,11 +280,23 @@ public class PscProducer<K, V> implements AutoCloseable {
      * @param callback           the callback that should be triggered after send is complete
      * @return a future that contains the message id associated with the produced message.
      * @throws ProducerException      if the given topic URI fails validation, or if issues from backend producer bubble up.
+     *                                A {@link CircuitOpenException} is thrown if the circuit of the backend cluster is
+     *                                open.
      * @throws ConfigurationException if discovery of proper backend for the given topic URI fails.
      */
     public Future<MessageId> send(PscProducerMessage<K, V> pscProducerMessage, Callback callback) throws ProducerException, ConfigurationException {
         ensureOpen();
+        loggingContext.attach(logger);
         validateProducerMessage(pscProducerMessage);
+        // check the circuit before creating a backend producer for the cluster, if there is none yet
+        PscCircuitBreaker circuitBreaker =
+                PscCircuitBreaker.get(pscProducerMessage.getTopicUriPartition().getTopicUri(), pscConfigurationInternal);
+        if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+            throw new CircuitOpenException(String.format(
+                    "Circuit of %s is open; not sending the message.", circuitBreaker.getTopicUriPrefix()
+            ));
+        }
+
         PscBackendProducer<K, V> backendProducer =
                 getBackendProducerForTopicUri(pscProducerMessage.getTopicUriPartition().getTopicUri());
 
@@ -307,18 +332,25 @@ public class PscProducer<K, V> implements AutoCloseable {
                 break;
         }
 
-        PscMetricRegistryManager.getInstance().incrementCounterMetric(
-                pscProducerMessage.getTopicUriPartition().getTopicUri(),
-                pscProducerMessage.getPartition(),
-                PscMetrics.PSC_PRODUCER_BACKEND_SEND_ATTEMPT_COUNT,
-                pscConfigurationInternal
-        );
+        sendAttemptMetricHandles.get(
+                pscProducerMessage.getTopicUriPartition().getTopicUri(), pscProducerMessage.getPartition()
+        ).increment();
 
+        PscEvent sendEvent = PscFlightRecorder.begin(PscFlightRecorder.Type.PRODUCER_SEND);
         Future<MessageId> future = backendProducer.send(pscProducerMessage, callback);
+        sendEvent.topicUri(pscProducerMessage.getTopicUriPartition().getTopicUri())
+                .backend(pscProducerMessage.getTopicUriPartition().getTopicUri().getBackend())
+                .commit();
 
         return future;
     }
 
+    private PscCounterHandle getSendAttemptMetricHandle(TopicUri topicUri, int partition) {
+        return PscMetricRegistryManager.getInstance().getCounterHandle(
+                topicUri, partition, PscMetrics.PSC_PRODUCER_BACKEND_SEND_ATTEMPT_COUNT, pscConfigurationInternal
+        );
+    }
+
     /**
      * Retrieves all partitions associated with the given URI.
      *
@@ -335,6 +367,69 @@ public class PscProducer<K, V> implements AutoCloseable {
         return backendProducer.getPartitions(topicUri);
     }
 
+    /**
+     * Prepares this producer for sending to the given URIs ahead of the first send, so the cost of backend producer
+     * creation, service discovery, and the initial metadata fetch (with its connection setup) is not paid on the
+     * critical path. Backend producers are created on the calling thread, and partition metadata is then fetched
+     * for all URIs in parallel.
+     *
+     * @param topicUrisAsString the URIs to warm up.
+     * @param timeout           the maximum time to wait for all URIs to become ready.
+     * @return the readiness of each given URI; a URI is ready if its backend producer is created and its partition
+     * metadata is fetched within the timeout.
+     * @throws ProducerException if the producer is already closed, or any of the given URIs can not be parsed.
+     */
+    public Map<String, Boolean> warmUp(Collection<String> topicUrisAsString, Duration timeout) throws ProducerException {
+        ensureOpen();
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        Map<String, Boolean> readiness = new HashMap<>();
+        Map<String, Callable<Set<TopicUriPartition>>> metadataFetchers = new HashMap<>();
+        for (String topicUriAsString : topicUrisAsString) {
+            TopicUri topicUri = validateTopicUri(topicUriAsString);
+            readiness.put(topicUriAsString, false);
+            if (System.currentTimeMillis() >= deadline)
+                continue;
+            try {
+                PscBackendProducer<K, V> backendProducer = getBackendProducerForTopicUri(topicUri);
+                metadataFetchers.put(topicUriAsString, () -> backendProducer.getPartitions(topicUri));
+            } catch (ProducerException | ConfigurationException exception) {
+                logger.warn("Failed to create backend producer while warming up topic URI {}", topicUriAsString, exception);
+            }
+        }
+
+        if (metadataFetchers.isEmpty())
+            return readiness;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(
+                Math.min(metadataFetchers.size(), WARM_UP_PARALLELISM_MAX),
+                new ThreadFactoryBuilder().setNameFormat("psc-producer-warmup-thread-%d").setDaemon(true).build()
+        );
+        try {
+            Map<String, Future<Set<TopicUriPartition>>> futures = new HashMap<>();
+            metadataFetchers.forEach((topicUriAsString, fetcher) -> futures.put(topicUriAsString, executorService.submit(fetcher)));
+            for (Map.Entry<String, Future<Set<TopicUriPartition>>> entry : futures.entrySet()) {
+                try {
+                    Set<TopicUriPartition> partitions = entry.getValue().get(
+                            Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS
+                    );
+                    readiness.put(entry.getKey(), partitions != null && !partitions.isEmpty());
+                } catch (TimeoutException exception) {
+                    logger.warn("Timed out warming up topic URI {}", entry.getKey());
+                } catch (ExecutionException exception) {
+                    logger.warn("Failed to fetch metadata while warming up topic URI {}", entry.getKey(), exception.getCause());
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        logger.info("Warmed up {} of {} topic URIs", readiness.values().stream().filter(ready -> ready).count(), readiness.size());
+        return readiness;
+    }
+
     /**
      * Aborts the active transaction of this producer.
      *
@@ -721,8 +816,29 @@ public class PscProducer<K, V> implements AutoCloseable {
      */
     public void flush() throws ProducerException {
         ensureOpen();
-        for (PscBackendProducer<K, V> backendProducer : backendProducers)
+        for (PscBackendProducer<K, V> backendProducer : backendProducers) {
+            PscEvent flushEvent = PscFlightRecorder.begin(PscFlightRecorder.Type.PRODUCER_FLUSH);
             backendProducer.flush();
+            describe(flushEvent, backendProducer).detail(backendProducer.getClass().getSimpleName()).commit();
+        }
+    }
+
+    /**
+     * Sets the backend and the topic URIs of the given backend producer on the given event, i.e. the topic URIs sent
+     * to through it; if there are several, the first one is followed by the number of others.
+     */
+    private PscEvent describe(PscEvent event, PscBackendProducer<K, V> backendProducer) {
+        if (!event.isEnabled())
+            return event;
+        List<TopicUri> topicUris = topicUriStrToTopicUri.values().stream()
+                .filter(topicUri -> pscBackendProducerByTopicUriPrefix.get(topicUri.getTopicUriPrefix()) == backendProducer)
+                .collect(Collectors.toList());
+        if (topicUris.isEmpty())
+            return event;
+        TopicUri topicUri = topicUris.get(0);
+        return event.backend(topicUri.getBackend()).topicUri(topicUris.size() == 1 ?
+                topicUri.getTopicUriAsString() :
+                topicUri.getTopicUriAsString() + " (+" + (topicUris.size() - 1) + ")");
     }
 
     /**
@@ -761,6 +877,8 @@ public class PscProducer<K, V> implements AutoCloseable {
         }
 
         transactionalState.set(TransactionalState.NON_TRANSACTIONAL);
+        if (producerInterceptors != null)
+            producerInterceptors.close();
 
         if (!exceptions.isEmpty()) {
             throw new ProducerException(
@@ -777,7 +895,7 @@ public class PscProducer<K, V> implements AutoCloseable {
             logger.info("PSC producer was closed.");
             PscMetricRegistryManager.getInstance().shutdown(pscConfigurationInternal);
         }
-        logger.clearContext();
+        PscLoggingContext.detach(logger);
     }
 
     /**
@@ -8,7 +8,6 @@ import com.pinterest.psc.exception.startup.ConfigurationException;
 import com.pinterest.psc.exception.startup.TopicUriSyntaxException;
 import com.pinterest.psc.interceptor.ProducerInterceptors;
 import com.pinterest.psc.producer.PscBackendProducer;
-import com.pinterest.psc.producer.kafka.PscKafkaProducer;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -21,7 +20,7 @@ public abstract class PscBackendProducerCreator<K, V> {
     /**
      * This map keeps a producer for each cluster that has topics to which messages were produced.
      */
-    Map<String, PscKafkaProducer<K, V>> clusterProducerCache = new HashMap<>();
+    Map<String, PscBackendProducer<K, V>> clusterProducerCache = new HashMap<>();
 
     /**
      * Creates/updates the backend producers and returns a set of active producers. The creator is responsible for
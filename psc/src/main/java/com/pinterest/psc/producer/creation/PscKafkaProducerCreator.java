@@ -39,7 +39,7 @@ public class PscKafkaProducerCreator<K, V> extends PscBackendProducerCreator<K,
         }
 
         for (Map.Entry<String, Set<TopicUri>> entry : clusterTopics.entrySet()) {
-            PscKafkaProducer<K, V> pscKafkaProducer = clusterProducerCache.get(entry.getKey());
+            PscKafkaProducer<K, V> pscKafkaProducer = (PscKafkaProducer<K, V>) clusterProducerCache.get(entry.getKey());
             TopicUri sampleKafkaTopicUri = entry.getValue().iterator().next();
             if (pscKafkaProducer == null) {
                 ServiceDiscoveryConfig discoveryConfig;
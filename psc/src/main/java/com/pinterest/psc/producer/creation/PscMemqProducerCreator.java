@@ -0,0 +1,72 @@
+package com.pinterest.psc.producer.creation;
+
+import com.pinterest.psc.common.PscUtils;
+import com.pinterest.psc.common.ServiceDiscoveryConfig;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.consumer.memq.MemqTopicUri;
+import com.pinterest.psc.discovery.ServiceDiscoveryManager;
+import com.pinterest.psc.environment.Environment;
+import com.pinterest.psc.exception.startup.ConfigurationException;
+import com.pinterest.psc.exception.startup.TopicUriSyntaxException;
+import com.pinterest.psc.interceptor.ProducerInterceptors;
+import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.producer.PscBackendProducer;
+import com.pinterest.psc.producer.memq.PscMemqProducer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@PscProducerCreatorPlugin(backend = PscUtils.BACKEND_TYPE_MEMQ)
+public class PscMemqProducerCreator<K, V> extends PscBackendProducerCreator<K, V> {
+    private static final PscLogger logger = PscLogger.getLogger(PscMemqProducerCreator.class);
+
+    @Override
+    public Set<PscBackendProducer<K, V>> getProducers(
+            Environment environment,
+            PscConfigurationInternal pscConfigurationInternal,
+            ProducerInterceptors<K, V> producerInterceptors,
+            Set<TopicUri> topicUris
+    ) throws ConfigurationException {
+        Set<PscBackendProducer<K, V>> producers = new HashSet<>();
+        Map<String, Set<TopicUri>> clusterTopics = new HashMap<>();
+
+        for (TopicUri topicUri : topicUris) {
+            MemqTopicUri memqUri = (MemqTopicUri) topicUri;
+            clusterTopics.computeIfAbsent(memqUri.getTopicUriPrefix(), p -> new HashSet<>()).add(memqUri);
+        }
+
+        for (Map.Entry<String, Set<TopicUri>> entry : clusterTopics.entrySet()) {
+            PscMemqProducer<K, V> pscMemqProducer = (PscMemqProducer<K, V>) clusterProducerCache.get(entry.getKey());
+            TopicUri sampleMemqTopicUri = entry.getValue().iterator().next();
+            if (pscMemqProducer == null) {
+                ServiceDiscoveryConfig discoveryConfig;
+                discoveryConfig = ServiceDiscoveryManager.getServiceDiscoveryConfig(
+                        environment,
+                        pscConfigurationInternal.getDiscoveryConfiguration(),
+                        sampleMemqTopicUri
+                );
+                pscMemqProducer = new PscMemqProducer<>();
+                pscMemqProducer.initialize(pscConfigurationInternal, discoveryConfig, environment, sampleMemqTopicUri);
+                clusterProducerCache.put(entry.getKey(), pscMemqProducer);
+            }
+
+            pscMemqProducer.setProducerInterceptors(producerInterceptors);
+            producers.add(pscMemqProducer);
+        }
+
+        return producers;
+    }
+
+    @Override
+    public TopicUri validateBackendTopicUri(TopicUri baseTopicUri) throws TopicUriSyntaxException {
+        return MemqTopicUri.validate(baseTopicUri);
+    }
+
+    @Override
+    public void reset() {
+        clusterProducerCache.clear();
+    }
+}
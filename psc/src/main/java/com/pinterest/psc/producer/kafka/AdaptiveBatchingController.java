@@ -0,0 +1,148 @@
+package com.pinterest.psc.producer.kafka;
+
+import com.pinterest.psc.metrics.kafka.KafkaMetricsHandler;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+
+import java.util.Map;
+
+/**
+ * Tunes the linger time and batch size of a Kafka producer based on the metrics the producer reports. The produce
+ * latency is estimated as the sum of the maximum record queue time and the maximum request latency over the producer's
+ * metric window, which bounds the 99th percentile from above. While the estimate is above the target, the linger time
+ * (and then the batch size) is halved. While there is enough headroom, batching is grown: the batch size is doubled if
+ * batches fill up before the linger time expires, otherwise the linger time is increased by a fixed step. All values
+ * stay within the configured bounds.
+ * <p>
+ * A new setting is computed once and then held. It is applied whenever a backend producer is created anyway, e.g. on a
+ * reset, which is reported through {@link #markApplied(long)}. Since applying a setting on its own means moving to a
+ * new backend producer, {@link #evaluate(Map, long)} only reports that it should be applied once the minimum interval
+ * since the last application has passed and the producer is quiet (uses little of its buffer).
+ */
+class AdaptiveBatchingController {
+    static final String PRODUCER_METRICS_GROUP = "producer-metrics";
+    static final String BATCH_SIZE_AVG = "batch-size-avg";
+    static final String RECORD_QUEUE_TIME_MAX = "record-queue-time-max";
+    static final String REQUEST_LATENCY_MAX = "request-latency-max";
+    static final String BUFFER_AVAILABLE_BYTES = "buffer-available-bytes";
+    static final String BUFFER_TOTAL_BYTES = "buffer-total-bytes";
+
+    // the default batch size of Kafka producers; the lower bound of the batch size unless configured lower
+    static final int MIN_BATCH_SIZE_BYTES = 16384;
+    // batches at least this full are considered full
+    static final double FULL_BATCH_RATIO = 0.9;
+    // batching is grown only while the latency estimate is below this fraction of the target
+    static final double LATENCY_HEADROOM_RATIO = 0.75;
+    // the producer is considered quiet while at most this fraction of its buffer is in use
+    static final double QUIET_BUFFER_USED_RATIO = 0.05;
+
+    private final int latencyTargetMs;
+    private final int minLingerMs = 0;
+    private final int maxLingerMs;
+    private final int lingerStepMs;
+    private final int minBatchSizeBytes;
+    private final int maxBatchSizeBytes;
+    private final long minAdjustmentIntervalMs;
+
+    private int lingerMs;
+    private int batchSizeBytes;
+    private boolean pending = false;
+    private long lastAppliedMs = 0;
+
+    AdaptiveBatchingController(
+            int latencyTargetMs,
+            int maxLingerMs,
+            int maxBatchSizeBytes,
+            int initialLingerMs,
+            int initialBatchSizeBytes,
+            long minAdjustmentIntervalMs
+    ) {
+        this.latencyTargetMs = latencyTargetMs;
+        this.minAdjustmentIntervalMs = minAdjustmentIntervalMs;
+        this.maxLingerMs = Math.max(maxLingerMs, minLingerMs);
+        this.lingerStepMs = Math.max(1, this.maxLingerMs / 10);
+        this.minBatchSizeBytes = Math.min(initialBatchSizeBytes, MIN_BATCH_SIZE_BYTES);
+        this.maxBatchSizeBytes = Math.max(maxBatchSizeBytes, minBatchSizeBytes);
+        this.lingerMs = clamp(initialLingerMs, minLingerMs, this.maxLingerMs);
+        this.batchSizeBytes = clamp(initialBatchSizeBytes, minBatchSizeBytes, this.maxBatchSizeBytes);
+    }
+
+    /**
+     * @param kafkaMetrics the current metrics of the backend producer
+     * @param nowMs        the current time
+     * @return true if the backend producer should now be moved to the current {@link #getLingerMs()} and
+     * {@link #getBatchSizeBytes()}.
+     */
+    synchronized boolean evaluate(Map<MetricName, ? extends Metric> kafkaMetrics, long nowMs) {
+        if (!pending)
+            pending = computeNextSetting(kafkaMetrics);
+
+        if (!pending || nowMs - lastAppliedMs < minAdjustmentIntervalMs || !isQuiet(kafkaMetrics))
+            return false;
+
+        markApplied(nowMs);
+        return true;
+    }
+
+    /**
+     * Records that a backend producer with the current {@link #getLingerMs()} and {@link #getBatchSizeBytes()} was
+     * created, so that any pending setting is applied.
+     *
+     * @param nowMs the current time
+     */
+    synchronized void markApplied(long nowMs) {
+        pending = false;
+        lastAppliedMs = nowMs;
+    }
+
+    synchronized int getLingerMs() {
+        return lingerMs;
+    }
+
+    synchronized int getBatchSizeBytes() {
+        return batchSizeBytes;
+    }
+
+    private boolean computeNextSetting(Map<MetricName, ? extends Metric> kafkaMetrics) {
+        double batchSizeAvg = getMetricValue(kafkaMetrics, BATCH_SIZE_AVG);
+        double latencyMs = getMetricValue(kafkaMetrics, RECORD_QUEUE_TIME_MAX) +
+                getMetricValue(kafkaMetrics, REQUEST_LATENCY_MAX);
+        // nothing to go by until the backend producer has sent batches
+        if (!isValid(batchSizeAvg) || !isValid(latencyMs))
+            return false;
+
+        int previousLingerMs = lingerMs;
+        int previousBatchSizeBytes = batchSizeBytes;
+        if (latencyMs > latencyTargetMs) {
+            if (lingerMs > minLingerMs)
+                lingerMs = Math.max(minLingerMs, lingerMs / 2);
+            else
+                batchSizeBytes = Math.max(minBatchSizeBytes, batchSizeBytes / 2);
+        } else if (latencyMs < latencyTargetMs * LATENCY_HEADROOM_RATIO) {
+            if (batchSizeAvg >= batchSizeBytes * FULL_BATCH_RATIO)
+                batchSizeBytes = (int) Math.min(maxBatchSizeBytes, 2L * batchSizeBytes);
+            else
+                lingerMs = Math.min(maxLingerMs, lingerMs + lingerStepMs);
+        }
+        return lingerMs != previousLingerMs || batchSizeBytes != previousBatchSizeBytes;
+    }
+
+    private static boolean isQuiet(Map<MetricName, ? extends Metric> kafkaMetrics) {
+        double availableBytes = getMetricValue(kafkaMetrics, BUFFER_AVAILABLE_BYTES);
+        double totalBytes = getMetricValue(kafkaMetrics, BUFFER_TOTAL_BYTES);
+        return isValid(availableBytes) && isValid(totalBytes) &&
+                totalBytes - availableBytes <= totalBytes * QUIET_BUFFER_USED_RATIO;
+    }
+
+    private static double getMetricValue(Map<MetricName, ? extends Metric> kafkaMetrics, String name) {
+        return KafkaMetricsHandler.getKafkaClientMetricValue(kafkaMetrics, PRODUCER_METRICS_GROUP, name);
+    }
+
+    private static boolean isValid(double value) {
+        return !Double.isNaN(value) && !Double.isInfinite(value) && value >= 0;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -1,6 +1,7 @@
 package com.pinterest.psc.producer.kafka;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
 import com.pinterest.psc.common.BaseTopicUri;
 import com.pinterest.psc.common.MessageId;
 import com.pinterest.psc.common.PscCommon;
@@ -9,6 +10,7 @@ import com.pinterest.psc.common.PscUtils;
 import com.pinterest.psc.common.ServiceDiscoveryConfig;
 import com.pinterest.psc.common.TopicUri;
 import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.common.WarmStandbyClient;
 import com.pinterest.psc.common.kafka.KafkaErrors;
 import com.pinterest.psc.common.kafka.KafkaMessageId;
 import com.pinterest.psc.common.kafka.KafkaSslUtils;
@@ -23,6 +25,8 @@ import com.pinterest.psc.exception.producer.ProducerException;
 import com.pinterest.psc.logging.PscLogger;
 import com.pinterest.psc.metrics.Metric;
 import com.pinterest.psc.metrics.MetricName;
+import com.pinterest.psc.metrics.PscEvent;
+import com.pinterest.psc.metrics.PscFlightRecorder;
 import com.pinterest.psc.metrics.PscMetricRegistryManager;
 import com.pinterest.psc.metrics.PscMetrics;
 import com.pinterest.psc.metrics.kafka.KafkaMetricsHandler;
@@ -42,12 +46,15 @@ import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
@@ -61,6 +68,7 @@ import java.util.stream.Collectors;
 
 public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
     private static final PscLogger logger = PscLogger.getLogger(PscKafkaProducer.class);
+    private static final PscLogger rateLimitedLogger = PscLogger.getRateLimitedLogger(PscKafkaProducer.class);
     //private static final PscLogger chargebackLogger = PscLogger.getLogger("chargeback.logger");
     final Map<KafkaProducer<byte[], byte[]>, Boolean> allProducers = new ConcurrentHashMap<>();
     final Map<KafkaProducer<byte[], byte[]>, Integer> references = new ConcurrentHashMap<>();
@@ -70,6 +78,14 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
     private String configuredPscProducerId;
     private Properties properties;
     private long sslCertificateExpiryTimeInMillis;
+    // the key of the shared backend producer in the JVM-wide pool; null if the backend producer is not shared
+    private String sharedKafkaProducerKey;
+    // the URIs of the backend topics this producer has written to, merged across the users of a shared backend producer
+    private final Map<String, TopicUri> topicUriByBackendTopic = new ConcurrentHashMap<>();
+    // the replacement of the backend producer, prepared ahead of a proactive SSL reset
+    private final WarmStandbyClient<KafkaProducer<byte[], byte[]>> standbyKafkaProducer = new WarmStandbyClient<>();
+    // tunes linger and batch size of the backend producer; null if adaptive batching is not enabled
+    private AdaptiveBatchingController adaptiveBatchingController;
     //private String project;
 
     @Override
@@ -91,6 +107,15 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
 
         maybeAdjustConfiguration();
         configuredPscProducerId = pscConfigurationInternal.getPscProducerClientId();
+        if (pscConfigurationInternal.isSharedBackendProducerEnabled() &&
+                !properties.containsKey(ProducerConfig.TRANSACTIONAL_ID_CONFIG)) {
+            // the configured client id is part of the key, so producers with different client ids do not share; the
+            // key is a fingerprint so that secrets in the configuration are not kept in or logged from the pool
+            sharedKafkaProducerKey = Hashing.sha256()
+                    .hashString(new TreeMap<>(properties).toString(), StandardCharsets.UTF_8)
+                    .toString();
+        }
+        maybeInitializeAdaptiveBatching(pscConfigurationInternal);
         kafkaProducer = getNewKafkaProducer();
 
         // if using secure protocol (SSL), calculate cert expiry time
@@ -107,16 +132,37 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
     }
 
     private KafkaProducer<byte[], byte[]> getNewKafkaProducer(boolean bumpRef) {
-        properties.setProperty(ProducerConfig.CLIENT_ID_CONFIG, configuredPscProducerId + "-" + UUID.randomUUID());
-        kafkaProducer = new KafkaProducer<>(properties);
+        if (sharedKafkaProducerKey == null)
+            kafkaProducer = createKafkaProducer();
+        else {
+            // the current shared producer (if any) is being replaced, so it should no longer be handed out
+            if (kafkaProducer != null)
+                SharedKafkaProducerPool.getInstance().invalidate(sharedKafkaProducerKey, kafkaProducer);
+            kafkaProducer = SharedKafkaProducerPool.getInstance().acquire(
+                    sharedKafkaProducerKey, this, this::createKafkaProducer
+            );
+        }
         updateStatus(kafkaProducer, true);
+        if (bumpRef)
+            references.merge(kafkaProducer, 1, Integer::sum);
+        return kafkaProducer;
+    }
+
+    private KafkaProducer<byte[], byte[]> createKafkaProducer() {
+        applyAdaptiveBatching();
+        properties.setProperty(ProducerConfig.CLIENT_ID_CONFIG, configuredPscProducerId + "-" + UUID.randomUUID());
+        KafkaProducer<byte[], byte[]> newKafkaProducer = new KafkaProducer<>(properties);
         PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
                 null,
                 PscMetrics.PSC_PRODUCER_BACKEND_COUNT, pscConfigurationInternal
         );
-        if (bumpRef)
-            references.merge(kafkaProducer, 1, Integer::sum);
-        return kafkaProducer;
+        return newKafkaProducer;
+    }
+
+    private void closeKafkaProducer(KafkaProducer<byte[], byte[]> kafkaProducerToClose, Duration duration) {
+        // a shared producer is closed only when the last lease on it is released
+        if (sharedKafkaProducerKey == null || SharedKafkaProducerPool.getInstance().release(kafkaProducerToClose, this))
+            kafkaProducerToClose.close(duration);
     }
 
     private KafkaProducer<byte[], byte[]> getProducer() throws InterruptedException {
@@ -137,6 +183,32 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
         }
     }
 
+    /**
+     * Closes the inactive Kafka producers that no longer have sends in flight.
+     *
+     * @return the number of active Kafka producers
+     */
+    private int closeDrainedKafkaProducers(TopicUri topicUri, int partition) {
+        int[] activeProducerCount = {0};
+        allProducers.forEach((key, value) -> {
+            if (!value) {
+                int referenceCount = references.getOrDefault(key, 0);
+                // only the caller that removes the producer closes it
+                if (referenceCount == 0 && allProducers.remove(key, false)) {
+                    references.remove(key);
+                    closeKafkaProducer(key, Duration.ofMillis(Long.MAX_VALUE));
+                    PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
+                            topicUri, partition, PscMetrics.PSC_PRODUCER_BACKEND_DECOMMISSIONED_COUNT, pscConfigurationInternal
+                    );
+                } else if (referenceCount < 0) {
+                    rateLimitedLogger.error("Reference is negative: {}", referenceCount);
+                }
+            } else
+                ++activeProducerCount[0];
+        });
+        return activeProducerCount[0];
+    }
+
     private void updateStatus(KafkaProducer<byte[], byte[]> kafkaProducer, boolean isActive) {
         updateOrGetStatus(kafkaProducer, isActive);
     }
@@ -162,8 +234,104 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
             return;
 
         Map<org.apache.kafka.common.MetricName, ? extends org.apache.kafka.common.Metric> kafkaMetrics = kafkaProducer.metrics();
-        KafkaMetricsHandler.handleKafkaClientMetrics(kafkaMetrics, backendTopicToTopicUri, true, pscConfigurationInternal);
+        // metrics of a shared producer are reported by one of its users only, for the topics of all its users
+        if (sharedKafkaProducerKey == null)
+            KafkaMetricsHandler.handleKafkaClientMetrics(kafkaMetrics, backendTopicToTopicUri, true, pscConfigurationInternal);
+        else if (SharedKafkaProducerPool.getInstance().isPrimaryHolder(kafkaProducer, this))
+            KafkaMetricsHandler.handleKafkaClientMetrics(kafkaMetrics, getSharedTopicUriByBackendTopic(), true, pscConfigurationInternal);
         KafkaUtils.convertKafkaMetricsToPscMetrics(kafkaMetrics, metricValueProvider);
+        maybeAdjustBatching(kafkaMetrics);
+    }
+
+    private Map<String, TopicUri> getSharedTopicUriByBackendTopic() {
+        Map<String, TopicUri> sharedTopicUriByBackendTopic = new HashMap<>();
+        for (Object holder : SharedKafkaProducerPool.getInstance().getHolders(kafkaProducer)) {
+            if (holder instanceof PscKafkaProducer)
+                sharedTopicUriByBackendTopic.putAll(((PscKafkaProducer<?, ?>) holder).topicUriByBackendTopic);
+        }
+        return sharedTopicUriByBackendTopic;
+    }
+
+    private void trackBackendTopic(TopicUri topicUri) {
+        backendTopicToTopicUri.put(topicUri.getTopic(), topicUri);
+        topicUriByBackendTopic.put(topicUri.getTopic(), topicUri);
+    }
+
+    private void maybeInitializeAdaptiveBatching(PscConfigurationInternal pscConfigurationInternal) {
+        if (!pscConfigurationInternal.isAdaptiveBatchingEnabled())
+            return;
+
+        // batching changes are applied by moving sends to a new backend producer, which relies on auto resolution
+        // and is not possible for shared or transactional backend producers
+        if (!pscConfigurationInternal.isAutoResolutionEnabled() || sharedKafkaProducerKey != null ||
+                properties.containsKey(ProducerConfig.TRANSACTIONAL_ID_CONFIG)) {
+            logger.warn("Adaptive batching is ignored as it requires auto resolution and a backend producer that is " +
+                    "neither shared nor transactional.");
+            return;
+        }
+
+        Map<String, Object> defaultValues = ProducerConfig.configDef().defaultValues();
+        adaptiveBatchingController = new AdaptiveBatchingController(
+                pscConfigurationInternal.getAdaptiveBatchingLatencyTargetMs(),
+                pscConfigurationInternal.getAdaptiveBatchingLingerMaxMs(),
+                pscConfigurationInternal.getAdaptiveBatchingBatchSizeMaxBytes(),
+                Integer.parseInt(properties.getProperty(
+                        ProducerConfig.LINGER_MS_CONFIG, defaultValues.get(ProducerConfig.LINGER_MS_CONFIG).toString())),
+                Integer.parseInt(properties.getProperty(
+                        ProducerConfig.BATCH_SIZE_CONFIG, defaultValues.get(ProducerConfig.BATCH_SIZE_CONFIG).toString())),
+                pscConfigurationInternal.getAdaptiveBatchingAdjustmentIntervalMinMs()
+        );
+    }
+
+    /**
+     * Moves the backend producer configuration to the current setting of adaptive batching, if enabled. This is done
+     * whenever a backend producer is created anyway, so pending adjustments are applied without a swap of their own.
+     */
+    private void applyAdaptiveBatching() {
+        if (adaptiveBatchingController == null)
+            return;
+
+        properties.setProperty(ProducerConfig.LINGER_MS_CONFIG, String.valueOf(adaptiveBatchingController.getLingerMs()));
+        properties.setProperty(ProducerConfig.BATCH_SIZE_CONFIG, String.valueOf(adaptiveBatchingController.getBatchSizeBytes()));
+        adaptiveBatchingController.markApplied(System.currentTimeMillis());
+    }
+
+    private void maybeAdjustBatching(Map<org.apache.kafka.common.MetricName, ? extends org.apache.kafka.common.Metric> kafkaMetrics) {
+        // a decommissioned backend producer is still draining; wait for the next one to report its own metrics
+        if (adaptiveBatchingController == null || !getStatus(kafkaProducer))
+            return;
+
+        if (adaptiveBatchingController.evaluate(kafkaMetrics, System.currentTimeMillis())) {
+            String previousLingerMs = properties.getProperty(ProducerConfig.LINGER_MS_CONFIG);
+            String previousBatchSize = properties.getProperty(ProducerConfig.BATCH_SIZE_CONFIG);
+            try {
+                mutex.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                // the next send creates a backend producer with the new settings; this one is closed once drained
+                updateStatus(kafkaProducer, false);
+            } finally {
+                mutex.release();
+            }
+            logger.info("Adjusted batching of the backend producer: {}: {} -> {}, {}: {} -> {}.",
+                    ProducerConfig.LINGER_MS_CONFIG, previousLingerMs, adaptiveBatchingController.getLingerMs(),
+                    ProducerConfig.BATCH_SIZE_CONFIG, previousBatchSize, adaptiveBatchingController.getBatchSizeBytes());
+            PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
+                    null, PscMetrics.PSC_PRODUCER_ADAPTIVE_BATCHING_ADJUSTMENT_COUNT, pscConfigurationInternal
+            );
+        }
+
+        PscMetricRegistryManager.getInstance().updateBackendHistogramMetric(
+                null, PscMetrics.PSC_PRODUCER_ADAPTIVE_BATCHING_LINGER_MS,
+                adaptiveBatchingController.getLingerMs(), pscConfigurationInternal
+        );
+        PscMetricRegistryManager.getInstance().updateBackendHistogramMetric(
+                null, PscMetrics.PSC_PRODUCER_ADAPTIVE_BATCHING_BATCH_SIZE_BYTES,
+                adaptiveBatchingController.getBatchSizeBytes(), pscConfigurationInternal
+        );
     }
 
     private void maybeAdjustConfiguration() {
@@ -231,7 +399,7 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
         maybeResetBackendClient(pscProducerMessage.getTopicUriPartition());
 
         KafkaTopicUri kafkaTopicUri = (KafkaTopicUri) pscProducerMessage.getTopicUriPartition().getTopicUri();
-        backendTopicToTopicUri.put(kafkaTopicUri.getTopic(), kafkaTopicUri);
+        trackBackendTopic(kafkaTopicUri);
 
         PscProducerMessage<byte[], byte[]> rawPscProducerMessage = producerInterceptors.onSend(pscProducerMessage);
         Headers headers = null;
@@ -272,31 +440,16 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
                 throw new ProducerException(e);
             }
 
-            int[] activeProducerCount = {0};
-            allProducers.forEach((key, value) -> {
-                if (!value) {
-                    if (references.get(key) == 0) {
-                        key.close();
-                        PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
-                                kafkaTopicUri,
-                                kafkaProducerRecord.partition() == null ? PscUtils.NO_PARTITION : kafkaProducerRecord.partition(),
-                                PscMetrics.PSC_PRODUCER_BACKEND_DECOMMISSIONED_COUNT, pscConfigurationInternal
-                        );
-                        allProducers.remove(key);
-                        references.remove(key);
-                    } else if (references.get(key) < 0) {
-                        logger.error("Reference is negative: " + references.get(key));
-                    }
-                } else
-                    ++activeProducerCount[0];
-            });
+            int activeProducerCount = closeDrainedKafkaProducers(
+                    kafkaTopicUri, kafkaProducerRecord.partition() == null ? PscUtils.NO_PARTITION : kafkaProducerRecord.partition()
+            );
 
-            if (activeProducerCount[0] > 1) {
+            if (activeProducerCount > 1) {
                 if (potentialLeak.compareAndSet(false, true))
-                    logger.info("Active producers bumped to " + activeProducerCount[0]);
+                    logger.info("Active producers bumped to " + activeProducerCount);
             } else {
                 if (potentialLeak.compareAndSet(true, false))
-                    logger.info("Active producers dropped to " + activeProducerCount[0]);
+                    logger.info("Active producers dropped to " + activeProducerCount);
             }
         } else {
             sendResultFuture = internalSendWithoutAutoResolution(
@@ -363,11 +516,10 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
     ) throws InterruptedException {
         final KafkaProducer<byte[], byte[]> producer = getProducer();
 
-        PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
+        sendMetricHandles.get(
                 kafkaTopicUri,
-                kafkaProducerRecord.partition() == null ? PscUtils.NO_PARTITION : kafkaProducerRecord.partition(),
-                PscMetrics.PSC_PRODUCER_BACKEND_SEND_ATTEMPT_COUNT, pscConfigurationInternal
-        );
+                kafkaProducerRecord.partition() == null ? PscUtils.NO_PARTITION : kafkaProducerRecord.partition()
+        ).sendAttempts.increment();
 
         kafkaFuture.compareAndSet(null,
                 producer.send(kafkaProducerRecord, new org.apache.kafka.clients.producer.Callback() {
@@ -382,6 +534,7 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
                                 exceptionToThrow[0] = null;
                                 futureReady[0] = true;
                                 // successful send
+                                recordBackendSuccess();
                                 if (retries[0] > 0) {
                                     retries[0] = 0;
                                     PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
@@ -444,7 +597,7 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
                             exceptionToThrow[0] = exception1.getClass();
                             if (callback != null)
                                 callback.onCompletion(getKafkaMessageId(kafkaTopicUri, recordMetadata), exception1);
-                            logger.error("Exception occurred in send callback: ", exception1);
+                            rateLimitedLogger.error("Exception occurred in send callback: ", exception1);
                             //totalExceptionsInCallbacks.incrementAndGet();
                             try {
                                 handleException(exception1, kafkaTopicUri, true);
@@ -471,6 +624,7 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
                     () -> kafkaProducer.send(kafkaProducerRecord, new org.apache.kafka.clients.producer.Callback() {
                         @Override
                         public void onCompletion(RecordMetadata recordMetadata, Exception e) {
+                            recordSendCompletion(e);
                             if (recordMetadata != null)
                                 processCallbackInternally(kafkaTopicUri, produceTimestamp, recordMetadata);
                         }
@@ -482,6 +636,7 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
                     () -> kafkaProducer.send(kafkaProducerRecord, new org.apache.kafka.clients.producer.Callback() {
                         @Override
                         public void onCompletion(RecordMetadata recordMetadata, Exception e) {
+                            recordSendCompletion(e);
                             if (recordMetadata == null) {
                                 callback.onCompletion(null, e == null ? null : new ProducerException(e));
                             } else {
@@ -532,9 +687,7 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
         if (kafkaProducer == null)
             handleUninitializedKafkaProducer("sendOffsetsToTransaction()");
 
-        offsetByTopicUriPartition.keySet().forEach(topicUriPartition ->
-                backendTopicToTopicUri.put(topicUriPartition.getTopicUri().getTopic(), topicUriPartition.getTopicUri())
-        );
+        offsetByTopicUriPartition.keySet().forEach(topicUriPartition -> trackBackendTopic(topicUriPartition.getTopicUri()));
 
         executeBackendCallWithRetries(
                 () -> kafkaProducer.sendOffsetsToTransaction(
@@ -550,6 +703,11 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
         );
     }
 
+    @Override
+    protected boolean isRetriableSendException(Exception exception) {
+        return exception instanceof org.apache.kafka.common.errors.RetriableException;
+    }
+
     /**
      * Updates backend histogram and counter metric and logs send message information for data transfer cost calculations
      * @param kafkaTopicUri the topicUri the message was sent to
@@ -557,17 +715,10 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
      * @param recordMetadata the metadata returned from the send call
      */
     private void processCallbackInternally(KafkaTopicUri kafkaTopicUri, long produceTimestamp, RecordMetadata recordMetadata) {
-        if (produceTimestamp != -1) {
-            PscMetricRegistryManager.getInstance().updateBackendHistogramMetric(
-                    kafkaTopicUri,
-                    recordMetadata.partition(),
-                    PscMetrics.PSC_PRODUCER_PRODUCE_TIME_MS_METRIC,
-                    System.currentTimeMillis() - produceTimestamp, pscConfigurationInternal
-            );
-        }
-        PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
-                kafkaTopicUri, recordMetadata.partition(), PscMetrics.PSC_PRODUCER_ACKED_MESSAGES_METRIC, pscConfigurationInternal
-        );
+        SendMetricHandles handles = sendMetricHandles.get(kafkaTopicUri, recordMetadata.partition());
+        if (produceTimestamp != -1)
+            handles.produceTimeMs.update(System.currentTimeMillis() - produceTimestamp);
+        handles.ackedMessages.increment();
         /*
         chargebackLogger.info("{\"type\": \"producer\", \"backend\": \"kafka\", \"locality\": \"{}\", " +
                         "\"hostname\": \"{}\", \"topicUri\": \"{}\", \"cluster\": \"{}\", \"topic\": \"{}\", " +
@@ -608,7 +759,13 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
     public void close(Duration duration) throws ProducerException {
         if (kafkaProducer == null)
             handleUninitializedKafkaProducer("close()");
-        executeBackendCallWithRetries(() -> kafkaProducer.close(duration));
+        standbyKafkaProducer.discard(KafkaProducer::close);
+        executeBackendCallWithRetries(() -> closeKafkaProducer(kafkaProducer, duration));
+        // retired producers whose in-flight sends had not completed yet by the last send
+        allProducers.forEach((retiredKafkaProducer, isActive) -> {
+            if (!isActive && retiredKafkaProducer != kafkaProducer && allProducers.remove(retiredKafkaProducer, false))
+                closeKafkaProducer(retiredKafkaProducer, duration);
+        });
         super.close(duration);
     }
 
@@ -803,6 +960,16 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
         return (short) PscCommon.getField(producerIdAndEpoch, "epoch");
     }
 
+    @VisibleForTesting
+    protected KafkaProducer<byte[], byte[]> getKafkaProducer() {
+        return kafkaProducer;
+    }
+
+    @VisibleForTesting
+    String getSharedKafkaProducerKey() {
+        return sharedKafkaProducerKey;
+    }
+
     @VisibleForTesting
     protected boolean isSslEnabled(TopicUriPartition topicUriPartition) {
         // check if topicUriPartition is using SSL
@@ -814,9 +981,15 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
         if (isSslEnabled(topicUriPartition) &&
                 (System.currentTimeMillis() >= sslCertificateExpiryTimeInMillis)) {
             if (KafkaSslUtils.keyStoresExist(properties)) {
-                logger.info("Resetting backend Kafka client due to cert expiry at " +
-                        sslCertificateExpiryTimeInMillis);
-                resetBackendClient();
+                if (isWarmStandbyResetPossible()) {
+                    // keep using the current Kafka producer until its replacement is ready
+                    if (!swapInStandbyKafkaProducerIfReady(topicUriPartition))
+                        return;
+                } else {
+                    logger.info("Resetting backend Kafka client due to cert expiry at " +
+                            sslCertificateExpiryTimeInMillis);
+                    resetBackendClient();
+                }
 
                 sslCertificateExpiryTimeInMillis = KafkaSslUtils.calculateSslCertExpiryTime(
                         properties, pscConfigurationInternal, Collections.singleton(topicUriPartition));
@@ -828,12 +1001,129 @@ public class PscKafkaProducer<K, V> extends PscBackendProducer<K, V> {
         }
     }
 
+    private boolean isWarmStandbyResetPossible() {
+        // shared producers are replaced through the pool, and a transactional id cannot be used by two producers at once
+        return pscConfigurationInternal.isProactiveSslResetWarmStandbyEnabled() &&
+                sharedKafkaProducerKey == null &&
+                !properties.containsKey(ProducerConfig.TRANSACTIONAL_ID_CONFIG);
+    }
+
+    /**
+     * Swaps in the standby Kafka producer if it is ready, or else starts preparing it if it is not being prepared yet.
+     *
+     * @param topicUriPartition the topic URI partition being sent to, whose metadata the standby producer fetches
+     * @return true if the Kafka producer was replaced
+     * @throws ProducerException if replacing the Kafka producer fails
+     */
+    private boolean swapInStandbyKafkaProducerIfReady(TopicUriPartition topicUriPartition) throws ProducerException {
+        KafkaProducer<byte[], byte[]> readyKafkaProducer;
+        try {
+            readyKafkaProducer = standbyKafkaProducer.takeIfReady();
+        } catch (ExecutionException e) {
+            logger.warn("Failed to prepare a standby Kafka producer; resetting the backend Kafka client instead.", e.getCause());
+            resetBackendClient();
+            return true;
+        }
+
+        if (readyKafkaProducer == null) {
+            if (!standbyKafkaProducer.isPending()) {
+                logger.info("Preparing a standby Kafka producer due to cert expiry at {}", sslCertificateExpiryTimeInMillis);
+                properties.setProperty(ProducerConfig.CLIENT_ID_CONFIG, configuredPscProducerId + "-" + UUID.randomUUID());
+                applyAdaptiveBatching();
+                Properties standbyProperties = new Properties();
+                standbyProperties.putAll(properties);
+                String topic = topicUriPartition.getTopicUri().getTopic();
+                standbyKafkaProducer.prepare(() -> createWarmKafkaProducer(standbyProperties, topic));
+            }
+            return false;
+        }
+
+        swapInKafkaProducer(readyKafkaProducer);
+        return true;
+    }
+
+    /**
+     * Creates a Kafka producer and warms it up by fetching the metadata of the given topic, which also connects it to the
+     * cluster (including the SSL handshake). This runs on a background thread and does not touch the current Kafka
+     * producer.
+     */
+    private static KafkaProducer<byte[], byte[]> createWarmKafkaProducer(Properties standbyProperties, String topic) {
+        KafkaProducer<byte[], byte[]> warmKafkaProducer = new KafkaProducer<>(standbyProperties);
+        try {
+            warmKafkaProducer.partitionsFor(topic);
+        } catch (Exception e) {
+            logger.warn("Standby Kafka producer could not be fully warmed up; it will be swapped in as is.", e);
+        }
+        return warmKafkaProducer;
+    }
+
+    /**
+     * Replaces the Kafka producer with the given one. The replaced producer is marked inactive, so that it is closed
+     * like any other retired producer once its in-flight sends complete (see
+     * {@link #closeDrainedKafkaProducers(TopicUri, int)}). Without auto resolution sends are not reference counted, so
+     * it is closed in the background instead, which lets its in-flight sends drain.
+     */
+    @VisibleForTesting
+    void swapInKafkaProducer(KafkaProducer<byte[], byte[]> readyKafkaProducer) throws ProducerException {
+        super.resetBackendClient();
+        PscEvent resetEvent = PscFlightRecorder.begin(PscFlightRecorder.Type.BACKEND_RESET);
+        try {
+            mutex.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            readyKafkaProducer.close(Duration.ZERO);
+            throw new ProducerException(e);
+        }
+        KafkaProducer<byte[], byte[]> previousKafkaProducer;
+        try {
+            previousKafkaProducer = kafkaProducer;
+            kafkaProducer = readyKafkaProducer;
+            updateStatus(readyKafkaProducer, true);
+            if (previousKafkaProducer != null) {
+                if (autoResolutionEnabled)
+                    updateStatus(previousKafkaProducer, false);
+                else {
+                    allProducers.remove(previousKafkaProducer);
+                    references.remove(previousKafkaProducer);
+                }
+            }
+        } finally {
+            mutex.release();
+        }
+        PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
+                null, PscMetrics.PSC_PRODUCER_BACKEND_COUNT, pscConfigurationInternal
+        );
+        if (previousKafkaProducer != null && !autoResolutionEnabled) {
+            WarmStandbyClient.closeInBackground(previousKafkaProducer, producer -> {
+                closeKafkaProducer(producer, Duration.ofMillis(Long.MAX_VALUE));
+                PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
+                        null, PscMetrics.PSC_PRODUCER_BACKEND_DECOMMISSIONED_COUNT, pscConfigurationInternal
+                );
+            });
+        }
+        logger.info("Swapped in the standby Kafka producer.");
+        resetEvent.backend(PscUtils.BACKEND_TYPE_KAFKA).detail("producer standby").commit();
+    }
+
     @Override
     protected void resetBackendClient() throws ProducerException {
         super.resetBackendClient();
         logger.warn("Resetting the backend Kafka producer (potentially to retry an API if an earlier call failed).");
-        executeBackendCallWithRetries(() -> kafkaProducer.close());
-        kafkaProducer = new KafkaProducer<>(properties);
+        PscEvent resetEvent = PscFlightRecorder.begin(PscFlightRecorder.Type.BACKEND_RESET);
+        if (sharedKafkaProducerKey == null) {
+            executeBackendCallWithRetries(() -> kafkaProducer.close());
+            applyAdaptiveBatching();
+            kafkaProducer = new KafkaProducer<>(properties);
+        } else {
+            KafkaProducer<byte[], byte[]> oldKafkaProducer = kafkaProducer;
+            SharedKafkaProducerPool.getInstance().invalidate(sharedKafkaProducerKey, oldKafkaProducer);
+            executeBackendCallWithRetries(() -> closeKafkaProducer(oldKafkaProducer, Duration.ofMillis(Long.MAX_VALUE)));
+            kafkaProducer = SharedKafkaProducerPool.getInstance().acquire(
+                    sharedKafkaProducerKey, this, this::createKafkaProducer
+            );
+            updateStatus(kafkaProducer, true);
+        }
+        resetEvent.backend(PscUtils.BACKEND_TYPE_KAFKA).detail("producer").commit();
     }
 
     private void handleException(Exception exception, boolean emitMetrics) throws ProducerException {
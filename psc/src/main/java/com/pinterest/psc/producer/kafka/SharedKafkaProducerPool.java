@@ -0,0 +1,109 @@
+package com.pinterest.psc.producer.kafka;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.pinterest.psc.logging.PscLogger;
+import org.apache.kafka.clients.producer.KafkaProducer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A JVM-wide pool of Kafka producers that are shared among {@link PscKafkaProducer} instances whose resolved backend
+ * producer configurations are identical. Each {@link PscKafkaProducer} holds a lease on the Kafka producer it uses,
+ * and the Kafka producer is closed only when its last lease is released.
+ */
+class SharedKafkaProducerPool {
+    private static final PscLogger logger = PscLogger.getLogger(SharedKafkaProducerPool.class);
+    private static final SharedKafkaProducerPool singletonSharedKafkaProducerPool = new SharedKafkaProducerPool();
+
+    // the Kafka producer that new leases of each configuration are given
+    private final Map<String, KafkaProducer<byte[], byte[]>> kafkaProducerByKey = new HashMap<>();
+    // the lease holders of each pooled Kafka producer, in the order of acquisition
+    private final Map<KafkaProducer<byte[], byte[]>, Set<Object>> holdersByKafkaProducer = new IdentityHashMap<>();
+
+    static SharedKafkaProducerPool getInstance() {
+        return singletonSharedKafkaProducerPool;
+    }
+
+    /**
+     * Leases the Kafka producer associated with the given configuration key to the given holder, and creates it if
+     * there is no such producer in the pool.
+     *
+     * @param key      the key representing the resolved backend producer configuration
+     * @param holder   the object that leases the Kafka producer
+     * @param supplier creates a new Kafka producer for the given configuration
+     * @return the Kafka producer leased to the holder
+     */
+    synchronized KafkaProducer<byte[], byte[]> acquire(String key, Object holder, Supplier<KafkaProducer<byte[], byte[]>> supplier) {
+        KafkaProducer<byte[], byte[]> kafkaProducer = kafkaProducerByKey.get(key);
+        if (kafkaProducer == null) {
+            kafkaProducer = supplier.get();
+            kafkaProducerByKey.put(key, kafkaProducer);
+            holdersByKafkaProducer.put(kafkaProducer, new LinkedHashSet<>());
+            logger.info("Created a new shared Kafka producer; {} shared Kafka producers are now pooled.", kafkaProducerByKey.size());
+        }
+        holdersByKafkaProducer.get(kafkaProducer).add(holder);
+        return kafkaProducer;
+    }
+
+    /**
+     * Releases the lease of the given holder on the given Kafka producer.
+     *
+     * @param kafkaProducer the leased Kafka producer
+     * @param holder        the object that leased the Kafka producer
+     * @return true if this was the last lease on the Kafka producer, in which case the caller is responsible for
+     * closing it; false otherwise.
+     */
+    synchronized boolean release(KafkaProducer<byte[], byte[]> kafkaProducer, Object holder) {
+        Set<Object> holders = holdersByKafkaProducer.get(kafkaProducer);
+        if (holders == null || !holders.remove(holder))
+            return false;
+        if (!holders.isEmpty())
+            return false;
+
+        holdersByKafkaProducer.remove(kafkaProducer);
+        kafkaProducerByKey.values().remove(kafkaProducer);
+        return true;
+    }
+
+    /**
+     * Stops handing out the given Kafka producer for new leases of the given configuration key, for example when
+     * the producer needs to be reset. Existing leases are not affected.
+     *
+     * @param key           the key representing the resolved backend producer configuration
+     * @param kafkaProducer the Kafka producer to stop handing out
+     */
+    synchronized void invalidate(String key, KafkaProducer<byte[], byte[]> kafkaProducer) {
+        kafkaProducerByKey.remove(key, kafkaProducer);
+    }
+
+    /**
+     * @return true if the given holder is the earliest current lease holder of the given Kafka producer; this is used
+     * to report the metrics of a shared Kafka producer only once.
+     */
+    synchronized boolean isPrimaryHolder(KafkaProducer<byte[], byte[]> kafkaProducer, Object holder) {
+        Set<Object> holders = holdersByKafkaProducer.get(kafkaProducer);
+        return holders != null && !holders.isEmpty() && holders.iterator().next() == holder;
+    }
+
+    /**
+     * @return the current lease holders of the given Kafka producer, in the order of acquisition
+     */
+    synchronized List<Object> getHolders(KafkaProducer<byte[], byte[]> kafkaProducer) {
+        Set<Object> holders = holdersByKafkaProducer.get(kafkaProducer);
+        return holders == null ? Collections.emptyList() : new ArrayList<>(holders);
+    }
+
+    @VisibleForTesting
+    synchronized int getLeaseCount(KafkaProducer<byte[], byte[]> kafkaProducer) {
+        Set<Object> holders = holdersByKafkaProducer.get(kafkaProducer);
+        return holders == null ? 0 : holders.size();
+    }
+}
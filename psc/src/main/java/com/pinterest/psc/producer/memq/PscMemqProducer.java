@@ -0,0 +1,428 @@
+package com.pinterest.psc.producer.memq;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.pinterest.memq.client.commons.serde.ByteArraySerializer;
+import com.pinterest.memq.client.producer.MemqWriteResult;
+import com.pinterest.memq.client.producer2.MemqProducer;
+import com.pinterest.psc.common.BaseTopicUri;
+import com.pinterest.psc.common.MessageId;
+import com.pinterest.psc.common.PscCommon;
+import com.pinterest.psc.common.PscMessage;
+import com.pinterest.psc.common.PscUtils;
+import com.pinterest.psc.common.ServiceDiscoveryConfig;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.config.PscProducerToMemqProducerConfigConverter;
+import com.pinterest.psc.consumer.memq.MemqMessageId;
+import com.pinterest.psc.consumer.memq.MemqMetricsHandler;
+import com.pinterest.psc.consumer.memq.MemqTopicUri;
+import com.pinterest.psc.environment.Environment;
+import com.pinterest.psc.exception.producer.ProducerException;
+import com.pinterest.psc.logging.PscLogger;
+import com.pinterest.psc.metrics.Metric;
+import com.pinterest.psc.metrics.MetricName;
+import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetrics;
+import com.pinterest.psc.producer.Callback;
+import com.pinterest.psc.producer.PscBackendProducer;
+import com.pinterest.psc.producer.PscProducerMessage;
+import com.pinterest.psc.producer.PscProducerTransactionalProperties;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The MemQ backend producer. MemQ producers are bound to a single topic, so one MemQ producer is created (lazily) for
+ * each topic of the cluster this backend producer is associated with. MemQ brokers decide where a batch of messages is
+ * stored, so partitions in producer messages are ignored, and acked messages do not carry an offset.
+ */
+public class PscMemqProducer<K, V> extends PscBackendProducer<K, V> {
+    private static final PscLogger logger = PscLogger.getLogger(PscMemqProducer.class);
+
+    // MemQ is meant for high-volume writes that are persisted in large batches, so favor batching over latency
+    private static final int DEFAULT_LINGER_MS = 100;
+    private static final int DEFAULT_MAX_PAYLOAD_BYTES = 2 * 1024 * 1024;
+    private static final int DEFAULT_MAX_INFLIGHT_REQUESTS = 30;
+    private static final int DEFAULT_SEND_REQUEST_TIMEOUT_MS = 60000;
+    // how often writes whose futures cannot notify on completion are checked
+    private static final long COMPLETION_CHECK_INTERVAL_MS = 5;
+
+    @VisibleForTesting
+    protected final Map<String, MemqProducer<byte[], byte[]>> memqProducerByTopic = new ConcurrentHashMap<>();
+    private final Map<String, MetricRegistry> metricRegistryByTopic = new ConcurrentHashMap<>();
+    private final Set<PendingWrite> pendingWrites = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean completionCheckScheduled = new AtomicBoolean(false);
+    private ScheduledExecutorService completionExecutor;
+    private ServiceDiscoveryConfig discoveryConfig;
+    private Properties properties;
+    private TopicUri topicUri;
+
+    public PscMemqProducer() {
+    }
+
+    @Override
+    public void initialize(PscConfigurationInternal pscConfigurationInternal, ServiceDiscoveryConfig discoveryConfig, Environment environment, TopicUri topicUri) {
+        this.topicUri = topicUri;
+        this.discoveryConfig = discoveryConfig;
+        properties = new PscProducerToMemqProducerConfigConverter().convert(pscConfigurationInternal, topicUri);
+        completionExecutor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("psc-memq-producer-completion-thread-%d").build()
+        );
+        super.initialize(pscConfigurationInternal, discoveryConfig, environment, topicUri);
+    }
+
+    /**
+     * Creates the MemQ producer of the given topic. This can be overridden to write to a stand-in for MemQ storage.
+     *
+     * @param topic the MemQ topic
+     * @param metricRegistry the registry the MemQ producer should report its metrics to
+     * @return a new MemQ producer of the given topic
+     * @throws Exception if the MemQ producer cannot be created
+     */
+    @VisibleForTesting
+    protected MemqProducer<byte[], byte[]> createMemqProducer(String topic, MetricRegistry metricRegistry) throws Exception {
+        return new MemqProducer.Builder<byte[], byte[]>()
+                .cluster(topicUri.getCluster())
+                .topic(topic)
+                .bootstrapServers(discoveryConfig.getConnect())
+                .keySerializer(new ByteArraySerializer())
+                .valueSerializer(new ByteArraySerializer())
+                .lingerMs(getIntProperty(PscProducerToMemqProducerConfigConverter.MEMQ_PRODUCER_LINGER_MS, DEFAULT_LINGER_MS))
+                .maxPayloadBytes(getIntProperty(PscProducerToMemqProducerConfigConverter.MEMQ_PRODUCER_MAX_PAYLOAD_BYTES, DEFAULT_MAX_PAYLOAD_BYTES))
+                .maxInflightRequests(getIntProperty(PscProducerToMemqProducerConfigConverter.MEMQ_PRODUCER_MAX_INFLIGHT_REQUESTS, DEFAULT_MAX_INFLIGHT_REQUESTS))
+                .sendRequestTimeout(DEFAULT_SEND_REQUEST_TIMEOUT_MS)
+                .metricRegistry(metricRegistry)
+                .build();
+    }
+
+    private int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private MemqProducer<byte[], byte[]> getMemqProducer(String topic) throws ProducerException {
+        MemqProducer<byte[], byte[]> memqProducer = memqProducerByTopic.get(topic);
+        if (memqProducer != null)
+            return memqProducer;
+
+        synchronized (memqProducerByTopic) {
+            memqProducer = memqProducerByTopic.get(topic);
+            if (memqProducer == null) {
+                MetricRegistry metricRegistry = new MetricRegistry();
+                try {
+                    memqProducer = createMemqProducer(topic, metricRegistry);
+                } catch (Exception e) {
+                    throw new ProducerException("[Memq] Could not instantiate a Memq producer instance for topic " + topic, e);
+                }
+                metricRegistryByTopic.put(topic, metricRegistry);
+                memqProducerByTopic.put(topic, memqProducer);
+                PscMetricRegistryManager.getInstance().incrementBackendCounterMetric(
+                        null,
+                        PscMetrics.PSC_PRODUCER_BACKEND_COUNT, pscConfigurationInternal
+                );
+            }
+            return memqProducer;
+        }
+    }
+
+    @Override
+    protected synchronized void reportProducerMetrics() {
+        metricRegistryByTopic.forEach((topic, metricRegistry) -> MemqMetricsHandler.handleMemqProducerMetrics(
+                metricRegistry, topic, backendTopicToTopicUri, pscConfigurationInternal
+        ));
+    }
+
+    @Override
+    public Set<TopicUriPartition> getPartitions(TopicUri topicUri) throws ProducerException {
+        if (properties == null)
+            throw new ProducerException("[Memq] Producer is not initialized prior to call to getPartitions().");
+
+        // MemQ topics are not partitioned from the producer's point of view
+        getMemqProducer(topicUri.getTopic());
+        TopicUriPartition topicUriPartition = new TopicUriPartition(topicUri.getTopicUriAsString(), PscUtils.NO_PARTITION);
+        BaseTopicUri.finalizeTopicUriPartition(topicUriPartition, topicUri);
+        return Collections.singleton(topicUriPartition);
+    }
+
+    @Override
+    public Future<MessageId> send(PscProducerMessage<K, V> pscProducerMessage, Callback callback) throws ProducerException {
+        if (properties == null)
+            throw new ProducerException("[Memq] Producer is not initialized prior to call to send().");
+
+        TopicUri memqTopicUri = pscProducerMessage.getTopicUriPartition().getTopicUri();
+        if (!(memqTopicUri instanceof MemqTopicUri))
+            throw new ProducerException("[Memq] " + memqTopicUri + " is not a valid Memq URI");
+        backendTopicToTopicUri.put(memqTopicUri.getTopic(), memqTopicUri);
+
+        PscProducerMessage<byte[], byte[]> rawPscProducerMessage = producerInterceptors.onSend(pscProducerMessage);
+        long produceTimestamp =
+                rawPscProducerMessage.getHeaders() != null &&
+                        rawPscProducerMessage.getHeaders().containsKey(PscMessage.PSC_MESSAGE_HEADER_PSC_PRODUCE_TIMESTAMP) ?
+                        PscCommon.byteArrayToLong(rawPscProducerMessage.getHeader(PscMessage.PSC_MESSAGE_HEADER_PSC_PRODUCE_TIMESTAMP)) :
+                        -1;
+
+        MemqProducer<byte[], byte[]> memqProducer = getMemqProducer(memqTopicUri.getTopic());
+        sendMetricHandles.get(memqTopicUri, PscUtils.NO_PARTITION).sendAttempts.increment();
+
+        Future<MemqWriteResult> writeResultFuture;
+        try {
+            writeResultFuture = memqProducer.write(
+                    rawPscProducerMessage.getHeaders(),
+                    rawPscProducerMessage.getKey(),
+                    rawPscProducerMessage.getValue(),
+                    rawPscProducerMessage.getPublishTimestamp()
+            );
+        } catch (Exception exception) {
+            throw new ProducerException("[Memq] Exception occurred sending a message to " + memqTopicUri, exception);
+        }
+
+        PendingWrite pendingWrite = new PendingWrite(
+                writeResultFuture, getMemqMessageId(memqTopicUri, rawPscProducerMessage), memqTopicUri, produceTimestamp, callback
+        );
+        pendingWrites.add(pendingWrite);
+        // MemQ completes writes of a whole batch at once; completions are handled as they happen rather than in order,
+        // so that a slow batch does not hold up callbacks of later ones
+        if (writeResultFuture instanceof CompletableFuture)
+            ((CompletableFuture<MemqWriteResult>) writeResultFuture).whenComplete((result, throwable) -> pendingWrite.completeWrite());
+        else if (completionCheckScheduled.compareAndSet(false, true)) {
+            completionExecutor.scheduleWithFixedDelay(
+                    this::completeDoneWrites, COMPLETION_CHECK_INTERVAL_MS, COMPLETION_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS
+            );
+        }
+        // the write may have completed before it was tracked
+        if (writeResultFuture.isDone())
+            pendingWrite.completeWrite();
+
+        return pendingWrite.messageIdFuture;
+    }
+
+    private void completeDoneWrites() {
+        for (PendingWrite pendingWrite : pendingWrites) {
+            if (pendingWrite.writeResultFuture.isDone())
+                pendingWrite.completeWrite();
+        }
+    }
+
+    /**
+     * A write that is not acked yet. It is completed exactly once: when the MemQ write completes, or when it is
+     * interrupted by a wakeup or a close.
+     */
+    private class PendingWrite {
+        private final Future<MemqWriteResult> writeResultFuture;
+        private final CompletableFuture<MessageId> messageIdFuture = new CompletableFuture<>();
+        private final MessageId messageId;
+        private final TopicUri memqTopicUri;
+        private final long produceTimestamp;
+        private final Callback callback;
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+
+        private PendingWrite(Future<MemqWriteResult> writeResultFuture, MessageId messageId, TopicUri memqTopicUri, long produceTimestamp, Callback callback) {
+            this.writeResultFuture = writeResultFuture;
+            this.messageId = messageId;
+            this.memqTopicUri = memqTopicUri;
+            this.produceTimestamp = produceTimestamp;
+            this.callback = callback;
+        }
+
+        // must only be called once the MemQ write is done, so that it does not block
+        private void completeWrite() {
+            Exception exception = null;
+            try {
+                writeResultFuture.get();
+            } catch (ExecutionException e) {
+                exception = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            } catch (CancellationException e) {
+                exception = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exception = e;
+            }
+            complete(exception);
+        }
+
+        private void complete(Exception exception) {
+            if (!completed.compareAndSet(false, true))
+                return;
+
+            pendingWrites.remove(this);
+            if (exception == null)
+                processCallbackInternally(memqTopicUri, produceTimestamp);
+
+            // as with Kafka, callbacks run before the returned future is completed
+            try {
+                if (callback != null)
+                    callback.onCompletion(messageId, exception);
+            } finally {
+                if (exception == null)
+                    messageIdFuture.complete(messageId);
+                else
+                    messageIdFuture.completeExceptionally(exception);
+            }
+        }
+
+        private void interrupt(Exception exception) {
+            // completed first, so that the completion triggered by the cancellation does not report it instead
+            complete(exception);
+            writeResultFuture.cancel(true);
+        }
+    }
+
+    private MessageId getMemqMessageId(TopicUri memqTopicUri, PscProducerMessage<byte[], byte[]> rawPscProducerMessage) {
+        TopicUriPartition topicUriPartition = new TopicUriPartition(memqTopicUri.getTopicUriAsString(), PscUtils.NO_PARTITION);
+        BaseTopicUri.finalizeTopicUriPartition(topicUriPartition, memqTopicUri);
+        return new MemqMessageId(
+                topicUriPartition,
+                -1,
+                rawPscProducerMessage.getPublishTimestamp(),
+                rawPscProducerMessage.getKey() == null ? -1 : rawPscProducerMessage.getKey().length,
+                rawPscProducerMessage.getValue() == null ? -1 : rawPscProducerMessage.getValue().length
+        );
+    }
+
+    private void processCallbackInternally(TopicUri memqTopicUri, long produceTimestamp) {
+        SendMetricHandles handles = sendMetricHandles.get(memqTopicUri, PscUtils.NO_PARTITION);
+        if (produceTimestamp != -1)
+            handles.produceTimeMs.update(System.currentTimeMillis() - produceTimestamp);
+        handles.ackedMessages.increment();
+    }
+
+    @Override
+    public void sendOffsetsToTransaction(Map<TopicUriPartition, Long> offsetByTopicUriPartition, String consumerGroupId) throws ProducerException {
+        throw new ProducerException("[Memq] Producer sendOffsetsToTransaction() is not supported.");
+    }
+
+    @Override
+    public void flush() throws ProducerException {
+        if (properties == null)
+            throw new ProducerException("[Memq] Producer is not initialized prior to call to flush().");
+
+        try {
+            for (MemqProducer<byte[], byte[]> memqProducer : memqProducerByTopic.values())
+                memqProducer.flush();
+        } catch (Exception exception) {
+            throw new ProducerException("[Memq] Exception occurred flushing the producer.", exception);
+        }
+    }
+
+    @Override
+    public void close() throws ProducerException {
+        close(Duration.ofMillis(Long.MAX_VALUE));
+    }
+
+    @Override
+    public void close(Duration duration) throws ProducerException {
+        if (properties == null)
+            throw new ProducerException("[Memq] Producer is not initialized prior to call to close().");
+
+        Exception closeException = null;
+        synchronized (memqProducerByTopic) {
+            for (MemqProducer<byte[], byte[]> memqProducer : memqProducerByTopic.values()) {
+                try {
+                    memqProducer.close();
+                } catch (Exception exception) {
+                    logger.warn("[Memq] Exception occurred closing a Memq producer.", exception);
+                    closeException = exception;
+                }
+            }
+            memqProducerByTopic.clear();
+            metricRegistryByTopic.clear();
+        }
+
+        // let pending completions (callbacks) run before returning, and fail the writes that were not acked in time
+        long nowMs = System.currentTimeMillis();
+        long deadlineMs = duration.toMillis() > Long.MAX_VALUE - nowMs ? Long.MAX_VALUE : nowMs + duration.toMillis();
+        try {
+            while (!pendingWrites.isEmpty() && System.currentTimeMillis() < deadlineMs) {
+                completeDoneWrites();
+                Thread.sleep(COMPLETION_CHECK_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (PendingWrite pendingWrite : pendingWrites)
+            pendingWrite.interrupt(new ProducerException("[Memq] Producer was closed before the write was acked."));
+        completionExecutor.shutdownNow();
+        super.close(duration);
+
+        if (closeException != null)
+            throw new ProducerException("[Memq] Exception occurred closing the producer.", closeException);
+    }
+
+    @Override
+    public PscConfiguration getConfiguration() {
+        PscConfiguration pscConfiguration = new PscConfiguration();
+        properties.forEach((key, value) -> pscConfiguration.setProperty(
+                key.toString(),
+                value.toString()
+        ));
+        return pscConfiguration;
+    }
+
+    @Override
+    public void abortTransaction() throws ProducerException {
+        throw new ProducerException("[Memq] Producer abortTransaction() is not supported.");
+    }
+
+    @Override
+    public void beginTransaction() throws ProducerException {
+        throw new ProducerException("[Memq] Producer beginTransaction() is not supported.");
+    }
+
+    @Override
+    public void commitTransaction() throws ProducerException {
+        throw new ProducerException("[Memq] Producer commitTransaction() is not supported.");
+    }
+
+    @Override
+    public void initTransaction() throws ProducerException {
+        throw new ProducerException("[Memq] Producer initTransaction() is not supported.");
+    }
+
+    @Override
+    public void resumeTransaction(PscBackendProducer otherBackendProducer) throws ProducerException {
+        throw new ProducerException("[Memq] Producer resumeTransaction() is not supported.");
+    }
+
+    @Override
+    public void resumeTransaction(PscProducerTransactionalProperties pscProducerTransactionalProperties) throws ProducerException {
+        throw new ProducerException("[Memq] Producer resumeTransaction() is not supported.");
+    }
+
+    @Override
+    public PscProducerTransactionalProperties getTransactionalProperties() throws ProducerException {
+        throw new ProducerException("[Memq] Producer getTransactionalProperties() is not supported.");
+    }
+
+    @Override
+    public Object getTransactionManager() throws ProducerException {
+        throw new ProducerException("[Memq] Producer getTransactionManager() is not supported.");
+    }
+
+    @Override
+    public void wakeup() throws ProducerException {
+        // unblock callers waiting on pending writes; the writes are failed rather than left to complete later
+        for (PendingWrite pendingWrite : pendingWrites)
+            pendingWrite.interrupt(new ProducerException("[Memq] Write was interrupted by wakeup()."));
+    }
+
+    @Override
+    public Map<MetricName, ? extends Metric> metrics() throws ProducerException {
+        return metricValueProvider.getMetrics();
+    }
+}
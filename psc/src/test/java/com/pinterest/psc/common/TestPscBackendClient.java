@@ -0,0 +1,81 @@
+package com.pinterest.psc.common;
+
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.metrics.Metric;
+import com.pinterest.psc.metrics.MetricName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPscBackendClient {
+
+    private static class BackendClient extends PscBackendClient<byte[], byte[]> {
+        @Override
+        public PscConfiguration getConfiguration() {
+            return null;
+        }
+
+        @Override
+        public Map<MetricName, ? extends Metric> metrics() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    void testBackoffIsJittered() {
+        BackendClient backendClient = new BackendClient();
+        long startMs = System.currentTimeMillis();
+        assertEquals(1, backendClient.backoff(0));
+        long backoffMs = System.currentTimeMillis() - startMs;
+        // 2^1 * 200ms, of which at least half is waited
+        assertTrue(backoffMs >= 200 && backoffMs < 1000, "Unexpected backoff of " + backoffMs + "ms");
+    }
+
+    @Test
+    void testBackoffDoesNotGoPastRetryDeadline() {
+        BackendClient backendClient = new BackendClient();
+        backendClient.setRetryDeadline(System.currentTimeMillis() + 100);
+        long startMs = System.currentTimeMillis();
+        // 2^4 * 200ms would be at least 1600ms
+        assertEquals(4, backendClient.backoff(3));
+        assertTrue(System.currentTimeMillis() - startMs < 1000);
+
+        // once the deadline has passed no more retries are made
+        assertEquals(backendClient.autoResolutionRetryCount + 1, backendClient.backoff(4));
+        backendClient.clearRetryDeadline();
+        assertEquals(2, backendClient.backoff(1));
+    }
+
+    @Test
+    void testBackoffIsInterrupted() throws Exception {
+        BackendClient backendClient = new BackendClient();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            executor.schedule(backendClient::interruptBackoff, 200, TimeUnit.MILLISECONDS);
+            long startMs = System.currentTimeMillis();
+            // 2^5 * 200ms would be at least 3200ms; the call is still retried after the interruption
+            assertEquals(5, backendClient.backoff(4));
+            assertTrue(System.currentTimeMillis() - startMs < 2000);
+
+            // an interruption outside of a backoff does not cut a later backoff short
+            backendClient.interruptBackoff();
+            startMs = System.currentTimeMillis();
+            // 2^2 * 200ms, of which at least half is waited
+            assertEquals(3, backendClient.backoff(2));
+            assertTrue(System.currentTimeMillis() - startMs >= 400);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.pinterest.psc.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestWarmStandbyClient {
+
+    private static String awaitReady(WarmStandbyClient<String> warmStandbyClient) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String client;
+        while ((client = warmStandbyClient.takeIfReady()) == null && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        return client;
+    }
+
+    @Test
+    void testStandbyClientIsTakenOnceReady() throws Exception {
+        WarmStandbyClient<String> warmStandbyClient = new WarmStandbyClient<>();
+        assertFalse(warmStandbyClient.isPending());
+        assertNull(warmStandbyClient.takeIfReady());
+
+        CountDownLatch warmedUp = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        warmStandbyClient.prepare(() -> {
+            warmedUp.await();
+            return "client-" + created.incrementAndGet();
+        });
+        // a standby client is only prepared once at a time
+        warmStandbyClient.prepare(() -> "client-" + created.incrementAndGet());
+        assertTrue(warmStandbyClient.isPending());
+        assertNull(warmStandbyClient.takeIfReady());
+
+        warmedUp.countDown();
+        assertEquals("client-1", awaitReady(warmStandbyClient));
+        assertFalse(warmStandbyClient.isPending());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void testFailureToPrepareIsSurfaced() throws Exception {
+        WarmStandbyClient<String> warmStandbyClient = new WarmStandbyClient<>();
+        warmStandbyClient.prepare(() -> {
+            throw new IllegalStateException("cannot connect");
+        });
+        long deadline = System.currentTimeMillis() + 5_000;
+        ExecutionException executionException = null;
+        while (executionException == null && System.currentTimeMillis() < deadline) {
+            try {
+                warmStandbyClient.takeIfReady();
+                Thread.sleep(10);
+            } catch (ExecutionException e) {
+                executionException = e;
+            }
+        }
+        assertTrue(executionException != null && executionException.getCause() instanceof IllegalStateException);
+        assertFalse(warmStandbyClient.isPending());
+
+        // a new standby client can be prepared after a failure
+        warmStandbyClient.prepare(() -> "client");
+        assertEquals("client", awaitReady(warmStandbyClient));
+    }
+
+    @Test
+    void testDiscardedStandbyClientIsClosed() throws Exception {
+        WarmStandbyClient<String> warmStandbyClient = new WarmStandbyClient<>();
+        CountDownLatch closed = new CountDownLatch(1);
+        warmStandbyClient.prepare(() -> "client");
+        warmStandbyClient.discard(client -> {
+            if (client.equals("client"))
+                closed.countDown();
+        });
+        assertFalse(warmStandbyClient.isPending());
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch replacedClosed = new CountDownLatch(1);
+        WarmStandbyClient.closeInBackground("replaced", client -> replacedClosed.countDown());
+        assertTrue(replacedClosed.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,144 @@
+package com.pinterest.psc.config;
+
+import com.pinterest.psc.exception.producer.ProducerException;
+import com.pinterest.psc.producer.Callback;
+import com.pinterest.psc.producer.PscProducer;
+import com.pinterest.psc.producer.PscProducerMessage;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TestPscConfigurationReporter {
+    private static final String CONFIG_TOPIC_URI = "plaintext:/rn:kafka:env:cloud_region::cluster:psc_config";
+
+    private static class MockProducerReporter extends PscConfigurationReporter {
+        private final List<PscProducer<String, String>> producers = new ArrayList<>();
+        private final List<PscConfiguration> producerConfigurations = new ArrayList<>();
+
+        MockProducerReporter() {
+            // reports are only sent when flushed by the test
+            super(Long.MAX_VALUE / 2, Long.MAX_VALUE / 2);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected PscProducer<String, String> createProducer(PscConfiguration producerConfiguration) {
+            PscProducer<String, String> pscProducer = mock(PscProducer.class);
+            producers.add(pscProducer);
+            producerConfigurations.add(producerConfiguration);
+            return pscProducer;
+        }
+    }
+
+    private static PscConfiguration clientConfiguration(String clientId) {
+        PscConfiguration pscConfiguration = new PscConfiguration();
+        pscConfiguration.setProperty(PscConfiguration.PSC_CONSUMER_CLIENT_ID, clientId);
+        pscConfiguration.setProperty(PscConfiguration.PSC_DISCOVERY_FALLBACK_FILE, "/tmp/discovery.json");
+        return pscConfiguration;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReportsAreBatchedOnSharedProducer() throws Exception {
+        MockProducerReporter reporter = new MockProducerReporter();
+        reporter.report(CONFIG_TOPIC_URI, clientConfiguration("client-1"));
+        reporter.report(CONFIG_TOPIC_URI, clientConfiguration("client-2"));
+        assertTrue(reporter.producers.isEmpty());
+
+        reporter.flush();
+        assertEquals(1, reporter.producers.size());
+        assertEquals("/tmp/discovery.json",
+                reporter.producerConfigurations.get(0).getString(PscConfiguration.PSC_DISCOVERY_FALLBACK_FILE));
+        ArgumentCaptor<PscProducerMessage<String, String>> messageCaptor = ArgumentCaptor.forClass(PscProducerMessage.class);
+        verify(reporter.producers.get(0), times(2)).send(messageCaptor.capture(), any());
+        verify(reporter.producers.get(0), times(1)).flush();
+        assertEquals(CONFIG_TOPIC_URI, messageCaptor.getAllValues().get(0).getTopicUriAsString());
+        assertTrue(messageCaptor.getAllValues().get(0).getValue().contains("\"psc.consumer.client.id\":\"client-1\""));
+        assertTrue(messageCaptor.getAllValues().get(0).getValue().contains("\"host\":"));
+        assertTrue(messageCaptor.getAllValues().get(1).getValue().contains("\"psc.consumer.client.id\":\"client-2\""));
+
+        // the producer is reused by later batches until it is closed
+        reporter.report(CONFIG_TOPIC_URI, clientConfiguration("client-3"));
+        reporter.flush();
+        assertEquals(1, reporter.producers.size());
+        verify(reporter.producers.get(0), times(3)).send(any(), any());
+
+        reporter.closeProducers();
+        verify(reporter.producers.get(0), times(1)).close();
+        reporter.report(CONFIG_TOPIC_URI, clientConfiguration("client-4"));
+        reporter.flush();
+        assertEquals(2, reporter.producers.size());
+    }
+
+    @Test
+    void testIdenticalConfigurationsAreReportedOnce() throws Exception {
+        MockProducerReporter reporter = new MockProducerReporter();
+        reporter.report(CONFIG_TOPIC_URI, clientConfiguration("client"));
+        reporter.report(CONFIG_TOPIC_URI, clientConfiguration("client"));
+        reporter.flush();
+        reporter.report(CONFIG_TOPIC_URI, clientConfiguration("client"));
+        reporter.flush();
+        assertEquals(1, reporter.producers.size());
+        verify(reporter.producers.get(0), times(1)).send(any(), any());
+    }
+
+    @Test
+    void testFailedReportIsSentAgain() throws Exception {
+        MockProducerReporter reporter = new MockProducerReporter();
+        reporter.report(CONFIG_TOPIC_URI, clientConfiguration("client"));
+        reporter.flush();
+        PscProducer<String, String> pscProducer = reporter.producers.get(0);
+        ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        verify(pscProducer, times(1)).send(any(), callbackCaptor.capture());
+
+        // not queued again while the emission is in flight
+        reporter.report(CONFIG_TOPIC_URI, clientConfiguration("client"));
+        reporter.flush();
+        verify(pscProducer, times(1)).send(any(), any());
+
+        callbackCaptor.getValue().onCompletion(null, new ProducerException("failed"));
+        reporter.report(CONFIG_TOPIC_URI, clientConfiguration("client"));
+        reporter.flush();
+        verify(pscProducer, times(2)).send(any(), callbackCaptor.capture());
+
+        // only skipped once it was sent successfully
+        callbackCaptor.getValue().onCompletion(null, null);
+        reporter.report(CONFIG_TOPIC_URI, clientConfiguration("client"));
+        reporter.flush();
+        verify(pscProducer, times(2)).send(any(), any());
+    }
+
+    @Test
+    void testPendingReportsAreSentOnShutdown() throws Exception {
+        MockProducerReporter reporter = new MockProducerReporter();
+        reporter.report(CONFIG_TOPIC_URI, clientConfiguration("client"));
+        assertTrue(reporter.producers.isEmpty());
+
+        reporter.flushAndCloseProducers(5000);
+        assertEquals(1, reporter.producers.size());
+        verify(reporter.producers.get(0), times(1)).send(any(), any());
+        verify(reporter.producers.get(0), times(1)).flush();
+        verify(reporter.producers.get(0), times(1)).close();
+    }
+
+    @Test
+    void testReporterConfigurationIsNotReported() throws Exception {
+        MockProducerReporter reporter = new MockProducerReporter();
+        PscConfiguration reporterConfiguration = new PscConfiguration();
+        reporterConfiguration.setProperty(PscConfiguration.PSC_PROJECT, "psc");
+        reporterConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_CLIENT_ID, "psc-config-producer-client");
+        assertTrue(PscConfigurationReporter.isThisYou(reporterConfiguration));
+        reporter.report(CONFIG_TOPIC_URI, reporterConfiguration);
+        reporter.flush();
+        assertTrue(reporter.producers.isEmpty());
+    }
+}
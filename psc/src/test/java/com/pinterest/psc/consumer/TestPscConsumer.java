@@ -1,6 +1,7 @@
 package com.pinterest.psc.consumer;
 
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.pinterest.psc.common.BaseTopicUri;
 import com.pinterest.psc.common.MessageId;
 import com.pinterest.psc.common.TestTopicUri;
@@ -25,15 +26,20 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -287,6 +293,50 @@ class TestPscConsumer extends TestPscConsumerBase {
         pscConsumer.close();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWarmUp() throws Exception {
+        TopicUri topicUri1 = TopicUri.validate(testTopic1);
+        TopicUri testTopicUri1 = TestTopicUri.validate(topicUri1);
+        TopicUri topicUri2 = TopicUri.validate(testTopic2);
+        TopicUri testTopicUri2 = TestTopicUri.validate(topicUri2);
+
+        when(creator.validateBackendTopicUri(topicUri1)).thenReturn(testTopicUri1);
+        when(creator.validateBackendTopicUri(topicUri2)).thenReturn(testTopicUri2);
+
+        PscKafkaConsumer<String, String> backendConsumer1 = mock(PscKafkaConsumer.class);
+        PscKafkaConsumer<String, String> backendConsumer2 = mock(PscKafkaConsumer.class);
+        when(creator.getConsumer(any(), any(), any(), eq(testTopicUri1), anyBoolean(), anyBoolean())).thenReturn(backendConsumer1);
+        when(creator.getConsumer(any(), any(), any(), eq(testTopicUri2), anyBoolean(), anyBoolean())).thenReturn(backendConsumer2);
+        when(backendConsumer1.getPartitions(testTopicUri1))
+                .thenReturn(Collections.singleton(new TopicUriPartition(testTopic1, 0)));
+
+        // the second backend consumer blocks on metadata fetch until it is interrupted
+        when(backendConsumer2.getPartitions(testTopicUri2)).thenAnswer(invocation -> {
+            new CountDownLatch(1).await();
+            return Collections.singleton(new TopicUriPartition(testTopic2, 0));
+        });
+
+        Map<String, Boolean> readiness = pscConsumer.warmUp(Arrays.asList(testTopic1, testTopic2), Duration.ofSeconds(2));
+        assertEquals(2, readiness.size());
+        assertTrue(readiness.get(testTopic1));
+        assertFalse(readiness.get(testTopic2));
+        // backend consumers are not woken up, so no wakeup is left over for the next poll
+        verify(backendConsumer1, times(0)).wakeup();
+        verify(backendConsumer2, times(0)).wakeup();
+
+        // a fetch that completes after the timeout does not make its URI ready
+        doAnswer(invocation -> {
+            Uninterruptibles.sleepUninterruptibly(1500, TimeUnit.MILLISECONDS);
+            return Collections.singleton(new TopicUriPartition(testTopic2, 0));
+        }).when(backendConsumer2).getPartitions(testTopicUri2);
+        readiness = pscConsumer.warmUp(Collections.singleton(testTopic2), Duration.ofSeconds(1));
+        assertFalse(readiness.get(testTopic2));
+
+        pscConsumer.close();
+        assertThrows(ConsumerException.class, () -> pscConsumer.warmUp(Collections.singleton(testTopic1), Duration.ofSeconds(1)));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     void testAssignmentAndSubscribeErrorScenarios() throws TopicUriSyntaxException, ConfigurationException, ConsumerException {
@@ -0,0 +1,171 @@
+package com.pinterest.psc.consumer;
+
+import com.pinterest.psc.common.MessageId;
+import com.pinterest.psc.common.PscMessage;
+import com.pinterest.psc.common.TestUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.common.kafka.KafkaTopicUri;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.interceptor.Interceptors;
+import com.pinterest.psc.interceptor.ProducerInterceptors;
+import com.pinterest.psc.producer.PscProducerMessage;
+import com.pinterest.psc.producer.PscProducerUtils;
+import com.pinterest.psc.serde.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestPscMessageDeduplication {
+    private TopicUri topicUri;
+
+    @BeforeEach
+    void init() throws Exception {
+        topicUri = KafkaTopicUri.validate(TopicUri.validate(TestPscConsumerBase.testKafkaTopic1));
+    }
+
+    @Test
+    void testSequenceIdsAreStableAcrossResends() throws Exception {
+        ProducerInterceptors<String, String> producerInterceptors = getProducerInterceptors(true);
+        PscProducerMessage<String, String> message1 = getProducerMessage("value1");
+        PscProducerMessage<String, String> message2 = getProducerMessage("value2");
+
+        byte[] sequenceId1 = getSequenceId(producerInterceptors.onSend(message1));
+        byte[] sequenceId2 = getSequenceId(producerInterceptors.onSend(message2));
+        assertNotNull(sequenceId1);
+        assertNotNull(sequenceId2);
+        assertFalse(Arrays.equals(sequenceId1, sequenceId2));
+
+        // re-sending the same message object keeps its sequence id
+        assertArrayEquals(sequenceId1, getSequenceId(producerInterceptors.onSend(message1)));
+
+        // sequence ids are not added unless enabled
+        assertNull(getSequenceId(getProducerInterceptors(false).onSend(getProducerMessage("value3"))));
+    }
+
+    @Test
+    void testDuplicatesAreDropped() throws Exception {
+        ProducerInterceptors<String, String> producerInterceptors = getProducerInterceptors(true);
+        PscProducerMessage<String, String> message1 = getProducerMessage("value1");
+        PscProducerMessage<String, String> message2 = getProducerMessage("value2");
+        byte[] sequenceId1 = getSequenceId(producerInterceptors.onSend(message1));
+        byte[] sequenceId2 = getSequenceId(producerInterceptors.onSend(message2));
+
+        // message 1 was re-sent by the application and landed at offset 2; offset 3 has no sequence id
+        List<PscConsumerMessage<String, String>> messages = Arrays.asList(
+                getConsumerMessage(0, "value1", sequenceId1),
+                getConsumerMessage(1, "value2", sequenceId2),
+                getConsumerMessage(2, "value1", sequenceId1),
+                getConsumerMessage(3, "value3", null)
+        );
+        PscMessageDeduplicator deduplicator = new PscMessageDeduplicator(10, getPscConfigurationInternal(false));
+
+        PscConsumerPollMessageIterator<String, String> iterator =
+                new DeduplicatingPscConsumerPollMessages<>(getIterator(messages), deduplicator);
+        assertEquals(Arrays.asList(0L, 1L, 3L), getOffsets(iterator));
+
+        // re-consuming the same messages (e.g. after a seek) is not considered duplication
+        iterator = new DeduplicatingPscConsumerPollMessages<>(getIterator(messages), deduplicator);
+        assertEquals(Arrays.asList(0L, 1L, 3L), getOffsets(iterator));
+    }
+
+    @Test
+    void testWindowIsBounded() throws Exception {
+        ProducerInterceptors<String, String> producerInterceptors = getProducerInterceptors(true);
+        List<byte[]> sequenceIds = new ArrayList<>();
+        for (int i = 0; i < 3; ++i)
+            sequenceIds.add(getSequenceId(producerInterceptors.onSend(getProducerMessage("value" + i))));
+
+        PscMessageDeduplicator deduplicator = new PscMessageDeduplicator(2, getPscConfigurationInternal(false));
+        for (int i = 0; i < 3; ++i)
+            assertFalse(deduplicator.isDuplicate(getConsumerMessage(i, "value" + i, sequenceIds.get(i))));
+
+        // the oldest sequence id fell out of the window
+        assertFalse(deduplicator.isDuplicate(getConsumerMessage(10, "value0", sequenceIds.get(0))));
+        assertTrue(deduplicator.isDuplicate(getConsumerMessage(11, "value2", sequenceIds.get(2))));
+    }
+
+    private PscConfigurationInternal getPscConfigurationInternal(boolean idempotentSendEnabled) throws Exception {
+        PscConfiguration pscConfiguration = new PscConfiguration();
+        pscConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_CLIENT_ID, "client-id");
+        pscConfiguration.setProperty(PscConfiguration.PSC_CONFIG_LOGGING_ENABLED, "false");
+        pscConfiguration.setProperty(PscConfiguration.PSC_METRICS_REPORTER_CLASS, TestUtils.DEFAULT_METRICS_REPORTER);
+        pscConfiguration.setProperty(PscConfiguration.PSC_IDEMPOTENT_SEND_ENABLED, String.valueOf(idempotentSendEnabled));
+        return new PscConfigurationInternal(pscConfiguration, PscConfiguration.PSC_CLIENT_TYPE_PRODUCER);
+    }
+
+    private ProducerInterceptors<String, String> getProducerInterceptors(boolean idempotentSendEnabled) throws Exception {
+        Interceptors<String, String> interceptors = new Interceptors<>(
+                null, null, getPscConfigurationInternal(idempotentSendEnabled)
+        );
+        return new ProducerInterceptors<>(interceptors, new StringSerializer(), new StringSerializer());
+    }
+
+    private PscProducerMessage<String, String> getProducerMessage(String value) {
+        PscProducerMessage<String, String> message = new PscProducerMessage<>(topicUri.getTopicUriAsString(), value);
+        return PscProducerUtils.setTopicUriPartition(message, TestUtils.getFinalizedTopicUriPartition(topicUri, 0));
+    }
+
+    private static byte[] getSequenceId(PscProducerMessage<byte[], byte[]> message) {
+        return message.getHeaders() == null ? null : message.getHeaders().get(PscMessage.PSC_MESSAGE_HEADER_PSC_SEQUENCE_ID);
+    }
+
+    private PscConsumerMessage<String, String> getConsumerMessage(long offset, String value, byte[] sequenceId) {
+        TopicUriPartition topicUriPartition = TestUtils.getFinalizedTopicUriPartition(topicUri, 0);
+        PscConsumerMessage<String, String> message =
+                new PscConsumerMessage<>(new MessageId(topicUriPartition, offset), null, value, offset);
+        if (sequenceId != null)
+            message.setHeader(PscMessage.PSC_MESSAGE_HEADER_PSC_SEQUENCE_ID, sequenceId);
+        return message;
+    }
+
+    private static List<Long> getOffsets(PscConsumerPollMessageIterator<String, String> iterator) {
+        List<Long> offsets = new ArrayList<>();
+        while (iterator.hasNext())
+            offsets.add(iterator.next().getMessageId().getOffset());
+        return offsets;
+    }
+
+    private static PscConsumerPollMessageIterator<String, String> getIterator(List<PscConsumerMessage<String, String>> messages) {
+        Iterator<PscConsumerMessage<String, String>> iterator = messages.iterator();
+        return new PscConsumerPollMessageIterator<String, String>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public PscConsumerMessage<String, String> next() {
+                return iterator.next();
+            }
+
+            @Override
+            public Set<TopicUriPartition> getTopicUriPartitions() {
+                return Collections.emptySet();
+            }
+
+            @Override
+            public PscConsumerPollMessageIterator<String, String> iteratorFor(TopicUriPartition topicUriPartition) {
+                return null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
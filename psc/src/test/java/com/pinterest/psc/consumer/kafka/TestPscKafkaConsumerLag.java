@@ -0,0 +1,187 @@
+package com.pinterest.psc.consumer.kafka;
+
+import com.pinterest.psc.common.BaseTopicUri;
+import com.pinterest.psc.common.PscUtils;
+import com.pinterest.psc.common.TestUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.common.kafka.KafkaTopicUri;
+import com.pinterest.psc.config.MetricsReporterConfiguration;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.environment.Environment;
+import com.pinterest.psc.metrics.MetricsUtils;
+import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetricTag;
+import com.pinterest.psc.metrics.PscMetricTagManager;
+import com.pinterest.psc.metrics.PscMetrics;
+import com.pinterest.psc.metrics.kafka.KafkaMetricsHandler;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestPscKafkaConsumerLag {
+    private static final String topicUriStr =
+            "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":kafka:env:cloud_region::cluster:topic";
+
+    private final PscMetricRegistryManager pscMetricRegistryManager = PscMetricRegistryManager.getInstance();
+    private PscConfigurationInternal pscConfigurationInternal;
+    private TopicUri topicUri;
+
+    @BeforeEach
+    void init() throws Exception {
+        pscConfigurationInternal = mock(PscConfigurationInternal.class);
+        when(pscConfigurationInternal.getClientType()).thenReturn(PscConfiguration.PSC_CLIENT_TYPE_CONSUMER);
+        when(pscConfigurationInternal.getConfiguration()).thenReturn(new PscConfiguration());
+        when(pscConfigurationInternal.getEnvironment()).thenReturn(mock(Environment.class));
+        when(pscConfigurationInternal.getMetricsReporterConfiguration()).thenReturn(new MetricsReporterConfiguration(
+                true, TestUtils.DEFAULT_METRICS_REPORTER, 10, "host001", 9999, 30000
+        ));
+        PscMetricTagManager pscMetricTagManager = PscMetricTagManager.getInstance();
+        pscMetricRegistryManager.setPscMetricTagManager(pscMetricTagManager);
+        pscMetricTagManager.initializePscMetricTagManager(pscConfigurationInternal);
+        pscMetricRegistryManager.initialize(pscConfigurationInternal);
+        topicUri = KafkaTopicUri.validate(TopicUri.validate(topicUriStr));
+    }
+
+    @AfterEach
+    void cleanup() {
+        pscMetricRegistryManager.shutdown(pscConfigurationInternal);
+        MetricsUtils.resetCardinalityPolicy(pscMetricRegistryManager);
+    }
+
+    @Test
+    void testLagIsReadFromRecordsLagMetrics() {
+        Map<MetricName, Metric> kafkaMetrics = new HashMap<>();
+        addMetric(kafkaMetrics, "records-lag", "topic", 0, 42.0);
+        addMetric(kafkaMetrics, "records-lag", "topic", 1, 0.0);
+        // no fetch response yet
+        addMetric(kafkaMetrics, "records-lag", "topic", 2, Double.NaN);
+        // topic that is not consumed through a known topic URI
+        addMetric(kafkaMetrics, "records-lag", "other", 0, 5.0);
+        addMetric(kafkaMetrics, "records-lag-max", "topic", 0, 100.0);
+
+        Map<String, TopicUri> kafkaTopicToTopicUri = new HashMap<>();
+        kafkaTopicToTopicUri.put("topic", topicUri);
+        Map<TopicUriPartition, Long> lag = KafkaMetricsHandler.getKafkaConsumerLag(kafkaMetrics, kafkaTopicToTopicUri);
+
+        assertEquals(2, lag.size());
+        assertEquals(42L, lag.get(getTopicUriPartition(0)));
+        assertEquals(0L, lag.get(getTopicUriPartition(1)));
+    }
+
+    @Test
+    void testLagIsReportedAsGauges() {
+        LagReportingConsumer consumer = new LagReportingConsumer(pscConfigurationInternal);
+        Map<TopicUriPartition, Long> lag = new HashMap<>();
+        lag.put(getTopicUriPartition(0), 42L);
+        lag.put(getTopicUriPartition(1), 8L);
+        consumer.report(lag);
+
+        assertEquals(42L, getGauge(0, PscMetrics.PSC_CONSUMER_LAG_MESSAGES_METRIC));
+        assertEquals(8L, getGauge(1, PscMetrics.PSC_CONSUMER_LAG_MESSAGES_METRIC));
+        assertEquals(50L, getGauge(PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_TOPIC_LAG_MESSAGES_METRIC));
+
+        // partition 0 is no longer assigned
+        lag.remove(getTopicUriPartition(0));
+        lag.put(getTopicUriPartition(1), 3L);
+        consumer.report(lag);
+        assertNull(getGauge(0, PscMetrics.PSC_CONSUMER_LAG_MESSAGES_METRIC));
+        assertEquals(3L, getGauge(1, PscMetrics.PSC_CONSUMER_LAG_MESSAGES_METRIC));
+        assertEquals(3L, getGauge(PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_TOPIC_LAG_MESSAGES_METRIC));
+
+        consumer.report(new HashMap<>());
+        assertNull(getGauge(1, PscMetrics.PSC_CONSUMER_LAG_MESSAGES_METRIC));
+        assertNull(getGauge(PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_TOPIC_LAG_MESSAGES_METRIC));
+    }
+
+    @Test
+    void testLagOfRolledUpPartitionsIsSummed() {
+        // only the first partition seen is reported under its own partition tag
+        pscMetricRegistryManager.shutdown(pscConfigurationInternal);
+        MetricsUtils.resetCardinalityPolicy(pscMetricRegistryManager);
+        when(pscConfigurationInternal.getMetricsReporterConfiguration()).thenReturn(new MetricsReporterConfiguration(
+                true, TestUtils.DEFAULT_METRICS_REPORTER, 10, "host001", 9999, 30000,
+                PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR_SLIDING_TIME_WINDOW, 1, -1
+        ));
+        pscMetricRegistryManager.initialize(pscConfigurationInternal);
+
+        LagReportingConsumer consumer = new LagReportingConsumer(pscConfigurationInternal);
+        Map<TopicUriPartition, Long> lag = new LinkedHashMap<>();
+        lag.put(getTopicUriPartition(0), 42L);
+        lag.put(getTopicUriPartition(1), 8L);
+        lag.put(getTopicUriPartition(2), 5L);
+        consumer.report(lag);
+        assertEquals(42L, getGauge(0, PscMetrics.PSC_CONSUMER_LAG_MESSAGES_METRIC));
+        assertEquals(13L, getGauge(PscMetricTag.ROLLED_UP_PARTITION, PscMetrics.PSC_CONSUMER_LAG_MESSAGES_METRIC));
+        assertEquals(55L, getGauge(PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_TOPIC_LAG_MESSAGES_METRIC));
+
+        // the rolled up gauge is kept while any of its partitions still has a known lag
+        lag.remove(getTopicUriPartition(1));
+        consumer.report(lag);
+        assertEquals(5L, getGauge(PscMetricTag.ROLLED_UP_PARTITION, PscMetrics.PSC_CONSUMER_LAG_MESSAGES_METRIC));
+        assertEquals(47L, getGauge(PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_TOPIC_LAG_MESSAGES_METRIC));
+
+        lag.remove(getTopicUriPartition(2));
+        consumer.report(lag);
+        assertNull(getGauge(PscMetricTag.ROLLED_UP_PARTITION, PscMetrics.PSC_CONSUMER_LAG_MESSAGES_METRIC));
+        assertEquals(42L, getGauge(0, PscMetrics.PSC_CONSUMER_LAG_MESSAGES_METRIC));
+        assertEquals(42L, getGauge(PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_TOPIC_LAG_MESSAGES_METRIC));
+    }
+
+    private TopicUriPartition getTopicUriPartition(int partition) {
+        TopicUriPartition topicUriPartition = new TopicUriPartition(topicUriStr, partition);
+        BaseTopicUri.finalizeTopicUriPartition(topicUriPartition, topicUri);
+        return topicUriPartition;
+    }
+
+    private Long getGauge(int partition, String metricKey) {
+        return pscMetricRegistryManager.getGaugeMetric(topicUri, partition, metricKey, pscConfigurationInternal);
+    }
+
+    private static void addMetric(Map<MetricName, Metric> kafkaMetrics, String name, String topic, int partition, double value) {
+        Map<String, String> tags = new HashMap<>();
+        tags.put("client-id", "client");
+        tags.put("topic", topic);
+        tags.put("partition", String.valueOf(partition));
+        MetricName metricName = new MetricName(name, "consumer-fetch-manager-metrics", "", tags);
+        kafkaMetrics.put(metricName, new Metric() {
+            @Override
+            public MetricName metricName() {
+                return metricName;
+            }
+
+            @Override
+            @Deprecated
+            public double value() {
+                return value;
+            }
+
+            @Override
+            public Object metricValue() {
+                return value;
+            }
+        });
+    }
+
+    private static class LagReportingConsumer extends PscKafkaConsumer<byte[], byte[]> {
+        LagReportingConsumer(PscConfigurationInternal pscConfigurationInternal) {
+            this.pscConfigurationInternal = pscConfigurationInternal;
+        }
+
+        void report(Map<TopicUriPartition, Long> lag) {
+            reportLag(lag);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.pinterest.psc.consumer.kafka;
+
+import com.pinterest.psc.common.BaseTopicUri;
+import com.pinterest.psc.common.ServiceDiscoveryConfig;
+import com.pinterest.psc.common.TestUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.common.kafka.KafkaTopicUri;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.exception.consumer.WakeupException;
+import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetricTagManager;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests swapping in a standby Kafka consumer while the PSC consumer is being polled and woken up.
+ */
+public class TestPscKafkaConsumerWarmStandby {
+    private static final String topicUriStr = "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":kafka:env:cloud_region::cluster:topic";
+    private static final TopicPartition topicPartition = new TopicPartition("topic", 0);
+
+    private PscKafkaConsumer<byte[], byte[]> pscKafkaConsumer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        PscConfiguration pscConfiguration = new PscConfiguration();
+        pscConfiguration.setProperty(PscConfiguration.PSC_CONSUMER_CLIENT_ID, "client-id");
+        pscConfiguration.setProperty(PscConfiguration.PSC_CONSUMER_GROUP_ID, "group-id");
+        pscConfiguration.setProperty(PscConfiguration.PSC_CONFIG_LOGGING_ENABLED, "false");
+        pscConfiguration.setProperty(PscConfiguration.PSC_METRICS_REPORTER_CLASS, TestUtils.DEFAULT_METRICS_REPORTER);
+        PscConfigurationInternal pscConfigurationInternal =
+                new PscConfigurationInternal(pscConfiguration, PscConfiguration.PSC_CLIENT_TYPE_CONSUMER);
+        PscMetricRegistryManager.getInstance().setPscMetricTagManager(PscMetricTagManager.getInstance());
+        PscMetricTagManager.getInstance().initializePscMetricTagManager(pscConfigurationInternal);
+        PscMetricRegistryManager.getInstance().initialize(pscConfigurationInternal);
+
+        TopicUri topicUri = KafkaTopicUri.validate(TopicUri.validate(topicUriStr));
+        pscKafkaConsumer = new PscKafkaConsumer<>();
+        pscKafkaConsumer.initialize(
+                pscConfigurationInternal,
+                new ServiceDiscoveryConfig().setConnect("localhost:9092").setSecurityProtocol("PLAINTEXT"),
+                topicUri
+        );
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pscKafkaConsumer.close(Duration.ofMillis(100));
+    }
+
+    @Test
+    void testWakeupDuringSwapIsPassedOnToNewConsumer() throws Exception {
+        KafkaConsumer<byte[], byte[]> previousKafkaConsumer = mockKafkaConsumer();
+        pscKafkaConsumer.swapInKafkaConsumer(previousKafkaConsumer);
+        pscKafkaConsumer.assign(Collections.singleton(getTopicUriPartition()));
+
+        // the PSC consumer is woken up while the position is carried over, which interrupts the position lookup
+        AtomicInteger positionCalls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (positionCalls.getAndIncrement() == 0) {
+                pscKafkaConsumer.wakeup();
+                throw new org.apache.kafka.common.errors.WakeupException();
+            }
+            return 42L;
+        }).when(previousKafkaConsumer).position(eq(topicPartition), any(Duration.class));
+
+        KafkaConsumer<byte[], byte[]> readyKafkaConsumer = mockKafkaConsumer();
+        pscKafkaConsumer.swapInKafkaConsumer(readyKafkaConsumer);
+
+        // the position is still carried over, and the wakeup is meant for the next poll
+        verify(previousKafkaConsumer).wakeup();
+        // the replaced Kafka consumer is closed with a short timeout, not the default one
+        verify(previousKafkaConsumer).close(Duration.ofSeconds(1));
+        verify(previousKafkaConsumer, never()).close();
+        verify(readyKafkaConsumer).assign(Collections.singletonList(topicPartition));
+        verify(readyKafkaConsumer).seek(topicPartition, 42L);
+        verify(readyKafkaConsumer).wakeup();
+
+        when(readyKafkaConsumer.poll(any(Duration.class))).thenThrow(new org.apache.kafka.common.errors.WakeupException());
+        assertThrows(WakeupException.class, () -> pscKafkaConsumer.poll(Duration.ofMillis(100)));
+    }
+
+    @Test
+    void testWakeupWhilePollIsInFlightAfterSwap() throws Exception {
+        KafkaConsumer<byte[], byte[]> previousKafkaConsumer = mockKafkaConsumer();
+        pscKafkaConsumer.swapInKafkaConsumer(previousKafkaConsumer);
+        pscKafkaConsumer.assign(Collections.singleton(getTopicUriPartition()));
+        when(previousKafkaConsumer.position(eq(topicPartition), any(Duration.class))).thenReturn(7L);
+
+        KafkaConsumer<byte[], byte[]> readyKafkaConsumer = mockKafkaConsumer();
+        pscKafkaConsumer.swapInKafkaConsumer(readyKafkaConsumer);
+        verify(readyKafkaConsumer).seek(topicPartition, 7L);
+        verify(readyKafkaConsumer, never()).wakeup();
+
+        // a poll of the new consumer blocks until it is woken up
+        CountDownLatch pollStarted = new CountDownLatch(1);
+        CountDownLatch wokenUp = new CountDownLatch(1);
+        when(readyKafkaConsumer.poll(any(Duration.class))).thenAnswer(invocation -> {
+            pollStarted.countDown();
+            if (wokenUp.await(10, TimeUnit.SECONDS))
+                throw new org.apache.kafka.common.errors.WakeupException();
+            return ConsumerRecords.empty();
+        });
+        doAnswer(invocation -> {
+            wokenUp.countDown();
+            return null;
+        }).when(readyKafkaConsumer).wakeup();
+
+        Thread waker = new Thread(() -> {
+            try {
+                pollStarted.await();
+                pscKafkaConsumer.wakeup();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waker.start();
+        assertThrows(WakeupException.class, () -> pscKafkaConsumer.poll(Duration.ofSeconds(10)));
+        waker.join();
+        verify(previousKafkaConsumer, never()).wakeup();
+        assertEquals(0, wokenUp.getCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KafkaConsumer<byte[], byte[]> mockKafkaConsumer() {
+        KafkaConsumer<byte[], byte[]> kafkaConsumer = mock(KafkaConsumer.class);
+        when(kafkaConsumer.assignment()).thenReturn(Collections.singleton(topicPartition));
+        return kafkaConsumer;
+    }
+
+    private static TopicUriPartition getTopicUriPartition() throws Exception {
+        TopicUriPartition topicUriPartition = new TopicUriPartition(topicUriStr, 0);
+        BaseTopicUri.finalizeTopicUriPartition(topicUriPartition, KafkaTopicUri.validate(TopicUri.validate(topicUriStr)));
+        return topicUriPartition;
+    }
+}
@@ -2,6 +2,8 @@ package com.pinterest.psc.discovery;
 
 import com.pinterest.psc.common.ServiceDiscoveryConfig;
 import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
 import com.pinterest.psc.environment.Environment;
 import com.pinterest.psc.exception.startup.TopicUriSyntaxException;
 import org.junit.jupiter.api.Test;
@@ -10,9 +12,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 @ExtendWith(MockitoExtension.class)
 public class TestFallbackServiceDiscoveryProvider {
@@ -41,4 +46,65 @@ public class TestFallbackServiceDiscoveryProvider {
         ServiceDiscoveryConfig sdc = sdp.getConfig(environment, TopicUri.validate(nonexistentUri));
         assertNull(sdc);
     }
+
+    @Test
+    void testGetConfigReturnsCopiesOfCachedConfig() throws TopicUriSyntaxException, IOException {
+        FallbackServiceDiscoveryProvider sdp = new FallbackServiceDiscoveryProvider(
+                DiscoveryUtil.createTempFallbackFile()
+        );
+        ServiceDiscoveryConfig sdc1 = sdp.getConfig(environment, TopicUri.validate(testUri1));
+        ServiceDiscoveryConfig sdc2 = sdp.getConfig(environment, TopicUri.validate(testUri1));
+        assertNotSame(sdc1, sdc2);
+        assertEquals(sdc1.getConnect(), sdc2.getConnect());
+        assertSame(sdp, sdc1.getServiceDiscoveryProvider());
+
+        FallbackServiceDiscoveryProvider otherSdp = new FallbackServiceDiscoveryProvider(
+                DiscoveryUtil.createTempFallbackFile()
+        );
+        assertSame(otherSdp, otherSdp.getConfig(environment, TopicUri.validate(testUri1)).getServiceDiscoveryProvider());
+        assertSame(sdp, sdc1.getServiceDiscoveryProvider());
+    }
+
+    @Test
+    void testGetConfigReloadsChangedFile() throws Exception {
+        String filename = "discovery-reload.json";
+        DiscoveryUtil.createTempFallbackFile(filename, Collections.singletonMap(
+                testUri1, DiscoveryUtil.createTestServiceDiscoveryConfig("broker1:9092", "PLAINTEXT")
+        ));
+        ServiceDiscoveryProvider sdp = new FallbackServiceDiscoveryProvider(DiscoveryUtil.TMP_DIR + filename);
+        assertEquals("broker1:9092", sdp.getConfig(environment, TopicUri.validate(testUri1)).getConnect());
+
+        DiscoveryUtil.createTempFallbackFile(filename, Collections.singletonMap(
+                testUri1, DiscoveryUtil.createTestServiceDiscoveryConfig("broker2:9092", "PLAINTEXT")
+        ));
+        // the change is picked up asynchronously by the file watcher
+        long deadline = System.currentTimeMillis() + 30_000;
+        String connect = null;
+        while (System.currentTimeMillis() < deadline) {
+            connect = sdp.getConfig(environment, TopicUri.validate(testUri1)).getConnect();
+            if (connect.equals("broker2:9092"))
+                break;
+            Thread.sleep(50);
+        }
+        assertEquals("broker2:9092", connect);
+    }
+
+    @Test
+    void testGetConfigWithoutCache() throws TopicUriSyntaxException, IOException {
+        String filename = "discovery-uncached.json";
+        DiscoveryUtil.createTempFallbackFile(filename, Collections.singletonMap(
+                testUri1, DiscoveryUtil.createTestServiceDiscoveryConfig("broker1:9092", "PLAINTEXT")
+        ));
+        PscConfiguration pscConfiguration = new PscConfiguration();
+        pscConfiguration.addProperty(PscConfigurationInternal.getPscDiscoveryServiceProviderFallbackConfigName(), DiscoveryUtil.TMP_DIR + filename);
+        pscConfiguration.addProperty(PscConfigurationInternal.getPscDiscoveryServiceProviderFallbackCacheTtlConfigName(), 0);
+        ServiceDiscoveryProvider sdp = new FallbackServiceDiscoveryProvider();
+        sdp.configure(pscConfiguration);
+        assertEquals("broker1:9092", sdp.getConfig(environment, TopicUri.validate(testUri1)).getConnect());
+
+        DiscoveryUtil.createTempFallbackFile(filename, Collections.singletonMap(
+                testUri1, DiscoveryUtil.createTestServiceDiscoveryConfig("broker2:9092", "PLAINTEXT")
+        ));
+        assertEquals("broker2:9092", sdp.getConfig(environment, TopicUri.validate(testUri1)).getConnect());
+    }
 }
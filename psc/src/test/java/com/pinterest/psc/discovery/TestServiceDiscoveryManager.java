@@ -16,11 +16,18 @@ import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 public class TestServiceDiscoveryManager {
@@ -46,4 +53,55 @@ public class TestServiceDiscoveryManager {
         assertNotNull(sdc);
         assertEquals("cluster02001:9092,cluster02002:9092", sdc.getConnect());   // fallback
     }
+
+    @Test
+    void testProvidersAreLoadedFromIndex() {
+        List<Class<? extends ServiceDiscoveryProvider>> indexedProviderClasses =
+                ServiceDiscoveryManager.loadServiceDiscoveryProviderIndex(ServiceDiscoveryManager.class.getClassLoader());
+        assertTrue(indexedProviderClasses.contains(FallbackServiceDiscoveryProvider.class));
+        assertTrue(indexedProviderClasses.contains(MockServiceDiscoveryProvider.class));
+        assertTrue(indexedProviderClasses.contains(Mock2ServiceDiscoveryProvider.class));
+
+        SortedMap<Integer, ServiceDiscoveryProvider> providers = ServiceDiscoveryManager.resetAndGetProviderMap();
+        assertEquals(Arrays.asList(102, 101, 0), new ArrayList<>(providers.keySet()));
+        assertEquals(FallbackServiceDiscoveryProvider.class, providers.get(0).getClass());
+
+        // the provider map is cached for the thread
+        assertSame(providers, ServiceDiscoveryManager.getProviderMap());
+    }
+
+    @Test
+    void testProviderInstancesArePerThread() throws InterruptedException {
+        SortedMap<Integer, ServiceDiscoveryProvider> providers = ServiceDiscoveryManager.getProviderMap();
+        AtomicReference<SortedMap<Integer, ServiceDiscoveryProvider>> otherProviders = new AtomicReference<>();
+        Thread thread = new Thread(() -> otherProviders.set(ServiceDiscoveryManager.getProviderMap()));
+        thread.start();
+        thread.join();
+        assertEquals(providers.keySet(), otherProviders.get().keySet());
+        assertNotSame(providers.get(0), otherProviders.get().get(0));
+    }
+
+    @Test
+    void testClasspathScanIsMergedWithIndex() {
+        SortedMap<Integer, ServiceDiscoveryProvider> providers = ServiceDiscoveryManager.getProviderMapWithClasspathScan();
+        assertEquals(ServiceDiscoveryManager.getProviderMap().keySet(), providers.keySet());
+        assertEquals(
+                ServiceDiscoveryManager.findAndRegisterServiceDiscoveryProviders(
+                        ServiceDiscoveryManager.class.getPackage().getName()
+                ).keySet(),
+                providers.keySet()
+        );
+    }
+
+    @Test
+    void testServiceDiscoveryWithClasspathScan()
+            throws TopicUriSyntaxException, IOException, ConfigurationException {
+        PscConfiguration pscConfiguration = new PscConfiguration();
+        pscConfiguration.addProperty(PscConfigurationInternal.getPscDiscoveryServiceProviderFallbackConfigName(), DiscoveryUtil.createTempFallbackFile());
+        pscConfiguration.addProperty(PscConfigurationInternal.getPscDiscoveryClasspathScanEnabledConfigName(), true);
+
+        ServiceDiscoveryConfig sdc = ServiceDiscoveryManager.getServiceDiscoveryConfig(environment, pscConfiguration, TopicUri.validate(testUriFallback));
+        assertNotNull(sdc);
+        assertEquals("cluster01001:9092,cluster01002:9092", sdc.getConnect());  // fallback
+    }
 }
@@ -0,0 +1,172 @@
+package com.pinterest.psc.environment;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCachingEnvironmentProvider {
+    private static final String EC2_METADATA_ENDPOINT_PROPERTY = "aws.ec2MetadataServiceEndpoint";
+
+    private static final AtomicInteger instanceIdCalls = new AtomicInteger();
+    private static volatile String instanceId;
+    private static volatile String region;
+    private static volatile long regionDelayMs;
+    private static volatile boolean throttled;
+
+    // the state of the fake is static since the environment is queried by the base class constructor
+    private static class FakeEnvironmentProvider extends LocalEnvironmentProvider {
+
+        @Override
+        public String getInstanceId() {
+            instanceIdCalls.incrementAndGet();
+            return instanceId;
+        }
+
+        @Override
+        public String getRegion() {
+            try {
+                Thread.sleep(regionDelayMs);
+            } catch (InterruptedException e) {
+                return null;
+            }
+            return region;
+        }
+
+        @Override
+        public String getInstanceType() {
+            if (throttled)
+                throw new IllegalStateException("metadata endpoint is throttled");
+            return "m5.large";
+        }
+    }
+
+    private static final FakeEnvironmentProvider fakeDelegate = new FakeEnvironmentProvider();
+
+    public static class FakeCachingEnvironmentProvider extends CachingEnvironmentProvider {
+        @Override
+        protected EnvironmentProvider createDelegate() {
+            return fakeDelegate;
+        }
+    }
+
+    public static class Ec2CachingEnvironmentProvider extends CachingEnvironmentProvider {
+        @Override
+        protected EnvironmentProvider createDelegate() {
+            return new Ec2EnvironmentProvider();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        CachingEnvironmentProvider.resetCache();
+        instanceIdCalls.set(0);
+        instanceId = "i-001";
+        region = "us-east-1";
+        regionDelayMs = 0;
+        throttled = true;
+    }
+
+    @AfterEach
+    void tearDown() {
+        CachingEnvironmentProvider.resetCache();
+    }
+
+    @Test
+    void testEnvironmentIsResolvedOncePerProcess() {
+        for (int i = 0; i < 5; ++i) {
+            Environment environment = new FakeCachingEnvironmentProvider().getEnvironment();
+            assertEquals("i-001", environment.getInstanceId());
+            assertEquals("us-east-1", environment.getRegion());
+            // failed lookups fall back to the local environment
+            assertEquals(LocalEnvironmentProvider.LOCAL_ENV, environment.getInstanceType());
+        }
+        assertEquals(1, instanceIdCalls.get());
+    }
+
+    @Test
+    void testSlowValuesFallBackAndAreRefreshed() {
+        regionDelayMs = 5_000;
+        CachingEnvironmentProvider.CachedEnvironment cachedEnvironment =
+                new CachingEnvironmentProvider.CachedEnvironment(fakeDelegate, 200);
+        long start = System.currentTimeMillis();
+        assertEquals("i-001", cachedEnvironment.get(CachingEnvironmentProvider.Field.INSTANCE_ID));
+        assertEquals(LocalEnvironmentProvider.LOCAL_ENV, cachedEnvironment.get(CachingEnvironmentProvider.Field.REGION));
+        assertTrue(System.currentTimeMillis() - start < 2_000);
+
+        regionDelayMs = 0;
+        instanceId = "i-002";
+        cachedEnvironment.resolve();
+        assertEquals("i-002", cachedEnvironment.get(CachingEnvironmentProvider.Field.INSTANCE_ID));
+        assertEquals("us-east-1", cachedEnvironment.get(CachingEnvironmentProvider.Field.REGION));
+
+        // a failed refresh keeps the previously resolved value
+        instanceId = null;
+        cachedEnvironment.resolve();
+        assertEquals("i-002", cachedEnvironment.get(CachingEnvironmentProvider.Field.INSTANCE_ID));
+    }
+
+    @Test
+    void testEc2EnvironmentFromMetadataServer() throws IOException {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("/latest/api/token", "token");
+        metadata.put("/latest/meta-data/instance-id", "i-0123456789");
+        metadata.put("/latest/meta-data/instance-type", "m5.large");
+        metadata.put("/latest/meta-data/local-ipv4", "10.1.2.3");
+        metadata.put("/latest/meta-data/placement/availability-zone", "us-west-2a");
+        metadata.put("/latest/dynamic/instance-identity/document", "{\"region\": \"us-west-2\"}");
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, metadata.get(exchange.getRequestURI().getPath()));
+        });
+        server.start();
+        String previousEndpoint = System.getProperty(EC2_METADATA_ENDPOINT_PROPERTY);
+        System.setProperty(EC2_METADATA_ENDPOINT_PROPERTY, "http://localhost:" + server.getAddress().getPort());
+        try {
+            Environment environment = new Ec2CachingEnvironmentProvider().getEnvironment();
+            assertEquals("i-0123456789", environment.getInstanceId());
+            assertEquals("m5.large", environment.getInstanceType());
+            assertEquals("10.1.2.3", environment.getIpAddress());
+            assertEquals("us-west-2a", environment.getLocality());
+            assertEquals("us-west-2", environment.getRegion());
+
+            int requestCount = requests.get();
+            environment = new Ec2CachingEnvironmentProvider().getEnvironment();
+            assertEquals("i-0123456789", environment.getInstanceId());
+            assertEquals(requestCount, requests.get());
+        } finally {
+            if (previousEndpoint == null)
+                System.clearProperty(EC2_METADATA_ENDPOINT_PROPERTY);
+            else
+                System.setProperty(EC2_METADATA_ENDPOINT_PROPERTY, previousEndpoint);
+            server.stop(0);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
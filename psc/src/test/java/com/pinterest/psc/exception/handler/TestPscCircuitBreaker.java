@@ -0,0 +1,116 @@
+package com.pinterest.psc.exception.handler;
+
+import com.pinterest.psc.common.BaseTopicUri;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPscCircuitBreaker {
+    private static final String TOPIC_URI_1 = "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":kafka:env:cloud_region::cluster1:topic1";
+    private static final String TOPIC_URI_2 = "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":kafka:env:cloud_region::cluster1:topic2";
+    private static final String TOPIC_URI_3 = "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":kafka:env:cloud_region::cluster2:topic1";
+
+    @AfterEach
+    void tearDown() {
+        PscCircuitBreaker.reset();
+    }
+
+    private static PscConfigurationInternal configuration(boolean enabled, int failureThreshold, long openMs) throws Exception {
+        PscConfiguration pscConfiguration = new PscConfiguration();
+        pscConfiguration.setProperty(PscConfiguration.PSC_CONSUMER_CLIENT_ID, "client-id");
+        pscConfiguration.setProperty(PscConfiguration.PSC_CONSUMER_GROUP_ID, "group-id");
+        pscConfiguration.setProperty(PscConfiguration.PSC_CONFIG_LOGGING_ENABLED, "false");
+        pscConfiguration.setProperty(PscConfiguration.PSC_METRIC_REPORTING_ENABLED, "false");
+        pscConfiguration.setProperty(PscConfiguration.PSC_CIRCUIT_BREAKER_ENABLED, String.valueOf(enabled));
+        pscConfiguration.setProperty(PscConfiguration.PSC_CIRCUIT_BREAKER_FAILURE_THRESHOLD, String.valueOf(failureThreshold));
+        pscConfiguration.setProperty(PscConfiguration.PSC_CIRCUIT_BREAKER_OPEN_MS, String.valueOf(openMs));
+        return new PscConfigurationInternal(pscConfiguration, PscConfiguration.PSC_CLIENT_TYPE_CONSUMER);
+    }
+
+    @Test
+    void testCircuitBreakersAreSharedPerCluster() throws Exception {
+        assertNull(PscCircuitBreaker.get(BaseTopicUri.validate(TOPIC_URI_1), configuration(false, 5, 30_000)));
+
+        PscConfigurationInternal pscConfigurationInternal = configuration(true, 5, 30_000);
+        PscCircuitBreaker circuitBreaker = PscCircuitBreaker.get(BaseTopicUri.validate(TOPIC_URI_1), pscConfigurationInternal);
+        assertSame(circuitBreaker, PscCircuitBreaker.get(BaseTopicUri.validate(TOPIC_URI_2), pscConfigurationInternal));
+        assertTrue(circuitBreaker != PscCircuitBreaker.get(BaseTopicUri.validate(TOPIC_URI_3), pscConfigurationInternal));
+        assertEquals(2, PscCircuitBreaker.getStates().size());
+        assertEquals(PscCircuitBreaker.State.CLOSED, PscCircuitBreaker.getState(circuitBreaker.getTopicUriPrefix()));
+        assertEquals(PscCircuitBreaker.State.CLOSED, PscCircuitBreaker.getState("plaintext:/rn:kafka:env:cloud_region::unknown:"));
+    }
+
+    @Test
+    void testCircuitOpensAfterConsecutiveFailures() throws Exception {
+        PscCircuitBreaker circuitBreaker = PscCircuitBreaker.get(BaseTopicUri.validate(TOPIC_URI_1), configuration(true, 3, 30_000));
+
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        // a success in between resets the count of consecutive failures
+        circuitBreaker.recordSuccess();
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        assertEquals(PscCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.allowRequest());
+        assertTrue(circuitBreaker.allowRetry());
+
+        circuitBreaker.recordFailure();
+        assertEquals(PscCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(PscCircuitBreaker.State.OPEN, PscCircuitBreaker.getState(circuitBreaker.getTopicUriPrefix()));
+        assertFalse(circuitBreaker.allowRequest());
+        assertFalse(circuitBreaker.allowRetry());
+    }
+
+    @Test
+    void testHalfOpenCircuitLetsOneProbeThrough() throws Exception {
+        PscCircuitBreaker circuitBreaker = PscCircuitBreaker.get(BaseTopicUri.validate(TOPIC_URI_1), configuration(true, 1, 200));
+
+        circuitBreaker.recordFailure();
+        assertFalse(circuitBreaker.allowRequest());
+        Thread.sleep(250);
+
+        // the probe fails, so the circuit opens again
+        assertTrue(circuitBreaker.allowRequest());
+        assertEquals(PscCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+        assertTrue(circuitBreaker.allowRetry());
+        circuitBreaker.recordFailure();
+        assertEquals(PscCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+        Thread.sleep(250);
+
+        // the probe succeeds, so the circuit closes
+        assertTrue(circuitBreaker.allowRequest());
+        circuitBreaker.recordSuccess();
+        assertEquals(PscCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void testSuccessWhileOpenDoesNotCloseCircuit() throws Exception {
+        PscCircuitBreaker circuitBreaker = PscCircuitBreaker.get(BaseTopicUri.validate(TOPIC_URI_1), configuration(true, 1, 200));
+
+        circuitBreaker.recordFailure();
+        assertEquals(PscCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        // e.g. a late ack of a send made before the circuit opened
+        circuitBreaker.recordSuccess();
+        assertEquals(PscCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+
+        // only a successful probe of the half-open circuit closes it
+        Thread.sleep(250);
+        assertTrue(circuitBreaker.allowRequest());
+        assertEquals(PscCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.recordSuccess();
+        assertEquals(PscCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+}
@@ -4,6 +4,7 @@ import com.codahale.metrics.Snapshot;
 import com.pinterest.psc.common.MessageId;
 import com.pinterest.psc.common.TestUtils;
 import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
 import com.pinterest.psc.config.MetricsReporterConfiguration;
 import com.pinterest.psc.config.PscConfiguration;
 import com.pinterest.psc.config.PscConfigurationInternal;
@@ -36,6 +37,7 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -201,4 +203,55 @@ class TestSerializedDataMetricsConsumerInterceptor {
             assertEquals(valueSizes.get(topicUri).longValue(), messageValueSizeBytesSnapshot.getMax());
         }));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSampledCountsAreFlushedPeriodicallyAndOnClose() throws Exception {
+        BytesPscConsumerMessageTestUtil bytesConsumerTestUtil = new BytesPscConsumerMessageTestUtil();
+        // one in 1000 messages is sampled, and pending counts are flushed every 100ms
+        when(pscConfigurationInternal.getMetricsReporterConfiguration()).thenReturn(new MetricsReporterConfiguration(
+                true, TestUtils.DEFAULT_METRICS_REPORTER, 10, "host001", 9999, 100,
+                PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR_SLIDING_TIME_WINDOW, -1, -1,
+                1000, PscConfiguration.PSC_METRICS_SAMPLING_MODE_DETERMINISTIC
+        ));
+        when(pscConfigurationInternal.getClientType()).thenReturn(PscConfiguration.PSC_CLIENT_TYPE_CONSUMER);
+        RawDataMetricsInterceptor rawDataMetricsInterceptor = new RawDataMetricsInterceptor();
+        rawDataMetricsInterceptor.setPscConfigurationInternal(pscConfigurationInternal);
+
+        Map<TopicUriPartition, Long> totalMessages = new HashMap<>();
+        try {
+            consume(rawDataMetricsInterceptor, bytesConsumerTestUtil.getRandomPscConsumerMessages(100), totalMessages);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!getPollMessages(totalMessages).equals(totalMessages)) {
+                assertTrue(System.currentTimeMillis() < deadline, "Pending counts were not flushed");
+                Thread.sleep(10);
+            }
+            // the counts of later messages are flushed on close at the latest
+            consume(rawDataMetricsInterceptor, bytesConsumerTestUtil.getRandomPscConsumerMessages(100), totalMessages);
+        } finally {
+            rawDataMetricsInterceptor.close();
+        }
+        assertEquals(totalMessages, getPollMessages(totalMessages));
+    }
+
+    private static void consume(RawDataMetricsInterceptor rawDataMetricsInterceptor,
+                                List<PscConsumerMessage<byte[], byte[]>> pscConsumerMessages,
+                                Map<TopicUriPartition, Long> totalMessages) {
+        for (PscConsumerMessage<byte[], byte[]> pscConsumerMessage : pscConsumerMessages) {
+            rawDataMetricsInterceptor.onConsume(pscConsumerMessage);
+            totalMessages.merge(pscConsumerMessage.getMessageId().getTopicUriPartition(), 1L, Long::sum);
+        }
+    }
+
+    private Map<TopicUriPartition, Long> getPollMessages(Map<TopicUriPartition, Long> totalMessages) {
+        Map<TopicUriPartition, Long> pollMessages = new HashMap<>();
+        totalMessages.keySet().forEach(topicUriPartition -> pollMessages.put(
+                topicUriPartition,
+                pscMetricRegistryManager.getBackendCounterMetric(
+                        topicUriPartition.getTopicUri(),
+                        topicUriPartition.getPartition(),
+                        PscMetrics.PSC_CONSUMER_POLL_MESSAGES_METRIC, pscConfigurationInternal
+                )
+        ));
+        return pollMessages;
+    }
+}
@@ -0,0 +1,124 @@
+package com.pinterest.psc.interceptor;
+
+import com.codahale.metrics.Snapshot;
+import com.pinterest.psc.common.BaseTopicUri;
+import com.pinterest.psc.common.MessageId;
+import com.pinterest.psc.common.PscMessage;
+import com.pinterest.psc.common.PscTraceContext;
+import com.pinterest.psc.common.TestUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.common.kafka.KafkaTopicUri;
+import com.pinterest.psc.config.MetricsReporterConfiguration;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.consumer.PscConsumerMessage;
+import com.pinterest.psc.environment.Environment;
+import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetricTagManager;
+import com.pinterest.psc.metrics.PscMetrics;
+import com.pinterest.psc.producer.PscProducerMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestTraceContextInterceptor {
+    private static final String topicUriStr =
+            "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":kafka:env:cloud_region::cluster:topic";
+
+    private final PscMetricRegistryManager pscMetricRegistryManager = PscMetricRegistryManager.getInstance();
+    private PscConfigurationInternal pscConfigurationInternal;
+    private TopicUri topicUri;
+
+    @BeforeEach
+    void init() throws Exception {
+        pscConfigurationInternal = getPscConfigurationInternal(true);
+        PscMetricTagManager pscMetricTagManager = PscMetricTagManager.getInstance();
+        pscMetricRegistryManager.setPscMetricTagManager(pscMetricTagManager);
+        pscMetricTagManager.initializePscMetricTagManager(pscConfigurationInternal);
+        pscMetricRegistryManager.initialize(pscConfigurationInternal);
+        topicUri = KafkaTopicUri.validate(TopicUri.validate(topicUriStr));
+    }
+
+    @AfterEach
+    void cleanup() {
+        pscMetricRegistryManager.shutdown(pscConfigurationInternal);
+    }
+
+    @Test
+    void testTraceContextIsAttachedWhenEnabled() {
+        TraceContextInterceptor<String, String> disabledInterceptor = new TraceContextInterceptor<>();
+        disabledInterceptor.setPscConfigurationInternal(getPscConfigurationInternal(false));
+        PscProducerMessage<String, String> message = disabledInterceptor.onSend(new PscProducerMessage<>(topicUriStr, "value"));
+        assertNull(PscTraceContext.fromHeaders(message.getHeaders()));
+
+        TraceContextInterceptor<String, String> interceptor = new TraceContextInterceptor<>();
+        interceptor.setPscConfigurationInternal(pscConfigurationInternal);
+        message = interceptor.onSend(new PscProducerMessage<>(topicUriStr, "value"));
+        PscTraceContext traceContext = PscTraceContext.fromHeaders(message.getHeaders());
+        assertNotNull(traceContext);
+        assertTrue(traceContext.getSpanTimestamp() <= System.currentTimeMillis());
+
+        // a message produced with the context of a consumed message continues the trace
+        PscTraceContext upstream = new PscTraceContext(42, 1000);
+        message = new PscProducerMessage<>(topicUriStr, "value");
+        message.setHeader(PscMessage.PSC_MESSAGE_HEADER_PSC_TRACE_CONTEXT, upstream.toBytes());
+        traceContext = PscTraceContext.fromHeaders(interceptor.onSend(message).getHeaders());
+        assertEquals(42, traceContext.getTraceId());
+        assertNotEquals(1000, traceContext.getSpanTimestamp());
+    }
+
+    @Test
+    void testHopLatenciesAreReported() {
+        TraceContextInterceptor<String, String> interceptor = new TraceContextInterceptor<>();
+        interceptor.setPscConfigurationInternal(pscConfigurationInternal);
+        long now = System.currentTimeMillis();
+
+        // messages without a context are not reported
+        interceptor.onConsume(getConsumerMessage(null), now - 100);
+        assertEquals(0, getHistogram(PscMetrics.PSC_CONSUMER_TRACE_PRODUCE_TO_FETCH_MS_METRIC).size());
+
+        interceptor.onConsume(getConsumerMessage(new PscTraceContext(42, now - 1000)), now - 100);
+        Snapshot produceToFetch = getHistogram(PscMetrics.PSC_CONSUMER_TRACE_PRODUCE_TO_FETCH_MS_METRIC);
+        assertEquals(1, produceToFetch.size());
+        assertEquals(900, produceToFetch.getMax());
+        Snapshot fetchToProcess = getHistogram(PscMetrics.PSC_CONSUMER_TRACE_FETCH_TO_PROCESS_MS_METRIC);
+        assertEquals(1, fetchToProcess.size());
+        assertTrue(fetchToProcess.getMax() >= 100);
+    }
+
+    private PscConsumerMessage<String, String> getConsumerMessage(PscTraceContext traceContext) {
+        TopicUriPartition topicUriPartition = new TopicUriPartition(topicUriStr, 0);
+        BaseTopicUri.finalizeTopicUriPartition(topicUriPartition, topicUri);
+        PscConsumerMessage<String, String> message =
+                new PscConsumerMessage<>(new MessageId(topicUriPartition, 0), null, "value", 0);
+        if (traceContext != null)
+            message.setHeader(PscMessage.PSC_MESSAGE_HEADER_PSC_TRACE_CONTEXT, traceContext.toBytes());
+        return message;
+    }
+
+    private Snapshot getHistogram(String metricKey) {
+        return pscMetricRegistryManager.getHistogramMetric(topicUri, 0, metricKey, pscConfigurationInternal);
+    }
+
+    private static PscConfigurationInternal getPscConfigurationInternal(boolean tracingEnabled) {
+        PscConfiguration pscConfiguration = new PscConfiguration();
+        pscConfiguration.setProperty(PscConfiguration.PSC_METRICS_TRACING_ENABLED, String.valueOf(tracingEnabled));
+        PscConfigurationInternal pscConfigurationInternal = mock(PscConfigurationInternal.class);
+        when(pscConfigurationInternal.getClientType()).thenReturn(PscConfiguration.PSC_CLIENT_TYPE_CONSUMER);
+        when(pscConfigurationInternal.getConfiguration()).thenReturn(pscConfiguration);
+        when(pscConfigurationInternal.getEnvironment()).thenReturn(mock(Environment.class));
+        when(pscConfigurationInternal.getMetricsReporterConfiguration()).thenReturn(new MetricsReporterConfiguration(
+                true, TestUtils.DEFAULT_METRICS_REPORTER, 10, "host001", 9999, 30000
+        ));
+        return pscConfigurationInternal;
+    }
+}
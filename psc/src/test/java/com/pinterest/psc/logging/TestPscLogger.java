@@ -0,0 +1,20 @@
+package com.pinterest.psc.logging;
+
+import org.apache.log4j.LogManager;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TestPscLogger {
+
+    @Test
+    void testLoggerWithoutNameIsNamedAfterCaller() {
+        assertEquals(TestPscLogger.class.getName(), PscLoggerManager.getCallerClassName());
+
+        assertNull(LogManager.exists(TestPscLogger.class.getName()));
+        PscLogger.getLogger();
+        assertNotNull(LogManager.exists(TestPscLogger.class.getName()));
+    }
+}
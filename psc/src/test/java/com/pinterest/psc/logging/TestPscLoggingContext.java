@@ -0,0 +1,83 @@
+package com.pinterest.psc.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPscLoggingContext {
+    private static final PscLogger logger = PscLogger.getLogger(TestPscLoggingContext.class);
+    private final PscLoggingContext loggingContext = PscLoggingContext.getProcessContext();
+
+    @BeforeEach
+    void setUp() {
+        PscLoggingContext.detach(logger);
+    }
+
+    @AfterEach
+    void tearDown() {
+        PscLoggingContext.detach(logger);
+    }
+
+    @Test
+    void testAttachAndDetach() {
+        loggingContext.attach(logger);
+        assertAttached();
+        // attaching again keeps the values in place
+        loggingContext.attach(logger);
+        assertAttached();
+
+        PscLoggingContext.detach(logger);
+        assertNull(logger.getContext(PscLoggingContext.PID_KEY));
+        assertNull(logger.getContext(PscLoggingContext.THREAD_ID_KEY));
+
+        loggingContext.attach(logger);
+        assertAttached();
+    }
+
+    @Test
+    void testSwitchBetweenClientContexts() {
+        PscLoggingContext clientContext1 = PscLoggingContext.forClient("client1");
+        PscLoggingContext clientContext2 = PscLoggingContext.forClient("client2");
+
+        clientContext1.attach(logger);
+        assertTrue(clientContext1.isAttached());
+        assertEquals("client1", logger.getContext(PscLoggingContext.CLIENT_ID_KEY));
+        clientContext2.attach(logger);
+        assertFalse(clientContext1.isAttached());
+        assertEquals("client2", logger.getContext(PscLoggingContext.CLIENT_ID_KEY));
+        clientContext1.attach(logger);
+        assertEquals("client1", logger.getContext(PscLoggingContext.CLIENT_ID_KEY));
+        assertEquals(String.valueOf(Thread.currentThread().getId()), logger.getContext(PscLoggingContext.THREAD_ID_KEY));
+    }
+
+    @Test
+    void testReattachAfterExternalClear() {
+        loggingContext.attach(logger);
+        assertAttached();
+
+        // the application clears the MDC of the thread without detaching the context
+        logger.clearContext();
+        assertNull(logger.getContext(PscLoggingContext.THREAD_ID_KEY));
+
+        // the MDC is not read on every attach, but the values are put back within the check interval
+        for (int i = 0; i < PscLoggingContext.MDC_CHECK_INTERVAL; ++i)
+            loggingContext.attach(logger);
+        assertAttached();
+
+        // or on the next attach once the application invalidates the context
+        logger.clearContext();
+        PscLoggingContext.invalidate();
+        loggingContext.attach(logger);
+        assertAttached();
+    }
+
+    private void assertAttached() {
+        loggingContext.getEntries().forEach((key, value) -> assertEquals(value, logger.getContext(key)));
+        assertEquals(String.valueOf(Thread.currentThread().getId()), logger.getContext(PscLoggingContext.THREAD_ID_KEY));
+    }
+}
@@ -0,0 +1,47 @@
+package com.pinterest.psc.logging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestRateLimitedPscLogger {
+
+    @Test
+    void testMessagesBeyondBurstAreSuppressed() {
+        PscLogger delegate = mock(PscLogger.class);
+        when(delegate.isWarnEnabled()).thenReturn(true);
+        RateLimitedPscLogger logger = new RateLimitedPscLogger(delegate, 2, 60000);
+
+        for (int i = 0; i < 5; ++i)
+            logger.warn("Failed to send message to {}", "topic");
+        verify(delegate, times(2)).warn("Failed to send message to {}", "topic");
+        assertEquals(3, logger.getSuppressedMessageCount());
+
+        // other call sites have buckets of their own
+        logger.warn("Failed to commit offsets");
+        verify(delegate).warn("Failed to commit offsets");
+    }
+
+    @Test
+    void testDisabledLevelsAreNotRateLimited() {
+        PscLogger delegate = mock(PscLogger.class);
+        when(delegate.isWarnEnabled()).thenReturn(true);
+        RateLimitedPscLogger logger = new RateLimitedPscLogger(delegate, 1, 60000);
+
+        // disabled messages are dropped before they take a token or count as suppressed
+        for (int i = 0; i < 5; ++i)
+            logger.debug("Polled {} messages", i);
+        verify(delegate, never()).debug(anyString(), any(Object[].class));
+        assertEquals(0, logger.getSuppressedMessageCount());
+
+        logger.warn("Polled {} messages", 1);
+        verify(delegate).warn("Polled {} messages", 1);
+    }
+}
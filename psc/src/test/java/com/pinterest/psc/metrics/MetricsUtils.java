@@ -11,4 +11,8 @@ public class MetricsUtils {
     public static void shutdownMetrics(PscMetricRegistryManager pscMetricRegistryManager, PscConfigurationInternal pscConfigurationInternal) {
         pscMetricRegistryManager.shutdown(pscConfigurationInternal);
     }
+
+    public static void resetCardinalityPolicy(PscMetricRegistryManager pscMetricRegistryManager) {
+        pscMetricRegistryManager.resetCardinalityPolicy();
+    }
 }
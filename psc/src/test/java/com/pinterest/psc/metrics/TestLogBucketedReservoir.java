@@ -0,0 +1,114 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestLogBucketedReservoir {
+
+    @Test
+    void testPercentilesAreWithinBucketPrecision() {
+        LogBucketedReservoir reservoir = new LogBucketedReservoir();
+        for (long value = 1; value <= 100000; ++value)
+            reservoir.update(value);
+
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(100000, snapshot.size());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(100000, snapshot.getMax());
+        assertEquals(50000.5, snapshot.getMean(), 0.001);
+        assertWithinPrecision(50000, snapshot.getMedian());
+        assertWithinPrecision(75000, snapshot.get75thPercentile());
+        assertWithinPrecision(95000, snapshot.get95thPercentile());
+        assertWithinPrecision(99000, snapshot.get99thPercentile());
+        assertWithinPrecision(99900, snapshot.get999thPercentile());
+        assertWithinPrecision(28867.66, snapshot.getStdDev());
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LogBucketedReservoir reservoir = new LogBucketedReservoir();
+        for (long value = 0; value < 100; ++value)
+            reservoir.update(value);
+
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(49, snapshot.getMedian(), 0);
+        assertEquals(98, snapshot.get99thPercentile(), 0);
+        assertEquals(100, snapshot.getValues().length);
+    }
+
+    @Test
+    void testEachSnapshotCoversOneInterval() {
+        LogBucketedReservoir reservoir = new LogBucketedReservoir();
+        reservoir.update(1000);
+        reservoir.update(2000);
+        assertEquals(2, reservoir.size());
+        assertEquals(2000, reservoir.getSnapshot().getMax());
+
+        Snapshot empty = reservoir.getSnapshot();
+        assertEquals(0, empty.size());
+        assertEquals(0, empty.getMax());
+        assertEquals(0, empty.getMedian(), 0);
+
+        reservoir.update(5);
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(1, snapshot.size());
+        assertEquals(5, snapshot.getMin());
+        assertEquals(5, snapshot.getMax());
+    }
+
+    @Test
+    void testNegativeValues() {
+        LogBucketedReservoir reservoir = new LogBucketedReservoir();
+        reservoir.update(-1);
+        reservoir.update(-1000);
+        reservoir.update(10);
+        reservoir.update(Long.MIN_VALUE);
+
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(Long.MIN_VALUE, snapshot.getMin());
+        assertEquals(10, snapshot.getMax());
+        assertWithinPrecision(-1000, snapshot.getMedian());
+        assertEquals(-1, snapshot.get75thPercentile(), 0);
+    }
+
+    @Test
+    void testConcurrentUpdatesAreNotLost() throws Exception {
+        LogBucketedReservoir reservoir = new LogBucketedReservoir();
+        int threads = 4;
+        int updatesPerThread = 100000;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; ++i) {
+            futures.add(executorService.submit(() -> {
+                for (int j = 0; j < updatesPerThread; ++j)
+                    reservoir.update(j);
+            }));
+        }
+
+        long total = 0;
+        while (!futures.stream().allMatch(Future::isDone))
+            total += reservoir.getSnapshot().size();
+        for (Future<?> future : futures)
+            future.get();
+        total += reservoir.getSnapshot().size();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals((long) threads * updatesPerThread, total);
+    }
+
+    private static void assertWithinPrecision(double expected, double actual) {
+        assertTrue(Math.abs(actual - expected) <= Math.abs(expected) / 64,
+                String.format("expected %f to be within 1/64 of %f", actual, expected));
+    }
+}
@@ -0,0 +1,217 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestOpenTSDBClient {
+    private static final long TIMEOUT_MS = 5000;
+
+    private ServerSocket serverSocket;
+    private final List<Socket> acceptedSockets = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> receivedLines = Collections.synchronizedList(new ArrayList<>());
+    private OpenTSDBClient client;
+
+    @BeforeEach
+    void init() throws IOException {
+        serverSocket = new ServerSocket(0, 10, InetAddress.getLoopbackAddress());
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        if (client != null)
+            client.close();
+        serverSocket.close();
+        for (Socket socket : acceptedSockets)
+            socket.close();
+    }
+
+    @Test
+    void testMetricsBufferFormat() {
+        OpenTSDBClient.MetricsBuffer buffer = new OpenTSDBClient.MetricsBuffer("psc.");
+        buffer.addMetric("count", 1600000000, 5f, "uri=a", "host=b");
+        buffer.addMetric("latency", 1600000000, 1.5, "uri=a");
+        buffer.addMetric("other", 1600000000, 2f, "uri=a host=b");
+        assertEquals(
+                "put psc.count 1600000000 5.0 uri=a host=b\n" +
+                "put psc.latency 1600000000 1.5 uri=a\n" +
+                "put psc.other 1600000000 2.0 uri=a host=b\n",
+                buffer.toString()
+        );
+        assertEquals(3, buffer.getMetricCount());
+
+        buffer.reset();
+        assertEquals("", buffer.toString());
+        assertEquals(0, buffer.getMetricCount());
+    }
+
+    @Test
+    void testSendsOverOnePersistentConnection() throws Exception {
+        startReadingServer();
+        client = new OpenTSDBClient("127.0.0.1", serverSocket.getLocalPort(), 64 * 1024, 10);
+
+        OpenTSDBClient.MetricsBuffer buffer = new OpenTSDBClient.MetricsBuffer("psc.");
+        for (int i = 0; i < 100; ++i) {
+            buffer.reset();
+            buffer.addMetric("metric" + i, 1600000000, i, "uri=a");
+            assertTrue(client.sendMetrics(buffer));
+        }
+
+        waitFor(() -> receivedLines.size() == 100);
+        assertEquals("put psc.metric0 1600000000 0.0 uri=a", receivedLines.get(0));
+        assertEquals("put psc.metric99 1600000000 99.0 uri=a", receivedLines.get(99));
+        assertEquals(1, acceptedSockets.size());
+        assertEquals(0, client.getDroppedMetricCount());
+    }
+
+    @Test
+    void testReconnectsAfterConnectionLoss() throws Exception {
+        startReadingServer();
+        client = new OpenTSDBClient("127.0.0.1", serverSocket.getLocalPort(), 64 * 1024, 10);
+        OpenTSDBClient.MetricsBuffer buffer = new OpenTSDBClient.MetricsBuffer("");
+        buffer.addMetric("before", 1600000000, 1f, "uri=a");
+        assertTrue(client.sendMetrics(buffer));
+        waitFor(() -> receivedLines.size() == 1);
+
+        acceptedSockets.get(0).close();
+        // writes to the closed connection eventually fail; the client then reconnects after its backoff
+        buffer.reset();
+        buffer.addMetric("after", 1600000000, 1f, "uri=a");
+        waitFor(() -> {
+            client.sendMetrics(buffer);
+            return acceptedSockets.size() == 2 && receivedLines.stream().anyMatch(line -> line.startsWith("put after"));
+        });
+    }
+
+    @Test
+    void testDropsInsteadOfBlockingWhenServerIsSlow() throws Exception {
+        // the server accepts the connection but never reads from it
+        Thread acceptor = new Thread(() -> {
+            try {
+                acceptedSockets.add(serverSocket.accept());
+            } catch (IOException e) {
+                // closed
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        client = new OpenTSDBClient("127.0.0.1", serverSocket.getLocalPort(), 64 * 1024, 10);
+
+        OpenTSDBClient.MetricsBuffer buffer = new OpenTSDBClient.MetricsBuffer("");
+        for (int i = 0; i < 100; ++i)
+            buffer.addMetric("metric.with.a.reasonably.long.name", 1600000000, i, "uri=some/topic/uri", "host=host");
+
+        long startMs = System.currentTimeMillis();
+        int dropped = 0;
+        // far more than the socket and send buffers can hold
+        for (int i = 0; i < 20000; ++i) {
+            if (!client.sendMetrics(buffer))
+                ++dropped;
+        }
+        assertTrue(System.currentTimeMillis() - startMs < TIMEOUT_MS);
+        assertTrue(dropped > 0);
+        assertEquals(dropped * 100L, client.getDroppedMetricCount());
+    }
+
+    @Test
+    void testUnreachableServer() throws Exception {
+        int port = serverSocket.getLocalPort();
+        serverSocket.close();
+        client = new OpenTSDBClient("127.0.0.1", port, 1024, 10);
+
+        OpenTSDBClient.MetricsBuffer buffer = new OpenTSDBClient.MetricsBuffer("");
+        for (int i = 0; i < 10; ++i)
+            buffer.addMetric("metric", 1600000000, i, "uri=a");
+        assertTrue(client.sendMetrics(buffer));
+        assertFalse(client.isConnected());
+        // queued metrics wait for a connection until the send buffer fills up
+        while (client.sendMetrics(buffer)) ;
+        assertEquals(10, client.getDroppedMetricCount());
+    }
+
+    @Test
+    void testReportsDroppedDatapoints() throws Exception {
+        int port = serverSocket.getLocalPort();
+        serverSocket.close();
+        client = new OpenTSDBClient("127.0.0.1", port, 1024, 10);
+        OpenTSDBClient.MetricsBuffer buffer = new OpenTSDBClient.MetricsBuffer("");
+        for (int i = 0; i < 10; ++i)
+            buffer.addMetric("metric", 1600000000, i, "uri=a");
+        while (client.sendMetrics(buffer)) ;
+
+        // the server comes up, and the next reports carry the drops so far
+        serverSocket = new ServerSocket(port, 10, InetAddress.getLoopbackAddress());
+        startReadingServer();
+        OpenTSDBReporter reporter = new OpenTSDBReporter(client, "psc", new PscMetricTag.Builder().id("uri").build(),
+                new MetricRegistry(), MetricFilter.ALL, TimeUnit.SECONDS, TimeUnit.MILLISECONDS);
+        try {
+            waitFor(() -> {
+                reporter.report();
+                synchronized (receivedLines) {
+                    return receivedLines.stream().anyMatch(line ->
+                            line.startsWith("put psc." + PscMetrics.PSC_METRICS_REPORTER_DROPPED_DATAPOINTS + " ") &&
+                            Float.parseFloat(line.split(" ")[3]) >= 10);
+                }
+            });
+        } finally {
+            reporter.close();
+        }
+    }
+
+    private void startReadingServer() {
+        Thread acceptor = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    acceptedSockets.add(socket);
+                    Thread reader = new Thread(() -> {
+                        try (BufferedReader bufferedReader = new BufferedReader(
+                                new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1))) {
+                            String line;
+                            while ((line = bufferedReader.readLine()) != null)
+                                receivedLines.add(line);
+                        } catch (IOException e) {
+                            // closed
+                        }
+                    });
+                    reader.setDaemon(true);
+                    reader.start();
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private static void waitFor(Condition condition) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.isMet()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for condition");
+            Thread.sleep(10);
+        }
+    }
+
+    private interface Condition {
+        boolean isMet() throws Exception;
+    }
+}
@@ -0,0 +1,156 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+import com.pinterest.psc.config.MetricsReporterConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPrometheusMetricsReporter {
+    private final List<PrometheusMetricsReporter> reporters = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        reporters.forEach(PrometheusMetricsReporter::close);
+    }
+
+    @Test
+    void testExposition() throws Exception {
+        MetricRegistry registry1 = new MetricRegistry();
+        registry1.counter("consumer.poll.messages").inc(5);
+        registry1.histogram("consumer.time.lag.ms").update(10);
+        registry1.register("jvm.threads", (Gauge<Integer>) () -> 7);
+        MetricRegistry registry2 = new MetricRegistry();
+        registry2.counter("consumer.poll.messages").inc(3);
+
+        PrometheusMetricsReporter reporter1 = createReporter(registry1, new PscMetricTag.Builder()
+                .id("plaintext:/rn:kafka:env:region::cluster:topic").hostname("host").tag("partition", "1").build());
+        createReporter(registry2, new PscMetricTag.Builder()
+                .id("plaintext:/rn:kafka:env:region::cluster:topic").hostname("host").tag("partition", "2").build());
+
+        String exposition = scrape(reporter1.getPrometheusExporter().getPort());
+        List<String> lines = Arrays.asList(exposition.split("\n"));
+        // series of a metric are grouped under a single type line
+        assertEquals(1, lines.stream().filter(line -> line.equals("# TYPE psc_consumer_poll_messages counter")).count());
+        int typeIndex = lines.indexOf("# TYPE psc_consumer_poll_messages counter");
+        assertTrue(lines.subList(typeIndex + 1, typeIndex + 3).containsAll(Arrays.asList(
+                "psc_consumer_poll_messages{hostname=\"host\",partition=\"1\",uri=\"plaintext:/rn:kafka:env:region::cluster:topic\"} 5",
+                "psc_consumer_poll_messages{hostname=\"host\",partition=\"2\",uri=\"plaintext:/rn:kafka:env:region::cluster:topic\"} 3"
+        )));
+        assertTrue(lines.contains("# TYPE psc_consumer_time_lag_ms summary"));
+        assertTrue(lines.contains(
+                "psc_consumer_time_lag_ms{hostname=\"host\",partition=\"1\",uri=\"plaintext:/rn:kafka:env:region::cluster:topic\",quantile=\"0.99\"} 10"));
+        assertTrue(lines.contains(
+                "psc_consumer_time_lag_ms_count{hostname=\"host\",partition=\"1\",uri=\"plaintext:/rn:kafka:env:region::cluster:topic\"} 1"));
+        assertTrue(lines.contains("# TYPE psc_jvm_threads gauge"));
+        assertTrue(lines.contains(
+                "psc_jvm_threads{hostname=\"host\",partition=\"1\",uri=\"plaintext:/rn:kafka:env:region::cluster:topic\"} 7"));
+    }
+
+    @Test
+    void testScrapesDoNotConsumeLogBucketedHistogram() throws Exception {
+        MetricRegistry registry = new MetricRegistry();
+        LogBucketedReservoir reservoir = new LogBucketedReservoir();
+        WeightedHistogram histogram = registry.register("consumer.time.lag.ms", new WeightedHistogram(reservoir));
+        histogram.update(10, 4);
+        PrometheusMetricsReporter reporter = createReporter(registry, new PscMetricTag.Builder().id("uri").build());
+
+        String quantile = "psc_consumer_time_lag_ms{uri=\"uri\",quantile=\"0.5\"} 10\n";
+        String count = "psc_consumer_time_lag_ms_count{uri=\"uri\"} 4\n";
+        for (int i = 0; i < 2; ++i) {
+            String exposition = scrape(reporter.getPrometheusExporter().getPort());
+            assertTrue(exposition.contains(quantile), exposition);
+            assertTrue(exposition.contains(count), exposition);
+        }
+
+        // the periodic reporter still sees the values of its interval
+        assertEquals(4, reservoir.getSnapshot().size());
+        // and scrapes keep covering the completed interval until the next one completes
+        histogram.update(20, 1);
+        assertEquals(5, reservoir.getCurrentSnapshot().size());
+        assertEquals(1, reservoir.getSnapshot().size());
+        assertEquals(1, reservoir.getCurrentSnapshot().size());
+    }
+
+    @Test
+    void testLabelValuesAreEscaped() throws Exception {
+        MetricRegistry registry = new MetricRegistry();
+        registry.counter("count").inc();
+        createReporter(registry, new PscMetricTag.Builder().id("a\"b\\c\nd").build());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        reporters.get(0).getPrometheusExporter().writeMetrics(outputStream);
+        assertTrue(outputStream.toString(StandardCharsets.UTF_8.name()).contains("psc_count{uri=\"a\\\"b\\\\c\\nd\"} 1\n"));
+    }
+
+    @Test
+    void testLargeExpositionIsStreamed() throws Exception {
+        for (int i = 0; i < 200; ++i) {
+            MetricRegistry registry = new MetricRegistry();
+            for (int j = 0; j < 50; ++j)
+                registry.counter("metric" + j).inc(i);
+            createReporter(registry, new PscMetricTag.Builder().id("uri").tag("partition", String.valueOf(i)).build());
+        }
+
+        String exposition = scrape(reporters.get(0).getPrometheusExporter().getPort());
+        assertEquals(50 + 200 * 50, exposition.split("\n").length);
+        assertTrue(exposition.contains("psc_metric49{partition=\"199\",uri=\"uri\"} 199\n"));
+    }
+
+    @Test
+    void testEndpointStopsWithLastReporter() throws Exception {
+        PrometheusMetricsReporter reporter1 = createReporter(new MetricRegistry(), new PscMetricTag.Builder().id("a").build());
+        PrometheusMetricsReporter reporter2 = createReporter(new MetricRegistry(), new PscMetricTag.Builder().id("b").build());
+        PrometheusExporter prometheusExporter = reporter1.getPrometheusExporter();
+        assertTrue(prometheusExporter.getPort() > 0);
+
+        reporter1.close();
+        assertTrue(prometheusExporter.getPort() > 0);
+        reporter2.close();
+        assertEquals(-1, prometheusExporter.getPort());
+    }
+
+    private PrometheusMetricsReporter createReporter(MetricRegistry registry, PscMetricTag pscMetricTag) throws Exception {
+        PrometheusMetricsReporter reporter = PrometheusMetricsReporter.createReporter(
+                new MetricsReporterConfiguration(true, PrometheusMetricsReporter.class.getName(), 1, "127.0.0.1", 0, 60000),
+                PscMetrics.PSC_METRICS_REGISTRY_BASE_NAME,
+                pscMetricTag,
+                registry,
+                MetricFilter.ALL,
+                TimeUnit.SECONDS,
+                TimeUnit.SECONDS
+        );
+        reporters.add(reporter);
+        return reporter;
+    }
+
+    private static String scrape(int port) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/metrics").openConnection();
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+        try (InputStream inputStream = connection.getInputStream()) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) > 0)
+                outputStream.write(buffer, 0, read);
+            return outputStream.toString(StandardCharsets.UTF_8.name());
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
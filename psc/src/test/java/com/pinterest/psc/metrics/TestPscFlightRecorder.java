@@ -0,0 +1,66 @@
+package com.pinterest.psc.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPscFlightRecorder {
+
+    @Test
+    void testDisabledEventsAreNoOps() {
+        for (PscFlightRecorder.Type type : PscFlightRecorder.Type.values())
+            assertFalse(type.isEnabled());
+        PscEvent event = PscFlightRecorder.begin(PscFlightRecorder.Type.CONSUMER_POLL);
+        assertSame(PscEvent.DISABLED, event);
+        assertFalse(event.isEnabled());
+        event.topicUri("plaintext:/rn:kafka:env:region::cluster:topic").backend("kafka").count(1).detail("detail").commit();
+    }
+
+    @Test
+    void testEventsAreRecorded() throws Exception {
+        // JFR is part of all supported runtimes from Java 11
+        if (!System.getProperty("java.specification.version").startsWith("1."))
+            assertTrue(PscFlightRecorder.isAvailable());
+        if (!PscFlightRecorder.isAvailable())
+            return;
+
+        // the test sources target Java 8, so the recording API is used reflectively
+        Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        Object recording = recordingClass.getConstructor().newInstance();
+        Path dump = Files.createTempFile("psc", ".jfr");
+        try {
+            recordingClass.getMethod("enable", String.class).invoke(recording, "com.pinterest.psc.ProducerFlush");
+            recordingClass.getMethod("start").invoke(recording);
+            assertTrue(PscFlightRecorder.Type.PRODUCER_FLUSH.isEnabled());
+            assertFalse(PscFlightRecorder.Type.PRODUCER_SEND.isEnabled());
+
+            PscEvent event = PscFlightRecorder.begin(PscFlightRecorder.Type.PRODUCER_FLUSH);
+            assertTrue(event.isEnabled());
+            event.topicUri("plaintext:/rn:kafka:env:region::cluster:topic").backend("kafka").count(3).detail("detail").commit();
+
+            recordingClass.getMethod("stop").invoke(recording);
+            recordingClass.getMethod("dump", Path.class).invoke(recording, dump);
+        } finally {
+            recordingClass.getMethod("close").invoke(recording);
+        }
+
+        Class<?> recordingFileClass = Class.forName("jdk.jfr.consumer.RecordingFile");
+        Class<?> recordedEventClass = Class.forName("jdk.jfr.consumer.RecordedEvent");
+        List<?> events = (List<?>) recordingFileClass.getMethod("readAllEvents", Path.class).invoke(null, dump);
+        Files.delete(dump);
+        assertEquals(1, events.size());
+        Object recordedEvent = events.get(0);
+        assertEquals("plaintext:/rn:kafka:env:region::cluster:topic",
+                recordedEventClass.getMethod("getString", String.class).invoke(recordedEvent, "topicUri"));
+        assertEquals("kafka", recordedEventClass.getMethod("getString", String.class).invoke(recordedEvent, "backend"));
+        assertEquals(3L, recordedEventClass.getMethod("getLong", String.class).invoke(recordedEvent, "count"));
+        assertEquals("detail", recordedEventClass.getMethod("getString", String.class).invoke(recordedEvent, "detail"));
+    }
+}
@@ -0,0 +1,175 @@
+package com.pinterest.psc.metrics;
+
+import com.pinterest.psc.common.TestUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.kafka.KafkaTopicUri;
+import com.pinterest.psc.config.MetricsReporterConfiguration;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.environment.Environment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestPscMetricCardinalityPolicy {
+    private static final String topicUriStr1 =
+            "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":kafka:env:cloud_region::cluster:topic1";
+    private static final String topicUriStr2 =
+            "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":kafka:env:cloud_region::cluster:topic2";
+    private static final String metricKey = PscMetrics.PSC_CONSUMER_POLL_MESSAGES_METRIC;
+
+    private final PscMetricRegistryManager pscMetricRegistryManager = PscMetricRegistryManager.getInstance();
+    private PscConfigurationInternal pscConfigurationInternal;
+
+    @AfterEach
+    void cleanup() {
+        if (pscConfigurationInternal == null)
+            return;
+        MetricsUtils.resetMetrics(pscMetricRegistryManager);
+        MetricsUtils.shutdownMetrics(pscMetricRegistryManager, pscConfigurationInternal);
+        pscMetricRegistryManager.resetCardinalityPolicy();
+    }
+
+    @Test
+    void testPartitionsOutsideTopNAreRolledUp() throws Exception {
+        initialize(2, -1);
+        TopicUri topicUri = KafkaTopicUri.validate(TopicUri.validate(topicUriStr1));
+
+        // the first two partitions seen are kept until partitions are ranked; volume is the number of updates
+        for (int i = 0; i < 10; ++i)
+            increment(topicUri, 0, 1);
+        increment(topicUri, 1, 1);
+        for (int i = 0; i < 5; ++i)
+            increment(topicUri, 2, 1);
+        assertEquals(10, getCount(topicUri, 0));
+        assertEquals(1, getCount(topicUri, 1));
+        assertEquals(0, getCount(topicUri, 2));
+        assertEquals(5, getCount(topicUri, PscMetricTag.ROLLED_UP_PARTITION));
+
+        PscCounterHandle partition1Handle =
+                pscMetricRegistryManager.getCounterHandle(topicUri, 1, metricKey, pscConfigurationInternal);
+        PscCounterHandle partition2Handle =
+                pscMetricRegistryManager.getCounterHandle(topicUri, 2, metricKey, pscConfigurationInternal);
+        partition1Handle.increment();
+        partition2Handle.increment();
+        assertEquals(2, getCount(topicUri, 1));
+        assertEquals(6, getCount(topicUri, PscMetricTag.ROLLED_UP_PARTITION));
+
+        // partition 2 has more volume than partition 1 and replaces it; the count of partition 1 so far is rolled up
+        int partition0Generation = pscMetricRegistryManager.getPartitionVolume(topicUri, 0).getGeneration();
+        pscMetricRegistryManager.rankPartitions();
+        assertEquals(8, getCount(topicUri, PscMetricTag.ROLLED_UP_PARTITION));
+        partition1Handle.increment();
+        partition2Handle.increment();
+        increment(topicUri, 0, 1);
+        assertEquals(11, getCount(topicUri, 0));
+        assertEquals(0, getCount(topicUri, 1));
+        assertEquals(1, getCount(topicUri, 2));
+        assertEquals(9, getCount(topicUri, PscMetricTag.ROLLED_UP_PARTITION));
+        // metrics of partitions whose kept status did not change need not be resolved again
+        assertEquals(partition0Generation, pscMetricRegistryManager.getPartitionVolume(topicUri, 0).getGeneration());
+    }
+
+    @Test
+    void testSeriesPerMetricAreLimited() throws Exception {
+        initialize(-1, 2);
+        TopicUri topicUri1 = KafkaTopicUri.validate(TopicUri.validate(topicUriStr1));
+        TopicUri topicUri2 = KafkaTopicUri.validate(TopicUri.validate(topicUriStr2));
+
+        increment(topicUri1, 0, 1);
+        increment(topicUri1, 1, 2);
+        increment(topicUri1, 2, 3);
+        increment(topicUri2, 0, 4);
+        assertEquals(1, getCount(topicUri1, 0));
+        assertEquals(2, getCount(topicUri1, 1));
+        assertEquals(0, getCount(topicUri1, 2));
+        assertEquals(0, getCount(topicUri2, 0));
+        assertEquals(0, getCount(topicUri1, PscMetricTag.ROLLED_UP_PARTITION));
+        assertEquals(7, getCount(null, PscMetricTag.ROLLED_UP_PARTITION));
+
+        // other metrics have series of their own
+        pscMetricRegistryManager.incrementCounterMetric(
+                topicUri2, 0, PscMetrics.PSC_CONSUMER_POLL_KEYED_MESSAGES_METRIC, pscConfigurationInternal
+        );
+        assertEquals(1, pscMetricRegistryManager.getCounterMetric(
+                topicUri2, 0, PscMetrics.PSC_CONSUMER_POLL_KEYED_MESSAGES_METRIC, pscConfigurationInternal
+        ));
+    }
+
+    @Test
+    void testStrictestLimitsApply() {
+        PscMetricCardinalityPolicy policy = new PscMetricCardinalityPolicy();
+        policy.configure(-1, -1);
+        assertEquals(false, policy.isPartitionTopNEnabled());
+        policy.configure(10, -1);
+        policy.configure(20, 5);
+        policy.configure(-1, -1);
+        assertEquals(true, policy.isPartitionTopNEnabled());
+        assertEquals(true, policy.admitsSeries("metric", "a"));
+        for (int i = 0; i < 4; ++i)
+            policy.admitsSeries("metric", "series" + i);
+        assertEquals(false, policy.admitsSeries("metric", "b"));
+        policy.removeSeries("a");
+        assertEquals(true, policy.admitsSeries("metric", "b"));
+    }
+
+    @Test
+    void testSeriesLimitUnderConcurrentUpdates() throws Exception {
+        PscMetricCardinalityPolicy policy = new PscMetricCardinalityPolicy();
+        policy.configure(-1, 10);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            int thread = i;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < 100; ++j) {
+                    if (policy.admitsSeries("metric", thread + "-" + j))
+                        admitted.incrementAndGet();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(10, admitted.get());
+    }
+
+    private void initialize(int partitionTopN, int maxSeriesPerMetric) {
+        pscConfigurationInternal = mock(PscConfigurationInternal.class);
+        when(pscConfigurationInternal.getClientType()).thenReturn(PscConfiguration.PSC_CLIENT_TYPE_CONSUMER);
+        when(pscConfigurationInternal.getConfiguration()).thenReturn(new PscConfiguration());
+        when(pscConfigurationInternal.getEnvironment()).thenReturn(mock(Environment.class));
+        when(pscConfigurationInternal.getMetricsReporterConfiguration()).thenReturn(new MetricsReporterConfiguration(
+                true, TestUtils.DEFAULT_METRICS_REPORTER, 10, "host001", 9999, 30000,
+                PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR_SLIDING_TIME_WINDOW, partitionTopN, maxSeriesPerMetric
+        ));
+        PscMetricTagManager pscMetricTagManager = PscMetricTagManager.getInstance();
+        pscMetricRegistryManager.setPscMetricTagManager(pscMetricTagManager);
+        pscMetricTagManager.initializePscMetricTagManager(pscConfigurationInternal);
+        pscMetricRegistryManager.resetCardinalityPolicy();
+        pscMetricRegistryManager.initialize(pscConfigurationInternal);
+    }
+
+    private void increment(TopicUri topicUri, int partition, long count) {
+        pscMetricRegistryManager.incrementCounterMetric(topicUri, partition, metricKey, count, pscConfigurationInternal);
+    }
+
+    private long getCount(TopicUri topicUri, int partition) {
+        return pscMetricRegistryManager.getCounterMetric(topicUri, partition, metricKey, pscConfigurationInternal);
+    }
+}
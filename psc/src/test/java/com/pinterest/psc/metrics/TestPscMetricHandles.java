@@ -0,0 +1,134 @@
+package com.pinterest.psc.metrics;
+
+import com.pinterest.psc.common.PscUtils;
+import com.pinterest.psc.common.TestUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.kafka.KafkaTopicUri;
+import com.pinterest.psc.config.MetricsReporterConfiguration;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.environment.Environment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestPscMetricHandles {
+    private static final String topicUriStr =
+            "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":kafka:env:cloud_region::cluster:topic";
+
+    private final PscMetricRegistryManager pscMetricRegistryManager = PscMetricRegistryManager.getInstance();
+    private PscConfigurationInternal pscConfigurationInternal;
+    private TopicUri topicUri;
+
+    @BeforeEach
+    void init() throws Exception {
+        pscConfigurationInternal = getPscConfigurationInternal(true);
+        PscMetricTagManager pscMetricTagManager = PscMetricTagManager.getInstance();
+        pscMetricRegistryManager.setPscMetricTagManager(pscMetricTagManager);
+        pscMetricTagManager.initializePscMetricTagManager(pscConfigurationInternal);
+        pscMetricRegistryManager.initialize(pscConfigurationInternal);
+        topicUri = KafkaTopicUri.validate(TopicUri.validate(topicUriStr));
+    }
+
+    @AfterEach
+    void cleanup() {
+        MetricsUtils.resetMetrics(pscMetricRegistryManager);
+        MetricsUtils.shutdownMetrics(pscMetricRegistryManager, pscConfigurationInternal);
+    }
+
+    @Test
+    void testHandlesUpdateRegistryMetrics() {
+        PscCounterHandle counterHandle = pscMetricRegistryManager.getBackendCounterHandle(
+                topicUri, 3, PscMetrics.PSC_PRODUCER_ACKED_MESSAGES_METRIC, pscConfigurationInternal
+        );
+        counterHandle.increment();
+        counterHandle.increment(2);
+        pscMetricRegistryManager.incrementBackendCounterMetric(
+                topicUri, 3, PscMetrics.PSC_PRODUCER_ACKED_MESSAGES_METRIC, pscConfigurationInternal
+        );
+        assertEquals(4, pscMetricRegistryManager.getBackendCounterMetric(
+                topicUri, 3, PscMetrics.PSC_PRODUCER_ACKED_MESSAGES_METRIC, pscConfigurationInternal
+        ));
+
+        PscHistogramHandle histogramHandle = pscMetricRegistryManager.getHistogramHandle(
+                topicUri, PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_TIME_LAG_MS_METRIC, pscConfigurationInternal
+        );
+        histogramHandle.update(10);
+        histogramHandle.update(30);
+        assertEquals(2, pscMetricRegistryManager.getHistogramMetric(
+                topicUri, PscMetrics.PSC_CONSUMER_TIME_LAG_MS_METRIC, pscConfigurationInternal
+        ).size());
+        assertEquals(30, pscMetricRegistryManager.getHistogramMetric(
+                topicUri, PscMetrics.PSC_CONSUMER_TIME_LAG_MS_METRIC, pscConfigurationInternal
+        ).getMax());
+    }
+
+    @Test
+    void testHandlesResolveAgainAfterCleanup() {
+        PscCounterHandle counterHandle = pscMetricRegistryManager.getCounterHandle(
+                topicUri, 0, PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGES_METRIC, pscConfigurationInternal
+        );
+        counterHandle.increment();
+        assertEquals(1, pscMetricRegistryManager.getCounterMetric(
+                topicUri, 0, PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGES_METRIC, pscConfigurationInternal
+        ));
+
+        // registries are dropped; the handle must report to the new registry rather than the dropped one
+        MetricsUtils.resetMetrics(pscMetricRegistryManager);
+        counterHandle.increment();
+        assertEquals(1, pscMetricRegistryManager.getCounterMetric(
+                topicUri, 0, PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGES_METRIC, pscConfigurationInternal
+        ));
+    }
+
+    @Test
+    void testHandlesAreNoOpWhenReportingIsDisabled() {
+        PscCounterHandle counterHandle = pscMetricRegistryManager.getCounterHandle(
+                topicUri, 0, PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGES_METRIC, getPscConfigurationInternal(false)
+        );
+        counterHandle.increment();
+        assertEquals(0, pscMetricRegistryManager.getCounterMetric(
+                topicUri, 0, PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGES_METRIC, pscConfigurationInternal
+        ));
+    }
+
+    @Test
+    void testHandleCache() {
+        PscMetricHandleCache<PscCounterHandle> cache = new PscMetricHandleCache<>(
+                (topicUri, partition) -> pscMetricRegistryManager.getCounterHandle(
+                        topicUri, partition, PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGES_METRIC, pscConfigurationInternal
+                )
+        );
+
+        PscCounterHandle partition5 = cache.get(topicUri, 5);
+        assertSame(partition5, cache.get(topicUri, 5));
+        assertNotSame(partition5, cache.get(topicUri, 1));
+        assertSame(partition5, cache.get(topicUri, 5));
+        assertSame(cache.get(topicUri, PscUtils.NO_PARTITION), cache.get(topicUri, PscUtils.NO_PARTITION));
+        assertSame(cache.get(null, PscUtils.NO_PARTITION), cache.get(null, PscUtils.NO_PARTITION));
+
+        cache.get(topicUri, 5).increment();
+        cache.get(topicUri, 1).increment();
+        cache.get(topicUri, 5).increment();
+        assertEquals(2, pscMetricRegistryManager.getCounterMetric(
+                topicUri, 5, PscMetrics.PSC_PRODUCER_PRODUCE_MESSAGES_METRIC, pscConfigurationInternal
+        ));
+    }
+
+    private static PscConfigurationInternal getPscConfigurationInternal(boolean reportingEnabled) {
+        PscConfigurationInternal pscConfigurationInternal = mock(PscConfigurationInternal.class);
+        when(pscConfigurationInternal.getClientType()).thenReturn(PscConfiguration.PSC_CLIENT_TYPE_PRODUCER);
+        when(pscConfigurationInternal.getConfiguration()).thenReturn(new PscConfiguration());
+        when(pscConfigurationInternal.getEnvironment()).thenReturn(mock(Environment.class));
+        when(pscConfigurationInternal.getMetricsReporterConfiguration()).thenReturn(new MetricsReporterConfiguration(
+                reportingEnabled, TestUtils.DEFAULT_METRICS_REPORTER, 10, "host001", 9999, 30000
+        ));
+        return pscConfigurationInternal;
+    }
+}
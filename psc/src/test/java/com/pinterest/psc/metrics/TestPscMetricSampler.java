@@ -0,0 +1,145 @@
+package com.pinterest.psc.metrics;
+
+import com.codahale.metrics.Snapshot;
+import com.pinterest.psc.common.PscUtils;
+import com.pinterest.psc.common.TestUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.kafka.KafkaTopicUri;
+import com.pinterest.psc.config.MetricsReporterConfiguration;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.environment.Environment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestPscMetricSampler {
+    private static final String topicUriStr =
+            "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":kafka:env:cloud_region::cluster:topic";
+
+    private final PscMetricRegistryManager pscMetricRegistryManager = PscMetricRegistryManager.getInstance();
+    private PscConfigurationInternal pscConfigurationInternal;
+
+    @AfterEach
+    void cleanup() {
+        if (pscConfigurationInternal == null)
+            return;
+        MetricsUtils.resetMetrics(pscMetricRegistryManager);
+        MetricsUtils.shutdownMetrics(pscMetricRegistryManager, pscConfigurationInternal);
+    }
+
+    @Test
+    void testDeterministicSampling() {
+        PscMetricSampler sampler = new PscMetricSampler(10, false);
+        assertTrue(sampler.isSampling());
+        long totalWeight = 0;
+        for (int i = 0; i < 1000; ++i) {
+            long weight = sampler.sample();
+            assertEquals(i % 10 == 0 ? 10 : 0, weight);
+            totalWeight += weight;
+        }
+        assertEquals(1000, totalWeight);
+    }
+
+    @Test
+    void testRandomSampling() {
+        PscMetricSampler sampler = new PscMetricSampler(10, true);
+        int sampled = 0;
+        for (int i = 0; i < 100000; ++i) {
+            long weight = sampler.sample();
+            if (weight > 0) {
+                assertEquals(10, weight);
+                ++sampled;
+            }
+        }
+        // one in ten on average; far beyond any reasonable deviation otherwise
+        assertTrue(sampled > 9000 && sampled < 11000, "Unexpected number of samples: " + sampled);
+    }
+
+    @Test
+    void testUnsampledByDefault() {
+        PscConfigurationInternal unsampledConfiguration = mock(PscConfigurationInternal.class);
+        when(unsampledConfiguration.getMetricsReporterConfiguration()).thenReturn(new MetricsReporterConfiguration(
+                true, TestUtils.DEFAULT_METRICS_REPORTER, 10, "host001", 9999, 30000
+        ));
+        PscMetricSampler sampler = PscMetricSampler.create(unsampledConfiguration);
+        assertFalse(sampler.isSampling());
+        for (int i = 0; i < 10; ++i)
+            assertEquals(1, sampler.sample());
+    }
+
+    @Test
+    void testCountersStayExactAndHistogramsAreWeighted() throws Exception {
+        initialize(PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR_LOG_BUCKETED, 4);
+        TopicUri topicUri = KafkaTopicUri.validate(TopicUri.validate(topicUriStr));
+        PscMetricSampler sampler = PscMetricSampler.create(pscConfigurationInternal);
+        PscSampledCounter messages = sampler.counter(pscMetricRegistryManager.getCounterHandle(
+                topicUri, 0, PscMetrics.PSC_CONSUMER_POLL_MESSAGES_METRIC, pscConfigurationInternal
+        ));
+        PscHistogramHandle valueSize = pscMetricRegistryManager.getHistogramHandle(
+                topicUri, 0, PscMetrics.PSC_CONSUMER_POLL_MESSAGE_VALUE_SIZE_BYTES_METRIC, pscConfigurationInternal
+        );
+
+        for (int i = 0; i < 10; ++i) {
+            messages.increment();
+            long weight = sampler.sample();
+            if (weight > 0) {
+                messages.flush();
+                valueSize.update(100, weight);
+            }
+        }
+        // messages since the last sampled one are pending until the next sample or flush
+        assertEquals(9, getCount(topicUri, PscMetrics.PSC_CONSUMER_POLL_MESSAGES_METRIC));
+        messages.flush();
+        assertEquals(10, getCount(topicUri, PscMetrics.PSC_CONSUMER_POLL_MESSAGES_METRIC));
+
+        // three sampled messages, each standing for four
+        assertEquals(12, pscMetricRegistryManager.getMetricRegistry(
+                topicUri, 0, PscMetrics.PSC_CONSUMER_POLL_MESSAGE_VALUE_SIZE_BYTES_METRIC, pscConfigurationInternal
+        ).histogram(PscMetrics.PSC_CONSUMER_POLL_MESSAGE_VALUE_SIZE_BYTES_METRIC).getCount());
+        Snapshot snapshot = pscMetricRegistryManager.getHistogramMetric(
+                topicUri, 0, PscMetrics.PSC_CONSUMER_POLL_MESSAGE_VALUE_SIZE_BYTES_METRIC, pscConfigurationInternal
+        );
+        assertEquals(12, snapshot.size());
+        assertEquals(100, snapshot.getMean(), 0);
+    }
+
+    @Test
+    void testUnsampledCountersUpdateDirectly() throws Exception {
+        initialize(PscConfiguration.PSC_METRICS_HISTOGRAM_RESERVOIR_SLIDING_TIME_WINDOW, 1);
+        TopicUri topicUri = KafkaTopicUri.validate(TopicUri.validate(topicUriStr));
+        PscMetricSampler sampler = PscMetricSampler.create(pscConfigurationInternal);
+        PscSampledCounter messages = sampler.counter(pscMetricRegistryManager.getCounterHandle(
+                topicUri, PscUtils.NO_PARTITION, PscMetrics.PSC_CONSUMER_POLL_MESSAGES_METRIC, pscConfigurationInternal
+        ));
+        messages.increment();
+        messages.increment();
+        assertEquals(2, pscMetricRegistryManager.getCounterMetric(
+                topicUri, PscMetrics.PSC_CONSUMER_POLL_MESSAGES_METRIC, pscConfigurationInternal
+        ));
+    }
+
+    private void initialize(String histogramReservoir, int samplingInterval) {
+        pscConfigurationInternal = mock(PscConfigurationInternal.class);
+        when(pscConfigurationInternal.getClientType()).thenReturn(PscConfiguration.PSC_CLIENT_TYPE_CONSUMER);
+        when(pscConfigurationInternal.getConfiguration()).thenReturn(new PscConfiguration());
+        when(pscConfigurationInternal.getEnvironment()).thenReturn(mock(Environment.class));
+        when(pscConfigurationInternal.getMetricsReporterConfiguration()).thenReturn(new MetricsReporterConfiguration(
+                true, TestUtils.DEFAULT_METRICS_REPORTER, 10, "host001", 9999, 30000, histogramReservoir, -1, -1,
+                samplingInterval, PscConfiguration.PSC_METRICS_SAMPLING_MODE_DETERMINISTIC
+        ));
+        PscMetricTagManager pscMetricTagManager = PscMetricTagManager.getInstance();
+        pscMetricRegistryManager.setPscMetricTagManager(pscMetricTagManager);
+        pscMetricTagManager.initializePscMetricTagManager(pscConfigurationInternal);
+        pscMetricRegistryManager.initialize(pscConfigurationInternal);
+    }
+
+    private long getCount(TopicUri topicUri, String metricKey) {
+        return pscMetricRegistryManager.getCounterMetric(topicUri, 0, metricKey, pscConfigurationInternal);
+    }
+}
@@ -0,0 +1,71 @@
+package com.pinterest.psc.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPscMetricsReportingScheduler {
+
+    @Test
+    void testTasksRunPeriodicallyUntilCancelled() throws InterruptedException {
+        PscMetricsReportingScheduler scheduler = new PscMetricsReportingScheduler();
+        List<AtomicInteger> runCounts = new ArrayList<>();
+        List<PscMetricsReportingScheduler.ReportingTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            AtomicInteger runCount = new AtomicInteger();
+            runCounts.add(runCount);
+            tasks.add(scheduler.schedule("task" + i, runCount::incrementAndGet, 200));
+        }
+        assertEquals(50, scheduler.getTaskCount());
+
+        Thread.sleep(1500);
+        for (AtomicInteger runCount : runCounts) {
+            // five to seven periods have passed, depending on the initial offset and jitter
+            assertTrue(runCount.get() >= 4 && runCount.get() <= 8, "Unexpected number of runs: " + runCount.get());
+        }
+
+        tasks.forEach(PscMetricsReportingScheduler.ReportingTask::cancel);
+        assertEquals(0, scheduler.getTaskCount());
+        Thread.sleep(200);
+        int[] countsAfterCancel = runCounts.stream().mapToInt(AtomicInteger::get).toArray();
+        Thread.sleep(500);
+        for (int i = 0; i < runCounts.size(); ++i)
+            assertEquals(countsAfterCancel[i], runCounts.get(i).get());
+    }
+
+    @Test
+    void testFailingTaskKeepsRunning() throws InterruptedException {
+        PscMetricsReportingScheduler scheduler = new PscMetricsReportingScheduler();
+        AtomicInteger runCount = new AtomicInteger();
+        PscMetricsReportingScheduler.ReportingTask task = scheduler.schedule("failing", () -> {
+            runCount.incrementAndGet();
+            throw new RuntimeException("expected");
+        }, 100);
+
+        Thread.sleep(700);
+        task.cancel();
+        assertTrue(runCount.get() >= 3, "Unexpected number of runs: " + runCount.get());
+    }
+
+    @Test
+    void testWorkPerTickIsBounded() {
+        PscMetricsReportingScheduler scheduler = new PscMetricsReportingScheduler();
+        List<PscMetricsReportingScheduler.ReportingTask> tasks = new ArrayList<>();
+        assertEquals(PscMetricsReportingScheduler.MIN_TASKS_PER_TICK, scheduler.getTasksPerTickBudget());
+
+        // 2000 tasks reporting every 10 seconds are expected to become due at 20 per tick
+        for (int i = 0; i < 2000; ++i)
+            tasks.add(scheduler.schedule("task" + i, () -> { }, 10000));
+        assertEquals(41, scheduler.getTasksPerTickBudget());
+
+        tasks.forEach(PscMetricsReportingScheduler.ReportingTask::cancel);
+        assertEquals(PscMetricsReportingScheduler.MIN_TASKS_PER_TICK, scheduler.getTasksPerTickBudget());
+        assertThrows(IllegalArgumentException.class, () -> scheduler.schedule("invalid", () -> { }, 0));
+    }
+}
@@ -1,5 +1,6 @@
 package com.pinterest.psc.producer;
 
+import com.pinterest.psc.common.TopicUriPartition;
 import com.pinterest.psc.interceptor.Interceptors;
 import com.pinterest.psc.metrics.PscMetricRegistryManager;
 import com.pinterest.psc.producer.creation.PscProducerCreatorManager;
@@ -17,4 +18,8 @@ public class PscProducerUtils {
     public static Interceptors getInterceptors(PscProducer pscProducer) {
         return pscProducer.getInterceptors();
     }
+
+    public static <K, V> PscProducerMessage<K, V> setTopicUriPartition(PscProducerMessage<K, V> pscProducerMessage, TopicUriPartition topicUriPartition) {
+        return pscProducerMessage.setTopicUriPartition(topicUriPartition);
+    }
 }
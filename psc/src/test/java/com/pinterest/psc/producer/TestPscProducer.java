@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableMap;
 import com.pinterest.psc.common.TestTopicUri;
 import com.pinterest.psc.common.TestUtils;
 import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
 import com.pinterest.psc.common.kafka.KafkaTopicUri;
 import com.pinterest.psc.config.PscConfiguration;
 import com.pinterest.psc.exception.ExceptionMessage;
@@ -19,11 +20,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -209,4 +214,36 @@ public class TestPscProducer extends TestPscProducerBase {
         assertNull(pscProducer.getPartitions(nonExistingTopicUriString));
         pscProducer.close();
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWarmUp() throws Exception {
+        TopicUri topicUri0 = TopicUri.validate(testTopics.get(0));
+        TopicUri testTopicUri0 = TestTopicUri.validate(topicUri0);
+        TopicUri topicUri1 = TopicUri.validate(testTopics.get(1));
+        TopicUri testTopicUri1 = TestTopicUri.validate(topicUri1);
+
+        when(creator.validateBackendTopicUri(topicUri0)).thenReturn(testTopicUri0);
+        when(creator.validateBackendTopicUri(topicUri1)).thenReturn(testTopicUri1);
+
+        PscKafkaProducer<String, String> backendProducer = mock(PscKafkaProducer.class);
+        when(creator.getProducer(any(), any(), any(), any())).thenReturn(backendProducer);
+        when(backendProducer.getPartitions(testTopicUri0))
+                .thenReturn(Collections.singleton(new TopicUriPartition(testTopics.get(0), 0)));
+        when(backendProducer.getPartitions(testTopicUri1)).thenThrow(new ProducerException("metadata fetch failed"));
+
+        Map<String, Boolean> readiness = pscProducer.warmUp(testTopics.subList(0, 2), Duration.ofSeconds(10));
+        assertEquals(2, readiness.size());
+        assertTrue(readiness.get(testTopics.get(0)));
+        assertFalse(readiness.get(testTopics.get(1)));
+
+        // the warmed up backend producer is reused by later sends
+        PscProducerMessage<String, String> message = getTestMessage(keysList.get(0), valuesList.get(0), testTopics.get(0));
+        pscProducer.send(message);
+        verify(creator, times(1)).getProducer(any(), any(), any(), any());
+        verify(backendProducer, times(1)).send(message, null);
+
+        pscProducer.close();
+        assertThrows(ProducerException.class, () -> pscProducer.warmUp(testTopics, Duration.ofSeconds(1)));
+    }
 }
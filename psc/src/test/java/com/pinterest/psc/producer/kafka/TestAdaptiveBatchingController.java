@@ -0,0 +1,135 @@
+package com.pinterest.psc.producer.kafka;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestAdaptiveBatchingController {
+    private static final int BUFFER_TOTAL_BYTES = 1000000;
+
+    @Test
+    void testLingerGrowsUntilBatchesFill() {
+        AdaptiveBatchingController controller = new AdaptiveBatchingController(100, 50, 65536, 0, 16384, 0);
+
+        // plenty of latency headroom and half-full batches, but messages are buffered
+        assertFalse(evaluate(controller, getMetrics(8192, 10, 10, BUFFER_TOTAL_BYTES / 2)));
+        assertEquals(5, controller.getLingerMs());
+        // the new setting is held until the producer is quiet
+        assertFalse(evaluate(controller, getMetrics(8192, 10, 10, BUFFER_TOTAL_BYTES / 2)));
+        assertEquals(5, controller.getLingerMs());
+        assertTrue(evaluate(controller, getMetrics(8192, 10, 10, BUFFER_TOTAL_BYTES)));
+        assertEquals(5, controller.getLingerMs());
+        assertEquals(16384, controller.getBatchSizeBytes());
+
+        // full batches grow the batch size instead, up to its bound
+        assertTrue(evaluate(controller, getMetrics(16000, 10, 10, BUFFER_TOTAL_BYTES)));
+        assertEquals(32768, controller.getBatchSizeBytes());
+        assertTrue(evaluate(controller, getMetrics(32000, 10, 10, BUFFER_TOTAL_BYTES)));
+        assertFalse(evaluate(controller, getMetrics(64000, 10, 10, BUFFER_TOTAL_BYTES)));
+        assertEquals(65536, controller.getBatchSizeBytes());
+        assertEquals(5, controller.getLingerMs());
+    }
+
+    @Test
+    void testBatchingShrinksAboveLatencyTarget() {
+        AdaptiveBatchingController controller = new AdaptiveBatchingController(100, 50, 65536, 40, 65536, 0);
+
+        assertTrue(evaluate(controller, getMetrics(1000, 80, 40, BUFFER_TOTAL_BYTES)));
+        assertEquals(20, controller.getLingerMs());
+        for (int i = 0; i < 5; ++i)
+            evaluate(controller, getMetrics(1000, 80, 40, BUFFER_TOTAL_BYTES));
+        assertEquals(0, controller.getLingerMs());
+        assertEquals(65536, controller.getBatchSizeBytes());
+
+        // once linger is at its lower bound the batch size is reduced, down to its lower bound
+        assertTrue(evaluate(controller, getMetrics(1000, 80, 40, BUFFER_TOTAL_BYTES)));
+        assertEquals(32768, controller.getBatchSizeBytes());
+        for (int i = 0; i < 5; ++i)
+            evaluate(controller, getMetrics(1000, 80, 40, BUFFER_TOTAL_BYTES));
+        assertEquals(AdaptiveBatchingController.MIN_BATCH_SIZE_BYTES, controller.getBatchSizeBytes());
+
+        // within the target but without enough headroom nothing changes
+        assertFalse(evaluate(controller, getMetrics(1000, 50, 40, BUFFER_TOTAL_BYTES)));
+    }
+
+    @Test
+    void testNoChangesWithoutMetrics() {
+        AdaptiveBatchingController controller = new AdaptiveBatchingController(100, 50, 65536, 500, 16384, 0);
+        // initial values are moved into bounds
+        assertEquals(50, controller.getLingerMs());
+
+        assertFalse(evaluate(controller, Collections.emptyMap()));
+        assertFalse(evaluate(controller, getMetrics(Double.NaN, Double.NaN, Double.NaN, BUFFER_TOTAL_BYTES)));
+        assertEquals(50, controller.getLingerMs());
+        assertEquals(16384, controller.getBatchSizeBytes());
+    }
+
+    @Test
+    void testAdjustmentsAreRateLimited() {
+        AdaptiveBatchingController controller = new AdaptiveBatchingController(100, 50, 65536, 0, 16384, 60000);
+        controller.markApplied(1000);
+
+        // a new setting is computed, but not applied by its own before the minimum interval passes
+        assertFalse(controller.evaluate(getMetrics(8192, 10, 10, BUFFER_TOTAL_BYTES), 2000));
+        assertEquals(5, controller.getLingerMs());
+        assertTrue(controller.evaluate(getMetrics(8192, 10, 10, BUFFER_TOTAL_BYTES), 61000));
+
+        // a setting applied along with a reset of the backend producer restarts the interval
+        assertFalse(controller.evaluate(getMetrics(8192, 10, 10, BUFFER_TOTAL_BYTES), 62000));
+        assertEquals(10, controller.getLingerMs());
+        controller.markApplied(70000);
+        assertFalse(controller.evaluate(getMetrics(8192, 10, 10, BUFFER_TOTAL_BYTES), 125000));
+        assertEquals(15, controller.getLingerMs());
+        assertTrue(controller.evaluate(getMetrics(8192, 10, 10, BUFFER_TOTAL_BYTES), 130000));
+    }
+
+    @Test
+    void testProducerIsQuietWithLittleBufferInUse() {
+        AdaptiveBatchingController controller = new AdaptiveBatchingController(100, 50, 65536, 0, 16384, 0);
+        double quietBufferAvailableBytes = BUFFER_TOTAL_BYTES * (1 - AdaptiveBatchingController.QUIET_BUFFER_USED_RATIO);
+
+        assertFalse(evaluate(controller, getMetrics(8192, 10, 10, quietBufferAvailableBytes - 1)));
+        assertTrue(evaluate(controller, getMetrics(8192, 10, 10, quietBufferAvailableBytes)));
+    }
+
+    private static boolean evaluate(AdaptiveBatchingController controller, Map<MetricName, Metric> metrics) {
+        return controller.evaluate(metrics, System.currentTimeMillis());
+    }
+
+    private static Map<MetricName, Metric> getMetrics(
+            double batchSizeAvg, double queueTimeMax, double requestLatencyMax, double bufferAvailableBytes
+    ) {
+        Map<MetricName, Metric> metrics = new HashMap<>();
+        addMetric(metrics, AdaptiveBatchingController.BATCH_SIZE_AVG, batchSizeAvg);
+        addMetric(metrics, AdaptiveBatchingController.RECORD_QUEUE_TIME_MAX, queueTimeMax);
+        addMetric(metrics, AdaptiveBatchingController.REQUEST_LATENCY_MAX, requestLatencyMax);
+        addMetric(metrics, AdaptiveBatchingController.BUFFER_AVAILABLE_BYTES, bufferAvailableBytes);
+        addMetric(metrics, AdaptiveBatchingController.BUFFER_TOTAL_BYTES, BUFFER_TOTAL_BYTES);
+        // topic level metrics of the same name are not considered
+        Metric topicMetric = mock(Metric.class);
+        when(topicMetric.metricValue()).thenReturn(Double.MAX_VALUE);
+        metrics.put(new MetricName(
+                AdaptiveBatchingController.RECORD_QUEUE_TIME_MAX, AdaptiveBatchingController.PRODUCER_METRICS_GROUP,
+                "", Collections.singletonMap("topic", "topic")
+        ), topicMetric);
+        return metrics;
+    }
+
+    private static void addMetric(Map<MetricName, Metric> metrics, String name, double value) {
+        Metric metric = mock(Metric.class);
+        when(metric.metricValue()).thenReturn(value);
+        metrics.put(new MetricName(
+                name, AdaptiveBatchingController.PRODUCER_METRICS_GROUP, "", Collections.emptyMap()
+        ), metric);
+    }
+}
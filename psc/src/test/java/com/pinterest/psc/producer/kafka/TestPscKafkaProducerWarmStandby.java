@@ -0,0 +1,189 @@
+package com.pinterest.psc.producer.kafka;
+
+import com.pinterest.psc.common.BaseTopicUri;
+import com.pinterest.psc.common.ServiceDiscoveryConfig;
+import com.pinterest.psc.common.TestUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.common.kafka.KafkaTopicUri;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.environment.Environment;
+import com.pinterest.psc.interceptor.ProducerInterceptors;
+import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetricTagManager;
+import com.pinterest.psc.producer.PscProducerMessage;
+import com.pinterest.psc.producer.PscProducerUtils;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.NotLeaderForPartitionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests swapping in a standby Kafka producer while sends of the replaced Kafka producer are in flight.
+ */
+public class TestPscKafkaProducerWarmStandby {
+    private static final String topicUriStr = "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":kafka:env:cloud_region::cluster:topic";
+
+    private PscKafkaProducer<byte[], byte[]> pscKafkaProducer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        PscConfiguration pscConfiguration = new PscConfiguration();
+        pscConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_CLIENT_ID, "client-id");
+        pscConfiguration.setProperty(PscConfiguration.PSC_CONFIG_LOGGING_ENABLED, "false");
+        pscConfiguration.setProperty(PscConfiguration.PSC_METRICS_REPORTER_CLASS, TestUtils.DEFAULT_METRICS_REPORTER);
+        PscConfigurationInternal pscConfigurationInternal =
+                new PscConfigurationInternal(pscConfiguration, PscConfiguration.PSC_CLIENT_TYPE_PRODUCER);
+        PscMetricRegistryManager.getInstance().setPscMetricTagManager(PscMetricTagManager.getInstance());
+        PscMetricTagManager.getInstance().initializePscMetricTagManager(pscConfigurationInternal);
+        PscMetricRegistryManager.getInstance().initialize(pscConfigurationInternal);
+
+        pscKafkaProducer = new PscKafkaProducer<>();
+        pscKafkaProducer.initialize(
+                pscConfigurationInternal,
+                new ServiceDiscoveryConfig().setConnect("localhost:9092").setSecurityProtocol("PLAINTEXT"),
+                mock(Environment.class),
+                KafkaTopicUri.validate(TopicUri.validate(topicUriStr))
+        );
+        ProducerInterceptors<byte[], byte[]> producerInterceptors = mock(ProducerInterceptors.class);
+        when(producerInterceptors.onSend(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        pscKafkaProducer.setProducerInterceptors(producerInterceptors);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pscKafkaProducer.close(Duration.ofMillis(100));
+    }
+
+    @Test
+    void testReplacedProducerIsClosedOnceItsSendsComplete() throws Exception {
+        Queue<Callback> previousCallbacks = new ConcurrentLinkedQueue<>();
+        KafkaProducer<byte[], byte[]> previousKafkaProducer = mockKafkaProducer(previousCallbacks);
+        pscKafkaProducer.swapInKafkaProducer(previousKafkaProducer);
+        pscKafkaProducer.send(getMessage(), null);
+        assertEquals(1, previousCallbacks.size());
+
+        Queue<Callback> readyCallbacks = new ConcurrentLinkedQueue<>();
+        KafkaProducer<byte[], byte[]> readyKafkaProducer = mockKafkaProducer(readyCallbacks);
+        pscKafkaProducer.swapInKafkaProducer(readyKafkaProducer);
+        assertFalse(pscKafkaProducer.allProducers.get(previousKafkaProducer));
+
+        // the replaced producer is not closed while its send is in flight
+        pscKafkaProducer.send(getMessage(), null);
+        assertEquals(1, readyCallbacks.size());
+        verify(previousKafkaProducer, never()).close(any(Duration.class));
+
+        // the in-flight send fails with an error that resets the producer, and is retried with the new producer
+        previousCallbacks.poll().onCompletion(null, new NotLeaderForPartitionException("not leader"));
+        assertEquals(2, readyCallbacks.size());
+        verify(previousKafkaProducer, never()).close(any(Duration.class));
+
+        // the next send closes the drained producer
+        pscKafkaProducer.send(getMessage(), null);
+        verify(previousKafkaProducer, times(1)).close(any(Duration.class));
+        assertFalse(pscKafkaProducer.allProducers.containsKey(previousKafkaProducer));
+        assertFalse(pscKafkaProducer.references.containsKey(previousKafkaProducer));
+        verify(readyKafkaProducer, never()).close(any(Duration.class));
+    }
+
+    @Test
+    void testSwapsWhileSendsAreInFlight() throws Exception {
+        Queue<Callback> callbacks = new ConcurrentLinkedQueue<>();
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        List<KafkaProducer<byte[], byte[]>> kafkaProducers = new ArrayList<>();
+        kafkaProducers.add(mockKafkaProducer(callbacks));
+        pscKafkaProducer.swapInKafkaProducer(kafkaProducers.get(0));
+
+        AtomicBoolean sending = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int j = 0; j < 200; ++j)
+                        pscKafkaProducer.send(getMessage(), null);
+                } catch (Throwable t) {
+                    errors.add(t);
+                }
+            }));
+        }
+        // acks sends out of order with respect to the swaps
+        Thread acker = new Thread(() -> {
+            RecordMetadata recordMetadata = new RecordMetadata(new TopicPartition("topic", 0), 0, 0, 0, 0L, 0, 0);
+            while (sending.get() || !callbacks.isEmpty()) {
+                Callback callback = callbacks.poll();
+                try {
+                    if (callback != null)
+                        callback.onCompletion(recordMetadata, null);
+                } catch (Throwable t) {
+                    errors.add(t);
+                }
+            }
+        });
+        threads.forEach(Thread::start);
+        acker.start();
+
+        for (int i = 0; i < 5; ++i) {
+            Thread.sleep(10);
+            KafkaProducer<byte[], byte[]> readyKafkaProducer = mockKafkaProducer(callbacks);
+            kafkaProducers.add(readyKafkaProducer);
+            pscKafkaProducer.swapInKafkaProducer(readyKafkaProducer);
+        }
+        for (Thread thread : threads)
+            thread.join();
+        sending.set(false);
+        acker.join();
+        pscKafkaProducer.send(getMessage(), null);
+        callbacks.forEach(callback -> callback.onCompletion(null, null));
+
+        assertTrue(errors.isEmpty(), () -> "Unexpected errors: " + errors);
+        // each replaced producer is closed exactly once, and the current one is still open
+        for (int i = 0; i < kafkaProducers.size() - 1; ++i)
+            verify(kafkaProducers.get(i), times(1)).close(any(Duration.class));
+        verify(kafkaProducers.get(kafkaProducers.size() - 1), never()).close(any(Duration.class));
+        assertEquals(1, pscKafkaProducer.allProducers.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KafkaProducer<byte[], byte[]> mockKafkaProducer(Queue<Callback> callbacks) {
+        KafkaProducer<byte[], byte[]> kafkaProducer = mock(KafkaProducer.class);
+        when(kafkaProducer.send(any(ProducerRecord.class), any(Callback.class))).thenAnswer(invocation -> {
+            callbacks.add(invocation.getArgument(1));
+            return new CompletableFuture<RecordMetadata>();
+        });
+        return kafkaProducer;
+    }
+
+    private static PscProducerMessage<byte[], byte[]> getMessage() throws Exception {
+        TopicUri topicUri = KafkaTopicUri.validate(TopicUri.validate(topicUriStr));
+        TopicUriPartition topicUriPartition = new TopicUriPartition(topicUriStr, 0);
+        BaseTopicUri.finalizeTopicUriPartition(topicUriPartition, topicUri);
+        return PscProducerUtils.setTopicUriPartition(
+                new PscProducerMessage<>(topicUriStr, "value".getBytes()), topicUriPartition
+        );
+    }
+}
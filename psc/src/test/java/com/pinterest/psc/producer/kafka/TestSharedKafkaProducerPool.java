@@ -0,0 +1,164 @@
+package com.pinterest.psc.producer.kafka;
+
+import com.pinterest.psc.common.ServiceDiscoveryConfig;
+import com.pinterest.psc.common.TestUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.kafka.KafkaTopicUri;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.environment.Environment;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class TestSharedKafkaProducerPool {
+    private static final String topicUriStr = "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":kafka:env:cloud_region::cluster:topic";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLeases() {
+        SharedKafkaProducerPool pool = new SharedKafkaProducerPool();
+        Object holder1 = new Object();
+        Object holder2 = new Object();
+
+        KafkaProducer<byte[], byte[]> kafkaProducer = pool.acquire("key", holder1, () -> mock(KafkaProducer.class));
+        assertSame(kafkaProducer, pool.acquire("key", holder2, () -> mock(KafkaProducer.class)));
+        assertNotSame(kafkaProducer, pool.acquire("other-key", holder1, () -> mock(KafkaProducer.class)));
+        assertEquals(2, pool.getLeaseCount(kafkaProducer));
+        assertTrue(pool.isPrimaryHolder(kafkaProducer, holder1));
+        assertFalse(pool.isPrimaryHolder(kafkaProducer, holder2));
+        assertEquals(Arrays.asList(holder1, holder2), pool.getHolders(kafkaProducer));
+
+        assertFalse(pool.release(kafkaProducer, holder1));
+        // releasing the same lease twice has no effect
+        assertFalse(pool.release(kafkaProducer, holder1));
+        assertTrue(pool.isPrimaryHolder(kafkaProducer, holder2));
+        assertTrue(pool.release(kafkaProducer, holder2));
+        assertEquals(0, pool.getLeaseCount(kafkaProducer));
+
+        // the producer was closed with its last lease, so a new one is created
+        assertNotSame(kafkaProducer, pool.acquire("key", holder1, () -> mock(KafkaProducer.class)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInvalidate() {
+        SharedKafkaProducerPool pool = new SharedKafkaProducerPool();
+        Object holder1 = new Object();
+        Object holder2 = new Object();
+
+        KafkaProducer<byte[], byte[]> kafkaProducer = pool.acquire("key", holder1, () -> mock(KafkaProducer.class));
+        pool.invalidate("key", kafkaProducer);
+        KafkaProducer<byte[], byte[]> newKafkaProducer = pool.acquire("key", holder2, () -> mock(KafkaProducer.class));
+        assertNotSame(kafkaProducer, newKafkaProducer);
+
+        // invalidating an already replaced producer does not affect its replacement
+        pool.invalidate("key", kafkaProducer);
+        assertSame(newKafkaProducer, pool.acquire("key", holder1, () -> mock(KafkaProducer.class)));
+        assertEquals(1, pool.getLeaseCount(kafkaProducer));
+        assertTrue(pool.release(kafkaProducer, holder1));
+        assertEquals(2, pool.getLeaseCount(newKafkaProducer));
+    }
+
+    @Test
+    void testSharedBackendProducers() throws Exception {
+        PscConfigurationInternal pscConfigurationInternal = getPscConfigurationInternal(true, false);
+        TopicUri topicUri = KafkaTopicUri.validate(TopicUri.validate(topicUriStr));
+
+        PscKafkaProducer<byte[], byte[]> pscKafkaProducer1 = new PscKafkaProducer<>();
+        PscKafkaProducer<byte[], byte[]> pscKafkaProducer2 = new PscKafkaProducer<>();
+        pscKafkaProducer1.initialize(pscConfigurationInternal, getServiceDiscoveryConfig(), mock(Environment.class), topicUri);
+        pscKafkaProducer2.initialize(pscConfigurationInternal, getServiceDiscoveryConfig(), mock(Environment.class), topicUri);
+
+        KafkaProducer<byte[], byte[]> kafkaProducer = pscKafkaProducer1.getKafkaProducer();
+        assertSame(kafkaProducer, pscKafkaProducer2.getKafkaProducer());
+        assertEquals(2, SharedKafkaProducerPool.getInstance().getLeaseCount(kafkaProducer));
+
+        pscKafkaProducer1.close(Duration.ofMillis(100));
+        assertEquals(1, SharedKafkaProducerPool.getInstance().getLeaseCount(kafkaProducer));
+        pscKafkaProducer2.close(Duration.ofMillis(100));
+        assertEquals(0, SharedKafkaProducerPool.getInstance().getLeaseCount(kafkaProducer));
+    }
+
+    @Test
+    void testSharedBackendProducerKeyDoesNotExposeConfiguration() throws Exception {
+        PscConfiguration pscConfiguration = getPscConfiguration(true, false);
+        pscConfiguration.setProperty("psc.producer.ssl.key.password", "secret-password");
+        PscConfigurationInternal pscConfigurationInternal =
+                new PscConfigurationInternal(pscConfiguration, PscConfiguration.PSC_CLIENT_TYPE_PRODUCER);
+        TopicUri topicUri = KafkaTopicUri.validate(TopicUri.validate(topicUriStr));
+
+        PscKafkaProducer<byte[], byte[]> pscKafkaProducer = new PscKafkaProducer<>();
+        pscKafkaProducer.initialize(pscConfigurationInternal, getServiceDiscoveryConfig(), mock(Environment.class), topicUri);
+        assertFalse(pscKafkaProducer.getSharedKafkaProducerKey().contains("secret-password"));
+        pscKafkaProducer.close(Duration.ofMillis(100));
+    }
+
+    @Test
+    void testResetSharedBackendProducer() throws Exception {
+        PscConfigurationInternal pscConfigurationInternal = getPscConfigurationInternal(true, false);
+        TopicUri topicUri = KafkaTopicUri.validate(TopicUri.validate(topicUriStr));
+
+        PscKafkaProducer<byte[], byte[]> pscKafkaProducer1 = new PscKafkaProducer<>();
+        PscKafkaProducer<byte[], byte[]> pscKafkaProducer2 = new PscKafkaProducer<>();
+        pscKafkaProducer1.initialize(pscConfigurationInternal, getServiceDiscoveryConfig(), mock(Environment.class), topicUri);
+        pscKafkaProducer2.initialize(pscConfigurationInternal, getServiceDiscoveryConfig(), mock(Environment.class), topicUri);
+        KafkaProducer<byte[], byte[]> kafkaProducer = pscKafkaProducer1.getKafkaProducer();
+
+        // the reset producer leases a new shared producer that is used right away
+        pscKafkaProducer1.resetBackendClient();
+        KafkaProducer<byte[], byte[]> newKafkaProducer = pscKafkaProducer1.getKafkaProducer();
+        assertNotSame(kafkaProducer, newKafkaProducer);
+        assertTrue(pscKafkaProducer1.allProducers.get(newKafkaProducer));
+        assertEquals(1, SharedKafkaProducerPool.getInstance().getLeaseCount(kafkaProducer));
+        assertEquals(1, SharedKafkaProducerPool.getInstance().getLeaseCount(newKafkaProducer));
+
+        pscKafkaProducer1.close(Duration.ofMillis(100));
+        pscKafkaProducer2.close(Duration.ofMillis(100));
+    }
+
+    @Test
+    void testTransactionalBackendProducersAreNotShared() throws Exception {
+        PscConfigurationInternal pscConfigurationInternal = getPscConfigurationInternal(true, true);
+        TopicUri topicUri = KafkaTopicUri.validate(TopicUri.validate(topicUriStr));
+
+        PscKafkaProducer<byte[], byte[]> pscKafkaProducer1 = new PscKafkaProducer<>();
+        PscKafkaProducer<byte[], byte[]> pscKafkaProducer2 = new PscKafkaProducer<>();
+        pscKafkaProducer1.initialize(pscConfigurationInternal, getServiceDiscoveryConfig(), mock(Environment.class), topicUri);
+        pscKafkaProducer2.initialize(pscConfigurationInternal, getServiceDiscoveryConfig(), mock(Environment.class), topicUri);
+
+        assertNotSame(pscKafkaProducer1.getKafkaProducer(), pscKafkaProducer2.getKafkaProducer());
+        assertEquals(0, SharedKafkaProducerPool.getInstance().getLeaseCount(pscKafkaProducer1.getKafkaProducer()));
+
+        pscKafkaProducer1.close(Duration.ofMillis(100));
+        pscKafkaProducer2.close(Duration.ofMillis(100));
+    }
+
+    private PscConfigurationInternal getPscConfigurationInternal(boolean shared, boolean transactional) throws Exception {
+        return new PscConfigurationInternal(getPscConfiguration(shared, transactional), PscConfiguration.PSC_CLIENT_TYPE_PRODUCER);
+    }
+
+    private PscConfiguration getPscConfiguration(boolean shared, boolean transactional) {
+        PscConfiguration pscConfiguration = new PscConfiguration();
+        pscConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_CLIENT_ID, "client-id");
+        pscConfiguration.setProperty(PscConfiguration.PSC_CONFIG_LOGGING_ENABLED, "false");
+        pscConfiguration.setProperty(PscConfiguration.PSC_METRICS_REPORTER_CLASS, TestUtils.DEFAULT_METRICS_REPORTER);
+        pscConfiguration.setProperty(PscConfiguration.PSC_SHARED_BACKEND_PRODUCER_ENABLED, String.valueOf(shared));
+        if (transactional)
+            pscConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_TRANSACTIONAL_ID, "transactional-id");
+        return pscConfiguration;
+    }
+
+    private ServiceDiscoveryConfig getServiceDiscoveryConfig() {
+        return new ServiceDiscoveryConfig().setConnect("localhost:9092").setSecurityProtocol("PLAINTEXT");
+    }
+}
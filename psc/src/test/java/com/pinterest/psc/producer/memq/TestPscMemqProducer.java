@@ -0,0 +1,241 @@
+package com.pinterest.psc.producer.memq;
+
+import com.codahale.metrics.MetricRegistry;
+import com.pinterest.memq.client.producer.MemqWriteResult;
+import com.pinterest.memq.client.producer2.MemqProducer;
+import com.pinterest.psc.common.BaseTopicUri;
+import com.pinterest.psc.common.MessageId;
+import com.pinterest.psc.common.PscUtils;
+import com.pinterest.psc.common.ServiceDiscoveryConfig;
+import com.pinterest.psc.common.TestUtils;
+import com.pinterest.psc.common.TopicUri;
+import com.pinterest.psc.common.TopicUriPartition;
+import com.pinterest.psc.config.PscConfiguration;
+import com.pinterest.psc.config.PscConfigurationInternal;
+import com.pinterest.psc.consumer.memq.MemqTopicUri;
+import com.pinterest.psc.environment.Environment;
+import com.pinterest.psc.exception.producer.ProducerException;
+import com.pinterest.psc.interceptor.ProducerInterceptors;
+import com.pinterest.psc.metrics.PscMetricRegistryManager;
+import com.pinterest.psc.metrics.PscMetricTagManager;
+import com.pinterest.psc.metrics.PscMetrics;
+import com.pinterest.psc.producer.PscProducerMessage;
+import com.pinterest.psc.producer.PscProducerUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the MemQ backend producer against mocked MemQ producers; see the integration test of the same name for the
+ * real MemQ write path.
+ */
+public class TestPscMemqProducer {
+    private static final String topicUriPrefix = "plaintext:" + TopicUri.SEPARATOR + TopicUri.STANDARD + ":memq:env:cloud_region::cluster:";
+
+    // a stand-in for MemQ storage: writes are buffered per topic and persisted (and acked) on flush
+    private final Map<String, List<byte[]>> storage = new ConcurrentHashMap<>();
+    private final Map<String, List<CompletableFuture<MemqWriteResult>>> pendingWrites = new ConcurrentHashMap<>();
+    private final Map<String, MemqProducer<byte[], byte[]>> memqProducers = new ConcurrentHashMap<>();
+    private final AtomicReference<Exception> writeFailure = new AtomicReference<>();
+    private PscConfigurationInternal pscConfigurationInternal;
+    private PscMemqProducer<byte[], byte[]> pscMemqProducer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        PscConfiguration pscConfiguration = new PscConfiguration();
+        pscConfiguration.setProperty(PscConfiguration.PSC_PRODUCER_CLIENT_ID, "client-id");
+        pscConfiguration.setProperty(PscConfiguration.PSC_CONFIG_LOGGING_ENABLED, "false");
+        pscConfiguration.setProperty(PscConfiguration.PSC_METRICS_REPORTER_CLASS, TestUtils.DEFAULT_METRICS_REPORTER);
+        pscConfigurationInternal = new PscConfigurationInternal(pscConfiguration, PscConfiguration.PSC_CLIENT_TYPE_PRODUCER);
+        PscMetricRegistryManager.getInstance().setPscMetricTagManager(PscMetricTagManager.getInstance());
+        PscMetricTagManager.getInstance().initializePscMetricTagManager(pscConfigurationInternal);
+        PscMetricRegistryManager.getInstance().initialize(pscConfigurationInternal);
+
+        pscMemqProducer = new PscMemqProducer<byte[], byte[]>() {
+            @Override
+            protected MemqProducer<byte[], byte[]> createMemqProducer(String topic, MetricRegistry metricRegistry) throws Exception {
+                return getStandInMemqProducer(topic);
+            }
+        };
+        pscMemqProducer.initialize(
+                pscConfigurationInternal,
+                new ServiceDiscoveryConfig().setConnect("localhost:9092"),
+                mock(Environment.class),
+                getTopicUri("topic1")
+        );
+
+        ProducerInterceptors<byte[], byte[]> producerInterceptors = mock(ProducerInterceptors.class);
+        when(producerInterceptors.onSend(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        pscMemqProducer.setProducerInterceptors(producerInterceptors);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pscMemqProducer.close(Duration.ofSeconds(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private MemqProducer<byte[], byte[]> getStandInMemqProducer(String topic) throws Exception {
+        MemqProducer<byte[], byte[]> memqProducer = mock(MemqProducer.class);
+        storage.put(topic, new ArrayList<>());
+        pendingWrites.put(topic, new ArrayList<>());
+        when(memqProducer.write(any(), any(), any(), anyLong())).thenAnswer(invocation -> {
+            CompletableFuture<MemqWriteResult> future = new CompletableFuture<>();
+            synchronized (storage) {
+                storage.get(topic).add(invocation.getArgument(2));
+                pendingWrites.get(topic).add(future);
+            }
+            return future;
+        });
+        doAnswer(invocation -> {
+            List<CompletableFuture<MemqWriteResult>> futures;
+            synchronized (storage) {
+                futures = new ArrayList<>(pendingWrites.get(topic));
+                pendingWrites.get(topic).clear();
+            }
+            for (CompletableFuture<MemqWriteResult> future : futures) {
+                if (writeFailure.get() == null)
+                    future.complete(new MemqWriteResult(0, 0, 0, 0));
+                else
+                    future.completeExceptionally(writeFailure.get());
+            }
+            return null;
+        }).when(memqProducer).flush();
+        memqProducers.put(topic, memqProducer);
+        return memqProducer;
+    }
+
+    private static TopicUri getTopicUri(String topic) throws Exception {
+        return MemqTopicUri.validate(TopicUri.validate(topicUriPrefix + topic));
+    }
+
+    private static PscProducerMessage<byte[], byte[]> getMessage(String topic, String value) throws Exception {
+        TopicUri topicUri = getTopicUri(topic);
+        PscProducerMessage<byte[], byte[]> pscProducerMessage =
+                new PscProducerMessage<>(topicUri.getTopicUriAsString(), value.getBytes());
+        pscProducerMessage.setHeader("header", "header".getBytes());
+        TopicUriPartition topicUriPartition = new TopicUriPartition(topicUri.getTopicUriAsString());
+        BaseTopicUri.finalizeTopicUriPartition(topicUriPartition, topicUri);
+        return PscProducerUtils.setTopicUriPartition(pscProducerMessage, topicUriPartition);
+    }
+
+    private long getBackendCounterMetric(String topic, String metric) throws Exception {
+        return PscMetricRegistryManager.getInstance().getBackendCounterMetric(
+                getTopicUri(topic), PscUtils.NO_PARTITION, metric, pscConfigurationInternal
+        );
+    }
+
+    @Test
+    void testSendIsAckedOnFlush() throws Exception {
+        long sendAttempts = getBackendCounterMetric("topic1", PscMetrics.PSC_PRODUCER_BACKEND_SEND_ATTEMPT_COUNT);
+        long ackedMessages = getBackendCounterMetric("topic1", PscMetrics.PSC_PRODUCER_ACKED_MESSAGES_METRIC);
+        List<MessageId> ackedMessageIds = Collections.synchronizedList(new ArrayList<>());
+        List<Future<MessageId>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            futures.add(pscMemqProducer.send(getMessage("topic1", "value" + i), (messageId, exception) -> {
+                assertNull(exception);
+                ackedMessageIds.add(messageId);
+            }));
+        }
+
+        // writes are batched until flushed, and only then acked
+        assertEquals(3, storage.get("topic1").size());
+        futures.forEach(future -> assertFalse(future.isDone()));
+        assertEquals(sendAttempts + 3, getBackendCounterMetric("topic1", PscMetrics.PSC_PRODUCER_BACKEND_SEND_ATTEMPT_COUNT));
+        assertEquals(ackedMessages, getBackendCounterMetric("topic1", PscMetrics.PSC_PRODUCER_ACKED_MESSAGES_METRIC));
+
+        pscMemqProducer.flush();
+        for (int i = 0; i < 3; ++i) {
+            MessageId messageId = futures.get(i).get();
+            assertEquals("topic1", messageId.getTopicUriPartition().getTopicUri().getTopic());
+            assertArrayEquals(("value" + i).getBytes(), storage.get("topic1").get(i));
+        }
+        assertEquals(3, ackedMessageIds.size());
+        assertEquals(ackedMessages + 3, getBackendCounterMetric("topic1", PscMetrics.PSC_PRODUCER_ACKED_MESSAGES_METRIC));
+        verify(memqProducers.get("topic1"), times(3)).write(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void testFailedWrite() throws Exception {
+        long ackedMessages = getBackendCounterMetric("topic1", PscMetrics.PSC_PRODUCER_ACKED_MESSAGES_METRIC);
+        IllegalStateException failure = new IllegalStateException("write failed");
+        writeFailure.set(failure);
+        AtomicReference<Exception> callbackException = new AtomicReference<>();
+        Future<MessageId> future = pscMemqProducer.send(getMessage("topic1", "value"), (messageId, exception) -> callbackException.set(exception));
+
+        pscMemqProducer.flush();
+        ExecutionException executionException = assertThrows(ExecutionException.class, future::get);
+        assertSame(failure, executionException.getCause());
+        assertSame(failure, callbackException.get());
+        assertEquals(ackedMessages, getBackendCounterMetric("topic1", PscMetrics.PSC_PRODUCER_ACKED_MESSAGES_METRIC));
+    }
+
+    @Test
+    void testMemqProducerIsCreatedLazilyPerTopic() throws Exception {
+        // no MemQ producer is created until a topic is written to
+        assertTrue(pscMemqProducer.memqProducerByTopic.isEmpty());
+
+        pscMemqProducer.send(getMessage("topic1", "value1"), null);
+        pscMemqProducer.send(getMessage("topic2", "value2"), null);
+        pscMemqProducer.send(getMessage("topic2", "value3"), null);
+
+        assertEquals(2, pscMemqProducer.memqProducerByTopic.size());
+        assertSame(memqProducers.get("topic2"), pscMemqProducer.memqProducerByTopic.get("topic2"));
+        assertEquals(1, storage.get("topic1").size());
+        assertEquals(2, storage.get("topic2").size());
+        assertEquals(1, pscMemqProducer.getPartitions(getTopicUri("topic2")).size());
+        assertEquals(2, pscMemqProducer.memqProducerByTopic.size());
+    }
+
+    @Test
+    void testWakeupFailsPendingWrites() throws Exception {
+        AtomicReference<Exception> callbackException = new AtomicReference<>();
+        Future<MessageId> future = pscMemqProducer.send(getMessage("topic1", "value"), (messageId, exception) -> callbackException.set(exception));
+
+        pscMemqProducer.wakeup();
+        ExecutionException executionException = assertThrows(ExecutionException.class, future::get);
+        assertTrue(executionException.getCause() instanceof ProducerException);
+        assertSame(executionException.getCause(), callbackException.get());
+    }
+
+    @Test
+    void testTransactionsAreNotSupported() throws Exception {
+        assertThrows(ProducerException.class, () -> pscMemqProducer.initTransaction());
+        assertThrows(ProducerException.class, () -> pscMemqProducer.beginTransaction());
+        assertThrows(ProducerException.class, () -> pscMemqProducer.commitTransaction());
+        assertThrows(ProducerException.class, () -> pscMemqProducer.abortTransaction());
+        assertThrows(ProducerException.class, () -> pscMemqProducer.sendOffsetsToTransaction(Collections.emptyMap(), "group"));
+        assertThrows(ProducerException.class, () -> pscMemqProducer.getTransactionalProperties());
+        // rejected transactional calls do not create MemQ producers
+        assertTrue(pscMemqProducer.memqProducerByTopic.isEmpty());
+        memqProducers.values().forEach(memqProducer -> verify(memqProducer, never()).flush());
+    }
+}